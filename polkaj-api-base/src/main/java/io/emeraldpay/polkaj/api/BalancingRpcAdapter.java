@@ -0,0 +1,542 @@
+package io.emeraldpay.polkaj.api;
+
+import io.emeraldpay.polkaj.json.SystemHealthJson;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * Adapter which distributes calls between several upstream adapters (i.e., connections to different nodes).
+ * <br>
+ * Each call is sent to the upstream with the lowest number of outstanding requests, or with the lowest latency
+ * weighted by outstanding requests, see {@link Routing}. An upstream is ejected after several consecutive failures
+ * (a timeout, a connection error or an internal server error), and it's periodically probed with <code>system_health</code>
+ * until it becomes healthy again. If all upstreams are ejected the calls are still sent to one of them.
+ * <br>
+ * With hedging enabled, a read call that doesn't get a response after the specified delay, or failed because of the
+ * upstream, is sent to another upstream as well, and the first successful response is used.
+ *
+ * <pre><code>
+ * BalancingRpcAdapter adapter = BalancingRpcAdapter.newBuilder()
+ *     .upstream(JavaHttpAdapter.newBuilder().connectTo("http://10.0.1.20:9933").build())
+ *     .upstream(JavaHttpAdapter.newBuilder().connectTo("http://10.0.1.21:9933").build())
+ *     .timeout(Duration.ofSeconds(10))
+ *     .hedge(Duration.ofMillis(500))
+ *     .build();
+ * PolkadotApi api = PolkadotApi.newBuilder()
+ *     .rpcCallAdapter(adapter)
+ *     .build();
+ * </code></pre>
+ *
+ * If the upstreams are {@link SubscriptionAdapter} the adapter can be used for subscriptions too. A subscription is
+ * made with the best upstream at the moment and stays with it.
+ */
+public class BalancingRpcAdapter implements SubscriptionAdapter {
+
+    private static final double LATENCY_WEIGHT = 0.2;
+
+    private final List<Upstream> upstreams;
+    private final Routing routing;
+    private final Duration timeout;
+    private final int ejectAfter;
+    private final Duration probeInterval;
+    private final Duration hedgeDelay;
+    private final Predicate<String> hedgeable;
+    private final Predicate<Throwable> upstreamFailure;
+
+    private final ScheduledThreadPoolExecutor scheduler;
+    private final AtomicInteger next = new AtomicInteger(0);
+    private volatile boolean closed = false;
+
+    private BalancingRpcAdapter(List<RpcCallAdapter> adapters, Routing routing, Duration timeout, int ejectAfter, Duration probeInterval,
+                                Duration hedgeDelay, Predicate<String> hedgeable, Predicate<Throwable> upstreamFailure) {
+        List<Upstream> upstreams = new ArrayList<>(adapters.size());
+        for (RpcCallAdapter adapter: adapters) {
+            upstreams.add(new Upstream(adapter));
+        }
+        this.upstreams = Collections.unmodifiableList(upstreams);
+        this.routing = routing;
+        this.timeout = timeout;
+        this.ejectAfter = ejectAfter;
+        this.probeInterval = probeInterval;
+        this.hedgeDelay = hedgeDelay;
+        this.hedgeable = hedgeable;
+        this.upstreamFailure = upstreamFailure;
+        this.scheduler = new ScheduledThreadPoolExecutor(1, (r) -> {
+            Thread thread = new Thread(r, "polkaj-balancer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * @return current state of the upstreams, in the original order
+     */
+    public List<Upstream> getUpstreams() {
+        return upstreams;
+    }
+
+    @Override
+    public <T> CompletableFuture<T> produceRpcFuture(RpcCall<T> call) {
+        if (closed) {
+            CompletableFuture<T> future = new CompletableFuture<>();
+            future.completeExceptionally(new IllegalStateException("Client is already closed"));
+            return future;
+        }
+        boolean hedge = hedgeDelay != null && upstreams.size() > 1 && hedgeable.test(call.getMethod());
+        Request<T> request = new Request<>(call, hedge);
+        request.start(select(null, false));
+        if (hedge && !request.result.isDone()) {
+            try {
+                ScheduledFuture<?> timer = scheduler.schedule(request::hedge, hedgeDelay.toNanos(), TimeUnit.NANOSECONDS);
+                request.result.whenComplete((ignore, t) -> timer.cancel(false));
+            } catch (RejectedExecutionException e) {
+                // closed
+            }
+        }
+        return request.result;
+    }
+
+    @Override
+    public <T> CompletableFuture<Subscription<T>> subscribe(SubscribeCall<T> call) {
+        Upstream upstream = closed ? null : select(null, true);
+        if (upstream == null) {
+            CompletableFuture<Subscription<T>> future = new CompletableFuture<>();
+            future.completeExceptionally(new IllegalStateException(
+                    closed ? "Client is already closed" : "No upstream supports subscriptions"
+            ));
+            return future;
+        }
+        return ((SubscriptionAdapter) upstream.adapter).subscribe(call);
+    }
+
+    /**
+     * Find the best upstream
+     *
+     * @param exclude upstream to skip, or null
+     * @param subscription if true selects only a SubscriptionAdapter
+     * @return best upstream, or null if there is no upstream to use
+     */
+    private Upstream select(Upstream exclude, boolean subscription) {
+        int size = upstreams.size();
+        // start with a different upstream each time, so equal upstreams get equal load
+        int offset = Math.floorMod(next.getAndIncrement(), size);
+        Upstream best = null;
+        double bestScore = 0;
+        boolean bestEjected = true;
+        for (int i = 0; i < size; i++) {
+            Upstream upstream = upstreams.get((offset + i) % size);
+            if (upstream == exclude || (subscription && !(upstream.adapter instanceof SubscriptionAdapter))) {
+                continue;
+            }
+            boolean ejected = upstream.ejected;
+            double score = score(upstream);
+            if (best == null || (bestEjected && !ejected) || (bestEjected == ejected && score < bestScore)) {
+                best = upstream;
+                bestScore = score;
+                bestEjected = ejected;
+            }
+        }
+        return best;
+    }
+
+    private double score(Upstream upstream) {
+        int outstanding = upstream.outstanding.get();
+        switch (routing) {
+            case LATENCY:
+                return (upstream.getLatency() + 1.0) * (outstanding + 1);
+            case LEAST_OUTSTANDING:
+            default:
+                return outstanding;
+        }
+    }
+
+    private <T> CompletableFuture<T> send(Upstream upstream, RpcCall<T> call) {
+        upstream.outstanding.incrementAndGet();
+        long start = System.nanoTime();
+        CompletableFuture<T> result = withTimeout(produce(upstream, call));
+        return result.whenComplete((value, t) -> {
+            upstream.outstanding.decrementAndGet();
+            if (t == null || !upstreamFailure.test(unwrap(t))) {
+                // the node responded, even if it's an error
+                upstream.success(System.nanoTime() - start);
+            } else {
+                failure(upstream);
+            }
+        });
+    }
+
+    private <T> CompletableFuture<T> produce(Upstream upstream, RpcCall<T> call) {
+        try {
+            return upstream.adapter.produceRpcFuture(call);
+        } catch (Throwable t) {
+            CompletableFuture<T> future = new CompletableFuture<>();
+            future.completeExceptionally(t);
+            return future;
+        }
+    }
+
+    private <T> CompletableFuture<T> withTimeout(CompletableFuture<T> source) {
+        if (timeout == null) {
+            return source;
+        }
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            ScheduledFuture<?> timer = scheduler.schedule(
+                    () -> result.completeExceptionally(new TimeoutException("No response in " + timeout.toMillis() + "ms")),
+                    timeout.toNanos(), TimeUnit.NANOSECONDS
+            );
+            result.whenComplete((ignore, t) -> timer.cancel(false));
+        } catch (RejectedExecutionException e) {
+            // closed
+        }
+        source.whenComplete((value, t) -> {
+            if (t != null) {
+                result.completeExceptionally(t);
+            } else {
+                result.complete(value);
+            }
+        });
+        return result;
+    }
+
+    private void failure(Upstream upstream) {
+        if (upstream.failures.incrementAndGet() >= ejectAfter && !upstream.ejected) {
+            synchronized (upstream) {
+                if (upstream.ejected) {
+                    return;
+                }
+                upstream.ejected = true;
+            }
+            scheduleProbe(upstream);
+        }
+    }
+
+    private void scheduleProbe(Upstream upstream) {
+        if (closed) {
+            return;
+        }
+        try {
+            scheduler.schedule(() -> probe(upstream), probeInterval.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            // closed
+        }
+    }
+
+    private void probe(Upstream upstream) {
+        if (closed) {
+            return;
+        }
+        withTimeout(produce(upstream, StandardCommands.getInstance().systemHealth()))
+                .whenComplete((health, t) -> {
+                    if (t == null && isHealthy(health)) {
+                        upstream.failures.set(0);
+                        upstream.ejected = false;
+                    } else {
+                        scheduleProbe(upstream);
+                    }
+                });
+    }
+
+    private static boolean isHealthy(SystemHealthJson health) {
+        if (health == null || Boolean.TRUE.equals(health.getSyncing())) {
+            return false;
+        }
+        return !Boolean.TRUE.equals(health.getShouldHavePeers()) || (health.getPeers() != null && health.getPeers() > 0);
+    }
+
+    private static Throwable unwrap(Throwable t) {
+        while ((t instanceof CompletionException || t instanceof ExecutionException) && t.getCause() != null) {
+            t = t.getCause();
+        }
+        return t;
+    }
+
+    /**
+     * Default check for a failure caused by the upstream and not by the call itself, i.e. any error except an RPC
+     * error returned by the node. An RPC error is considered as an upstream failure only for
+     * <code>-32603</code> (Internal error) and for <code>-32000</code> to <code>-32099</code> (Server error).
+     *
+     * @param t error
+     * @return true if the upstream failed
+     */
+    public static boolean isUpstreamFailure(Throwable t) {
+        if (!(t instanceof RpcException)) {
+            return true;
+        }
+        int code = ((RpcException) t).getCode();
+        return code == -32603 || (code <= -32000 && code >= -32099);
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        scheduler.shutdownNow();
+        Exception error = null;
+        for (Upstream upstream: upstreams) {
+            try {
+                upstream.adapter.close();
+            } catch (Exception e) {
+                error = e;
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    /**
+     * A single call, which may be sent to two upstreams if it's hedged
+     */
+    private class Request<T> {
+        private final RpcCall<T> call;
+        private final boolean hedge;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private final AtomicInteger running = new AtomicInteger(0);
+        private final AtomicBoolean hedged = new AtomicBoolean(false);
+        private volatile Upstream first;
+
+        Request(RpcCall<T> call, boolean hedge) {
+            this.call = call;
+            this.hedge = hedge;
+        }
+
+        void start(Upstream upstream) {
+            if (first == null) {
+                first = upstream;
+            }
+            running.incrementAndGet();
+            send(upstream, call).whenComplete(this::onResult);
+        }
+
+        /**
+         * Send the call to another upstream, if it's not sent yet
+         */
+        void hedge() {
+            if (result.isDone() || !hedged.compareAndSet(false, true)) {
+                return;
+            }
+            Upstream second = select(first, false);
+            if (second != null) {
+                start(second);
+            }
+        }
+
+        private void onResult(T value, Throwable t) {
+            if (t == null) {
+                result.complete(value);
+                return;
+            }
+            if (hedge && upstreamFailure.test(unwrap(t))) {
+                hedge();
+            }
+            if (running.decrementAndGet() == 0) {
+                result.completeExceptionally(unwrap(t));
+            }
+        }
+    }
+
+    /**
+     * Strategy to choose an upstream for a call
+     */
+    public enum Routing {
+        /**
+         * Upstream with the least number of requests waiting for a response
+         */
+        LEAST_OUTSTANDING,
+        /**
+         * Upstream with the lowest average latency, multiplied by the number of requests waiting for a response
+         */
+        LATENCY
+    }
+
+    /**
+     * State of an upstream adapter
+     */
+    public static class Upstream {
+        private final RpcCallAdapter adapter;
+        private final AtomicInteger outstanding = new AtomicInteger(0);
+        private final AtomicInteger failures = new AtomicInteger(0);
+        private volatile boolean ejected = false;
+        private double latency = 0;
+
+        Upstream(RpcCallAdapter adapter) {
+            this.adapter = adapter;
+        }
+
+        synchronized void success(long nanos) {
+            double millis = nanos / 1_000_000.0;
+            latency = latency == 0 ? millis : latency + LATENCY_WEIGHT * (millis - latency);
+            failures.set(0);
+        }
+
+        public RpcCallAdapter getAdapter() {
+            return adapter;
+        }
+
+        /**
+         * @return number of requests waiting for a response
+         */
+        public int getOutstanding() {
+            return outstanding.get();
+        }
+
+        /**
+         * @return exponentially weighted moving average of latency, in milliseconds
+         */
+        public synchronized double getLatency() {
+            return latency;
+        }
+
+        /**
+         * @return true if the upstream is considered unhealthy and not used until it responds to a health check
+         */
+        public boolean isEjected() {
+            return ejected;
+        }
+    }
+
+    public static class Builder {
+        private final List<RpcCallAdapter> upstreams = new ArrayList<>();
+        private Routing routing = Routing.LEAST_OUTSTANDING;
+        private Duration timeout;
+        private int ejectAfter = 3;
+        private Duration probeInterval = Duration.ofSeconds(5);
+        private Duration hedgeDelay;
+        private Predicate<String> hedgeable = (method) -> !method.startsWith("author_");
+        private Predicate<Throwable> upstreamFailure = BalancingRpcAdapter::isUpstreamFailure;
+
+        /**
+         * Add an upstream adapter
+         *
+         * @param adapter adapter
+         * @return builder
+         */
+        public Builder upstream(RpcCallAdapter adapter) {
+            this.upstreams.add(Objects.requireNonNull(adapter));
+            return this;
+        }
+
+        /**
+         * Strategy to choose an upstream. Default is {@link Routing#LEAST_OUTSTANDING}
+         *
+         * @param routing routing strategy
+         * @return builder
+         */
+        public Builder routing(Routing routing) {
+            this.routing = Objects.requireNonNull(routing);
+            return this;
+        }
+
+        /**
+         * Max time to wait for a response from an upstream. A timeout is counted as an upstream failure. By default
+         * there is no timeout.
+         *
+         * @param timeout timeout
+         * @return builder
+         */
+        public Builder timeout(Duration timeout) {
+            this.timeout = timeout;
+            return this;
+        }
+
+        /**
+         * Number of consecutive failures to eject an upstream. Default is 3
+         *
+         * @param failures number of failures
+         * @return builder
+         */
+        public Builder ejectAfter(int failures) {
+            if (failures <= 0) {
+                throw new IllegalArgumentException("Number of failures must be positive: " + failures);
+            }
+            this.ejectAfter = failures;
+            return this;
+        }
+
+        /**
+         * Interval between health checks of an ejected upstream. Default is 5 seconds
+         *
+         * @param interval interval
+         * @return builder
+         */
+        public Builder probeInterval(Duration interval) {
+            if (interval == null || interval.isNegative() || interval.isZero()) {
+                throw new IllegalArgumentException("Invalid probe interval: " + interval);
+            }
+            this.probeInterval = interval;
+            return this;
+        }
+
+        /**
+         * Send a call to another upstream if there is no response after the specified delay. By default
+         * hedging is disabled.
+         *
+         * @param delay delay before sending to another upstream
+         * @return builder
+         */
+        public Builder hedge(Duration delay) {
+            this.hedgeDelay = delay;
+            return this;
+        }
+
+        /**
+         * Methods which are safe to send to two upstreams. By default all methods except <code>author_*</code>
+         * (i.e., extrinsic submission and key management).
+         *
+         * @param hedgeable filter for method names
+         * @return builder
+         */
+        public Builder hedgeable(Predicate<String> hedgeable) {
+            this.hedgeable = Objects.requireNonNull(hedgeable);
+            return this;
+        }
+
+        /**
+         * Check if an error is caused by the upstream, and should be counted to eject it. By default it's
+         * {@link BalancingRpcAdapter#isUpstreamFailure(Throwable)}
+         *
+         * @param upstreamFailure filter for errors
+         * @return builder
+         */
+        public Builder upstreamFailure(Predicate<Throwable> upstreamFailure) {
+            this.upstreamFailure = Objects.requireNonNull(upstreamFailure);
+            return this;
+        }
+
+        /**
+         * Apply configuration and build adapter
+         *
+         * @return new instance of BalancingRpcAdapter
+         */
+        public BalancingRpcAdapter build() {
+            if (upstreams.isEmpty()) {
+                throw new IllegalStateException("No upstreams");
+            }
+            return new BalancingRpcAdapter(new ArrayList<>(upstreams), routing, timeout, ejectAfter, probeInterval,
+                    hedgeDelay, hedgeable, upstreamFailure);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package io.emeraldpay.polkaj.api;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import io.emeraldpay.polkaj.json.BlockJson;
+import io.emeraldpay.polkaj.json.BlockResponseJson;
+import io.emeraldpay.polkaj.json.ContractExecResultJson;
+import io.emeraldpay.polkaj.json.MethodsJson;
+import io.emeraldpay.polkaj.json.PeerJson;
+import io.emeraldpay.polkaj.json.ReadProofJson;
+import io.emeraldpay.polkaj.json.RuntimeDispatchInfoJson;
+import io.emeraldpay.polkaj.json.RuntimeVersionJson;
+import io.emeraldpay.polkaj.json.StorageChangeSetJson;
+import io.emeraldpay.polkaj.json.SystemHealthJson;
+import io.emeraldpay.polkaj.json.jackson.PolkadotModule;
+import io.emeraldpay.polkaj.types.ByteData;
+import io.emeraldpay.polkaj.types.Hash256;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of Jackson JavaTypes, ObjectReaders and ObjectWriters for an ObjectMapper. Jackson creates a new reader per
+ * <code>readerFor</code> call and looks up its deserializer each time, so the cache keeps prebuilt readers per type
+ * instead. The cache is thread-safe and should be shared by all coders with the same ObjectMapper.
+ * <br>
+ * The ObjectMapper must not be reconfigured after the cache is created, because existing readers and writers keep
+ * the previous configuration.
+ *
+ * @see #getDefault()
+ */
+public class JsonCache {
+
+    /**
+     * Result types of the standard commands and subscriptions
+     */
+    private static final List<Class<?>> STANDARD_TYPES = Arrays.asList(
+            Boolean.class, Integer.class, Long.class, String.class,
+            ByteData.class, Hash256.class,
+            BlockJson.Header.class, BlockResponseJson.class, ContractExecResultJson.class, MethodsJson.class,
+            PeerJson.class, ReadProofJson.class, RuntimeDispatchInfoJson.class, RuntimeVersionJson.class,
+            StorageChangeSetJson.class, SystemHealthJson.class
+    );
+    private static final List<Class<?>> STANDARD_LIST_TYPES = Arrays.asList(
+            String.class, ByteData.class, PeerJson.class, StorageChangeSetJson.class
+    );
+
+    private static volatile JsonCache defaultInstance;
+
+    private final ObjectMapper objectMapper;
+    private final ConcurrentHashMap<Class<?>, JavaType> types = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Class<?>, JavaType> listTypes = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<JavaType, ObjectReader> readers = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<JavaType, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+    public JsonCache(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Shared cache with the default ObjectMapper, i.e. a mapper with {@link PolkadotModule}, and with prebuilt readers for
+     * the standard commands. Used by the adapters when an ObjectMapper is not provided.
+     *
+     * @return default instance
+     */
+    public static JsonCache getDefault() {
+        JsonCache instance = defaultInstance;
+        if (instance == null) {
+            synchronized (JsonCache.class) {
+                instance = defaultInstance;
+                if (instance == null) {
+                    ObjectMapper objectMapper = new ObjectMapper();
+                    objectMapper.registerModule(new PolkadotModule());
+                    instance = new JsonCache(objectMapper);
+                    instance.prebuild();
+                    defaultInstance = instance;
+                }
+            }
+        }
+        return instance;
+    }
+
+    public ObjectMapper getObjectMapper() {
+        return objectMapper;
+    }
+
+    /**
+     * Build readers for the result types of the standard commands and subscriptions in advance
+     *
+     * @return this instance
+     * @see StandardCommands
+     * @see StandardSubscriptions
+     */
+    public JsonCache prebuild() {
+        for (Class<?> clazz: STANDARD_TYPES) {
+            readerFor(typeOf(clazz));
+        }
+        for (Class<?> clazz: STANDARD_LIST_TYPES) {
+            readerFor(listTypeOf(clazz));
+        }
+        return this;
+    }
+
+    /**
+     * @param clazz class
+     * @return JavaType for the class
+     */
+    public JavaType typeOf(Class<?> clazz) {
+        JavaType type = types.get(clazz);
+        if (type == null) {
+            type = types.computeIfAbsent(clazz, (c) -> objectMapper.getTypeFactory().constructType(c));
+        }
+        return type;
+    }
+
+    /**
+     * @param clazz class of the elements
+     * @return JavaType for a List of the class
+     */
+    public JavaType listTypeOf(Class<?> clazz) {
+        JavaType type = listTypes.get(clazz);
+        if (type == null) {
+            type = listTypes.computeIfAbsent(clazz, (c) -> objectMapper.getTypeFactory().constructCollectionLikeType(List.class, c));
+        }
+        return type;
+    }
+
+    /**
+     * Get the result type of the call. Same as {@link AbstractCall#getResultType(TypeFactory)}, but uses cached types for
+     * calls made with a Class
+     *
+     * @param call call
+     * @return JavaType for the result of the call
+     */
+    public JavaType resultType(AbstractCall<?> call) {
+        if (call.resultType != null) {
+            return call.resultType;
+        }
+        if (call.resultClazz == null) {
+            return call.getResultType(objectMapper.getTypeFactory());
+        }
+        if (call.list) {
+            return listTypeOf(call.resultClazz);
+        }
+        return typeOf(call.resultClazz);
+    }
+
+    /**
+     * @param type type
+     * @return reader for the type
+     */
+    public ObjectReader readerFor(JavaType type) {
+        ObjectReader reader = readers.get(type);
+        if (reader == null) {
+            reader = readers.computeIfAbsent(type, objectMapper::readerFor);
+        }
+        return reader;
+    }
+
+    /**
+     * @param clazz class
+     * @return reader for the class
+     */
+    public ObjectReader readerFor(Class<?> clazz) {
+        return readerFor(typeOf(clazz));
+    }
+
+    /**
+     * @param type type
+     * @return writer for the type
+     */
+    public ObjectWriter writerFor(JavaType type) {
+        ObjectWriter writer = writers.get(type);
+        if (writer == null) {
+            writer = writers.computeIfAbsent(type, objectMapper::writerFor);
+        }
+        return writer;
+    }
+
+    /**
+     * @param clazz class
+     * @return writer for the class
+     */
+    public ObjectWriter writerFor(Class<?> clazz) {
+        return writerFor(typeOf(clazz));
+    }
+}
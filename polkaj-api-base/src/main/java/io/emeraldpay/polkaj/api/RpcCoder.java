@@ -1,19 +1,41 @@
 package io.emeraldpay.polkaj.api;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
 
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 public class RpcCoder {
 
     private final ObjectMapper objectMapper;
+    private final JsonCache jsonCache;
     private final AtomicInteger id = new AtomicInteger(0);
 
     public RpcCoder(ObjectMapper objectMapper) {
-        this.objectMapper = objectMapper;
+        this(new JsonCache(objectMapper));
+    }
+
+    /**
+     * Coder with a shared cache of Jackson readers and writers
+     *
+     * @param jsonCache cache, which also provides the ObjectMapper
+     * @see JsonCache#getDefault()
+     */
+    public RpcCoder(JsonCache jsonCache) {
+        this.jsonCache = jsonCache;
+        this.objectMapper = jsonCache.getObjectMapper();
     }
 
     public int nextId() {
@@ -28,6 +50,20 @@ public class RpcCoder {
         return objectMapper;
     }
 
+    public JsonCache getJsonCache() {
+        return jsonCache;
+    }
+
+    /**
+     * Get the result type of the call, using cached types
+     *
+     * @param call call
+     * @return JavaType for the result of the call
+     */
+    public JavaType resultType(AbstractCall<?> call) {
+        return jsonCache.resultType(call);
+    }
+
     public JavaType responseType(JavaType resultType) {
         return objectMapper.getTypeFactory().constructType(resultType);
     }
@@ -47,20 +83,194 @@ public class RpcCoder {
      * @throws CompletionException with RpcException details to let executor know that the response is invalid
      */
     final public <T> T decode(int id, String content, JavaType clazz) {
-        JavaType type = objectMapper.getTypeFactory().constructParametricType(RpcResponse.class, clazz);
-        RpcResponse<T> response;
-        try {
-            response = objectMapper.readerFor(type).readValue(content);
-        } catch (JsonProcessingException e) {
-            throw new CompletionException(
-                    new RpcException(-32603, "Server returned invalid JSON", e)
-            );
+        try (JsonParser parser = objectMapper.getFactory().createParser(content)) {
+            return decode(id, parser, clazz);
+        } catch (IOException e) {
+            throw invalidJson(e);
+        }
+    }
+
+    /**
+     * Decode JSON RPC response
+     *
+     * @param id expected id
+     * @param content full JSON content as UTF-8 bytes
+     * @param clazz expected JavaType for the result field
+     * @param <T> returning type
+     * @return The decoded result
+     * @throws CompletionException with RpcException details to let executor know that the response is invalid
+     */
+    final public <T> T decode(int id, byte[] content, JavaType clazz) {
+        try (JsonParser parser = objectMapper.getFactory().createParser(content)) {
+            return decode(id, parser, clazz);
+        } catch (IOException e) {
+            throw invalidJson(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T decode(int id, JsonParser parser, JavaType clazz) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw invalidJson(null);
+        }
+        // the type is known in advance, so the result is always read directly
+        RpcResponse<T> response = (RpcResponse<T>) readResponse(parser, (ignore) -> clazz);
+        if (response == null) {
+            throw invalidJson(null);
         }
         if (id != response.getId()) {
             throw new CompletionException(
                     new RpcException(-32603, "Server returned invalid id: " + id + " != " + response.getId())
             );
         }
+        return getResult(response);
+    }
+
+    /**
+     * Decode JSON RPC response to a batch request, i.e. an array of responses.
+     *
+     * @param content full JSON content
+     * @param types expected JavaType for the result field per request id
+     * @return responses by id. Doesn't include responses with unknown id, and the server may skip some of the requests
+     * @throws CompletionException with RpcException details if the content is not a valid batch response,
+     * or the server rejected the whole batch
+     * @see #getResult(RpcResponse)
+     */
+    final public Map<Integer, RpcResponse<?>> decodeBatch(String content, Map<Integer, JavaType> types) {
+        try (JsonParser parser = objectMapper.getFactory().createParser(content)) {
+            return decodeBatch(parser, types);
+        } catch (IOException e) {
+            throw invalidJson(e);
+        }
+    }
+
+    /**
+     * Decode JSON RPC response to a batch request, i.e. an array of responses.
+     *
+     * @param content full JSON content as UTF-8 bytes
+     * @param types expected JavaType for the result field per request id
+     * @return responses by id. Doesn't include responses with unknown id, and the server may skip some of the requests
+     * @throws CompletionException with RpcException details if the content is not a valid batch response,
+     * or the server rejected the whole batch
+     * @see #getResult(RpcResponse)
+     */
+    final public Map<Integer, RpcResponse<?>> decodeBatch(byte[] content, Map<Integer, JavaType> types) {
+        try (JsonParser parser = objectMapper.getFactory().createParser(content)) {
+            return decodeBatch(parser, types);
+        } catch (IOException e) {
+            throw invalidJson(e);
+        }
+    }
+
+    private Map<Integer, RpcResponse<?>> decodeBatch(JsonParser parser, Map<Integer, JavaType> types) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.START_OBJECT) {
+            // a single response with an error for the whole batch
+            RpcResponse<?> response = readResponse(parser, (ignore) -> null);
+            if (response != null && response.getError() != null) {
+                throw new CompletionException(
+                        new RpcException(response.getError().getCode(),
+                                Objects.toString(response.getError().getMessage(), "Batch rejected"))
+                );
+            }
+        }
+        if (token != JsonToken.START_ARRAY) {
+            throw new CompletionException(
+                    new RpcException(-32603, "Server returned invalid JSON for batch request")
+            );
+        }
+        Map<Integer, RpcResponse<?>> result = new HashMap<>(types.size() * 4 / 3 + 1);
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token == null) {
+                throw invalidJson(null);
+            }
+            if (token != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            RpcResponse<?> response = readResponse(parser, types::get);
+            if (response != null) {
+                result.put(response.getId(), response);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Read a single response object, binding the result directly to the expected type. If the result goes before
+     * the id, which is required to find the type, the result is buffered first.
+     *
+     * @param parser parser positioned at the start of the object
+     * @param types type of the result for an id
+     * @return response, or null if it's a response for an unknown id
+     * @throws IOException if JSON is invalid
+     */
+    private RpcResponse<?> readResponse(JsonParser parser, Function<Integer, JavaType> types) throws IOException {
+        Integer id = null;
+        JavaType type = null;
+        Object value = null;
+        TokenBuffer buffered = null;
+        RpcResponseError error = null;
+        JsonToken token;
+        while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            if ("id".equals(field)) {
+                if (parser.currentToken() == JsonToken.VALUE_NUMBER_INT) {
+                    id = parser.getIntValue();
+                    type = types.apply(id);
+                }
+            } else if ("result".equals(field)) {
+                if (id == null) {
+                    buffered = TokenBuffer.asCopyOfValue(parser);
+                } else if (type != null) {
+                    value = readerFor(type).readValue(parser);
+                } else {
+                    parser.skipChildren();
+                }
+            } else if ("error".equals(field)) {
+                error = jsonCache.readerFor(RpcResponseError.class).readValue(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        if (token != JsonToken.END_OBJECT) {
+            throw invalidJson(null);
+        }
+        if (error != null && (id == null || type != null)) {
+            return new RpcResponse<>(id == null ? 0 : id, error);
+        }
+        if (id == null || type == null) {
+            return null;
+        }
+        if (buffered != null) {
+            try (JsonParser bufferedParser = buffered.asParser(objectMapper)) {
+                bufferedParser.nextToken();
+                value = readerFor(type).readValue(bufferedParser);
+            }
+        }
+        return new RpcResponse<>(id, value);
+    }
+
+    private ObjectReader readerFor(JavaType type) {
+        return jsonCache.readerFor(type);
+    }
+
+    private static CompletionException invalidJson(Exception e) {
+        return new CompletionException(
+                new RpcException(-32603, "Server returned invalid JSON", e)
+        );
+    }
+
+    /**
+     * Get the result of the response, or throw an error returned by the server
+     *
+     * @param response decoded response
+     * @param <T> returning type
+     * @return the result
+     * @throws CompletionException with RpcException details if the response has an error
+     */
+    public <T> T getResult(RpcResponse<T> response) {
         if (response.getError() != null) {
             throw new CompletionException(
                     new RpcException(response.getError().getCode(), response.getError().getMessage(), response.getError().getData())
@@ -79,6 +289,17 @@ public class RpcCoder {
      */
     final public <T> byte[] encode(int id, RpcCall<T> call) throws JsonProcessingException {
         RpcRequest request = new RpcRequest(id, call.getMethod(), call.getParams());
-        return objectMapper.writeValueAsBytes(request);
+        return jsonCache.writerFor(RpcRequest.class).writeValueAsBytes(request);
+    }
+
+    /**
+     * Encode multiple RPC requests as a single JSON RPC batch, i.e. an array of requests
+     *
+     * @param requests requests to encode, each must have a unique id
+     * @return full JSON of the batch
+     * @throws JsonProcessingException if cannot encode some of the params into JSON
+     */
+    final public byte[] encodeBatch(List<RpcRequest> requests) throws JsonProcessingException {
+        return jsonCache.writerFor(jsonCache.listTypeOf(RpcRequest.class)).writeValueAsBytes(requests);
     }
 }
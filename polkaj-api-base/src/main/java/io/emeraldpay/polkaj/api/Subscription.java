@@ -20,6 +20,30 @@ public interface Subscription<T> extends AutoCloseable {
      */
     void handler(Consumer<? extends Subscription.Event<? extends T>> handler);
 
+    /**
+     * Add handler called when some events could be missed, i.e. after the connection was lost and the subscription was
+     * made again with a new connection. The handler may be used to request the missed data directly.
+     * If handler added twice, a new handler replaces a previous one.
+     * <br>
+     * Default implementation ignores the handler, for a subscription that never misses events.
+     *
+     * @param handler handler for gaps in the events
+     */
+    default void gapHandler(Runnable handler) {
+    }
+
+    /**
+     * Add handler called when the subscription is terminated because of an error, e.g. when events cannot be delivered
+     * because the handler is too slow. After the error the subscription doesn't receive any events.
+     * If handler added twice, a new handler replaces a previous one.
+     * <br>
+     * Default implementation ignores the handler, for a subscription that never fails.
+     *
+     * @param handler handler for the error
+     */
+    default void errorHandler(Consumer<Throwable> handler) {
+    }
+
     /**
      * Unsubscribes from the current subscription (i.e., by calling the server with unsubscribe method).
      * @throws Exception if an unresolvable error happened
@@ -0,0 +1,346 @@
+package io.emeraldpay.polkaj.api
+
+import io.emeraldpay.polkaj.json.SystemHealthJson
+import spock.lang.Specification
+
+import java.time.Duration
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.TimeoutException
+
+class BalancingRpcAdapterSpec extends Specification {
+
+    static <T> CompletableFuture<T> failed(Throwable t) {
+        def f = new CompletableFuture<T>()
+        f.completeExceptionally(t)
+        return f
+    }
+
+    static SystemHealthJson health(boolean syncing, int peers) {
+        def health = new SystemHealthJson()
+        health.syncing = syncing
+        health.peers = peers
+        health.shouldHavePeers = true
+        return health
+    }
+
+    def "Route to upstream with least outstanding requests"() {
+        setup:
+        def a = Mock(RpcCallAdapter)
+        def b = Mock(RpcCallAdapter)
+        def adapter = BalancingRpcAdapter.newBuilder()
+                .upstream(a)
+                .upstream(b)
+                .build()
+        when:
+        adapter.produceRpcFuture(RpcCall.create(String, "test_1"))
+        adapter.produceRpcFuture(RpcCall.create(String, "test_2"))
+        adapter.produceRpcFuture(RpcCall.create(String, "test_3"))
+        then:
+        // first call goes to any of them, second to the other, and third to any
+        2 * a.produceRpcFuture(_) >> new CompletableFuture()
+        1 * b.produceRpcFuture(_) >> new CompletableFuture()
+        adapter.upstreams*.outstanding.sum() == 3
+        cleanup:
+        adapter.close()
+    }
+
+    def "Route to upstream with lower latency"() {
+        setup:
+        def a = Stub(RpcCallAdapter) {
+            produceRpcFuture(_) >> { CompletableFuture.supplyAsync({ Thread.sleep(50); "a" }) }
+        }
+        def b = Stub(RpcCallAdapter) {
+            produceRpcFuture(_) >> CompletableFuture.completedFuture("b")
+        }
+        def adapter = BalancingRpcAdapter.newBuilder()
+                .upstream(a)
+                .upstream(b)
+                .routing(BalancingRpcAdapter.Routing.LATENCY)
+                .build()
+        when:
+        // make a call to both to measure the latency
+        adapter.produceRpcFuture(RpcCall.create(String, "test")).get()
+        adapter.produceRpcFuture(RpcCall.create(String, "test")).get()
+        def act = (1..10).collect { adapter.produceRpcFuture(RpcCall.create(String, "test")).get() }
+        then:
+        adapter.upstreams[0].latency > adapter.upstreams[1].latency
+        act.every { it == "b" }
+        cleanup:
+        adapter.close()
+    }
+
+    def "Eject failed upstream"() {
+        setup:
+        def a = Mock(RpcCallAdapter)
+        def b = Mock(RpcCallAdapter)
+        def adapter = BalancingRpcAdapter.newBuilder()
+                .upstream(a)
+                .upstream(b)
+                .ejectAfter(2)
+                .probeInterval(Duration.ofMinutes(1))
+                .build()
+        when:
+        def results = (1..10).collect {
+            adapter.produceRpcFuture(RpcCall.create(String, "test")).handle { v, t -> v }.get()
+        }
+        then:
+        2 * a.produceRpcFuture(_) >> failed(new IOException("Connection refused"))
+        8 * b.produceRpcFuture(_) >> CompletableFuture.completedFuture("b")
+        adapter.upstreams[0].ejected
+        !adapter.upstreams[1].ejected
+        results.count { it == "b" } == 8
+        cleanup:
+        adapter.close()
+    }
+
+    def "Don't eject for an error returned by node"() {
+        setup:
+        def a = Stub(RpcCallAdapter) {
+            produceRpcFuture(_) >> failed(new RpcException(1010, "Invalid Transaction"))
+        }
+        def adapter = BalancingRpcAdapter.newBuilder()
+                .upstream(a)
+                .ejectAfter(1)
+                .build()
+        when:
+        adapter.produceRpcFuture(RpcCall.create(String, "test")).get()
+        then:
+        def t = thrown(ExecutionException)
+        t.cause instanceof RpcException
+        !adapter.upstreams[0].ejected
+        cleanup:
+        adapter.close()
+    }
+
+    def "Eject after timeout"() {
+        setup:
+        def a = Stub(RpcCallAdapter) {
+            produceRpcFuture(_) >> new CompletableFuture()
+        }
+        def adapter = BalancingRpcAdapter.newBuilder()
+                .upstream(a)
+                .timeout(Duration.ofMillis(50))
+                .ejectAfter(1)
+                .probeInterval(Duration.ofMinutes(1))
+                .build()
+        when:
+        adapter.produceRpcFuture(RpcCall.create(String, "test")).get(5, TimeUnit.SECONDS)
+        then:
+        def t = thrown(ExecutionException)
+        t.cause instanceof TimeoutException
+        adapter.upstreams[0].ejected
+        adapter.upstreams[0].outstanding == 0
+        cleanup:
+        adapter.close()
+    }
+
+    def "Use ejected upstream if there is no other"() {
+        setup:
+        def a = Mock(RpcCallAdapter)
+        def adapter = BalancingRpcAdapter.newBuilder()
+                .upstream(a)
+                .ejectAfter(1)
+                .probeInterval(Duration.ofMinutes(1))
+                .build()
+        when:
+        def first = adapter.produceRpcFuture(RpcCall.create(String, "test")).handle { v, t -> v }.get()
+        def second = adapter.produceRpcFuture(RpcCall.create(String, "test")).get()
+        then:
+        2 * a.produceRpcFuture(_) >>> [failed(new IOException("Connection refused")), CompletableFuture.completedFuture("a")]
+        first == null
+        second == "a"
+        cleanup:
+        adapter.close()
+    }
+
+    def "Return ejected upstream when it's healthy"() {
+        setup:
+        def healthy = [health(true, 5), health(false, 0), health(false, 5)]
+        def a = Stub(RpcCallAdapter) {
+            produceRpcFuture(_) >> { RpcCall call ->
+                if (call.method == PolkadotMethod.SYSTEM_HEALTH) {
+                    return CompletableFuture.completedFuture(healthy.remove(0))
+                }
+                return failed(new IOException("Connection refused"))
+            }
+        }
+        def adapter = BalancingRpcAdapter.newBuilder()
+                .upstream(a)
+                .ejectAfter(1)
+                .probeInterval(Duration.ofMillis(20))
+                .build()
+        when:
+        adapter.produceRpcFuture(RpcCall.create(String, "test")).handle { v, t -> v }.get()
+        then:
+        adapter.upstreams[0].ejected
+        when:
+        Thread.sleep(500)
+        then:
+        healthy.isEmpty()
+        !adapter.upstreams[0].ejected
+        cleanup:
+        adapter.close()
+    }
+
+    def "Hedge slow call to another upstream"() {
+        setup:
+        def calls = 0
+        def answer = {
+            // first called upstream is slow, and the second responds immediately
+            calls++ == 0 ? new CompletableFuture() : CompletableFuture.completedFuture("fast")
+        }
+        def a = Stub(RpcCallAdapter) {
+            produceRpcFuture(_) >> { answer() }
+        }
+        def b = Stub(RpcCallAdapter) {
+            produceRpcFuture(_) >> { answer() }
+        }
+        def adapter = BalancingRpcAdapter.newBuilder()
+                .upstream(a)
+                .upstream(b)
+                .hedge(Duration.ofMillis(50))
+                .build()
+        when:
+        def act = adapter.produceRpcFuture(RpcCall.create(String, "test")).get(5, TimeUnit.SECONDS)
+        then:
+        act == "fast"
+        calls == 2
+        cleanup:
+        adapter.close()
+    }
+
+    def "Hedge only once"() {
+        setup:
+        def a = Mock(RpcCallAdapter)
+        def b = Mock(RpcCallAdapter)
+        def adapter = BalancingRpcAdapter.newBuilder()
+                .upstream(a)
+                .upstream(b)
+                .hedge(Duration.ofMillis(20))
+                .build()
+        when:
+        def f = adapter.produceRpcFuture(RpcCall.create(String, "test"))
+        Thread.sleep(200)
+        then:
+        1 * a.produceRpcFuture(_) >> new CompletableFuture()
+        1 * b.produceRpcFuture(_) >> new CompletableFuture()
+        !f.isDone()
+        cleanup:
+        adapter.close()
+    }
+
+    def "Hedge failed call to another upstream"() {
+        setup:
+        def a = Stub(RpcCallAdapter) {
+            produceRpcFuture(_) >> failed(new IOException("Connection refused"))
+        }
+        def b = Stub(RpcCallAdapter) {
+            produceRpcFuture(_) >> CompletableFuture.completedFuture("b")
+        }
+        def adapter = BalancingRpcAdapter.newBuilder()
+                .upstream(a)
+                .upstream(b)
+                .hedge(Duration.ofMinutes(1))
+                .build()
+        when:
+        def act = (1..4).collect { adapter.produceRpcFuture(RpcCall.create(String, "test")).get(5, TimeUnit.SECONDS) }
+        then:
+        act == ["b", "b", "b", "b"]
+        cleanup:
+        adapter.close()
+    }
+
+    def "Don't hedge non-read calls"() {
+        setup:
+        def a = Mock(RpcCallAdapter)
+        def b = Mock(RpcCallAdapter)
+        def adapter = BalancingRpcAdapter.newBuilder()
+                .upstream(a)
+                .upstream(b)
+                .hedge(Duration.ofMillis(10))
+                .build()
+        when:
+        def f = adapter.produceRpcFuture(RpcCall.create(String, "author_submitExtrinsic", "0x00"))
+        Thread.sleep(100)
+        then:
+        1 * _.produceRpcFuture(_) >> new CompletableFuture()
+        !f.isDone()
+        cleanup:
+        adapter.close()
+    }
+
+    def "Subscribe with subscription adapter"() {
+        setup:
+        def a = Mock(RpcCallAdapter)
+        def b = Mock(SubscriptionAdapter)
+        def subscription = Mock(Subscription)
+        def adapter = BalancingRpcAdapter.newBuilder()
+                .upstream(a)
+                .upstream(b)
+                .build()
+        def call = SubscribeCall.create(String, "test_subscribe", "test_unsubscribe")
+        when:
+        def act = adapter.subscribe(call).get()
+        then:
+        1 * b.subscribe(call) >> CompletableFuture.completedFuture(subscription)
+        act == subscription
+        cleanup:
+        adapter.close()
+    }
+
+    def "Fail to subscribe without subscription adapter"() {
+        setup:
+        def adapter = BalancingRpcAdapter.newBuilder()
+                .upstream(Mock(RpcCallAdapter))
+                .build()
+        when:
+        adapter.subscribe(SubscribeCall.create(String, "test_subscribe", "test_unsubscribe")).get()
+        then:
+        def t = thrown(ExecutionException)
+        t.cause instanceof IllegalStateException
+        cleanup:
+        adapter.close()
+    }
+
+    def "Close all upstreams"() {
+        setup:
+        def a = Mock(RpcCallAdapter)
+        def b = Mock(RpcCallAdapter)
+        def adapter = BalancingRpcAdapter.newBuilder()
+                .upstream(a)
+                .upstream(b)
+                .build()
+        when:
+        adapter.close()
+        then:
+        1 * a.close()
+        1 * b.close()
+        when:
+        adapter.produceRpcFuture(RpcCall.create(String, "test")).get()
+        then:
+        def t = thrown(ExecutionException)
+        t.cause instanceof IllegalStateException
+    }
+
+    def "Detect upstream failures"() {
+        expect:
+        BalancingRpcAdapter.isUpstreamFailure(error) == exp
+        where:
+        error                                           | exp
+        new IOException()                               | true
+        new TimeoutException()                          | true
+        new RpcException(-32603, "Internal error")      | true
+        new RpcException(-32000, "Server error")        | true
+        new RpcException(-32601, "Method not found")    | false
+        new RpcException(1010, "Invalid Transaction")   | false
+    }
+
+    def "Fail to build without upstreams"() {
+        when:
+        BalancingRpcAdapter.newBuilder().build()
+        then:
+        thrown(IllegalStateException)
+    }
+}
@@ -0,0 +1,81 @@
+package io.emeraldpay.polkaj.api
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import io.emeraldpay.polkaj.json.BlockResponseJson
+import io.emeraldpay.polkaj.json.PeerJson
+import io.emeraldpay.polkaj.json.jackson.PolkadotModule
+import io.emeraldpay.polkaj.types.Hash256
+import spock.lang.Specification
+
+class JsonCacheSpec extends Specification {
+
+    JsonCache jsonCache = new JsonCache(new ObjectMapper().tap { registerModule(new PolkadotModule())})
+
+    def "Reuses reader for same type"() {
+        when:
+        def first = jsonCache.readerFor(Hash256)
+        def second = jsonCache.readerFor(jsonCache.typeOf(Hash256))
+        then:
+        first.is(second)
+        first != jsonCache.readerFor(String)
+    }
+
+    def "Reuses writer for same type"() {
+        expect:
+        jsonCache.writerFor(RpcRequest).is(jsonCache.writerFor(RpcRequest))
+    }
+
+    def "Reuses list type"() {
+        when:
+        def act = jsonCache.listTypeOf(PeerJson)
+        then:
+        act.is(jsonCache.listTypeOf(PeerJson))
+        act.isCollectionLikeType()
+        act.getContentType().getRawClass() == PeerJson
+    }
+
+    def "Result type of class call"() {
+        when:
+        def act = jsonCache.resultType(RpcCall.create(BlockResponseJson, "chain_getBlock"))
+        then:
+        act.is(jsonCache.typeOf(BlockResponseJson))
+    }
+
+    def "Result type of list call"() {
+        when:
+        def act = jsonCache.resultType(RpcCall.create(PeerJson, "system_peers").expectList())
+        then:
+        act.is(jsonCache.listTypeOf(PeerJson))
+    }
+
+    def "Result type of JavaType call"() {
+        setup:
+        def type = jsonCache.getObjectMapper().getTypeFactory().constructMapType(Map, String, Integer)
+        when:
+        def act = jsonCache.resultType(RpcCall.create(type, "test_foo"))
+        then:
+        act == type
+    }
+
+    def "Decodes with cached reader"() {
+        when:
+        def act = jsonCache.readerFor(Hash256).readValue('"0x5d83f66b61701da4cbd7a60137db89c69469a4f798b62aba9176ab253b423828"')
+        then:
+        act == Hash256.from("0x5d83f66b61701da4cbd7a60137db89c69469a4f798b62aba9176ab253b423828")
+    }
+
+    def "Default instance is shared"() {
+        expect:
+        JsonCache.getDefault().is(JsonCache.getDefault())
+        JsonCache.getDefault().getObjectMapper() != null
+    }
+
+    def "Coder uses provided cache"() {
+        when:
+        def coder = new RpcCoder(jsonCache)
+        then:
+        coder.getJsonCache().is(jsonCache)
+        coder.getObjectMapper().is(jsonCache.getObjectMapper())
+        coder.resultType(RpcCall.create(Hash256, "test_foo")).is(jsonCache.typeOf(Hash256))
+    }
+}
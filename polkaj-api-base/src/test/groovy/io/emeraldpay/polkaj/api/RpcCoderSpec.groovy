@@ -135,4 +135,91 @@ class RpcCoderSpec extends Specification {
         }
     }
 
+    def "Encode batch request"() {
+        when:
+        def act = rpcCoder.encodeBatch([
+                new RpcRequest(1, "test_foo", [] as Object[]),
+                new RpcRequest(2, "test_bar", ["hello", 100] as Object[])
+        ])
+        then:
+        new String(act) == '[{"jsonrpc":"2.0","id":1,"method":"test_foo","params":[]},{"jsonrpc":"2.0","id":2,"method":"test_bar","params":["hello",100]}]'
+    }
+
+    def "Decode batch response in any order"() {
+        setup:
+        def response = '[' +
+                '{"jsonrpc": "2.0", "result": null, "id": 2},' +
+                '{"jsonrpc": "2.0", "error": {"code": 100, "message": "Test error"}, "id": 3},' +
+                '{"jsonrpc": "2.0", "result": "0x5d83f66b61701da4cbd7a60137db89c69469a4f798b62aba9176ab253b423828", "id": 1},' +
+                '{"jsonrpc": "2.0", "result": "0x00", "id": 10}' +
+                ']'
+        when:
+        def act = rpcCoder.decodeBatch(response, [
+                1: rpcCoder.responseType(Hash256),
+                2: rpcCoder.responseType(BlockResponseJson),
+                3: rpcCoder.responseType(String),
+                4: rpcCoder.responseType(String),
+        ])
+        then:
+        act.keySet() == [1, 2, 3] as Set
+        rpcCoder.getResult(act[1]) == Hash256.from('0x5d83f66b61701da4cbd7a60137db89c69469a4f798b62aba9176ab253b423828')
+        rpcCoder.getResult(act[2]) == null
+        when:
+        rpcCoder.getResult(act[3])
+        then:
+        def t = thrown(CompletionException)
+        with((RpcException)t.cause) {
+            code == 100
+            rpcMessage == "Test error"
+        }
+    }
+
+    def "Fail to decode batch if whole batch is rejected"() {
+        setup:
+        def response = '{"jsonrpc": "2.0", "error": {"code": -32600, "message": "Invalid request"}, "id": null}'
+        when:
+        rpcCoder.decodeBatch(response, [1: rpcCoder.responseType(String)])
+        then:
+        def t = thrown(CompletionException)
+        with((RpcException)t.cause) {
+            code == -32600
+            rpcMessage == "Invalid request"
+        }
+    }
+
+    def "Fail to decode batch if invalid json"() {
+        when:
+        rpcCoder.decodeBatch('[{"jsonrpc": "2', [1: rpcCoder.responseType(String)])
+        then:
+        def t = thrown(CompletionException)
+        t.cause instanceof RpcException
+        ((RpcException)t.cause).code == -32603
+    }
+
+    def "Decode from bytes"() {
+        setup:
+        def response = '{"jsonrpc":"2.0","id":0,"result":"0x5d83f66b61701da4cbd7a60137db89c69469a4f798b62aba9176ab253b423828"}'
+        when:
+        def act = rpcCoder.decode(0, response.getBytes("UTF-8"), rpcCoder.responseType(Hash256))
+        then:
+        act == Hash256.from('0x5d83f66b61701da4cbd7a60137db89c69469a4f798b62aba9176ab253b423828')
+    }
+
+    def "Decode batch from bytes with id before result"() {
+        setup:
+        def response = '[' +
+                '{"jsonrpc":"2.0","id":1,"result":"0x5d83f66b61701da4cbd7a60137db89c69469a4f798b62aba9176ab253b423828"},' +
+                '{"jsonrpc":"2.0","id":2,"result":{"block":{"header":{"number":"0x10"}}}},' +
+                '{"jsonrpc":"2.0","id":5,"result":{"unknown":[1,2,3]}}' +
+                ']'
+        when:
+        def act = rpcCoder.decodeBatch(response.getBytes("UTF-8"), [
+                1: rpcCoder.responseType(Hash256),
+                2: rpcCoder.responseType(BlockResponseJson),
+        ])
+        then:
+        act.keySet() == [1, 2] as Set
+        rpcCoder.getResult(act[1]) == Hash256.from('0x5d83f66b61701da4cbd7a60137db89c69469a4f798b62aba9176ab253b423828')
+        (rpcCoder.getResult(act[2]) as BlockResponseJson).block.header.number == 16
+    }
 }
@@ -2,7 +2,6 @@ package io.emeraldpay.polkaj.apihttp;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JavaType;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import io.emeraldpay.polkaj.api.*;
 import io.emeraldpay.polkaj.json.jackson.PolkadotModule;
 
@@ -12,11 +11,19 @@ import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Default JSON RPC HTTP client for Polkadot API. It uses Java 11 HttpClient implementation for requests.
@@ -24,6 +31,9 @@ import java.util.concurrent.Executors;
  * supposed to be create through {@link JavaHttpAdapter#newBuilder()}:
  * <br>
  * The class is AutoCloseable, with {@link JavaHttpAdapter#close()} methods, which shutdown a thread (or threads) used for http requests.
+ * <br>
+ * With {@link Builder#batch(int, Duration)} the adapter combines calls made within a short time window into a single
+ * JSON RPC batch request, which is sent as one HTTP request.
  *
  * <br>
  * Example:
@@ -42,9 +52,16 @@ public class JavaHttpAdapter implements RpcCallAdapter {
     private final Runnable onClose;
     private final RpcCoder rpcCoder;
 
-    private boolean closed = false;
+    private final int batchSize;
+    private final long batchWindowNanos;
+    private final ScheduledExecutorService batchScheduler;
+    private final Object batchLock = new Object();
+    private List<Pending<?>> batch;
+
+    private volatile boolean closed = false;
 
-    private JavaHttpAdapter(URI target, HttpClient httpClient, String basicAuth, Duration timeout, Runnable onClose, RpcCoder rpcCoder) {
+    private JavaHttpAdapter(URI target, HttpClient httpClient, String basicAuth, Duration timeout, Runnable onClose, RpcCoder rpcCoder,
+                            int batchSize, Duration batchWindow) {
         this.httpClient = httpClient;
 
         HttpRequest.Builder request = HttpRequest.newBuilder()
@@ -60,6 +77,20 @@ public class JavaHttpAdapter implements RpcCallAdapter {
         this.request = request;
         this.onClose = onClose;
         this.rpcCoder = rpcCoder;
+
+        this.batchSize = batchSize;
+        this.batchWindowNanos = batchWindow == null ? 0 : batchWindow.toNanos();
+        if (batchSize > 1) {
+            ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, (r) -> {
+                Thread thread = new Thread(r, "polkaj-http-batch");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.setRemoveOnCancelPolicy(true);
+            this.batchScheduler = scheduler;
+        } else {
+            this.batchScheduler = null;
+        }
     }
 
     /**
@@ -77,13 +108,21 @@ public class JavaHttpAdapter implements RpcCallAdapter {
                     new IllegalStateException("Client is already closed")
             );
         }
-        final ObjectMapper objectMapper = rpcCoder.getObjectMapper();
         int id = rpcCoder.nextId();
-        JavaType type = call.getResultType(objectMapper.getTypeFactory());
+        JavaType type = rpcCoder.resultType(call);
+        if (batchScheduler != null) {
+            Pending<T> pending = new Pending<>(id, call, type);
+            enqueue(pending);
+            return pending.result;
+        }
+        return send(id, call, type);
+    }
+
+    private <T> CompletableFuture<T> send(int id, RpcCall<T> call, JavaType type) {
         try {
             HttpRequest.Builder request = this.request.copy()
                     .POST(HttpRequest.BodyPublishers.ofByteArray(rpcCoder.encode(id, call)));
-            return httpClient.sendAsync(request.build(), HttpResponse.BodyHandlers.ofString())
+            return httpClient.sendAsync(request.build(), HttpResponse.BodyHandlers.ofByteArray())
                     .thenApply(this::verify)
                     .thenApply(HttpResponse::body)
                     .thenApply(content -> rpcCoder.decode(id, content, type));
@@ -96,6 +135,83 @@ public class JavaHttpAdapter implements RpcCallAdapter {
         }
     }
 
+    /**
+     * Add the call to the current batch. The batch is sent when it reaches the max size, or when the batch window
+     * started by its first call is over.
+     */
+    private void enqueue(Pending<?> pending) {
+        List<Pending<?>> full = null;
+        synchronized (batchLock) {
+            if (batch == null) {
+                List<Pending<?>> current = new ArrayList<>(batchSize);
+                try {
+                    batchScheduler.schedule(() -> flush(current), batchWindowNanos, TimeUnit.NANOSECONDS);
+                } catch (RejectedExecutionException e) {
+                    pending.result.completeExceptionally(new IllegalStateException("Client is already closed"));
+                    return;
+                }
+                batch = current;
+            }
+            batch.add(pending);
+            if (batch.size() >= batchSize) {
+                full = batch;
+                batch = null;
+            }
+        }
+        if (full != null) {
+            sendBatch(full);
+        }
+    }
+
+    /**
+     * Send the batch when its window is over, unless it was already sent because of the size
+     */
+    private void flush(List<Pending<?>> expected) {
+        synchronized (batchLock) {
+            if (batch != expected) {
+                return;
+            }
+            batch = null;
+        }
+        sendBatch(expected);
+    }
+
+    private void sendBatch(List<Pending<?>> calls) {
+        if (calls.size() == 1) {
+            calls.get(0).sendSingle();
+            return;
+        }
+        List<RpcRequest> requests = new ArrayList<>(calls.size());
+        Map<Integer, JavaType> types = new HashMap<>(calls.size() * 4 / 3 + 1);
+        for (Pending<?> call: calls) {
+            requests.add(new RpcRequest(call.id, call.call.getMethod(), call.call.getParams()));
+            types.put(call.id, call.type);
+        }
+        byte[] body;
+        try {
+            body = rpcCoder.encodeBatch(requests);
+        } catch (JsonProcessingException e) {
+            RpcException error = new RpcException(-32600, "Unable to encode request as JSON: " + e.getMessage(), e);
+            calls.forEach((call) -> call.result.completeExceptionally(error));
+            return;
+        }
+        HttpRequest.Builder request = this.request.copy()
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body));
+        httpClient.sendAsync(request.build(), HttpResponse.BodyHandlers.ofByteArray())
+                .thenApply(this::verify)
+                .thenApply(HttpResponse::body)
+                .thenApply(content -> rpcCoder.decodeBatch(content, types))
+                .whenComplete((responses, t) -> {
+                    for (Pending<?> call: calls) {
+                        if (t != null) {
+                            call.result.completeExceptionally(t);
+                        } else {
+                            call.complete(responses.get(call.id));
+                        }
+                    }
+                });
+    }
+
     /**
      * Verify the HTTP response meta, i.e. statuc code, headers, etc.
      *
@@ -105,7 +221,7 @@ public class JavaHttpAdapter implements RpcCallAdapter {
      * @see CompletionException
      * @see RpcException
      */
-    public HttpResponse<String> verify(HttpResponse<String> response) {
+    public <T> HttpResponse<T> verify(HttpResponse<T> response) {
         if (response.statusCode() != 200) {
             throw new CompletionException(
                     new RpcException(-32000, "Server returned error status: " + response.statusCode())
@@ -124,12 +240,68 @@ public class JavaHttpAdapter implements RpcCallAdapter {
         return new Builder();
     }
 
+    /**
+     * A call waiting in the current batch
+     *
+     * @param <T> type of the result
+     */
+    private class Pending<T> {
+        private final int id;
+        private final RpcCall<T> call;
+        private final JavaType type;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        Pending(int id, RpcCall<T> call, JavaType type) {
+            this.id = id;
+            this.call = call;
+            this.type = type;
+        }
+
+        void sendSingle() {
+            send(id, call, type).whenComplete((value, t) -> {
+                if (t != null) {
+                    result.completeExceptionally(t);
+                } else {
+                    result.complete(value);
+                }
+            });
+        }
+
+        @SuppressWarnings("unchecked")
+        void complete(RpcResponse<?> response) {
+            if (response == null) {
+                result.completeExceptionally(
+                        new RpcException(-32603, "Server returned no response for request " + id)
+                );
+                return;
+            }
+            try {
+                result.complete(rpcCoder.getResult((RpcResponse<T>) response));
+            } catch (CompletionException e) {
+                result.completeExceptionally(e.getCause());
+            }
+        }
+    }
+
     @Override
     public void close() {
         if (closed) {
             return;
         }
         closed = true;
+        if (batchScheduler != null) {
+            // the executor for http calls is shutdown on close, so calls still waiting for a batch cannot be sent
+            List<Pending<?>> current;
+            synchronized (batchLock) {
+                current = batch;
+                batch = null;
+            }
+            if (current != null) {
+                IllegalStateException error = new IllegalStateException("Client is already closed");
+                current.forEach((call) -> call.result.completeExceptionally(error));
+            }
+            batchScheduler.shutdownNow();
+        }
         if (onClose != null) {
             try {
                 onClose.run();
@@ -142,11 +314,12 @@ public class JavaHttpAdapter implements RpcCallAdapter {
     /**
      * PolkadotRpcClient builder. All of the configurations are optional, and the default build would use
      * a standard Java HttpClient without any authorization connecting to localhost:9933 and using
-     * a new instance of a Jackson ObjectMapper with PolkadotModule enabled.
+     * the shared Jackson ObjectMapper with PolkadotModule enabled.
      *
      * @see JavaHttpAdapter
      * @see HttpClient
      * @see PolkadotModule
+     * @see JsonCache#getDefault()
      */
     public static class Builder {
         private URI target;
@@ -156,6 +329,8 @@ public class JavaHttpAdapter implements RpcCallAdapter {
         private RpcCoder rpcCoder;
         private Runnable onClose;
         private Duration timeout;
+        private int batchSize = 1;
+        private Duration batchWindow;
 
         /**
          * Setup Basic Auth for RPC calls
@@ -253,11 +428,30 @@ public class JavaHttpAdapter implements RpcCallAdapter {
             return this;
         }
 
+        /**
+         * Combine calls into JSON RPC batch requests. A batch is sent when it has the max number of calls, or when the
+         * time window started by its first call is over. Disabled by default, i.e. each call is sent as a separate
+         * HTTP request.
+         *
+         * @param maxSize max number of calls in a single batch, 1 disables batching
+         * @param window max time to wait for more calls before sending a batch
+         * @return builder
+         */
+        public Builder batch(int maxSize, Duration window) {
+            if (maxSize < 1) {
+                throw new IllegalArgumentException("Batch size must be positive: " + maxSize);
+            }
+            if (window == null || window.isNegative()) {
+                throw new IllegalArgumentException("Invalid batch window: " + window);
+            }
+            this.batchSize = maxSize;
+            this.batchWindow = window;
+            return this;
+        }
+
         private void initDefaults() {
             if (rpcCoder == null) {
-                final ObjectMapper objectMapper = new ObjectMapper();
-                objectMapper.registerModule(new PolkadotModule());
-                rpcCoder = new RpcCoder(objectMapper);
+                rpcCoder = new RpcCoder(JsonCache.getDefault());
             }
 
             if (httpClient == null && target == null) {
@@ -292,7 +486,7 @@ public class JavaHttpAdapter implements RpcCallAdapter {
          */
         public JavaHttpAdapter build() {
             initDefaults();
-            return new JavaHttpAdapter(target, httpClient, basicAuth, timeout, onClose, rpcCoder);
+            return new JavaHttpAdapter(target, httpClient, basicAuth, timeout, onClose, rpcCoder, batchSize, batchWindow);
         }
 
     }
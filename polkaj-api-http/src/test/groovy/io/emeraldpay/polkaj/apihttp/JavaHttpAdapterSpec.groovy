@@ -5,9 +5,14 @@ import io.emeraldpay.polkaj.api.RpcCall
 import io.emeraldpay.polkaj.api.RpcCallAdapter
 import io.emeraldpay.polkaj.api.RpcCoder
 import io.emeraldpay.polkaj.api.RpcAdapterSpec
+import io.emeraldpay.polkaj.api.RpcException
 import io.emeraldpay.polkaj.json.jackson.PolkadotModule
+import org.mockserver.model.HttpRequest
+import org.mockserver.model.HttpResponse
+import org.mockserver.model.MediaType
 
 import java.time.Duration
+import java.util.concurrent.ExecutionException
 import java.util.concurrent.ExecutorService
 
 class JavaHttpAdapterSpec extends RpcAdapterSpec {
@@ -50,4 +55,135 @@ class JavaHttpAdapterSpec extends RpcAdapterSpec {
         1 * rpcCoder.nextId()
     }
 
+    def "Send calls in a batch when it's full"() {
+        setup:
+        def response = '[' +
+                '{"jsonrpc": "2.0", "result": "b", "id": 1},' +
+                '{"jsonrpc": "2.0", "result": "a", "id": 0},' +
+                '{"jsonrpc": "2.0", "error": {"code": 100, "message": "Test error"}, "id": 2}' +
+                ']'
+        mockServer.when(
+                HttpRequest.request()
+        ).respond(
+                HttpResponse.response(response).withContentType(MediaType.APPLICATION_JSON)
+        )
+        def adapter = JavaHttpAdapter.newBuilder()
+                .connectTo("http://localhost:18080")
+                .batch(3, Duration.ofSeconds(10))
+                .build()
+        when:
+        def a = adapter.produceRpcFuture(RpcCall.create(String.class, "test_a"))
+        def b = adapter.produceRpcFuture(RpcCall.create(String.class, "test_b"))
+        def c = adapter.produceRpcFuture(RpcCall.create(String.class, "test_c"))
+        then:
+        a.get() == "a"
+        b.get() == "b"
+        when:
+        c.get()
+        then:
+        def t = thrown(ExecutionException)
+        t.cause instanceof RpcException
+        ((RpcException)t.cause).code == 100
+        mockServer.retrieveRecordedRequests(HttpRequest.request()).length == 1
+        mockServer.retrieveRecordedRequests(HttpRequest.request())[0].bodyAsString.startsWith('[{"jsonrpc":"2.0","id":0,"method":"test_a"')
+        cleanup:
+        adapter.close()
+    }
+
+    def "Send calls in a batch after window"() {
+        setup:
+        def response = '[' +
+                '{"jsonrpc": "2.0", "result": "a", "id": 0},' +
+                '{"jsonrpc": "2.0", "result": "b", "id": 1}' +
+                ']'
+        mockServer.when(
+                HttpRequest.request()
+        ).respond(
+                HttpResponse.response(response).withContentType(MediaType.APPLICATION_JSON)
+        )
+        def adapter = JavaHttpAdapter.newBuilder()
+                .connectTo("http://localhost:18080")
+                .batch(100, Duration.ofMillis(50))
+                .build()
+        when:
+        def a = adapter.produceRpcFuture(RpcCall.create(String.class, "test_a"))
+        def b = adapter.produceRpcFuture(RpcCall.create(String.class, "test_b"))
+        then:
+        a.get() == "a"
+        b.get() == "b"
+        mockServer.retrieveRecordedRequests(HttpRequest.request()).length == 1
+        cleanup:
+        adapter.close()
+    }
+
+    def "Send single call in batch mode as standard request"() {
+        setup:
+        def response = '{"jsonrpc": "2.0", "result": "a", "id": 0}'
+        mockServer.when(
+                HttpRequest.request()
+        ).respond(
+                HttpResponse.response(response).withContentType(MediaType.APPLICATION_JSON)
+        )
+        def adapter = JavaHttpAdapter.newBuilder()
+                .connectTo("http://localhost:18080")
+                .batch(100, Duration.ofMillis(10))
+                .build()
+        when:
+        def a = adapter.produceRpcFuture(RpcCall.create(String.class, "test_a"))
+        then:
+        a.get() == "a"
+        mockServer.retrieveRecordedRequests(HttpRequest.request())[0].bodyAsString.startsWith('{')
+        cleanup:
+        adapter.close()
+    }
+
+    def "Fail calls missing in batch response"() {
+        setup:
+        def response = '[{"jsonrpc": "2.0", "result": "a", "id": 0}]'
+        mockServer.when(
+                HttpRequest.request()
+        ).respond(
+                HttpResponse.response(response).withContentType(MediaType.APPLICATION_JSON)
+        )
+        def adapter = JavaHttpAdapter.newBuilder()
+                .connectTo("http://localhost:18080")
+                .batch(2, Duration.ofSeconds(10))
+                .build()
+        when:
+        def a = adapter.produceRpcFuture(RpcCall.create(String.class, "test_a"))
+        def b = adapter.produceRpcFuture(RpcCall.create(String.class, "test_b"))
+        then:
+        a.get() == "a"
+        when:
+        b.get()
+        then:
+        def t = thrown(ExecutionException)
+        t.cause instanceof RpcException
+        cleanup:
+        adapter.close()
+    }
+
+    def "Fail pending batch on close"() {
+        setup:
+        def adapter = JavaHttpAdapter.newBuilder()
+                .connectTo("http://localhost:18080")
+                .batch(100, Duration.ofMinutes(10))
+                .build()
+        when:
+        def a = adapter.produceRpcFuture(RpcCall.create(String.class, "test_a"))
+        adapter.close()
+        a.get()
+        then:
+        def t = thrown(ExecutionException)
+        t.cause instanceof IllegalStateException
+        mockServer.retrieveRecordedRequests(HttpRequest.request()).length == 0
+    }
+
+    def "Invalid batch config"() {
+        when:
+        JavaHttpAdapter.newBuilder().batch(0, Duration.ofMillis(1))
+        then:
+        thrown(IllegalArgumentException)
+    }
+
 }
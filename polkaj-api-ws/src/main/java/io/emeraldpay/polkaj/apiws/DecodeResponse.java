@@ -6,6 +6,7 @@ import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.TreeNode;
 import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.emeraldpay.polkaj.api.JsonCache;
 import io.emeraldpay.polkaj.api.RpcResponse;
 import io.emeraldpay.polkaj.api.RpcResponseError;
 
@@ -22,22 +23,44 @@ public class DecodeResponse {
     private final TypeMapping<String> subscriptionMapping;
     private final TypeMapping<Integer> rpcMapping;
     private final ObjectMapper objectMapper;
+    private final JsonCache jsonCache;
 
     public DecodeResponse(ObjectMapper objectMapper, TypeMapping<Integer> rpcMapping, TypeMapping<String> subscriptionMapping) {
+        this(new JsonCache(objectMapper), rpcMapping, subscriptionMapping);
+    }
+
+    /**
+     *
+     * @param jsonCache cache of readers, usually shared with RpcCoder
+     * @param rpcMapping types of the RPC responses
+     * @param subscriptionMapping types of the subscription events
+     */
+    public DecodeResponse(JsonCache jsonCache, TypeMapping<Integer> rpcMapping, TypeMapping<String> subscriptionMapping) {
         this.rpcMapping = rpcMapping;
         this.subscriptionMapping = subscriptionMapping;
-        this.objectMapper = objectMapper;
+        this.jsonCache = jsonCache;
+        this.objectMapper = jsonCache.getObjectMapper();
     }
 
     public WsResponse decode(final String json) throws IOException {
         JsonFactory jsonFactory = objectMapper.getFactory();
-        JsonParser parser = jsonFactory.createParser(json);
+        return decode(jsonFactory.createParser(json));
+    }
+
+    /**
+     * Decode a message from a parser, which is supposed to be positioned before the message
+     *
+     * @param parser parser with the message
+     * @return decoded response
+     * @throws IOException if the message is not a valid JSON
+     */
+    public WsResponse decode(final JsonParser parser) throws IOException {
         if (parser.nextToken() != JsonToken.START_OBJECT) {
             throw new IllegalStateException("Not an object");
         }
         String method = null;
         WsResponse.IdValue<String> value = null;
-        Preparsed<Integer> preparsed = new Preparsed<>(objectMapper);
+        Preparsed<Integer> preparsed = new Preparsed<>(jsonCache);
         while (parser.nextToken() != JsonToken.END_OBJECT) {
             if (parser.currentToken() == null) {
                 throw new IllegalStateException("JSON finished before data received");
@@ -57,11 +80,12 @@ public class DecodeResponse {
                 }
             } else if ("result".equals(field)) {
                 parser.nextToken();
-                preparsed.node = parser.readValueAsTree();
-                if (preparsed.isReady()) {
-                    var result = preparsed.build();
-                    return WsResponse.rpc(new RpcResponse<>(result.getId(), result.getValue()));
+                if (preparsed.type != null) {
+                    // id goes first, so the result can be read directly as the expected type
+                    Object result = jsonCache.readerFor(preparsed.type).readValue(parser);
+                    return WsResponse.rpc(new RpcResponse<>(preparsed.id, result));
                 }
+                preparsed.node = parser.readValueAsTree();
             } else if ("error".equals(field)) {
                 //TODO parse error
                 preparsed.error = decodeError(parser);
@@ -111,7 +135,7 @@ public class DecodeResponse {
     }
 
     protected WsResponse.IdValue<String> decodeSubscription(TypeMapping<String> typeMapping, JsonParser parser) throws IOException {
-        Preparsed<String> preparsed = new Preparsed<>(objectMapper);
+        Preparsed<String> preparsed = new Preparsed<>(jsonCache);
         while (parser.nextToken() != JsonToken.END_OBJECT) {
             if (parser.currentToken() == null) {
                 throw new IllegalStateException("JSON finished before data received");
@@ -122,20 +146,40 @@ public class DecodeResponse {
                 preparsed.id = decodeString(parser);
                 preparsed.type = findType(typeMapping, preparsed.id);
                 if (preparsed.isReady()) {
+                    skipRest(parser);
                     return preparsed.build();
                 }
             } else if ("result".equals(field)) {
                 parser.nextToken();
-                preparsed.node = parser.readValueAsTree();
-                if (preparsed.isReady()) {
-                    return preparsed.build();
+                if (preparsed.type != null) {
+                    // subscription id goes first, so the result can be read directly as the expected type
+                    Object result = jsonCache.readerFor(preparsed.type).readValue(parser);
+                    skipRest(parser);
+                    return new WsResponse.IdValue<>(preparsed.id, result);
                 }
-                parser.nextToken();
+                preparsed.node = parser.readValueAsTree();
             }
         }
         throw new IllegalStateException("Either id or result not found in JSON");
     }
 
+    /**
+     * Skip the rest of the current object, so the parser is positioned at its end
+     *
+     * @param parser parser inside an object
+     * @throws IOException if JSON is invalid
+     */
+    private void skipRest(JsonParser parser) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_OBJECT) {
+            if (token == null) {
+                throw new IllegalStateException("JSON finished before data received");
+            }
+            parser.nextToken();
+            parser.skipChildren();
+        }
+    }
+
     private <T> JavaType findType(TypeMapping<T> typeMapping, T id) {
         JavaType type;
         type = typeMapping.get(id);
@@ -170,7 +214,7 @@ public class DecodeResponse {
     }
 
     private static class Preparsed<T> {
-        private final ObjectMapper objectMapper;
+        private final JsonCache jsonCache;
 
         T id = null;
         JavaType type = null;
@@ -178,8 +222,8 @@ public class DecodeResponse {
 
         RpcResponseError error;
 
-        public Preparsed(ObjectMapper objectMapper) {
-            this.objectMapper = objectMapper;
+        public Preparsed(JsonCache jsonCache) {
+            this.jsonCache = jsonCache;
         }
 
         public boolean isReady() {
@@ -198,9 +242,9 @@ public class DecodeResponse {
                 throw new IllegalStateException("Type is not set");
             }
             if (node != null) {
-                Object value = objectMapper
+                Object value = jsonCache
                         .readerFor(type)
-                        .readValue(node.traverse(objectMapper));
+                        .readValue(node.traverse(jsonCache.getObjectMapper()));
                 return new WsResponse.IdValue<>(id, value);
             }
             throw new IllegalStateException("Not ready");
@@ -2,28 +2,80 @@ package io.emeraldpay.polkaj.apiws;
 
 import com.fasterxml.jackson.databind.JavaType;
 import io.emeraldpay.polkaj.api.RpcCall;
+import io.emeraldpay.polkaj.api.SubscribeCall;
 import io.emeraldpay.polkaj.api.Subscription;
 
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 
-public class DefaultSubscription<T> implements Subscription<T>, Consumer<Subscription.Event<? extends T>> {
+/**
+ * Subscription made through a WebSocket connection. Events are delivered to the handler, and to all subscribers when
+ * it's used as a {@link Flow.Publisher}.
+ * <br>
+ * Flow subscribers receive events according to their demand, and the connection stops reading new messages until all
+ * of them requested more. A subscriber is completed when the subscription is closed, and gets an error if it's
+ * terminated because of an error, or because the connection is lost and the adapter doesn't reconnect.
+ * Cancelling a subscriber doesn't close the subscription.
+ *
+ * @param <T> type of the events
+ */
+public class DefaultSubscription<T> implements Subscription<T>, Consumer<Subscription.Event<? extends T>>,
+        Flow.Publisher<Subscription.Event<T>> {
 
-    private String id;
+    private volatile String id;
     private final JavaType type;
     private final String unsubscribeMethod;
+    private final SubscribeCall<T> call;
     private final JavaHttpSubscriptionAdapter adapter;
     private Consumer<? extends Event<? extends T>> handlers;
+    private Runnable gapHandler;
+    private Consumer<Throwable> errorHandler;
+    private EventDispatcher.Queue queue;
+    private final EventPublisher<T> publisher = new EventPublisher<>();
+    private volatile SharedSubscription<T> shared;
+    private volatile boolean closed = false;
 
     public DefaultSubscription(JavaType type, String unsubscribeMethod, JavaHttpSubscriptionAdapter client) {
         this.type = type;
         this.unsubscribeMethod = unsubscribeMethod;
+        this.call = null;
+        this.adapter = client;
+    }
+
+    /**
+     * Subscription which can be restored after reconnect
+     *
+     * @param type type of the events
+     * @param call original call used to subscribe
+     * @param client adapter
+     */
+    public DefaultSubscription(JavaType type, SubscribeCall<T> call, JavaHttpSubscriptionAdapter client) {
+        this.type = type;
+        this.unsubscribeMethod = call.getUnsubscribe();
+        this.call = call;
         this.adapter = client;
     }
 
     public String getId() {
+        SharedSubscription<T> shared = this.shared;
+        if (shared != null) {
+            return shared.getId();
+        }
         return id;
     }
 
+    /**
+     * @return original call used to subscribe, or null if unknown
+     */
+    public SubscribeCall<T> getCall() {
+        return call;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
     public JavaType getType() {
         return type;
     }
@@ -35,11 +87,145 @@ public class DefaultSubscription<T> implements Subscription<T>, Consumer<Subscri
         this.id = id;
     }
 
+    /**
+     * Deliver events through a queue instead of calling the handler directly
+     *
+     * @param dispatcher dispatcher to use
+     */
+    void dispatch(EventDispatcher dispatcher) {
+        this.queue = dispatcher.newQueue(this::fail);
+    }
+
+    EventDispatcher.Queue getQueue() {
+        return queue;
+    }
+
+    /**
+     * Receive events from a server subscription shared with other local subscriptions
+     *
+     * @param shared shared subscription
+     */
+    void share(SharedSubscription<T> shared) {
+        this.shared = shared;
+    }
+
+    /**
+     * Set a new id after the subscription was made again with a new connection
+     *
+     * @param id new subscription id
+     */
+    void resubscribed(String id) {
+        this.id = id;
+    }
+
     @Override
     public void handler(Consumer<? extends Event<? extends T>> handler) {
         this.handlers = handler;
     }
 
+    @Override
+    public void gapHandler(Runnable handler) {
+        this.gapHandler = handler;
+    }
+
+    @Override
+    public void errorHandler(Consumer<Throwable> handler) {
+        this.errorHandler = handler;
+    }
+
+    /**
+     * Notify that events could be missed
+     */
+    void gap() {
+        offer(() -> {
+            Runnable handler = this.gapHandler;
+            if (handler != null) {
+                handler.run();
+            }
+        }, null);
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super Event<T>> subscriber) {
+        publisher.subscribe(subscriber);
+    }
+
+    /**
+     * Unsubscribe and terminate the subscription with an error
+     *
+     * @param t error
+     */
+    void fail(Throwable t) {
+        unsubscribe();
+        terminate(t);
+    }
+
+    /**
+     * Terminate the subscription with an error, without unsubscribing, i.e. when the connection is already closed
+     *
+     * @param t error
+     */
+    void terminate(Throwable t) {
+        closed = true;
+        publisher.error(t);
+        Consumer<Throwable> handler = this.errorHandler;
+        if (handler != null) {
+            handler.accept(t);
+        }
+    }
+
+    /**
+     * Complete the subscription without unsubscribing, i.e. when the adapter is closed
+     */
+    void complete() {
+        closed = true;
+        publisher.complete();
+    }
+
+    /**
+     * Accept a new event from the server, and deliver it to the handler directly or through the queue
+     *
+     * @param event new event
+     * @param resume action to continue reading the connection, if it's blocked by the queue
+     * @return true if the connection can continue reading
+     */
+    @SuppressWarnings("unchecked")
+    boolean offer(Subscription.Event<? extends T> event, Runnable resume) {
+        if (!publisher.hasSubscribers()) {
+            return offer(() -> accept(event), resume);
+        }
+        if (resume == null) {
+            offer(() -> accept(event), null);
+            return publisher.offer((Event<T>) event, null);
+        }
+        // both the handler queue and the subscribers may stop the connection, and it should continue only when both
+        // are ready
+        AtomicInteger blocked = new AtomicInteger(2);
+        Runnable join = () -> {
+            if (blocked.decrementAndGet() == 0) {
+                resume.run();
+            }
+        };
+        boolean handlerReady = offer(() -> accept(event), join);
+        boolean publisherReady = publisher.offer((Event<T>) event, join);
+        if (handlerReady && publisherReady) {
+            return true;
+        }
+        if (handlerReady || publisherReady) {
+            join.run();
+        }
+        return false;
+    }
+
+    private boolean offer(Runnable task, Runnable resume) {
+        EventDispatcher.Queue queue = this.queue;
+        if (queue == null) {
+            task.run();
+            return true;
+        }
+        return queue.offer(task, resume);
+    }
+
     @SuppressWarnings("unchecked")
     public void accept(Subscription.Event<? extends T> event) {
         Consumer<Subscription.Event<? extends T>> handler = (Consumer<Subscription.Event<? extends T>>) this.handlers;
@@ -51,6 +237,17 @@ public class DefaultSubscription<T> implements Subscription<T>, Consumer<Subscri
 
     @Override
     public void close(){
+        unsubscribe();
+        publisher.complete();
+    }
+
+    private void unsubscribe() {
+        closed = true;
+        SharedSubscription<T> shared = this.shared;
+        if (shared != null) {
+            shared.release(this);
+            return;
+        }
         if (id == null) {
             return;
         }
@@ -0,0 +1,220 @@
+package io.emeraldpay.polkaj.apiws;
+
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * Delivers subscription events to the handlers with a separate Executor, instead of the WebSocket thread, so a slow
+ * handler doesn't delay other subscriptions and RPC responses of the same connection.
+ * <br>
+ * Each subscription has its own bounded queue, and its events are delivered one by one in the original order. When the
+ * queue is full the behaviour depends on the {@link Overflow} policy.
+ * <br>
+ * Any Executor can be used, for example on Java 21 it may be <code>Executors.newVirtualThreadPerTaskExecutor()</code>.
+ */
+public class EventDispatcher {
+
+    /**
+     * Max number of events delivered by one task, before letting other subscriptions to use the executor thread
+     */
+    private static final int BATCH = 64;
+
+    private final Executor executor;
+    private final int capacity;
+    private final Overflow overflow;
+
+    /**
+     *
+     * @param executor executor to call handlers
+     * @param capacity max number of events waiting for a handler, per subscription
+     * @param overflow what to do when the queue is full
+     */
+    public EventDispatcher(Executor executor, int capacity, Overflow overflow) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Queue capacity must be positive: " + capacity);
+        }
+        this.executor = Objects.requireNonNull(executor);
+        this.capacity = capacity;
+        this.overflow = Objects.requireNonNull(overflow);
+    }
+
+    public Overflow getOverflow() {
+        return overflow;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Create a queue for a new subscription
+     *
+     * @param onOverflow called when the queue is full with {@link Overflow#FAIL} policy
+     * @return new queue
+     */
+    Queue newQueue(Consumer<Throwable> onOverflow) {
+        return new Queue(onOverflow);
+    }
+
+    /**
+     * Policy for a full queue
+     */
+    public enum Overflow {
+        /**
+         * Drop the oldest event in the queue
+         */
+        DROP_OLDEST,
+        /**
+         * Stop reading from the connection until the handler processes the queue. Note that it stops all other
+         * subscriptions and RPC responses of the same connection.
+         */
+        BLOCK,
+        /**
+         * Drop all events and close the subscription with an error
+         */
+        FAIL
+    }
+
+    /**
+     * Queue of a single subscription
+     */
+    class Queue implements Runnable {
+        private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+        private final Consumer<Throwable> onOverflow;
+        private boolean scheduled = false;
+        private boolean failed = false;
+        private long dropped = 0;
+        /**
+         * Call to continue reading from the connection, set when it's stopped with BLOCK policy
+         */
+        private Runnable resume;
+
+        Queue(Consumer<Throwable> onOverflow) {
+            this.onOverflow = onOverflow;
+        }
+
+        /**
+         * Add a task (i.e. a handler call for an event) to the queue
+         *
+         * @param task task to execute
+         * @param resume action to continue reading from the connection, if it's stopped with BLOCK policy, or null if
+         *               the task is not from the connection
+         * @return true if the connection can continue reading, false if it must wait for the resume call
+         */
+        boolean offer(Runnable task, Runnable resume) {
+            boolean ready = true;
+            boolean overflowed = false;
+            synchronized (this) {
+                if (failed) {
+                    return true;
+                }
+                if (tasks.size() >= capacity) {
+                    switch (overflow) {
+                        case DROP_OLDEST:
+                            tasks.pollFirst();
+                            dropped++;
+                            break;
+                        case FAIL:
+                            failed = true;
+                            overflowed = true;
+                            tasks.clear();
+                            break;
+                        case BLOCK:
+                            // it's not supposed to receive anything after the queue is full, but it may be an event
+                            // sent by the adapter itself, not by the server
+                            break;
+                    }
+                }
+                if (!overflowed) {
+                    tasks.addLast(task);
+                    if (resume != null && overflow == Overflow.BLOCK && tasks.size() >= capacity) {
+                        this.resume = resume;
+                        ready = false;
+                    }
+                    if (scheduled) {
+                        return ready;
+                    }
+                    scheduled = true;
+                }
+            }
+            if (overflowed) {
+                execute(() -> onOverflow.accept(new IllegalStateException("Subscription queue is full with " + capacity + " events")));
+            } else if (!execute(this)) {
+                // the connection continues reading anyway, so don't need to resume it later
+                abandon();
+                return true;
+            }
+            return ready;
+        }
+
+        /**
+         * Drop all tasks when the executor doesn't accept them anymore
+         *
+         * @return resume action if the connection was blocked by the queue
+         */
+        private synchronized Runnable abandon() {
+            scheduled = false;
+            tasks.clear();
+            Runnable resume = this.resume;
+            this.resume = null;
+            return resume;
+        }
+
+        private boolean execute(Runnable task) {
+            try {
+                executor.execute(task);
+                return true;
+            } catch (RejectedExecutionException e) {
+                return false;
+            }
+        }
+
+        /**
+         * @return number of events dropped with DROP_OLDEST policy
+         */
+        synchronized long getDropped() {
+            return dropped;
+        }
+
+        synchronized int size() {
+            return tasks.size();
+        }
+
+        @Override
+        public void run() {
+            for (int i = 0; i < BATCH; i++) {
+                Runnable task;
+                Runnable resume = null;
+                synchronized (this) {
+                    task = tasks.pollFirst();
+                    if (task == null) {
+                        scheduled = false;
+                        return;
+                    }
+                    if (this.resume != null && tasks.size() < capacity) {
+                        resume = this.resume;
+                        this.resume = null;
+                    }
+                }
+                if (resume != null) {
+                    resume.run();
+                }
+                try {
+                    task.run();
+                } catch (Throwable t) {
+                    t.printStackTrace();
+                }
+            }
+            // give a chance to other subscriptions if the executor has limited threads
+            if (!execute(this)) {
+                Runnable resume = abandon();
+                if (resume != null) {
+                    resume.run();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package io.emeraldpay.polkaj.apiws;
+
+import io.emeraldpay.polkaj.api.Subscription;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+
+/**
+ * Delivers events of a subscription to Flow subscribers, according to their demand.
+ * <br>
+ * Each subscriber has its own buffer, which keeps events not yet requested by the subscriber. When any subscriber
+ * has an event in the buffer the publisher asks the connection to stop reading, and it continues when all the buffers
+ * are delivered, i.e. the connection reads a next message only when all subscribers requested it.
+ *
+ * @param <T> type of the events
+ */
+class EventPublisher<T> implements Flow.Publisher<Subscription.Event<T>> {
+
+    private final CopyOnWriteArrayList<Downstream> subscribers = new CopyOnWriteArrayList<>();
+    private boolean terminated = false;
+    private Throwable error;
+    /**
+     * Call to continue reading from the connection, set when it's stopped because of a subscriber without demand
+     */
+    private Runnable resume;
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super Subscription.Event<T>> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("Subscriber is null");
+        }
+        Downstream downstream = new Downstream(subscriber);
+        boolean terminated;
+        Throwable error;
+        synchronized (this) {
+            terminated = this.terminated;
+            error = this.error;
+            if (!terminated) {
+                subscribers.add(downstream);
+            }
+        }
+        subscriber.onSubscribe(downstream);
+        if (terminated) {
+            downstream.terminate(error);
+        }
+    }
+
+    /**
+     * @return true if there is at least one subscriber
+     */
+    boolean hasSubscribers() {
+        return !subscribers.isEmpty();
+    }
+
+    /**
+     * Pass a new event to all current subscribers.
+     *
+     * @param event new event
+     * @param resume action to continue reading from the connection, or null if the event is not from the connection
+     * @return true if the connection can continue reading, false if it must wait for the resume call
+     */
+    boolean offer(Subscription.Event<T> event, Runnable resume) {
+        for (Downstream downstream: subscribers) {
+            downstream.push(event);
+        }
+        if (resume == null) {
+            return true;
+        }
+        synchronized (this) {
+            if (isReady()) {
+                return true;
+            }
+            this.resume = resume;
+            return false;
+        }
+    }
+
+    /**
+     * Deliver buffered events and complete all subscribers
+     */
+    void complete() {
+        terminate(null);
+    }
+
+    /**
+     * Terminate all subscribers with an error, without delivering buffered events
+     *
+     * @param t error
+     */
+    void error(Throwable t) {
+        terminate(t);
+    }
+
+    private void terminate(Throwable t) {
+        synchronized (this) {
+            if (terminated) {
+                return;
+            }
+            terminated = true;
+            error = t;
+        }
+        for (Downstream downstream: subscribers) {
+            downstream.terminate(t);
+        }
+        subscribers.clear();
+        // don't keep the connection waiting for subscribers which don't need the events anymore
+        resumeIfReady();
+    }
+
+    private synchronized boolean isReady() {
+        for (Downstream downstream: subscribers) {
+            if (!downstream.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void resumeIfReady() {
+        Runnable resume;
+        synchronized (this) {
+            if (this.resume == null || !isReady()) {
+                return;
+            }
+            resume = this.resume;
+            this.resume = null;
+        }
+        resume.run();
+    }
+
+    /**
+     * State of a single subscriber
+     */
+    class Downstream implements Flow.Subscription {
+        private final Flow.Subscriber<? super Subscription.Event<T>> subscriber;
+        private final ArrayDeque<Subscription.Event<T>> buffer = new ArrayDeque<>();
+        private long demand = 0;
+        private boolean done = false;
+        private boolean cancelled = false;
+        private Throwable error;
+        /**
+         * Set while a thread calls the subscriber, so the calls are never concurrent or recursive
+         */
+        private boolean emitting = false;
+
+        Downstream(Flow.Subscriber<? super Subscription.Event<T>> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        synchronized boolean isEmpty() {
+            return buffer.isEmpty();
+        }
+
+        void push(Subscription.Event<T> event) {
+            synchronized (this) {
+                if (done || cancelled) {
+                    return;
+                }
+                buffer.addLast(event);
+            }
+            drain();
+        }
+
+        void terminate(Throwable t) {
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                done = true;
+                error = t;
+                if (t != null) {
+                    buffer.clear();
+                }
+            }
+            drain();
+        }
+
+        @Override
+        public void request(long n) {
+            synchronized (this) {
+                if (n <= 0) {
+                    // per Reactive Streams rule 3.9
+                    buffer.clear();
+                    done = true;
+                    error = new IllegalArgumentException("Requested non-positive number of events: " + n);
+                } else {
+                    demand += n;
+                    if (demand < 0) {
+                        demand = Long.MAX_VALUE;
+                    }
+                }
+            }
+            drain();
+            resumeIfReady();
+        }
+
+        @Override
+        public void cancel() {
+            synchronized (this) {
+                cancelled = true;
+                buffer.clear();
+            }
+            subscribers.remove(this);
+            resumeIfReady();
+        }
+
+        private void drain() {
+            synchronized (this) {
+                if (emitting) {
+                    // the current emitting thread picks up the changes
+                    return;
+                }
+                emitting = true;
+            }
+            while (true) {
+                Subscription.Event<T> next = null;
+                Throwable error = null;
+                synchronized (this) {
+                    if (cancelled) {
+                        emitting = false;
+                        return;
+                    }
+                    if (!buffer.isEmpty() && demand > 0) {
+                        next = buffer.pollFirst();
+                        if (demand != Long.MAX_VALUE) {
+                            demand--;
+                        }
+                    } else if (buffer.isEmpty() && done) {
+                        cancelled = true;
+                        error = this.error;
+                    } else {
+                        emitting = false;
+                        return;
+                    }
+                }
+                if (next != null) {
+                    try {
+                        subscriber.onNext(next);
+                    } catch (Throwable t) {
+                        // the subscriber is broken, per Reactive Streams rule 2.13
+                        cancel();
+                        t.printStackTrace();
+                    }
+                } else {
+                    subscribers.remove(this);
+                    if (error != null) {
+                        subscriber.onError(error);
+                    } else {
+                        subscriber.onComplete();
+                    }
+                    synchronized (this) {
+                        emitting = false;
+                    }
+                    return;
+                }
+            }
+        }
+    }
+}
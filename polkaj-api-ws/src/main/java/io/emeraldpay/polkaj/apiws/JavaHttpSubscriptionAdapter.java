@@ -2,44 +2,88 @@ package io.emeraldpay.polkaj.apiws;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JavaType;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import io.emeraldpay.polkaj.api.*;
-import io.emeraldpay.polkaj.json.jackson.PolkadotModule;
 
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.http.HttpClient;
 import java.net.http.WebSocket;
 import java.nio.ByteBuffer;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
 
 /**
  * WebSocket based client to Polkadot API. In addition to standard RPC calls it supports subscription to events, i.e.
  * when a call provides multiple responses.
  * <br>
  * Before making calls, a {@link JavaHttpSubscriptionAdapter#connect()} must be called to establish a connection.
+ * <br>
+ * If reconnect is enabled with {@link Builder#reconnect(Duration, Duration)} the adapter connects again when the connection
+ * is lost, with an exponential backoff between attempts. After a reconnect it resends the calls which didn't get a
+ * response (only calls accepted by {@link Builder#replayable(Predicate)}, others fail), and subscribes again to all active
+ * subscriptions. The existing {@link Subscription} objects continue to work with the new server subscription, and
+ * each of them gets a {@link Subscription#gapHandler(Runnable)} call because events could be missed while disconnected.
+ * <br>
+ * With {@link Builder#shareSubscriptions()} subscriptions with the same method and params use a single subscription
+ * on the server.
  */
 public class JavaHttpSubscriptionAdapter implements SubscriptionAdapter, RpcCallAdapter {
 
     private final AtomicReference<WebSocket> webSocket = new AtomicReference<>(null);
+    private final AtomicReference<Connection> connection = new AtomicReference<>(null);
+    private final AtomicInteger generation = new AtomicInteger(0);
+    private final AtomicBoolean reconnecting = new AtomicBoolean(false);
     private final ConcurrentHashMap<Integer, RequestExpectation<?>> execution = new ConcurrentHashMap<>();
+    /**
+     * Ids of calls waiting for a free slot when the max number of calls in flight is reached
+     */
+    private final ConcurrentLinkedQueue<Integer> waiting = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger inFlight = new AtomicInteger(0);
     private final ConcurrentHashMap<String, DefaultSubscription<?>> subscriptions = new ConcurrentHashMap<>();
+    /**
+     * Shared subscriptions by method, params and type of events
+     */
+    private final ConcurrentHashMap<String, SharedSubscription<?>> shared = new ConcurrentHashMap<>();
     private final URI target;
     private final RpcCoder rpcCoder;
     private final DecodeResponse decodeResponse;
     private final HttpClient httpClient;
     private final Runnable onClose;
+    private final Duration reconnectMin;
+    private final Duration reconnectMax;
+    private final Predicate<String> replayable;
+    private final EventDispatcher dispatcher;
+    private final boolean share;
+    private final Duration timeout;
+    private final int maxInFlight;
 
     private final ScheduledExecutorService control = Executors.newSingleThreadScheduledExecutor();
-    private final MessageBuffer messageBuffer = new MessageBuffer();
+    private final TimeoutWheel deadlines = new TimeoutWheel(control, Duration.ofMillis(100), 512);
+    private ScheduledFuture<?> ping;
+    private volatile boolean closed = false;
 
-    private JavaHttpSubscriptionAdapter(URI target, HttpClient httpClient, Runnable onClose, RpcCoder rpcCoder) {
+    private JavaHttpSubscriptionAdapter(URI target, HttpClient httpClient, Runnable onClose, RpcCoder rpcCoder,
+                                        Duration reconnectMin, Duration reconnectMax, Predicate<String> replayable,
+                                        EventDispatcher dispatcher, boolean share, Duration timeout, int maxInFlight) {
         this.target = target;
         this.httpClient = httpClient;
         this.onClose = onClose;
+        this.reconnectMin = reconnectMin;
+        this.reconnectMax = reconnectMax;
+        this.replayable = replayable;
+        this.dispatcher = dispatcher;
+        this.share = share;
+        this.timeout = timeout;
+        this.maxInFlight = maxInFlight;
         var rpcMapping = new DecodeResponse.TypeMapping<Integer>() {
             @Override
             public JavaType get(Integer id) {
@@ -61,7 +105,7 @@ public class JavaHttpSubscriptionAdapter implements SubscriptionAdapter, RpcCall
             }
         };
         this.rpcCoder = rpcCoder;
-        this.decodeResponse = new DecodeResponse(rpcCoder.getObjectMapper(), rpcMapping, subMapping);
+        this.decodeResponse = new DecodeResponse(rpcCoder.getJsonCache(), rpcMapping, subMapping);
     }
 
     public static Builder newBuilder() {
@@ -89,34 +133,159 @@ public class JavaHttpSubscriptionAdapter implements SubscriptionAdapter, RpcCall
                 oldWebSocket.sendClose(WebSocket.NORMAL_CLOSURE, "reconnect");
             }
             execution.clear();
+            waiting.clear();
             subscriptions.clear();
+            shared.clear();
             rpcCoder.resetId();
-
-            // need to send ping, otherwise remote can drop the connection
-            control.scheduleAtFixedRate(() -> {
-                    byte[] ping = new byte[1];
-                    newWebSocket.sendPing(ByteBuffer.wrap(ping));
-            }, 30, 45, TimeUnit.SECONDS);
+            connection.set(new Connection(newWebSocket, generation.incrementAndGet()));
+            startPing(newWebSocket);
 
             return newWebSocket;
         })).thenCombine(whenConnected, (webSocket, isOpen) -> isOpen);
     }
 
+    private synchronized void startPing(WebSocket socket) {
+        if (ping != null) {
+            ping.cancel(false);
+        }
+        // need to send ping, otherwise remote can drop the connection
+        ping = control.scheduleAtFixedRate(() -> {
+                byte[] ping = new byte[1];
+                socket.sendPing(ByteBuffer.wrap(ping));
+        }, 30, 45, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Called when a connection is closed by the server or failed
+     *
+     * @param socket closed connection
+     */
+    private void disconnected(WebSocket socket) {
+        Connection current = connection.get();
+        // ignore already replaced connections, and a second notification for the same connection
+        if (current == null || current.socket != socket || !connection.compareAndSet(current, null)) {
+            return;
+        }
+        if (closed) {
+            return;
+        }
+        boolean reconnect = reconnectMin != null;
+        execution.forEach((id, x) -> {
+            if (!reconnect || !replayable.test(x.getMethod())) {
+                fail(id, x, new IOException("Connection lost before receiving a response"));
+            }
+        });
+        if (!reconnect) {
+            List<DefaultSubscription<?>> lost = new ArrayList<>(subscriptions.values());
+            subscriptions.clear();
+            lost.forEach(subscription -> subscription.terminate(new IOException("Connection lost")));
+            return;
+        }
+        if (reconnecting.compareAndSet(false, true)) {
+            reconnect(reconnectMin.toMillis());
+        }
+    }
+
+    private void reconnect(long delay) {
+        if (closed) {
+            return;
+        }
+        try {
+            control.schedule(() -> {
+                if (closed) {
+                    return;
+                }
+                CompletableFuture<Boolean> whenConnected = new CompletableFuture<>();
+                httpClient.newWebSocketBuilder()
+                        .connectTimeout(Duration.ofSeconds(60))
+                        .buildAsync(target, newListener(whenConnected))
+                        // thenCombine would wait for both even if failed to connect
+                        .thenCompose((socket) -> whenConnected.thenApply((isOpen) -> socket))
+                        .whenComplete((socket, t) -> {
+                            if (t != null) {
+                                reconnect(Math.min(delay * 2, reconnectMax.toMillis()));
+                            } else {
+                                restore(socket);
+                            }
+                        });
+            }, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // adapter is closed
+        }
+    }
+
+    /**
+     * Start using a new connection after reconnect. Resends calls waiting for a response, and subscribes again to
+     * active subscriptions.
+     *
+     * @param socket new connection
+     */
+    private void restore(WebSocket socket) {
+        if (closed) {
+            socket.sendClose(WebSocket.NORMAL_CLOSURE, "close");
+            return;
+        }
+        List<DefaultSubscription<?>> active = new ArrayList<>(subscriptions.values());
+        subscriptions.clear();
+        webSocket.set(socket);
+        Connection current = new Connection(socket, generation.incrementAndGet());
+        connection.set(current);
+        reconnecting.set(false);
+        startPing(socket);
+        execution.forEach((id, x) -> {
+            if (x.isAdmitted()) {
+                send(current, id, x);
+            }
+        });
+        for (DefaultSubscription<?> subscription: active) {
+            if (subscription.getCall() != null && replayable.test(subscription.getCall().getMethod())) {
+                resubscribe(subscription);
+            } else {
+                // ex. author_submitAndWatchExtrinsic cannot be made again, so the stream is ended for the consumer
+                subscription.terminate(new IOException("Connection lost"));
+            }
+        }
+        if (socket.isInputClosed()) {
+            // closed before it was set as current
+            disconnected(socket);
+        }
+    }
+
+    private void resubscribe(DefaultSubscription<?> subscription) {
+        SubscribeCall<?> call = subscription.getCall();
+        produceRpcFuture(RpcCall.create(String.class, call.getMethod(), call.getParams()))
+                .whenComplete((id, t) -> {
+                    if (t != null) {
+                        if (!subscription.isClosed()) {
+                            subscription.terminate(t instanceof CompletionException && t.getCause() != null ? t.getCause() : t);
+                        }
+                        return;
+                    }
+                    if (subscription.isClosed()) {
+                        produceRpcFuture(RpcCall.create(Boolean.class, call.getUnsubscribe(), id));
+                        return;
+                    }
+                    subscription.resubscribed(id);
+                    subscriptions.put(id, subscription);
+                    subscription.gap();
+                });
+    }
+
     private WebSocket.Listener newListener(final CompletableFuture<Boolean> whenConnected) {
+        // each connection has its own listener, so it's the decoder per connection
+        final MessageDecoder decoder = new MessageDecoder(rpcCoder.getObjectMapper(), decodeResponse);
         return new WebSocket.Listener() {
             @Override
             public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+                boolean ready = true;
                 try {
-                    if (last) {
-                        String message = messageBuffer.last(webSocket, data);
-                        WsResponse response = decodeResponse.decode(message);
+                    WsResponse response = decoder.onText(data, last);
+                    if (response != null) {
                         if (response.getType() == WsResponse.Type.SUBSCRIPTION) {
-                            accept(response.asEvent());
+                            ready = accept(response.asEvent(), () -> webSocket.request(1));
                         } else {
                             accept(response.asRpc());
                         }
-                    } else {
-                        messageBuffer.add(webSocket, data);
                     }
                 } catch (IllegalStateException e) {
                     // happen when data cannot be properly mapped, i.e. when there is no such subscription or request
@@ -124,7 +293,10 @@ public class JavaHttpSubscriptionAdapter implements SubscriptionAdapter, RpcCall
                 } catch (Throwable e) {
                     e.printStackTrace();
                 }
-                webSocket.request(1);
+                // when a subscription queue is full it's requested later, after the queue is processed
+                if (ready) {
+                    webSocket.request(1);
+                }
                 return null;
             }
 
@@ -139,6 +311,18 @@ public class JavaHttpSubscriptionAdapter implements SubscriptionAdapter, RpcCall
                 return webSocket.sendPong(message);
             }
 
+            @Override
+            public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
+                disconnected(webSocket);
+                return null;
+            }
+
+            @Override
+            public void onError(WebSocket webSocket, Throwable error) {
+                whenConnected.completeExceptionally(error);
+                disconnected(webSocket);
+            }
+
         };
     }
 
@@ -146,24 +330,132 @@ public class JavaHttpSubscriptionAdapter implements SubscriptionAdapter, RpcCall
     public <T> CompletableFuture<T> produceRpcFuture(final RpcCall<T> call) {
         int id = rpcCoder.nextId();
         byte[] payload;
-        final ObjectMapper objectMapper = rpcCoder.getObjectMapper();
         try {
             payload = rpcCoder.encode(id, call);
         } catch (JsonProcessingException e) {
             return CompletableFuture.failedFuture(e);
         }
         CompletableFuture<T> whenResponseReceived = new CompletableFuture<>();
-        execution.put(id, new RequestExpectation<>(rpcCoder.responseType(
-                call.getResultType(objectMapper.getTypeFactory())), whenResponseReceived));
-        return webSocket.get()
-                .sendText(new String(payload), true)
-                .thenCombine(whenResponseReceived, (a, b) -> b);
+        RequestExpectation<T> expectation = new RequestExpectation<>(rpcCoder.resultType(call),
+                whenResponseReceived, call.getMethod(), new String(payload));
+        if (connection.get() == null && (reconnectMin == null || closed || !replayable.test(call.getMethod()))) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Not connected"));
+        }
+        execution.put(id, expectation);
+        expectation.deadline = deadlines.schedule(timeout,
+                () -> fail(id, expectation, new TimeoutException("No response in " + timeout.toMillis() + "ms")));
+        // called on any completion, including a cancellation by the caller
+        whenResponseReceived.whenComplete((ignore, t) -> finished(id, expectation));
+        if (!admit(expectation)) {
+            waiting.add(id);
+            // a slot may be released before it's added to the queue
+            admitNext();
+            return whenResponseReceived;
+        }
+        // if it's disconnected at this moment the call is sent after reconnect
+        Connection current = connection.get();
+        if (current != null) {
+            send(current, id, expectation);
+        }
+        return whenResponseReceived;
+    }
+
+    /**
+     * Take a slot for the call, if the max number of calls in flight is not reached yet
+     *
+     * @param expectation call
+     * @return true if the call can be sent now
+     */
+    private boolean admit(RequestExpectation<?> expectation) {
+        if (!acquireSlot()) {
+            return false;
+        }
+        if (!expectation.admit()) {
+            // already finished, e.g., cancelled while waiting
+            inFlight.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    private boolean acquireSlot() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= maxInFlight) {
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * Send waiting calls while there are free slots
+     */
+    private void admitNext() {
+        while (!waiting.isEmpty()) {
+            if (!acquireSlot()) {
+                return;
+            }
+            Integer id = waiting.poll();
+            RequestExpectation<?> expectation = id == null ? null : execution.get(id);
+            if (expectation == null || !expectation.admit()) {
+                inFlight.decrementAndGet();
+                continue;
+            }
+            Connection current = connection.get();
+            if (current != null) {
+                send(current, id, expectation);
+            }
+        }
+    }
+
+    /**
+     * Cleanup after the call is completed in any way, i.e., with a response, an error, a timeout or a cancellation
+     *
+     * @param id id of the call
+     * @param expectation call
+     */
+    private void finished(int id, RequestExpectation<?> expectation) {
+        execution.remove(id, expectation);
+        if (expectation.deadline != null) {
+            expectation.deadline.cancel();
+        }
+        if (expectation.finish()) {
+            inFlight.decrementAndGet();
+            admitNext();
+        } else {
+            waiting.remove(id);
+        }
     }
 
+    private void send(Connection current, int id, RequestExpectation<?> expectation) {
+        if (!expectation.markSent(current.generation)) {
+            return;
+        }
+        current.sendText(expectation.getPayload()).whenComplete((ignore, t) -> {
+            // with reconnect enabled the failed call is resent on the next connection
+            if (t != null && reconnectMin == null) {
+                fail(id, expectation, t);
+            }
+        });
+    }
+
+    private void fail(int id, RequestExpectation<?> expectation, Throwable t) {
+        if (execution.remove(id, expectation)) {
+            expectation.getHandler().completeExceptionally(new CompletionException(t));
+        }
+    }
 
     @Override
     public <T> CompletableFuture<Subscription<T>> subscribe(final SubscribeCall<T> call) {
-        var subscription = new DefaultSubscription<T>(call.getResultType(rpcCoder.getObjectMapper().getTypeFactory()), call.getUnsubscribe(),this);
+        var subscription = new DefaultSubscription<T>(rpcCoder.resultType(call), call, this);
+        if (dispatcher != null) {
+            subscription.dispatch(dispatcher);
+        }
+        if (share) {
+            return subscribeShared(call, subscription);
+        }
         var start = this.produceRpcFuture(RpcCall.create(String.class, call.getMethod(), call.getParams()));
         return start.thenApply(id -> {
             subscriptions.put(id, subscription);
@@ -172,6 +464,79 @@ public class JavaHttpSubscriptionAdapter implements SubscriptionAdapter, RpcCall
         });
     }
 
+    /**
+     * Add the subscription to an existing server subscription with the same method and params, or make a new one
+     *
+     * @param call subscription call
+     * @param subscription new local subscription
+     * @return future for the local subscription
+     */
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<Subscription<T>> subscribeShared(final SubscribeCall<T> call, DefaultSubscription<T> subscription) {
+        String key;
+        try {
+            key = call.getMethod() + rpcCoder.getObjectMapper().writeValueAsString(call.getParams()) + subscription.getType().toCanonical();
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        SharedSubscription<T> source;
+        boolean created = false;
+        synchronized (shared) {
+            source = (SharedSubscription<T>) shared.get(key);
+            if (source == null || source.isClosed()) {
+                source = new SharedSubscription<>(subscription.getType(), call, this, key);
+                shared.put(key, source);
+                created = true;
+            }
+            source.add(subscription);
+        }
+        if (created) {
+            final SharedSubscription<T> started = source;
+            this.produceRpcFuture(RpcCall.create(String.class, call.getMethod(), call.getParams()))
+                    .whenComplete((id, t) -> {
+                        if (t != null) {
+                            unshare(started);
+                            started.failed(t);
+                            return;
+                        }
+                        if (started.isClosed()) {
+                            // all local subscriptions were closed before the server confirmed it
+                            produceRpcFuture(RpcCall.create(Boolean.class, call.getUnsubscribe(), id));
+                            return;
+                        }
+                        subscriptions.put(id, started);
+                        started.started(id);
+                    });
+        }
+        return source.getStarted().thenApply(id -> subscription);
+    }
+
+    /**
+     * Remove a local subscription from a shared subscription
+     *
+     * @param source shared subscription
+     * @param local local subscription
+     * @return true if it was the last local subscription, and the shared subscription should be closed
+     */
+    <T> boolean release(SharedSubscription<T> source, DefaultSubscription<T> local) {
+        synchronized (shared) {
+            boolean last = source.remove(local);
+            if (last) {
+                shared.remove(source.getKey(), source);
+            }
+            return last;
+        }
+    }
+
+    /**
+     * Stop using the shared subscription for new calls
+     *
+     * @param source shared subscription
+     */
+    void unshare(SharedSubscription<?> source) {
+        shared.remove(source.getKey(), source);
+    }
+
     @SuppressWarnings("unchecked")
     public <T> void accept(RpcResponse<T> response) {
         RequestExpectation<T> f = (RequestExpectation<T>) execution.get(response.getId());
@@ -191,13 +556,24 @@ public class JavaHttpSubscriptionAdapter implements SubscriptionAdapter, RpcCall
         }
     }
 
-    @SuppressWarnings("unchecked")
     public <T> void accept(SubscriptionResponse<T> response) {
+        accept(response, () -> {});
+    }
+
+    /**
+     * Accept a subscription event
+     *
+     * @param response event
+     * @param resume action to continue reading the connection, if it's blocked by the subscription queue
+     * @return true if the connection can continue reading
+     */
+    @SuppressWarnings("unchecked")
+    <T> boolean accept(SubscriptionResponse<T> response, Runnable resume) {
         DefaultSubscription<T> s = (DefaultSubscription<T>) subscriptions.get(response.id);
         if (s == null) {
-            return;
+            return true;
         }
-        s.accept(new Subscription.Event<>(response.method, response.value));
+        return s.offer(new Subscription.Event<>(response.method, response.value), resume);
     }
 
     public boolean removeSubscription(String id) {
@@ -206,14 +582,22 @@ public class JavaHttpSubscriptionAdapter implements SubscriptionAdapter, RpcCall
 
     @Override
     public void close() {
+        closed = true;
+        connection.set(null);
         webSocket.updateAndGet(old -> {
             if (old != null) {
                 old.sendClose(WebSocket.NORMAL_CLOSURE, "close");
             }
             return null;
         });
+        List<Map.Entry<Integer, RequestExpectation<?>>> pending = new ArrayList<>(execution.entrySet());
+        pending.forEach((e) -> fail(e.getKey(), e.getValue(), new IOException("Adapter is closed")));
         execution.clear();
+        waiting.clear();
+        List<DefaultSubscription<?>> active = new ArrayList<>(subscriptions.values());
         subscriptions.clear();
+        active.forEach(DefaultSubscription::complete);
+        shared.clear();
         control.shutdownNow();
         if (onClose != null) {
             try {
@@ -263,13 +647,102 @@ public class JavaHttpSubscriptionAdapter implements SubscriptionAdapter, RpcCall
         }
     }
 
+    /**
+     * An established connection. Java WebSocket allows only one outstanding send, so all messages are sent one after another.
+     */
+    static class Connection {
+        private final WebSocket socket;
+        /**
+         * Sequential number of the connection
+         */
+        private final int generation;
+        private CompletableFuture<?> lastSend = CompletableFuture.completedFuture(null);
+
+        Connection(WebSocket socket, int generation) {
+            this.socket = socket;
+            this.generation = generation;
+        }
+
+        synchronized CompletableFuture<WebSocket> sendText(String text) {
+            CompletableFuture<WebSocket> result = lastSend
+                    .handle((ignore, t) -> null)
+                    .thenCompose((ignore) -> socket.sendText(text, true));
+            lastSend = result;
+            return result;
+        }
+    }
+
     static class RequestExpectation<T> {
         private final JavaType type;
         private final CompletableFuture<T> handler;
+        private final String method;
+        private final String payload;
+        /**
+         * Generation of the connection used to send the request, or 0 if it's not sent yet
+         */
+        private final AtomicInteger sentWith = new AtomicInteger(0);
+        /**
+         * Either WAITING for a slot, ADMITTED to send, or FINISHED
+         */
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+        private volatile TimeoutWheel.Timeout deadline;
+
+        private static final int WAITING = 0;
+        private static final int ADMITTED = 1;
+        private static final int FINISHED = 2;
 
-        public RequestExpectation(JavaType type, CompletableFuture<T> handler) {
+        public RequestExpectation(JavaType type, CompletableFuture<T> handler, String method, String payload) {
             this.type = type;
             this.handler = handler;
+            this.method = method;
+            this.payload = payload;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public String getPayload() {
+            return payload;
+        }
+
+        /**
+         * Mark as sent with the specified connection
+         *
+         * @param generation generation of the connection
+         * @return true if it wasn't sent with that connection before and should be sent now
+         */
+        boolean markSent(int generation) {
+            int current;
+            do {
+                current = sentWith.get();
+                if (current >= generation) {
+                    return false;
+                }
+            } while (!sentWith.compareAndSet(current, generation));
+            return true;
+        }
+
+        /**
+         * Mark as allowed to send
+         *
+         * @return false if it's already finished
+         */
+        boolean admit() {
+            return state.compareAndSet(WAITING, ADMITTED);
+        }
+
+        boolean isAdmitted() {
+            return state.get() == ADMITTED;
+        }
+
+        /**
+         * Mark as finished
+         *
+         * @return true if it was admitted, i.e., it had a slot which must be released now
+         */
+        boolean finish() {
+            return state.getAndSet(FINISHED) == ADMITTED;
         }
 
         public JavaType getType() {
@@ -287,6 +760,13 @@ public class JavaHttpSubscriptionAdapter implements SubscriptionAdapter, RpcCall
         private HttpClient httpClient;
         private RpcCoder rpcCoder;
         private Runnable onClose;
+        private Duration reconnectMin;
+        private Duration reconnectMax;
+        private Predicate<String> replayable = (method) -> !method.startsWith("author_");
+        private EventDispatcher dispatcher;
+        private boolean share = false;
+        private Duration timeout = Duration.ofMinutes(1);
+        private int maxInFlight = Integer.MAX_VALUE;
 
         /**
          * Server address URL
@@ -362,11 +842,118 @@ public class JavaHttpSubscriptionAdapter implements SubscriptionAdapter, RpcCall
         }
 
 
+        /**
+         * Reconnect automatically when the connection is lost, with 1 second delay before the first attempt, doubled on
+         * each failed attempt up to 1 minute
+         *
+         * @return builder
+         */
+        public Builder reconnect() {
+            return reconnect(Duration.ofSeconds(1), Duration.ofMinutes(1));
+        }
+
+        /**
+         * Reconnect automatically when the connection is lost. The delay before an attempt starts with the min value,
+         * and is doubled after each failed attempt up to the max value.
+         *
+         * @param min delay before the first attempt
+         * @param max max delay between attempts
+         * @return builder
+         */
+        public Builder reconnect(Duration min, Duration max) {
+            if (min == null || max == null || min.isNegative() || min.isZero() || max.compareTo(min) < 0) {
+                throw new IllegalArgumentException("Invalid reconnect delay: " + min + " to " + max);
+            }
+            this.reconnectMin = min;
+            this.reconnectMax = max;
+            return this;
+        }
+
+        /**
+         * Methods which are safe to send again after reconnect, when it's unknown whether the server executed the
+         * original request. Subscriptions with a non-replayable method are dropped on reconnect.
+         * By default all methods except <code>author_*</code> (i.e., extrinsic submission and key management) are replayable.
+         *
+         * @param replayable filter for method names
+         * @return builder
+         */
+        public Builder replayable(Predicate<String> replayable) {
+            this.replayable = Objects.requireNonNull(replayable);
+            return this;
+        }
+
+        /**
+         * Call subscription handlers with the specified executor, instead of the WebSocket thread. Each subscription
+         * gets a queue of up to 1024 events, and the connection stops reading when a queue is full.
+         *
+         * @param executor executor to call handlers
+         * @return builder
+         * @see EventDispatcher
+         */
+        public Builder dispatch(Executor executor) {
+            return dispatch(executor, 1024, EventDispatcher.Overflow.BLOCK);
+        }
+
+        /**
+         * Call subscription handlers with the specified executor, instead of the WebSocket thread.
+         *
+         * @param executor executor to call handlers
+         * @param queueSize max number of events waiting for a handler, per subscription
+         * @param overflow what to do when a queue is full
+         * @return builder
+         * @see EventDispatcher
+         */
+        public Builder dispatch(Executor executor, int queueSize, EventDispatcher.Overflow overflow) {
+            this.dispatcher = new EventDispatcher(executor, queueSize, overflow);
+            return this;
+        }
+
+        /**
+         * Share a single server subscription between all local subscriptions with the same method and params. I.e.,
+         * when multiple components subscribe to new heads the adapter makes only one subscription on the server, decodes
+         * each event once and delivers it to all of them. The server subscription is closed when the last local
+         * subscription is closed.
+         *
+         * @return builder
+         */
+        public Builder shareSubscriptions() {
+            this.share = true;
+            return this;
+        }
+
+        /**
+         * Max time to wait for a response. When it's reached the call fails with a TimeoutException and the adapter
+         * stops tracking it. The time includes waiting for a reconnect or for a free slot. Default is 1 minute.
+         *
+         * @param timeout max time to wait for a response
+         * @return builder
+         */
+        public Builder timeout(Duration timeout) {
+            if (timeout == null || timeout.isNegative() || timeout.isZero()) {
+                throw new IllegalArgumentException("Invalid timeout: " + timeout);
+            }
+            this.timeout = timeout;
+            return this;
+        }
+
+        /**
+         * Max number of calls sent to the server and waiting for a response. Other calls wait in the adapter and are sent
+         * when previous calls are completed. By default there is no limit.
+         *
+         * @param maxInFlight max number of calls in flight
+         * @return builder
+         */
+        public Builder maxInFlight(int maxInFlight) {
+            if (maxInFlight <= 0) {
+                throw new IllegalArgumentException("Max calls in flight must be positive: " + maxInFlight);
+            }
+            this.maxInFlight = maxInFlight;
+            return this;
+        }
+
         private void initDefaults() {
             if (rpcCoder == null) {
-                final ObjectMapper objectMapper = new ObjectMapper();
-                objectMapper.registerModule(new PolkadotModule());
-                rpcCoder = new RpcCoder(objectMapper);
+                rpcCoder = new RpcCoder(JsonCache.getDefault());
             }
             if (httpClient == null && target == null) {
                 try {
@@ -397,7 +984,7 @@ public class JavaHttpSubscriptionAdapter implements SubscriptionAdapter, RpcCall
          */
         public JavaHttpSubscriptionAdapter build() {
             initDefaults();
-            return new JavaHttpSubscriptionAdapter(target, httpClient, onClose, rpcCoder);
+            return new JavaHttpSubscriptionAdapter(target, httpClient, onClose, rpcCoder, reconnectMin, reconnectMax, replayable, dispatcher, share, timeout, maxInFlight);
         }
     }
 
@@ -0,0 +1,183 @@
+package io.emeraldpay.polkaj.apiws;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import java.io.IOException;
+
+/**
+ * Decoder for WebSocket messages, which parses a message as it arrives, fragment by fragment. Each fragment is encoded
+ * into a reusable byte buffer and passed to the Jackson non-blocking parser, so a message is never joined into a single
+ * String. Parsed tokens are kept until the message is complete and then decoded with {@link DecodeResponse}.
+ * <br>
+ * Keeps state of the current message, so there must be a separate instance per connection. Not thread-safe, but
+ * WebSocket delivers fragments of a connection one by one.
+ */
+public class MessageDecoder {
+
+    private static final int INITIAL_BUFFER = 4096;
+
+    private final ObjectMapper objectMapper;
+    private final DecodeResponse decodeResponse;
+
+    private byte[] bytes = new byte[INITIAL_BUFFER];
+    private JsonParser parser;
+    private TokenBuffer tokens;
+    private int depth = 0;
+    private boolean complete = false;
+    /**
+     * High surrogate char at the end of the previous fragment, which must be joined with the first char of the next one
+     */
+    private char highSurrogate = 0;
+    /**
+     * Set when the current message is broken and should be skipped until the last fragment
+     */
+    private boolean skip = false;
+
+    public MessageDecoder(ObjectMapper objectMapper, DecodeResponse decodeResponse) {
+        this.objectMapper = objectMapper;
+        this.decodeResponse = decodeResponse;
+    }
+
+    /**
+     * Process next fragment of a message
+     *
+     * @param data fragment
+     * @param last true if it's the last fragment of the message
+     * @return decoded response if it's the last fragment, or null otherwise
+     * @throws IOException if the message is not a valid JSON
+     * @throws IllegalStateException if the message is not a valid JSON RPC response, or unknown
+     */
+    public WsResponse onText(CharSequence data, boolean last) throws IOException {
+        if (skip) {
+            if (last) {
+                skip = false;
+            }
+            return null;
+        }
+        try {
+            feed(data, last);
+            if (!last) {
+                return null;
+            }
+            if (!complete) {
+                throw new IllegalStateException("JSON finished before data received");
+            }
+            TokenBuffer message = tokens;
+            reset();
+            return decodeResponse.decode(message.asParser(objectMapper));
+        } catch (IOException | RuntimeException e) {
+            // the parser is in unknown state after an error, so start from a clean state with the next message
+            parser = null;
+            reset();
+            skip = !last;
+            throw e;
+        }
+    }
+
+    private void feed(CharSequence data, boolean last) throws IOException {
+        int length = encode(data, last);
+        if (length == 0) {
+            return;
+        }
+        if (parser == null) {
+            parser = objectMapper.getFactory().createNonBlockingByteArrayParser();
+        }
+        if (tokens == null) {
+            tokens = new TokenBuffer(objectMapper, false);
+        }
+        ((ByteArrayFeeder) parser.getNonBlockingInputFeeder()).feedInput(bytes, 0, length);
+        // read all available tokens, so the buffer can be reused for the next fragment
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.NOT_AVAILABLE && token != null) {
+            if (complete) {
+                throw new IllegalStateException("Unexpected data after JSON");
+            }
+            tokens.copyCurrentEvent(parser);
+            if (token.isStructStart()) {
+                depth++;
+            } else if (token.isStructEnd()) {
+                depth--;
+            }
+            complete = depth == 0;
+        }
+    }
+
+    private void reset() {
+        tokens = null;
+        depth = 0;
+        complete = false;
+        highSurrogate = 0;
+    }
+
+    /**
+     * Encode chars as UTF-8 into the buffer
+     *
+     * @param data chars
+     * @param last true if there is no more data for the current message
+     * @return number of bytes written
+     */
+    private int encode(CharSequence data, boolean last) {
+        int length = data.length();
+        int required = length * 3 + 4;
+        if (bytes.length < required) {
+            bytes = new byte[Math.max(required, bytes.length * 2)];
+        }
+        byte[] buf = bytes;
+        int pos = 0;
+        int i = 0;
+        if (highSurrogate != 0 && length > 0) {
+            char c = data.charAt(0);
+            if (Character.isLowSurrogate(c)) {
+                pos = writeCodePoint(buf, pos, Character.toCodePoint(highSurrogate, c));
+                i = 1;
+            } else {
+                buf[pos++] = '?';
+            }
+            highSurrogate = 0;
+        }
+        for (; i < length; i++) {
+            char c = data.charAt(i);
+            if (c < 0x80) {
+                buf[pos++] = (byte) c;
+            } else if (c < 0x800) {
+                buf[pos++] = (byte) (0xc0 | (c >> 6));
+                buf[pos++] = (byte) (0x80 | (c & 0x3f));
+            } else if (Character.isHighSurrogate(c)) {
+                if (i + 1 < length) {
+                    char low = data.charAt(i + 1);
+                    if (Character.isLowSurrogate(low)) {
+                        pos = writeCodePoint(buf, pos, Character.toCodePoint(c, low));
+                        i++;
+                    } else {
+                        buf[pos++] = '?';
+                    }
+                } else {
+                    highSurrogate = c;
+                }
+            } else if (Character.isLowSurrogate(c)) {
+                buf[pos++] = '?';
+            } else {
+                buf[pos++] = (byte) (0xe0 | (c >> 12));
+                buf[pos++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                buf[pos++] = (byte) (0x80 | (c & 0x3f));
+            }
+        }
+        if (last && highSurrogate != 0) {
+            buf[pos++] = '?';
+            highSurrogate = 0;
+        }
+        return pos;
+    }
+
+    private static int writeCodePoint(byte[] buf, int pos, int codePoint) {
+        buf[pos++] = (byte) (0xf0 | (codePoint >> 18));
+        buf[pos++] = (byte) (0x80 | ((codePoint >> 12) & 0x3f));
+        buf[pos++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+        buf[pos++] = (byte) (0x80 | (codePoint & 0x3f));
+        return pos;
+    }
+}
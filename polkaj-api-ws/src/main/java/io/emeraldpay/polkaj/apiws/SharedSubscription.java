@@ -0,0 +1,141 @@
+package io.emeraldpay.polkaj.apiws;
+
+import com.fasterxml.jackson.databind.JavaType;
+import io.emeraldpay.polkaj.api.SubscribeCall;
+import io.emeraldpay.polkaj.api.Subscription;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A single server-side subscription shared by multiple local subscriptions with the same method and params. Each event
+ * is decoded once and then passed to all local subscriptions. The server subscription is closed when the last local
+ * subscription is closed.
+ *
+ * @param <T> type of the events
+ */
+class SharedSubscription<T> extends DefaultSubscription<T> {
+
+    private final String key;
+    private final JavaHttpSubscriptionAdapter adapter;
+    private final List<DefaultSubscription<T>> locals = new CopyOnWriteArrayList<>();
+    private final CompletableFuture<String> started = new CompletableFuture<>();
+
+    /**
+     *
+     * @param type type of the events
+     * @param call original call used to subscribe
+     * @param adapter adapter
+     * @param key key of the subscription, i.e. the same for all calls which can share it
+     */
+    SharedSubscription(JavaType type, SubscribeCall<T> call, JavaHttpSubscriptionAdapter adapter, String key) {
+        super(type, call, adapter);
+        this.key = key;
+        this.adapter = adapter;
+    }
+
+    String getKey() {
+        return key;
+    }
+
+    /**
+     * @return future for the subscription id, completed when the server confirmed the subscription
+     */
+    CompletableFuture<String> getStarted() {
+        return started;
+    }
+
+    /**
+     * Add a new local subscription. Must be called under the adapter lock for shared subscriptions.
+     *
+     * @param local local subscription
+     */
+    void add(DefaultSubscription<T> local) {
+        local.share(this);
+        locals.add(local);
+    }
+
+    /**
+     * Remove a closed local subscription, and unsubscribe from the server if it was the last one.
+     *
+     * @param local local subscription
+     */
+    void release(DefaultSubscription<T> local) {
+        if (adapter.release(this, local)) {
+            super.close();
+        }
+    }
+
+    /**
+     * Remove a local subscription. Must be called under the adapter lock for shared subscriptions.
+     *
+     * @param local local subscription
+     * @return true if it was the last local subscription
+     */
+    boolean remove(DefaultSubscription<T> local) {
+        return locals.remove(local) && locals.isEmpty();
+    }
+
+    void started(String id) {
+        setId(id);
+        started.complete(id);
+    }
+
+    void failed(Throwable t) {
+        super.terminate(t);
+        started.completeExceptionally(t);
+    }
+
+    @Override
+    boolean offer(Subscription.Event<? extends T> event, Runnable resume) {
+        if (resume == null) {
+            for (DefaultSubscription<T> local: locals) {
+                local.offer(event, null);
+            }
+            return true;
+        }
+        // the connection continues when all local subscriptions are ready; the extra count is released below, after
+        // the event is passed to all of them
+        AtomicInteger blocked = new AtomicInteger(1);
+        Runnable join = () -> {
+            if (blocked.decrementAndGet() == 0) {
+                resume.run();
+            }
+        };
+        boolean ready = true;
+        for (DefaultSubscription<T> local: locals) {
+            blocked.incrementAndGet();
+            if (local.offer(event, join)) {
+                blocked.decrementAndGet();
+            } else {
+                ready = false;
+            }
+        }
+        if (ready) {
+            return true;
+        }
+        join.run();
+        return false;
+    }
+
+    @Override
+    void gap() {
+        locals.forEach(DefaultSubscription::gap);
+    }
+
+    @Override
+    void terminate(Throwable t) {
+        super.terminate(t);
+        adapter.unshare(this);
+        locals.forEach((local) -> local.terminate(t));
+    }
+
+    @Override
+    void complete() {
+        super.complete();
+        adapter.unshare(this);
+        locals.forEach(DefaultSubscription::complete);
+    }
+}
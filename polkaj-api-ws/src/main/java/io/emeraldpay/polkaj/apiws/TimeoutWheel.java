@@ -0,0 +1,162 @@
+package io.emeraldpay.polkaj.apiws;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hashed timer wheel for request deadlines. Instead of a separate scheduled task per request, all deadlines are put into
+ * buckets by the tick when they expire, and a single periodic task on the provided scheduler checks one bucket per tick.
+ * Adding and cancelling a deadline is O(1), and a cancelled deadline is removed immediately.
+ * <br>
+ * Deadlines are checked with the precision of one tick. A deadline further than the size of the wheel stays in its
+ * bucket for a few rounds. The periodic task runs only while there is at least one deadline.
+ */
+class TimeoutWheel {
+
+    private final ScheduledExecutorService scheduler;
+    private final long tickNanos;
+    private final List<Set<Timeout>> buckets;
+    private final long origin = System.nanoTime();
+
+    /**
+     * Last processed tick
+     */
+    private long processed;
+    private int count = 0;
+    private ScheduledFuture<?> task;
+
+    /**
+     *
+     * @param scheduler scheduler to run the periodic check
+     * @param tick duration of a single tick
+     * @param size number of buckets
+     */
+    TimeoutWheel(ScheduledExecutorService scheduler, Duration tick, int size) {
+        if (tick.isNegative() || tick.isZero()) {
+            throw new IllegalArgumentException("Tick must be positive: " + tick);
+        }
+        if (size <= 0) {
+            throw new IllegalArgumentException("Size must be positive: " + size);
+        }
+        this.scheduler = scheduler;
+        this.tickNanos = tick.toNanos();
+        this.buckets = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            buckets.add(new HashSet<>());
+        }
+    }
+
+    /**
+     * Add a new deadline
+     *
+     * @param delay time until the deadline
+     * @param action action to execute on the deadline, unless cancelled before
+     * @return handle to cancel the deadline
+     */
+    Timeout schedule(Duration delay, Runnable action) {
+        Timeout timeout = new Timeout(System.nanoTime() + delay.toNanos(), action);
+        synchronized (this) {
+            if (task == null) {
+                processed = tickOf(System.nanoTime());
+                try {
+                    task = scheduler.scheduleAtFixedRate(this::advance, tickNanos, tickNanos, TimeUnit.NANOSECONDS);
+                } catch (RejectedExecutionException e) {
+                    // the scheduler is stopped, i.e., the adapter is closed
+                    return timeout;
+                }
+            }
+            // round up, so it's never processed before the deadline; and never put into an already processed bucket
+            long due = Math.max(tickOf(timeout.deadline + tickNanos - 1), processed + 1);
+            timeout.bucket = buckets.get((int) (due % buckets.size()));
+            timeout.bucket.add(timeout);
+            count++;
+        }
+        return timeout;
+    }
+
+    /**
+     * @return number of active deadlines
+     */
+    synchronized int size() {
+        return count;
+    }
+
+    private long tickOf(long nanos) {
+        return (nanos - origin) / tickNanos;
+    }
+
+    /**
+     * Process all ticks since the last call, and execute expired deadlines
+     */
+    void advance() {
+        List<Timeout> expired = new ArrayList<>();
+        long now = System.nanoTime();
+        synchronized (this) {
+            long current = tickOf(now);
+            // if the scheduler was delayed for more than a full round it's enough to check each bucket once
+            long from = Math.max(processed + 1, current - buckets.size() + 1);
+            for (long tick = from; tick <= current; tick++) {
+                Iterator<Timeout> bucket = buckets.get((int) (tick % buckets.size())).iterator();
+                while (bucket.hasNext()) {
+                    Timeout timeout = bucket.next();
+                    if (timeout.deadline - now <= 0) {
+                        bucket.remove();
+                        timeout.bucket = null;
+                        count--;
+                        expired.add(timeout);
+                    }
+                }
+            }
+            processed = Math.max(processed, current);
+            if (count == 0 && task != null) {
+                task.cancel(false);
+                task = null;
+            }
+        }
+        for (Timeout timeout: expired) {
+            try {
+                timeout.action.run();
+            } catch (Throwable t) {
+                t.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * A single deadline
+     */
+    class Timeout {
+        private final long deadline;
+        private final Runnable action;
+        private Set<Timeout> bucket;
+
+        Timeout(long deadline, Runnable action) {
+            this.deadline = deadline;
+            this.action = action;
+        }
+
+        /**
+         * Remove the deadline from the wheel
+         *
+         * @return true if it was active, false if it's already expired or cancelled
+         */
+        boolean cancel() {
+            synchronized (TimeoutWheel.this) {
+                if (bucket == null || !bucket.remove(this)) {
+                    return false;
+                }
+                bucket = null;
+                count--;
+                return true;
+            }
+        }
+    }
+}
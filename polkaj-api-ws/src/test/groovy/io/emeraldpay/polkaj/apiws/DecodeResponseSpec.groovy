@@ -237,4 +237,37 @@ class DecodeResponseSpec extends Specification {
             }
         }
     }
+
+    def "Decode subscription response when method comes after params"() {
+        setup:
+        def json = '{"jsonrpc":"2.0","params":{"subscription":"EsqruyKPnZvPZ6fr","result":"0x01","extra":{"a":[1,2]}},"method":"test_event"}'
+        def mapping = Mock(DecodeResponse.TypeMapping) {
+            1 * get("EsqruyKPnZvPZ6fr") >> objectMapper.typeFactory.constructType(String.class)
+        }
+        def decoder = new DecodeResponse(objectMapper, Stub(DecodeResponse.TypeMapping), mapping)
+        when:
+        def act = decoder.decode(json)
+        then:
+        act.type == WsResponse.Type.SUBSCRIPTION
+        with(act.asEvent()) {
+            id == "EsqruyKPnZvPZ6fr"
+            method == "test_event"
+            value == "0x01"
+        }
+    }
+
+    def "Decode null result when id comes first"() {
+        setup:
+        def json = '{"jsonrpc":"2.0","id":1,"result":null}'
+        def mapping = Mock(DecodeResponse.TypeMapping) {
+            1 * get(1) >> objectMapper.typeFactory.constructType(BlockJson.class)
+        }
+        def decoder = new DecodeResponse(objectMapper, mapping, Stub(DecodeResponse.TypeMapping))
+        when:
+        def act = decoder.decode(json)
+        then:
+        act.type == WsResponse.Type.RPC
+        act.asRpc().id == 1
+        act.asRpc().result == null
+    }
 }
@@ -2,6 +2,7 @@ package io.emeraldpay.polkaj.apiws
 
 import io.emeraldpay.polkaj.api.PolkadotApi
 import io.emeraldpay.polkaj.api.RpcCall
+import io.emeraldpay.polkaj.api.SubscribeCall
 import io.emeraldpay.polkaj.api.Subscription
 import spock.lang.Specification
 
@@ -66,4 +67,102 @@ class DefaultSubscriptionSpec extends Specification {
         0 * client.execute(_) >> CompletableFuture.completedFuture(false)
         0 * adapter.removeSubscription(_)
     }
+
+    def "Gap calls gap handler"() {
+        setup:
+        def s = new DefaultSubscription(null, "test", null)
+        int gaps = 0
+        when:
+        s.gap()
+        s.gapHandler({ gaps++ })
+        s.gap()
+        then:
+        gaps == 1
+    }
+
+    def "Id is replaced after resubscribe"() {
+        setup:
+        def adapter = Mock(JavaHttpSubscriptionAdapter)
+        def s = new DefaultSubscription(null, SubscribeCall.create(String.class, "test", "untest"), adapter)
+        when:
+        s.setId("EsqruyKPnZvPZ6fr")
+        s.resubscribed("Xz8JhnHMzDrMRVGb")
+        s.close()
+        then:
+        s.closed
+        1 * adapter.produceRpcFuture(RpcCall.create(Boolean.class, "untest", ["Xz8JhnHMzDrMRVGb"])) >> CompletableFuture.completedFuture(true)
+        1 * adapter.removeSubscription("Xz8JhnHMzDrMRVGb")
+    }
+
+    def "Fail closes and calls error handler"() {
+        setup:
+        def adapter = Mock(JavaHttpSubscriptionAdapter)
+        def s = new DefaultSubscription(null, "untest", adapter)
+        Throwable error = null
+        s.errorHandler({ error = it })
+        s.setId("EsqruyKPnZvPZ6fr")
+        when:
+        s.fail(new IllegalStateException("test"))
+        then:
+        1 * adapter.produceRpcFuture(RpcCall.create(Boolean.class, "untest", ["EsqruyKPnZvPZ6fr"])) >> CompletableFuture.completedFuture(true)
+        1 * adapter.removeSubscription("EsqruyKPnZvPZ6fr")
+        error.message == "test"
+        s.closed
+    }
+
+    def "Offer delivers through queue"() {
+        setup:
+        List<Runnable> tasks = []
+        def s = new DefaultSubscription(null, "test", null)
+        s.dispatch(new EventDispatcher({ tasks.add(it) }, 10, EventDispatcher.Overflow.BLOCK))
+        Subscription.Event handled = null
+        s.handler({ handled = it })
+        when:
+        def ready = s.offer(new Subscription.Event("test", "test"), {})
+        then:
+        ready
+        handled == null
+        when:
+        tasks.each { it.run() }
+        then:
+        handled == new Subscription.Event("test", "test")
+    }
+
+    def "Deliver events to handler and subscriber"() {
+        setup:
+        def s = new DefaultSubscription<String>(null, "test", null)
+        def subscriber = new EventPublisherSpec.TestSubscriber()
+        Subscription.Event handled = null
+        s.handler({ handled = it })
+        s.subscribe(subscriber)
+        subscriber.subscription.request(1)
+        when:
+        def ready = s.offer(new Subscription.Event("test", "a"), {})
+        then:
+        ready
+        handled.result == "a"
+        subscriber.received == ["a"]
+    }
+
+    def "Continue reading when both queue and subscriber are ready"() {
+        setup:
+        List<Runnable> tasks = []
+        def s = new DefaultSubscription<String>(null, "test", null)
+        s.dispatch(new EventDispatcher({ tasks.add(it) }, 1, EventDispatcher.Overflow.BLOCK))
+        def subscriber = new EventPublisherSpec.TestSubscriber()
+        s.subscribe(subscriber)
+        int resumed = 0
+        when:
+        def ready = s.offer(new Subscription.Event("test", "a"), { resumed++ })
+        then:
+        !ready
+        when:
+        tasks.each { it.run() }
+        then:
+        resumed == 0
+        when:
+        subscriber.subscription.request(1)
+        then:
+        resumed == 1
+    }
 }
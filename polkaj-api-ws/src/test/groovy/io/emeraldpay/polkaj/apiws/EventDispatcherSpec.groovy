@@ -0,0 +1,140 @@
+package io.emeraldpay.polkaj.apiws
+
+import spock.lang.Specification
+
+import java.util.concurrent.Executor
+import java.util.concurrent.RejectedExecutionException
+
+class EventDispatcherSpec extends Specification {
+
+    /**
+     * Executor which runs tasks only when asked
+     */
+    class ManualExecutor implements Executor {
+        List<Runnable> tasks = []
+
+        @Override
+        void execute(Runnable command) {
+            tasks.add(command)
+        }
+
+        void runAll() {
+            while (!tasks.isEmpty()) {
+                tasks.remove(0).run()
+            }
+        }
+    }
+
+    ManualExecutor executor = new ManualExecutor()
+
+    def "Deliver in order with executor"() {
+        setup:
+        def queue = new EventDispatcher(executor, 10, EventDispatcher.Overflow.BLOCK).newQueue({})
+        def delivered = []
+        when:
+        def ready = (1..5).collect { i -> queue.offer({ delivered.add(i) }, {}) }
+        then:
+        ready.every()
+        delivered.isEmpty()
+        executor.tasks.size() == 1
+        when:
+        executor.runAll()
+        then:
+        delivered == [1, 2, 3, 4, 5]
+    }
+
+    def "Drop oldest when full"() {
+        setup:
+        def queue = new EventDispatcher(executor, 3, EventDispatcher.Overflow.DROP_OLDEST).newQueue({})
+        def delivered = []
+        when:
+        def ready = (1..5).collect { i -> queue.offer({ delivered.add(i) }, {}) }
+        executor.runAll()
+        then:
+        ready.every()
+        delivered == [3, 4, 5]
+        queue.dropped == 2
+    }
+
+    def "Stop reading when full and resume after processing"() {
+        setup:
+        def queue = new EventDispatcher(executor, 3, EventDispatcher.Overflow.BLOCK).newQueue({})
+        def delivered = []
+        int resumed = 0
+        def resume = { resumed++ }
+        when:
+        def ready = (1..3).collect { i -> queue.offer({ delivered.add(i) }, resume) }
+        then:
+        ready == [true, true, false]
+        resumed == 0
+        when:
+        executor.runAll()
+        then:
+        resumed == 1
+        delivered == [1, 2, 3]
+    }
+
+    def "Don't stop reading for own events"() {
+        setup:
+        def queue = new EventDispatcher(executor, 1, EventDispatcher.Overflow.BLOCK).newQueue({})
+        int resumed = 0
+        when:
+        def first = queue.offer({}, { resumed++ })
+        def second = queue.offer({}, null)
+        executor.runAll()
+        then:
+        !first
+        second
+        resumed == 1
+    }
+
+    def "Fail when full"() {
+        setup:
+        Throwable error = null
+        def queue = new EventDispatcher(executor, 2, EventDispatcher.Overflow.FAIL).newQueue({ error = it })
+        def delivered = []
+        when:
+        def ready = (1..4).collect { i -> queue.offer({ delivered.add(i) }, {}) }
+        executor.runAll()
+        then:
+        ready.every()
+        delivered.isEmpty()
+        error instanceof IllegalStateException
+    }
+
+    def "Let other tasks run after a batch"() {
+        setup:
+        def queue = new EventDispatcher(executor, 1000, EventDispatcher.Overflow.BLOCK).newQueue({})
+        def delivered = []
+        (1..100).each { i -> queue.offer({ delivered.add(i) }, {}) }
+        when:
+        executor.tasks.remove(0).run()
+        then:
+        delivered.size() == 64
+        executor.tasks.size() == 1
+        when:
+        executor.runAll()
+        then:
+        delivered == (1..100).toList()
+    }
+
+    def "Drop tasks if executor is stopped"() {
+        setup:
+        def stopped = Stub(Executor) {
+            execute(_) >> { throw new RejectedExecutionException() }
+        }
+        def queue = new EventDispatcher(stopped, 1, EventDispatcher.Overflow.BLOCK).newQueue({})
+        when:
+        def ready = queue.offer({}, {})
+        then:
+        ready
+        queue.size() == 0
+    }
+
+    def "Invalid capacity"() {
+        when:
+        new EventDispatcher(executor, 0, EventDispatcher.Overflow.BLOCK)
+        then:
+        thrown(IllegalArgumentException)
+    }
+}
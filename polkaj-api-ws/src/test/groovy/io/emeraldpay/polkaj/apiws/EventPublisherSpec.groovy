@@ -0,0 +1,172 @@
+package io.emeraldpay.polkaj.apiws
+
+import io.emeraldpay.polkaj.api.Subscription
+import spock.lang.Specification
+
+import java.util.concurrent.Flow
+
+class EventPublisherSpec extends Specification {
+
+    static class TestSubscriber implements Flow.Subscriber<Subscription.Event<String>> {
+        Flow.Subscription subscription
+        List<String> received = []
+        boolean completed = false
+        Throwable error
+        Closure onEvent = {}
+
+        @Override
+        void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription
+        }
+
+        @Override
+        void onNext(Subscription.Event<String> item) {
+            received.add(item.result)
+            onEvent(this)
+        }
+
+        @Override
+        void onError(Throwable throwable) {
+            error = throwable
+        }
+
+        @Override
+        void onComplete() {
+            completed = true
+        }
+    }
+
+    static Subscription.Event<String> event(String value) {
+        return new Subscription.Event<String>("test", value)
+    }
+
+    EventPublisher<String> publisher = new EventPublisher<>()
+
+    def "Deliver requested events"() {
+        setup:
+        def subscriber = new TestSubscriber()
+        publisher.subscribe(subscriber)
+        when:
+        subscriber.subscription.request(2)
+        def ready = ["a", "b"].collect { publisher.offer(event(it), {}) }
+        then:
+        ready == [true, true]
+        subscriber.received == ["a", "b"]
+    }
+
+    def "Stop connection without demand"() {
+        setup:
+        def subscriber = new TestSubscriber()
+        publisher.subscribe(subscriber)
+        int resumed = 0
+        when:
+        def ready = publisher.offer(event("a"), { resumed++ })
+        then:
+        !ready
+        subscriber.received.isEmpty()
+        when:
+        subscriber.subscription.request(1)
+        then:
+        subscriber.received == ["a"]
+        resumed == 1
+    }
+
+    def "Continue connection when all subscribers have demand"() {
+        setup:
+        def first = new TestSubscriber()
+        def second = new TestSubscriber()
+        publisher.subscribe(first)
+        publisher.subscribe(second)
+        int resumed = 0
+        when:
+        first.subscription.request(10)
+        def ready = publisher.offer(event("a"), { resumed++ })
+        then:
+        !ready
+        first.received == ["a"]
+        second.received.isEmpty()
+        when:
+        second.subscription.request(1)
+        then:
+        second.received == ["a"]
+        resumed == 1
+    }
+
+    def "Continue connection when subscriber without demand cancels"() {
+        setup:
+        def subscriber = new TestSubscriber()
+        publisher.subscribe(subscriber)
+        int resumed = 0
+        when:
+        publisher.offer(event("a"), { resumed++ })
+        subscriber.subscription.cancel()
+        then:
+        resumed == 1
+        !publisher.hasSubscribers()
+        subscriber.received.isEmpty()
+    }
+
+    def "Request more from onNext"() {
+        setup:
+        def subscriber = new TestSubscriber(onEvent: { TestSubscriber s -> s.subscription.request(1) })
+        publisher.subscribe(subscriber)
+        when:
+        subscriber.subscription.request(1)
+        def ready = ["a", "b", "c"].collect { publisher.offer(event(it), {}) }
+        then:
+        ready == [true, true, true]
+        subscriber.received == ["a", "b", "c"]
+    }
+
+    def "Complete after delivering buffered events"() {
+        setup:
+        def subscriber = new TestSubscriber()
+        publisher.subscribe(subscriber)
+        when:
+        publisher.offer(event("a"), null)
+        publisher.complete()
+        then:
+        !subscriber.completed
+        when:
+        subscriber.subscription.request(1)
+        then:
+        subscriber.received == ["a"]
+        subscriber.completed
+    }
+
+    def "Error drops buffered events"() {
+        setup:
+        def subscriber = new TestSubscriber()
+        publisher.subscribe(subscriber)
+        int resumed = 0
+        when:
+        publisher.offer(event("a"), { resumed++ })
+        publisher.error(new IOException("Connection lost"))
+        then:
+        subscriber.received.isEmpty()
+        subscriber.error instanceof IOException
+        resumed == 1
+    }
+
+    def "Terminate subscriber after completed"() {
+        setup:
+        publisher.complete()
+        def subscriber = new TestSubscriber()
+        when:
+        publisher.subscribe(subscriber)
+        then:
+        subscriber.subscription != null
+        subscriber.completed
+    }
+
+    def "Fail on non-positive request"() {
+        setup:
+        def subscriber = new TestSubscriber()
+        publisher.subscribe(subscriber)
+        when:
+        subscriber.subscription.request(0)
+        then:
+        subscriber.error instanceof IllegalArgumentException
+        !publisher.hasSubscribers()
+    }
+}
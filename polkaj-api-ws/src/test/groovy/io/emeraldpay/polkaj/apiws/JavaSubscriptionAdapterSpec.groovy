@@ -5,11 +5,17 @@ import io.emeraldpay.polkaj.api.MockWsServer
 import io.emeraldpay.polkaj.api.PolkadotApi
 import io.emeraldpay.polkaj.api.RpcCall
 import io.emeraldpay.polkaj.api.RpcCoder
+import io.emeraldpay.polkaj.api.RpcException
+import io.emeraldpay.polkaj.api.SubscribeCall
 import io.emeraldpay.polkaj.api.SubscriptionAdapter
 import io.emeraldpay.polkaj.api.SubscriptionAdapterSpec
 
+import java.time.Duration
+import java.util.concurrent.ExecutionException
 import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
 import java.util.concurrent.TimeUnit
+import java.util.concurrent.TimeoutException
 
 class JavaSubscriptionAdapterSpec extends SubscriptionAdapterSpec {
 
@@ -76,4 +82,424 @@ class JavaSubscriptionAdapterSpec extends SubscriptionAdapterSpec {
         1 * onClose.run()
     }
 
+    JavaHttpSubscriptionAdapter reconnectingAdapter() {
+        def adapter = JavaHttpSubscriptionAdapter.newBuilder()
+                .connectTo("ws://localhost:${port}")
+                .reconnect(Duration.ofMillis(50), Duration.ofMillis(200))
+                .build()
+        adapter.connect().get(TIMEOUT, TimeUnit.SECONDS)
+        return adapter
+    }
+
+    void dropConnections() {
+        server.received.clear()
+        server.connections.each { it.close() }
+    }
+
+    def "Restores subscription after reconnect"() {
+        setup:
+        def adapter = reconnectingAdapter()
+        List<String> received = []
+        int gaps = 0
+        when:
+        server.onNextReply('{"jsonrpc":"2.0","result":"EsqruyKPnZvPZ6fr","id":0}')
+        def sub = adapter.subscribe(SubscribeCall.create(String.class, "test_subscribe", "test_unsubscribe")).get(TIMEOUT, TimeUnit.SECONDS)
+        sub.handler({ event -> received.add(event.result) })
+        sub.gapHandler({ gaps++ })
+        server.reply('{"jsonrpc":"2.0","method":"test_event","params":{"result":"first","subscription":"EsqruyKPnZvPZ6fr"}}')
+        Thread.sleep(SLEEP)
+        server.onNextReply('{"jsonrpc":"2.0","result":"Xz8JhnHMzDrMRVGb","id":1}')
+        dropConnections()
+        Thread.sleep(SLEEP * 4)
+        server.reply('{"jsonrpc":"2.0","method":"test_event","params":{"result":"second","subscription":"Xz8JhnHMzDrMRVGb"}}')
+        Thread.sleep(SLEEP)
+        then:
+        received == ["first", "second"]
+        gaps == 1
+        server.received.size() == 1
+        server.received[0].value == '{"jsonrpc":"2.0","id":1,"method":"test_subscribe","params":[]}'
+        ((DefaultSubscription) sub).id == "Xz8JhnHMzDrMRVGb"
+        cleanup:
+        adapter.close()
+    }
+
+    def "Terminates non-replayable subscription after reconnect"() {
+        setup:
+        def adapter = reconnectingAdapter()
+        def subscriber = new EventPublisherSpec.TestSubscriber()
+        Throwable error = null
+        when:
+        server.onNextReply('{"jsonrpc":"2.0","result":"EsqruyKPnZvPZ6fr","id":0}')
+        def sub = adapter.subscribe(SubscribeCall.create(String.class, "author_submitAndWatchExtrinsic", "author_unwatchExtrinsic", "0x00")).get(TIMEOUT, TimeUnit.SECONDS)
+        (sub as DefaultSubscription<String>).subscribe(subscriber)
+        sub.errorHandler({ error = it })
+        dropConnections()
+        Thread.sleep(SLEEP * 4)
+        then:
+        error instanceof IOException
+        subscriber.error instanceof IOException
+        ((DefaultSubscription) sub).closed
+        // not submitted again
+        server.received.isEmpty()
+        cleanup:
+        adapter.close()
+    }
+
+    def "Terminates subscription when resubscribe fails"() {
+        setup:
+        def adapter = reconnectingAdapter()
+        def subscriber = new EventPublisherSpec.TestSubscriber()
+        Throwable error = null
+        when:
+        server.onNextReply('{"jsonrpc":"2.0","result":"EsqruyKPnZvPZ6fr","id":0}')
+        def sub = adapter.subscribe(SubscribeCall.create(String.class, "test_subscribe", "test_unsubscribe")).get(TIMEOUT, TimeUnit.SECONDS)
+        (sub as DefaultSubscription<String>).subscribe(subscriber)
+        sub.errorHandler({ error = it })
+        server.onNextReply('{"jsonrpc":"2.0","error":{"code":-32601,"message":"Method not found"},"id":1}')
+        dropConnections()
+        Thread.sleep(SLEEP * 4)
+        then:
+        server.received.size() == 1
+        server.received[0].value == '{"jsonrpc":"2.0","id":1,"method":"test_subscribe","params":[]}'
+        error instanceof RpcException
+        (error as RpcException).code == -32601
+        subscriber.error instanceof RpcException
+        ((DefaultSubscription) sub).closed
+        cleanup:
+        adapter.close()
+    }
+
+    def "Resends call after reconnect"() {
+        setup:
+        def adapter = reconnectingAdapter()
+        when:
+        def f = adapter.produceRpcFuture(RpcCall.create(String.class, "test_foo"))
+        Thread.sleep(SLEEP)
+        server.onNextReply('{"jsonrpc":"2.0","result":"Hello World!","id":0}')
+        dropConnections()
+        def act = f.get(TIMEOUT, TimeUnit.SECONDS)
+        then:
+        act == "Hello World!"
+        server.received[0].value == '{"jsonrpc":"2.0","id":0,"method":"test_foo","params":[]}'
+        cleanup:
+        adapter.close()
+    }
+
+    def "Fails non-replayable call when connection is lost"() {
+        setup:
+        def adapter = reconnectingAdapter()
+        when:
+        def f = adapter.produceRpcFuture(RpcCall.create(String.class, "author_submitExtrinsic", "0x00"))
+        Thread.sleep(SLEEP)
+        server.stop()
+        f.get(TIMEOUT, TimeUnit.SECONDS)
+        then:
+        def t = thrown(ExecutionException)
+        t.cause instanceof IOException
+        cleanup:
+        adapter.close()
+    }
+
+    def "Fails calls when connection is lost without reconnect"() {
+        setup:
+        def adapter = JavaHttpSubscriptionAdapter.newBuilder()
+                .connectTo("ws://localhost:${port}")
+                .build()
+        adapter.connect().get(TIMEOUT, TimeUnit.SECONDS)
+        when:
+        def f = adapter.produceRpcFuture(RpcCall.create(String.class, "test_foo"))
+        Thread.sleep(SLEEP)
+        server.stop()
+        f.get(TIMEOUT, TimeUnit.SECONDS)
+        then:
+        def t = thrown(ExecutionException)
+        t.cause instanceof IOException
+        when:
+        adapter.produceRpcFuture(RpcCall.create(String.class, "test_foo")).get(TIMEOUT, TimeUnit.SECONDS)
+        then:
+        t = thrown(ExecutionException)
+        t.cause instanceof IllegalStateException
+        cleanup:
+        adapter.close()
+    }
+
+    def "Invalid reconnect config"() {
+        when:
+        JavaHttpSubscriptionAdapter.newBuilder().reconnect(Duration.ofSeconds(2), Duration.ofSeconds(1))
+        then:
+        thrown(IllegalArgumentException)
+    }
+
+    def "Call handler with dispatch executor"() {
+        setup:
+        def executor = Executors.newSingleThreadExecutor({ r -> new Thread(r, "test-dispatch") })
+        def adapter = JavaHttpSubscriptionAdapter.newBuilder()
+                .connectTo("ws://localhost:${port}")
+                .dispatch(executor, 10, EventDispatcher.Overflow.BLOCK)
+                .build()
+        adapter.connect().get(TIMEOUT, TimeUnit.SECONDS)
+        List<String> threads = []
+        List<String> received = []
+        when:
+        server.onNextReply('{"jsonrpc":"2.0","result":"EsqruyKPnZvPZ6fr","id":0}')
+        def sub = adapter.subscribe(SubscribeCall.create(String.class, "test_subscribe", "test_unsubscribe")).get(TIMEOUT, TimeUnit.SECONDS)
+        sub.handler({ event ->
+            threads.add(Thread.currentThread().name)
+            received.add(event.result)
+        })
+        server.reply('{"jsonrpc":"2.0","method":"test_event","params":{"result":"first","subscription":"EsqruyKPnZvPZ6fr"}}')
+        server.reply('{"jsonrpc":"2.0","method":"test_event","params":{"result":"second","subscription":"EsqruyKPnZvPZ6fr"}}')
+        Thread.sleep(SLEEP)
+        then:
+        received == ["first", "second"]
+        threads == ["test-dispatch", "test-dispatch"]
+        cleanup:
+        adapter.close()
+        executor.shutdownNow()
+    }
+
+    def "Read events according to subscriber demand"() {
+        setup:
+        def adapter = JavaHttpSubscriptionAdapter.newBuilder()
+                .connectTo("ws://localhost:${port}")
+                .build()
+        adapter.connect().get(TIMEOUT, TimeUnit.SECONDS)
+        def subscriber = new EventPublisherSpec.TestSubscriber()
+        when:
+        server.onNextReply('{"jsonrpc":"2.0","result":"EsqruyKPnZvPZ6fr","id":0}')
+        def sub = adapter.subscribe(SubscribeCall.create(String.class, "test_subscribe", "test_unsubscribe")).get(TIMEOUT, TimeUnit.SECONDS)
+        (sub as DefaultSubscription<String>).subscribe(subscriber)
+        subscriber.subscription.request(1)
+        ["first", "second", "third"].each {
+            server.reply('{"jsonrpc":"2.0","method":"test_event","params":{"result":"' + it + '","subscription":"EsqruyKPnZvPZ6fr"}}')
+        }
+        Thread.sleep(SLEEP)
+        then:
+        subscriber.received == ["first"]
+        when:
+        subscriber.subscription.request(2)
+        Thread.sleep(SLEEP)
+        then:
+        subscriber.received == ["first", "second", "third"]
+        when:
+        sub.close()
+        then:
+        subscriber.completed
+        cleanup:
+        adapter.close()
+    }
+
+    def "Fail subscriber when connection is lost"() {
+        setup:
+        def adapter = JavaHttpSubscriptionAdapter.newBuilder()
+                .connectTo("ws://localhost:${port}")
+                .build()
+        adapter.connect().get(TIMEOUT, TimeUnit.SECONDS)
+        def subscriber = new EventPublisherSpec.TestSubscriber()
+        Throwable error = null
+        when:
+        server.onNextReply('{"jsonrpc":"2.0","result":"EsqruyKPnZvPZ6fr","id":0}')
+        def sub = adapter.subscribe(SubscribeCall.create(String.class, "test_subscribe", "test_unsubscribe")).get(TIMEOUT, TimeUnit.SECONDS)
+        (sub as DefaultSubscription<String>).subscribe(subscriber)
+        sub.errorHandler({ error = it })
+        dropConnections()
+        Thread.sleep(SLEEP)
+        then:
+        subscriber.error instanceof IOException
+        error instanceof IOException
+        cleanup:
+        adapter.close()
+    }
+
+    def "Share subscription with same method and params"() {
+        setup:
+        def adapter = JavaHttpSubscriptionAdapter.newBuilder()
+                .connectTo("ws://localhost:${port}")
+                .shareSubscriptions()
+                .build()
+        adapter.connect().get(TIMEOUT, TimeUnit.SECONDS)
+        List<String> first = []
+        List<String> second = []
+        when:
+        server.onNextReply('{"jsonrpc":"2.0","result":"EsqruyKPnZvPZ6fr","id":0}')
+        def sub1 = adapter.subscribe(SubscribeCall.create(String.class, "test_subscribe", "test_unsubscribe")).get(TIMEOUT, TimeUnit.SECONDS)
+        def sub2 = adapter.subscribe(SubscribeCall.create(String.class, "test_subscribe", "test_unsubscribe")).get(TIMEOUT, TimeUnit.SECONDS)
+        sub1.handler({ event -> first.add(event.result) })
+        sub2.handler({ event -> second.add(event.result) })
+        server.reply('{"jsonrpc":"2.0","method":"test_event","params":{"result":"hello","subscription":"EsqruyKPnZvPZ6fr"}}')
+        Thread.sleep(SLEEP)
+        then:
+        server.received.size() == 1
+        first == ["hello"]
+        second == ["hello"]
+        (sub2 as DefaultSubscription).id == "EsqruyKPnZvPZ6fr"
+        when:
+        sub1.close()
+        server.reply('{"jsonrpc":"2.0","method":"test_event","params":{"result":"world","subscription":"EsqruyKPnZvPZ6fr"}}')
+        Thread.sleep(SLEEP)
+        then:
+        server.received.size() == 1
+        first == ["hello"]
+        second == ["hello", "world"]
+        when:
+        sub2.close()
+        Thread.sleep(SLEEP)
+        then:
+        server.received.size() == 2
+        server.received[1].value == '{"jsonrpc":"2.0","id":1,"method":"test_unsubscribe","params":["EsqruyKPnZvPZ6fr"]}'
+        cleanup:
+        adapter.close()
+    }
+
+    def "Don't share subscriptions with different params"() {
+        setup:
+        def adapter = JavaHttpSubscriptionAdapter.newBuilder()
+                .connectTo("ws://localhost:${port}")
+                .shareSubscriptions()
+                .build()
+        adapter.connect().get(TIMEOUT, TimeUnit.SECONDS)
+        when:
+        server.onNextReply('{"jsonrpc":"2.0","result":"EsqruyKPnZvPZ6fr","id":0}')
+        def sub1 = adapter.subscribe(SubscribeCall.create(String.class, "test_subscribe", "test_unsubscribe", "0x01")).get(TIMEOUT, TimeUnit.SECONDS)
+        server.onNextReply('{"jsonrpc":"2.0","result":"Xz8JhnHMzDrMRVGb","id":1}')
+        def sub2 = adapter.subscribe(SubscribeCall.create(String.class, "test_subscribe", "test_unsubscribe", "0x02")).get(TIMEOUT, TimeUnit.SECONDS)
+        then:
+        server.received.size() == 2
+        (sub1 as DefaultSubscription).id == "EsqruyKPnZvPZ6fr"
+        (sub2 as DefaultSubscription).id == "Xz8JhnHMzDrMRVGb"
+        cleanup:
+        adapter.close()
+    }
+
+    def "Make new shared subscription after the last one closed"() {
+        setup:
+        def adapter = JavaHttpSubscriptionAdapter.newBuilder()
+                .connectTo("ws://localhost:${port}")
+                .shareSubscriptions()
+                .build()
+        adapter.connect().get(TIMEOUT, TimeUnit.SECONDS)
+        when:
+        server.onNextReply('{"jsonrpc":"2.0","result":"EsqruyKPnZvPZ6fr","id":0}')
+        def sub1 = adapter.subscribe(SubscribeCall.create(String.class, "test_subscribe", "test_unsubscribe")).get(TIMEOUT, TimeUnit.SECONDS)
+        sub1.close()
+        server.onNextReply('{"jsonrpc":"2.0","result":"Xz8JhnHMzDrMRVGb","id":2}')
+        def sub2 = adapter.subscribe(SubscribeCall.create(String.class, "test_subscribe", "test_unsubscribe")).get(TIMEOUT, TimeUnit.SECONDS)
+        then:
+        (sub2 as DefaultSubscription).id == "Xz8JhnHMzDrMRVGb"
+        cleanup:
+        adapter.close()
+    }
+
+    def "Fails call without response after timeout"() {
+        setup:
+        def adapter = JavaHttpSubscriptionAdapter.newBuilder()
+                .connectTo("ws://localhost:${port}")
+                .timeout(Duration.ofMillis(300))
+                .build()
+        adapter.connect().get(TIMEOUT, TimeUnit.SECONDS)
+        when:
+        adapter.produceRpcFuture(RpcCall.create(String.class, "test_foo")).get(TIMEOUT, TimeUnit.SECONDS)
+        then:
+        def t = thrown(ExecutionException)
+        t.cause instanceof TimeoutException
+        adapter.execution.isEmpty()
+        adapter.deadlines.size() == 0
+        cleanup:
+        adapter.close()
+    }
+
+    def "Removes cancelled call"() {
+        setup:
+        def adapter = JavaHttpSubscriptionAdapter.newBuilder()
+                .connectTo("ws://localhost:${port}")
+                .build()
+        adapter.connect().get(TIMEOUT, TimeUnit.SECONDS)
+        when:
+        def f = adapter.produceRpcFuture(RpcCall.create(String.class, "test_foo"))
+        then:
+        adapter.execution.size() == 1
+        adapter.deadlines.size() == 1
+        when:
+        f.cancel(true)
+        then:
+        adapter.execution.isEmpty()
+        adapter.deadlines.size() == 0
+        cleanup:
+        adapter.close()
+    }
+
+    def "Sends calls up to max in flight"() {
+        setup:
+        def adapter = JavaHttpSubscriptionAdapter.newBuilder()
+                .connectTo("ws://localhost:${port}")
+                .maxInFlight(1)
+                .build()
+        adapter.connect().get(TIMEOUT, TimeUnit.SECONDS)
+        when:
+        def f1 = adapter.produceRpcFuture(RpcCall.create(String.class, "test_foo"))
+        def f2 = adapter.produceRpcFuture(RpcCall.create(String.class, "test_bar"))
+        Thread.sleep(SLEEP)
+        then:
+        server.received.size() == 1
+        server.received[0].value == '{"jsonrpc":"2.0","id":0,"method":"test_foo","params":[]}'
+        when:
+        server.onNextReply('{"jsonrpc":"2.0","result":"second","id":1}')
+        server.reply('{"jsonrpc":"2.0","result":"first","id":0}')
+        then:
+        f1.get(TIMEOUT, TimeUnit.SECONDS) == "first"
+        f2.get(TIMEOUT, TimeUnit.SECONDS) == "second"
+        server.received.size() == 2
+        server.received[1].value == '{"jsonrpc":"2.0","id":1,"method":"test_bar","params":[]}'
+        adapter.inFlight.get() == 0
+        cleanup:
+        adapter.close()
+    }
+
+    def "Sends waiting call when a call in flight is cancelled"() {
+        setup:
+        def adapter = JavaHttpSubscriptionAdapter.newBuilder()
+                .connectTo("ws://localhost:${port}")
+                .maxInFlight(1)
+                .build()
+        adapter.connect().get(TIMEOUT, TimeUnit.SECONDS)
+        when:
+        def f1 = adapter.produceRpcFuture(RpcCall.create(String.class, "test_foo"))
+        def f2 = adapter.produceRpcFuture(RpcCall.create(String.class, "test_bar"))
+        Thread.sleep(SLEEP)
+        server.onNextReply('{"jsonrpc":"2.0","result":"second","id":1}')
+        f1.cancel(true)
+        then:
+        f2.get(TIMEOUT, TimeUnit.SECONDS) == "second"
+        adapter.execution.isEmpty()
+        adapter.waiting.isEmpty()
+        cleanup:
+        adapter.close()
+    }
+
+    def "Fails pending calls on close"() {
+        setup:
+        def adapter = JavaHttpSubscriptionAdapter.newBuilder()
+                .connectTo("ws://localhost:${port}")
+                .build()
+        adapter.connect().get(TIMEOUT, TimeUnit.SECONDS)
+        when:
+        def f = adapter.produceRpcFuture(RpcCall.create(String.class, "test_foo"))
+        adapter.close()
+        f.get(TIMEOUT, TimeUnit.SECONDS)
+        then:
+        def t = thrown(ExecutionException)
+        t.cause instanceof IOException
+    }
+
+    def "Invalid timeout and limit config"() {
+        when:
+        JavaHttpSubscriptionAdapter.newBuilder().timeout(Duration.ZERO)
+        then:
+        thrown(IllegalArgumentException)
+        when:
+        JavaHttpSubscriptionAdapter.newBuilder().maxInFlight(0)
+        then:
+        thrown(IllegalArgumentException)
+    }
+
 }
@@ -0,0 +1,123 @@
+package io.emeraldpay.polkaj.apiws
+
+import com.fasterxml.jackson.core.JsonParseException
+import com.fasterxml.jackson.databind.ObjectMapper
+import io.emeraldpay.polkaj.json.BlockJson
+import io.emeraldpay.polkaj.json.jackson.PolkadotModule
+import spock.lang.Specification
+
+class MessageDecoderSpec extends Specification {
+
+    ObjectMapper objectMapper = new ObjectMapper().tap {
+        registerModule(new PolkadotModule())
+    }
+
+    DecodeResponse.TypeMapping<Integer> rpcMapping = { Integer id ->
+        objectMapper.typeFactory.constructType(String.class)
+    } as DecodeResponse.TypeMapping<Integer>
+    DecodeResponse.TypeMapping<String> subscriptionMapping = { String id ->
+        objectMapper.typeFactory.constructType(BlockJson.Header.class)
+    } as DecodeResponse.TypeMapping<String>
+
+    MessageDecoder decoder = new MessageDecoder(objectMapper, new DecodeResponse(objectMapper, rpcMapping, subscriptionMapping))
+
+    static List<String> split(String value, int size) {
+        List<String> result = []
+        for (int i = 0; i < value.length(); i += size) {
+            result.add(value.substring(i, Math.min(value.length(), i + size)))
+        }
+        return result
+    }
+
+    WsResponse decodeParts(List<String> parts) {
+        WsResponse result = null
+        parts.eachWithIndex { String part, int i ->
+            def act = decoder.onText(part, i == parts.size() - 1)
+            if (i < parts.size() - 1) {
+                assert act == null
+            } else {
+                result = act
+            }
+        }
+        return result
+    }
+
+    def "Decode single fragment"() {
+        when:
+        def act = decoder.onText('{"jsonrpc":"2.0","result":"EsqruyKPnZvPZ6fr","id":1}', true)
+        then:
+        act.type == WsResponse.Type.RPC
+        act.asRpc().id == 1
+        act.asRpc().result == "EsqruyKPnZvPZ6fr"
+    }
+
+    def "Decode fragments split at any position"() {
+        setup:
+        def json = '{"jsonrpc":"2.0","method":"chain_newHead","params":{"result":{"digest":{"logs":[]},"extrinsicsRoot":"0x9869230c3cc05051ce9afef4458d2515fb2141bfd3bdcd88292f41e17ea00ae7","number":"0x1d878c","parentHash":"0xbe9110f6da6a19ac645a27472e459dcca6eaf4ee4b0b12700ca5d566eea9a638","stateRoot":"0x57059722d680b591a469937449df772b95625d4230b39a0a7d855e16d597f168"},"subscription":"EsqruyKPnZvPZ6fr"}}'
+        when:
+        def act = decodeParts(split(json, size))
+        then:
+        act.type == WsResponse.Type.SUBSCRIPTION
+        with(act.asEvent()) {
+            id == "EsqruyKPnZvPZ6fr"
+            method == "chain_newHead"
+            (value as BlockJson.Header).number == 0x1d878c
+        }
+        where:
+        size << [1, 2, 3, 7, 16, 100, 1000]
+    }
+
+    def "Decode multibyte chars split between fragments"() {
+        setup:
+        def value = "Привет, 世界 😀!"
+        def json = '{"jsonrpc":"2.0","result":"' + value + '","id":1}'
+        when:
+        def act = decodeParts(split(json, size))
+        then:
+        act.asRpc().result == value
+        where:
+        size << [1, 2, 3, 5]
+    }
+
+    def "Decode multiple messages"() {
+        when:
+        def first = decodeParts(['{"jsonrpc":"2.0","res', 'ult":"first","id":1}'])
+        def second = decodeParts(['{"jsonrpc":"2.0","result":"second"', ',"id":2}  '])
+        then:
+        first.asRpc().result == "first"
+        second.asRpc().id == 2
+        second.asRpc().result == "second"
+    }
+
+    def "Continue after invalid message"() {
+        when:
+        decoder.onText('{"jsonrpc":"2.0",]', false)
+        then:
+        thrown(JsonParseException)
+        when:
+        def skipped = decoder.onText('"result":"wrong","id":1}', true)
+        def act = decoder.onText('{"jsonrpc":"2.0","result":"right","id":2}', true)
+        then:
+        skipped == null
+        act.asRpc().id == 2
+        act.asRpc().result == "right"
+    }
+
+    def "Fail on incomplete message"() {
+        when:
+        decoder.onText('{"jsonrpc":"2.0","result":"first"', true)
+        then:
+        thrown(IllegalStateException)
+        when:
+        def act = decoder.onText('{"jsonrpc":"2.0","result":"second","id":2}', true)
+        then:
+        act.asRpc().result == "second"
+    }
+
+    def "Fail on data after message"() {
+        when:
+        decoder.onText('{"jsonrpc":"2.0","result":"first","id":1}{}', true)
+        then:
+        thrown(IllegalStateException)
+    }
+}
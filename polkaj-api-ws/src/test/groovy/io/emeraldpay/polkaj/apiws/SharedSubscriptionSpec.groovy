@@ -0,0 +1,119 @@
+package io.emeraldpay.polkaj.apiws
+
+import io.emeraldpay.polkaj.api.RpcCall
+import io.emeraldpay.polkaj.api.SubscribeCall
+import io.emeraldpay.polkaj.api.Subscription
+import spock.lang.Specification
+
+import java.util.concurrent.CompletableFuture
+
+class SharedSubscriptionSpec extends Specification {
+
+    JavaHttpSubscriptionAdapter adapter = Mock()
+    def call = SubscribeCall.create(String.class, "test_subscribe", "test_unsubscribe")
+
+    def "Deliver event to all local subscriptions"() {
+        setup:
+        def shared = new SharedSubscription<String>(null, call, adapter, "test")
+        def local1 = new DefaultSubscription<String>(null, call, adapter)
+        def local2 = new DefaultSubscription<String>(null, call, adapter)
+        shared.add(local1)
+        shared.add(local2)
+        List<String> received = []
+        local1.handler({ received.add("1:" + it.result) })
+        local2.handler({ received.add("2:" + it.result) })
+        when:
+        def ready = shared.offer(new Subscription.Event("test", "a"), {})
+        then:
+        ready
+        received == ["1:a", "2:a"]
+    }
+
+    def "Continue reading when all local subscriptions are ready"() {
+        setup:
+        def shared = new SharedSubscription<String>(null, call, adapter, "test")
+        List<Runnable> tasks1 = []
+        List<Runnable> tasks2 = []
+        def local1 = new DefaultSubscription<String>(null, call, adapter)
+        local1.dispatch(new EventDispatcher({ tasks1.add(it) }, 1, EventDispatcher.Overflow.BLOCK))
+        def local2 = new DefaultSubscription<String>(null, call, adapter)
+        local2.dispatch(new EventDispatcher({ tasks2.add(it) }, 1, EventDispatcher.Overflow.BLOCK))
+        shared.add(local1)
+        shared.add(local2)
+        int resumed = 0
+        when:
+        def ready = shared.offer(new Subscription.Event("test", "a"), { resumed++ })
+        then:
+        !ready
+        when:
+        tasks1.each { it.run() }
+        then:
+        resumed == 0
+        when:
+        tasks2.each { it.run() }
+        then:
+        resumed == 1
+    }
+
+    def "Notify all local subscriptions about gap"() {
+        setup:
+        def shared = new SharedSubscription<String>(null, call, adapter, "test")
+        def local1 = new DefaultSubscription<String>(null, call, adapter)
+        def local2 = new DefaultSubscription<String>(null, call, adapter)
+        shared.add(local1)
+        shared.add(local2)
+        int gaps = 0
+        local1.gapHandler({ gaps++ })
+        local2.gapHandler({ gaps++ })
+        when:
+        shared.gap()
+        then:
+        gaps == 2
+    }
+
+    def "Terminate all local subscriptions"() {
+        setup:
+        def shared = new SharedSubscription<String>(null, call, adapter, "test")
+        def local = new DefaultSubscription<String>(null, call, adapter)
+        shared.add(local)
+        Throwable error = null
+        local.errorHandler({ error = it })
+        when:
+        shared.terminate(new IOException("Connection lost"))
+        then:
+        1 * adapter.unshare(shared)
+        error instanceof IOException
+        local.closed
+    }
+
+    def "Unsubscribe when last local subscription is closed"() {
+        setup:
+        def shared = new SharedSubscription<String>(null, call, adapter, "test")
+        shared.setId("EsqruyKPnZvPZ6fr")
+        def local = new DefaultSubscription<String>(null, call, adapter)
+        shared.add(local)
+        when:
+        local.close()
+        then:
+        1 * adapter.release(shared, local) >> true
+        1 * adapter.produceRpcFuture(RpcCall.create(Boolean.class, "test_unsubscribe", ["EsqruyKPnZvPZ6fr"])) >> CompletableFuture.completedFuture(true)
+        1 * adapter.removeSubscription("EsqruyKPnZvPZ6fr")
+        shared.closed
+    }
+
+    def "Keep server subscription when other local subscriptions exist"() {
+        setup:
+        def shared = new SharedSubscription<String>(null, call, adapter, "test")
+        shared.setId("EsqruyKPnZvPZ6fr")
+        def local = new DefaultSubscription<String>(null, call, adapter)
+        shared.add(local)
+        when:
+        local.close()
+        then:
+        1 * adapter.release(shared, local) >> false
+        0 * adapter.produceRpcFuture(_)
+        !shared.closed
+        local.closed
+        local.id == "EsqruyKPnZvPZ6fr"
+    }
+}
@@ -0,0 +1,99 @@
+package io.emeraldpay.polkaj.apiws
+
+import spock.lang.Specification
+
+import java.time.Duration
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+class TimeoutWheelSpec extends Specification {
+
+    ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor()
+
+    def cleanup() {
+        scheduler.shutdownNow()
+    }
+
+    def "Executes action after deadline"() {
+        setup:
+        def wheel = new TimeoutWheel(scheduler, Duration.ofMillis(10), 16)
+        def latch = new CountDownLatch(1)
+        long start = System.nanoTime()
+        when:
+        wheel.schedule(Duration.ofMillis(50), { latch.countDown() })
+        then:
+        wheel.size() == 1
+        latch.await(5, TimeUnit.SECONDS)
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 50
+        wheel.size() == 0
+    }
+
+    def "Doesn't execute cancelled action"() {
+        setup:
+        def wheel = new TimeoutWheel(scheduler, Duration.ofMillis(10), 16)
+        def executed = new AtomicInteger(0)
+        when:
+        def timeout = wheel.schedule(Duration.ofMillis(30), { executed.incrementAndGet() })
+        def cancelled = timeout.cancel()
+        Thread.sleep(100)
+        then:
+        cancelled
+        !timeout.cancel()
+        executed.get() == 0
+        wheel.size() == 0
+    }
+
+    def "Executes deadline longer than a round"() {
+        setup:
+        def wheel = new TimeoutWheel(scheduler, Duration.ofMillis(10), 4)
+        def latch = new CountDownLatch(1)
+        long start = System.nanoTime()
+        when:
+        wheel.schedule(Duration.ofMillis(150), { latch.countDown() })
+        then:
+        latch.await(5, TimeUnit.SECONDS)
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 150
+    }
+
+    def "Executes many deadlines in order of expiration"() {
+        setup:
+        def wheel = new TimeoutWheel(scheduler, Duration.ofMillis(10), 8)
+        def latch = new CountDownLatch(3)
+        List<Integer> executed = Collections.synchronizedList([])
+        when:
+        wheel.schedule(Duration.ofMillis(200), { executed.add(3); latch.countDown() })
+        wheel.schedule(Duration.ofMillis(20), { executed.add(1); latch.countDown() })
+        wheel.schedule(Duration.ofMillis(100), { executed.add(2); latch.countDown() })
+        then:
+        latch.await(5, TimeUnit.SECONDS)
+        executed == [1, 2, 3]
+    }
+
+    def "Restarts after all deadlines are processed"() {
+        setup:
+        def wheel = new TimeoutWheel(scheduler, Duration.ofMillis(10), 16)
+        def first = new CountDownLatch(1)
+        def second = new CountDownLatch(1)
+        when:
+        wheel.schedule(Duration.ofMillis(10), { first.countDown() })
+        first.await(5, TimeUnit.SECONDS)
+        Thread.sleep(50)
+        wheel.schedule(Duration.ofMillis(10), { second.countDown() })
+        then:
+        second.await(5, TimeUnit.SECONDS)
+    }
+
+    def "Ignores deadlines when scheduler is stopped"() {
+        setup:
+        def wheel = new TimeoutWheel(scheduler, Duration.ofMillis(10), 16)
+        scheduler.shutdownNow()
+        when:
+        def timeout = wheel.schedule(Duration.ofMillis(10), { })
+        then:
+        !timeout.cancel()
+        wheel.size() == 0
+    }
+}
@@ -0,0 +1,97 @@
+package io.emeraldpay.polkaj.benchmarks;
+
+import io.emeraldpay.polkaj.scaletypes.BalanceTransfer;
+import io.emeraldpay.polkaj.scaletypes.BalanceTransferWriter;
+import io.emeraldpay.polkaj.schnorrkel.Schnorrkel;
+import io.emeraldpay.polkaj.schnorrkel.SchnorrkelException;
+import io.emeraldpay.polkaj.tx.BulkSigner;
+import io.emeraldpay.polkaj.tx.ExtrinsicContext;
+import io.emeraldpay.polkaj.tx.ExtrinsicSigner;
+import io.emeraldpay.polkaj.tx.SignException;
+import io.emeraldpay.polkaj.types.Address;
+import io.emeraldpay.polkaj.types.DotAmount;
+import io.emeraldpay.polkaj.types.Hash256;
+import io.emeraldpay.polkaj.types.Hash512;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Signing of a bulk payout with 100k transfers, one by one with the standard signer and with the bulk signer. Requires
+ * the native library to be built with Cargo first, except the payload benchmark which gives the encoding time per
+ * transfer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BulkSignerBenchmark {
+
+    private static final int TRANSFERS = 100_000;
+
+    @Param({"1", "4"})
+    public int threads;
+
+    private final ExtrinsicSigner<BalanceTransfer> signer = new ExtrinsicSigner<>(new BalanceTransferWriter());
+    private ForkJoinPool pool;
+    private BulkSigner<BalanceTransfer> bulkSigner;
+    private ExtrinsicContext context;
+    private Schnorrkel.KeyPair key;
+    private List<BalanceTransfer> transfers;
+
+    @Setup
+    public void setup() throws SchnorrkelException, SignException {
+        key = Schnorrkel.getInstance().generateKeyPairFromSeed(new byte[32]);
+        context = ExtrinsicContext.newBuilder()
+                .runtime(4, 25)
+                .genesis(Hash256.from("0x4c0bdd177c17ca145ad9a3e76d092d4d4baa8add4fa8c78cc2fbbf8e3cbd5122"))
+                .build();
+        pool = new ForkJoinPool(threads);
+        bulkSigner = new BulkSigner<>(new BalanceTransferWriter(), context, pool);
+        Address to = Address.from("5FHneW46xGXgs5mUiveU4sbTyGBzmstUspZC92UhjJM694ty");
+        transfers = new ArrayList<>(TRANSFERS);
+        for (int i = 0; i < TRANSFERS; i++) {
+            BalanceTransfer transfer = new BalanceTransfer(5, 0);
+            transfer.setDestination(to);
+            transfer.setBalance(DotAmount.fromPlancks(1_000_000L + i));
+            transfers.add(transfer);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public List<Hash512> signEach() throws SignException {
+        List<Hash512> result = new ArrayList<>(TRANSFERS);
+        for (int i = 0; i < TRANSFERS; i++) {
+            ExtrinsicContext ctx = ExtrinsicContext.newBuilder()
+                    .runtime(context.getTxVersion(), context.getRuntimeVersion())
+                    .genesis(context.getGenesis())
+                    .nonce(i)
+                    .build();
+            result.add(signer.sign(ctx, transfers.get(i), key));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<Hash512> signAll() throws SignException {
+        return bulkSigner.signAll(transfers, 0, key);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TRANSFERS)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public int payloadTemplate() throws SignException {
+        int size = 0;
+        for (int i = 0; i < TRANSFERS; i++) {
+            size += bulkSigner.getPayload(transfers.get(i), i, null).length;
+        }
+        return size;
+    }
+}
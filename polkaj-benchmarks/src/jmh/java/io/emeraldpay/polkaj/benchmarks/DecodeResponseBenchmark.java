@@ -0,0 +1,53 @@
+package io.emeraldpay.polkaj.benchmarks;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.emeraldpay.polkaj.apiws.DecodeResponse;
+import io.emeraldpay.polkaj.apiws.WsResponse;
+import io.emeraldpay.polkaj.json.BlockJson;
+import io.emeraldpay.polkaj.json.BlockResponseJson;
+import io.emeraldpay.polkaj.json.jackson.PolkadotModule;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding of WebSocket messages, both responses to RPC calls and subscription events
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DecodeResponseBenchmark {
+
+    private DecodeResponse decoder;
+    private String rpcMessage;
+    private String subscriptionMessage;
+
+    @Setup
+    public void setup() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new PolkadotModule());
+        JavaType blockType = objectMapper.getTypeFactory().constructType(BlockResponseJson.class);
+        JavaType headerType = objectMapper.getTypeFactory().constructType(BlockJson.Header.class);
+        decoder = new DecodeResponse(objectMapper, id -> blockType, id -> headerType);
+
+        String block = Fixtures.text(Fixtures.BLOCK_FULL);
+        rpcMessage = Fixtures.rpcResponse(1, block);
+        JsonNode header = objectMapper.readTree(block).get("block").get("header");
+        subscriptionMessage = "{\"jsonrpc\":\"2.0\",\"method\":\"chain_newHead\",\"params\":{\"result\":"
+                + objectMapper.writeValueAsString(header)
+                + ",\"subscription\":\"EsqruyKPnZvPZ6fr\"}}";
+    }
+
+    @Benchmark
+    public WsResponse decodeRpc() throws IOException {
+        return decoder.decode(rpcMessage);
+    }
+
+    @Benchmark
+    public WsResponse decodeSubscription() throws IOException {
+        return decoder.decode(subscriptionMessage);
+    }
+}
@@ -0,0 +1,56 @@
+package io.emeraldpay.polkaj.benchmarks;
+
+import io.emeraldpay.polkaj.scale.ScaleCodecReader;
+import io.emeraldpay.polkaj.scaletypes.BalanceTransfer;
+import io.emeraldpay.polkaj.scaletypes.BalanceTransferReader;
+import io.emeraldpay.polkaj.scaletypes.Extrinsic;
+import io.emeraldpay.polkaj.scaletypes.ExtrinsicReader;
+import io.emeraldpay.polkaj.ss58.SS58Type;
+import io.emeraldpay.polkaj.tx.AccountRequests;
+import io.emeraldpay.polkaj.types.Address;
+import io.emeraldpay.polkaj.types.ByteData;
+import io.emeraldpay.polkaj.types.DotAmount;
+import io.emeraldpay.polkaj.types.Hash512;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding and encoding of a signed balance transfer
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ExtrinsicBenchmark {
+
+    private final ExtrinsicReader<BalanceTransfer> reader = new ExtrinsicReader<>(
+            new BalanceTransferReader(SS58Type.Network.CANARY),
+            SS58Type.Network.CANARY
+    );
+    private byte[] transfer;
+    private AccountRequests.Transfer request;
+
+    @Setup
+    public void setup() {
+        transfer = Fixtures.hex(Fixtures.TRANSFER_EXTRINSIC);
+        request = AccountRequests.transfer()
+                .module(5, 0)
+                .from(Address.from("5GrwvaEF5zXb26Fz9rcQpDWS57CtERHpNehXCPcNoHGKutQY"))
+                .to(Address.from("5FHneW46xGXgs5mUiveU4sbTyGBzmstUspZC92UhjJM694ty"))
+                .nonce(1234567890L)
+                .amount(DotAmount.fromDots(123))
+                .signed(new Extrinsic.SR25519Signature(Hash512.from("0x6a141ade40871c076f3eb32362f0204db49e4ae37e5dc7a68329f1a6768034556201432b1635637fc1d42ae6fce996fb25ef175ee1ae4015d2b8769436d89987")))
+                .build();
+    }
+
+    @Benchmark
+    public Extrinsic<BalanceTransfer> readTransfer() {
+        return new ScaleCodecReader(transfer).read(reader);
+    }
+
+    @Benchmark
+    public ByteData encodeTransfer() throws IOException {
+        return request.encodeRequest();
+    }
+}
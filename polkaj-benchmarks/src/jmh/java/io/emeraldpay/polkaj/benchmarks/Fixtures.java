@@ -0,0 +1,84 @@
+package io.emeraldpay.polkaj.benchmarks;
+
+import org.apache.commons.codec.DecoderException;
+import org.apache.commons.codec.binary.Hex;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Access to the checked-in data used by benchmarks
+ */
+public class Fixtures {
+
+    /**
+     * Kusama Runtime Metadata v12
+     */
+    public static final String METADATA_KUSAMA = "metadata-kusama.txt";
+
+    /**
+     * Kusama block with a few extrinsics, as JSON returned by chain_getBlock
+     */
+    public static final String BLOCK_FULL = "blocks/0x401a1-full.json";
+
+    /**
+     * Signed balances.transfer from Kusama
+     */
+    public static final String TRANSFER_EXTRINSIC = "41028400b8fdf4f080eeaa6d3f32a445c91c7effa6ffef16d5fe81783837ab7a23602b3b01bc11655de6e7461b0951353db25f4aaf67a58db547fa3a2f20cbcd7772ba715f8ccbe9d8bddf253c7f6e6f6acb83848a7da1f27de248afca10d3291de92ede8ce5000c00040000483eae8765348ef3e347e6b55995f99353223a8b28cf63829554933bcd5e801d0780cff40808";
+
+    /**
+     * Read resource as a string
+     *
+     * @param name path to the resource
+     * @return content of the resource
+     */
+    public static String text(String name) {
+        try (InputStream in = Fixtures.class.getClassLoader().getResourceAsStream(name)) {
+            if (in == null) {
+                throw new IllegalStateException("Fixture " + name + " is not found");
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read fixture " + name, e);
+        }
+    }
+
+    /**
+     * Read resource with hex content (optionally 0x prefixed) as bytes
+     *
+     * @param name path to the resource
+     * @return decoded bytes
+     */
+    public static byte[] hexResource(String name) {
+        return hex(text(name).trim());
+    }
+
+    /**
+     * Decode hex string (optionally 0x prefixed)
+     *
+     * @param value hex string
+     * @return decoded bytes
+     */
+    public static byte[] hex(String value) {
+        if (value.startsWith("0x")) {
+            value = value.substring(2);
+        }
+        try {
+            return Hex.decodeHex(value);
+        } catch (DecoderException e) {
+            throw new IllegalArgumentException("Invalid hex", e);
+        }
+    }
+
+    /**
+     * Wrap the value into a JSON RPC response
+     *
+     * @param id response id
+     * @param result JSON of the result
+     * @return full JSON RPC response
+     */
+    public static String rpcResponse(int id, String result) {
+        return "{\"jsonrpc\":\"2.0\",\"id\":" + id + ",\"result\":" + result + "}";
+    }
+}
@@ -0,0 +1,65 @@
+package io.emeraldpay.polkaj.benchmarks;
+
+import io.emeraldpay.polkaj.scaletypes.Metadata;
+import io.emeraldpay.polkaj.tx.AccountRequests;
+import io.emeraldpay.polkaj.tx.Hashing;
+import io.emeraldpay.polkaj.tx.StorageKey;
+import io.emeraldpay.polkaj.types.Address;
+import io.emeraldpay.polkaj.types.ByteData;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hashing used to build storage keys and signature payloads
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class HashingBenchmark {
+
+    private final Address address = Address.from("5GrwvaEF5zXb26Fz9rcQpDWS57CtERHpNehXCPcNoHGKutQY");
+    private final ByteBuffer buf = ByteBuffer.allocate(128);
+    private final StorageKey systemAccount = StorageKey.map("System", "Account", Metadata.Storage.Hasher.BLAKE2_256_CONCAT);
+    private byte[] payload;
+
+    @Setup
+    public void setup() {
+        payload = new byte[300];
+        for (int i = 0; i < payload.length; i++) {
+            payload[i] = (byte) i;
+        }
+    }
+
+    @Benchmark
+    public ByteBuffer xxhash128() {
+        buf.clear();
+        Hashing.xxhash128(buf, "Balances");
+        return buf;
+    }
+
+    @Benchmark
+    public ByteBuffer blake2128Address() {
+        buf.clear();
+        Hashing.blake2128(buf, address);
+        return buf;
+    }
+
+    @Benchmark
+    public byte[] blake2Payload() {
+        return Hashing.blake2(payload);
+    }
+
+    @Benchmark
+    public ByteData balanceRequestKey() {
+        return AccountRequests.balanceOf(address).encodeRequest();
+    }
+
+    @Benchmark
+    public ByteBuffer storageKeyIntoBuffer() {
+        buf.clear();
+        systemAccount.write(buf, address.getPubkey());
+        return buf;
+    }
+}
@@ -0,0 +1,48 @@
+package io.emeraldpay.polkaj.benchmarks;
+
+import io.emeraldpay.polkaj.scale.ScaleCodecReader;
+import io.emeraldpay.polkaj.scaletypes.LazyMetadataReader;
+import io.emeraldpay.polkaj.scaletypes.Metadata;
+import io.emeraldpay.polkaj.scaletypes.MetadataReader;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding of the full Kusama Runtime Metadata
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MetadataReaderBenchmark {
+
+    private final MetadataReader reader = new MetadataReader();
+    private final MetadataReader readerNoDocs = new MetadataReader(false);
+    private final LazyMetadataReader lazyReader = new LazyMetadataReader();
+    private byte[] metadata;
+
+    @Setup
+    public void setup() {
+        metadata = Fixtures.hexResource(Fixtures.METADATA_KUSAMA);
+    }
+
+    @Benchmark
+    public Metadata read() {
+        return new ScaleCodecReader(metadata).read(reader);
+    }
+
+    @Benchmark
+    public Metadata.Call findCall() {
+        return new ScaleCodecReader(metadata).read(reader).findCall("Balances", "transfer").orElseThrow();
+    }
+
+    @Benchmark
+    public Metadata readWithoutDocumentation() {
+        return new ScaleCodecReader(metadata).read(readerNoDocs);
+    }
+
+    @Benchmark
+    public Metadata.Call findCallLazy() {
+        return new ScaleCodecReader(metadata).read(lazyReader).findCall("Balances", "transfer").orElseThrow();
+    }
+}
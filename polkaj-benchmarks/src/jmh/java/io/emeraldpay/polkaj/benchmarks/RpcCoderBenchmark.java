@@ -0,0 +1,49 @@
+package io.emeraldpay.polkaj.benchmarks;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.emeraldpay.polkaj.api.RpcCall;
+import io.emeraldpay.polkaj.api.RpcCoder;
+import io.emeraldpay.polkaj.api.StandardCommands;
+import io.emeraldpay.polkaj.json.BlockResponseJson;
+import io.emeraldpay.polkaj.json.jackson.PolkadotModule;
+import io.emeraldpay.polkaj.types.Hash256;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding of JSON RPC requests and decoding of responses, as done by the HTTP adapter
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RpcCoderBenchmark {
+
+    private RpcCoder rpcCoder;
+    private RpcCall<BlockResponseJson> call;
+    private JavaType blockType;
+    private String blockResponse;
+
+    @Setup
+    public void setup() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new PolkadotModule());
+        rpcCoder = new RpcCoder(objectMapper);
+        call = StandardCommands.getInstance().getBlock(
+                Hash256.from("0x7e1b6a8b8e3d8bfbc4a0e3ebc7a6ba4d1a1c1d0bdf5fb0a6b3b1a9c4a5a6b7c8")
+        );
+        blockType = call.getResultType(objectMapper.getTypeFactory());
+        blockResponse = Fixtures.rpcResponse(1, Fixtures.text(Fixtures.BLOCK_FULL));
+    }
+
+    @Benchmark
+    public byte[] encodeRequest() throws Exception {
+        return rpcCoder.encode(1, call);
+    }
+
+    @Benchmark
+    public BlockResponseJson decodeBlock() {
+        return rpcCoder.decode(1, blockResponse, blockType);
+    }
+}
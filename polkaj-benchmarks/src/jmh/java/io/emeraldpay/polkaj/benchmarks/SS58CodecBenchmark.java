@@ -0,0 +1,36 @@
+package io.emeraldpay.polkaj.benchmarks;
+
+import io.emeraldpay.polkaj.ss58.SS58;
+import io.emeraldpay.polkaj.ss58.SS58Codec;
+import io.emeraldpay.polkaj.ss58.SS58Type;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding of SS58 addresses
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SS58CodecBenchmark {
+
+    private final SS58Codec codec = SS58Codec.getInstance();
+    private final String encoded = "5GrwvaEF5zXb26Fz9rcQpDWS57CtERHpNehXCPcNoHGKutQY";
+    private byte[] pubkey;
+
+    @Setup
+    public void setup() {
+        pubkey = codec.decode(encoded).getValue();
+    }
+
+    @Benchmark
+    public String encode() {
+        return codec.encode(SS58Type.Network.SUBSTRATE, pubkey);
+    }
+
+    @Benchmark
+    public SS58 decode() {
+        return codec.decode(encoded);
+    }
+}
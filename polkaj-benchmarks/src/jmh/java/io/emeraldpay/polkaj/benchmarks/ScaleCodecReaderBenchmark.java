@@ -0,0 +1,185 @@
+package io.emeraldpay.polkaj.benchmarks;
+
+import io.emeraldpay.polkaj.scale.ScaleCodecReader;
+import io.emeraldpay.polkaj.scale.ScaleCodecWriter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading of the primitive SCALE values. Each invocation reads {@link #COUNT} values of the same type.
+ * <br>
+ * Methods with the <code>Boxed</code> suffix read through the generic {@link io.emeraldpay.polkaj.scale.ScaleReader},
+ * to compare with the primitive path of the same value.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(ScaleCodecReaderBenchmark.COUNT)
+public class ScaleCodecReaderBenchmark {
+
+    static final int COUNT = 1024;
+
+    private byte[] ubytes;
+    private byte[] uint16;
+    private byte[] uint32;
+    private byte[] uint128;
+    private byte[] compact;
+    private byte[] byteArrays;
+
+    @Setup
+    public void setup() throws IOException {
+        Random random = new Random(1);
+        ubytes = encode(wrt -> {
+            for (int i = 0; i < COUNT; i++) {
+                wrt.writeByte(random.nextInt(256));
+            }
+        });
+        uint16 = encode(wrt -> {
+            for (int i = 0; i < COUNT; i++) {
+                wrt.writeUint16(random.nextInt(0xffff));
+            }
+        });
+        uint32 = encode(wrt -> {
+            for (int i = 0; i < COUNT; i++) {
+                wrt.writeUint32(random.nextInt(Integer.MAX_VALUE));
+            }
+        });
+        uint128 = encode(wrt -> {
+            for (int i = 0; i < COUNT; i++) {
+                wrt.writeUint128(new BigInteger(127, random));
+            }
+        });
+        // mix of all compact modes, as in real data
+        compact = encode(wrt -> {
+            for (int i = 0; i < COUNT; i++) {
+                int bits = 1 + random.nextInt(29);
+                wrt.writeCompact(random.nextInt(1 << bits));
+            }
+        });
+        byteArrays = encode(wrt -> {
+            for (int i = 0; i < COUNT; i++) {
+                byte[] value = new byte[32];
+                random.nextBytes(value);
+                wrt.writeAsList(value);
+            }
+        });
+    }
+
+    @Benchmark
+    public void readUByte(Blackhole bh) {
+        ScaleCodecReader rdr = new ScaleCodecReader(ubytes);
+        for (int i = 0; i < COUNT; i++) {
+            bh.consume(rdr.readUByte());
+        }
+    }
+
+    @Benchmark
+    public void readUint16(Blackhole bh) {
+        ScaleCodecReader rdr = new ScaleCodecReader(uint16);
+        for (int i = 0; i < COUNT; i++) {
+            bh.consume(rdr.readUint16());
+        }
+    }
+
+    @Benchmark
+    public void readUint32(Blackhole bh) {
+        ScaleCodecReader rdr = new ScaleCodecReader(uint32);
+        for (int i = 0; i < COUNT; i++) {
+            bh.consume(rdr.readUint32());
+        }
+    }
+
+    @Benchmark
+    public void readUint16Boxed(Blackhole bh) {
+        ScaleCodecReader rdr = new ScaleCodecReader(uint16);
+        for (int i = 0; i < COUNT; i++) {
+            bh.consume(rdr.read(ScaleCodecReader.UINT16));
+        }
+    }
+
+    @Benchmark
+    public void readUint32Boxed(Blackhole bh) {
+        ScaleCodecReader rdr = new ScaleCodecReader(uint32);
+        for (int i = 0; i < COUNT; i++) {
+            bh.consume(rdr.read(ScaleCodecReader.UINT32));
+        }
+    }
+
+    @Benchmark
+    public void readCompactIntBoxed(Blackhole bh) {
+        ScaleCodecReader rdr = new ScaleCodecReader(compact);
+        for (int i = 0; i < COUNT; i++) {
+            bh.consume(rdr.read(ScaleCodecReader.COMPACT_UINT));
+        }
+    }
+
+    @Benchmark
+    public long sumUint32() {
+        ScaleCodecReader rdr = new ScaleCodecReader(uint32);
+        long sum = 0;
+        for (int i = 0; i < COUNT; i++) {
+            sum += rdr.readUint32();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long sumUint32Boxed() {
+        ScaleCodecReader rdr = new ScaleCodecReader(uint32);
+        long sum = 0;
+        for (int i = 0; i < COUNT; i++) {
+            sum += rdr.read(ScaleCodecReader.UINT32);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public void readUint128(Blackhole bh) {
+        ScaleCodecReader rdr = new ScaleCodecReader(uint128);
+        for (int i = 0; i < COUNT; i++) {
+            bh.consume(rdr.readUint128());
+        }
+    }
+
+    @Benchmark
+    public void readCompactInt(Blackhole bh) {
+        ScaleCodecReader rdr = new ScaleCodecReader(compact);
+        for (int i = 0; i < COUNT; i++) {
+            bh.consume(rdr.readCompactInt());
+        }
+    }
+
+    @Benchmark
+    public void readCompactBigInt(Blackhole bh) {
+        ScaleCodecReader rdr = new ScaleCodecReader(compact);
+        for (int i = 0; i < COUNT; i++) {
+            bh.consume(rdr.read(ScaleCodecReader.COMPACT_BIGINT));
+        }
+    }
+
+    @Benchmark
+    public void readByteArray(Blackhole bh) {
+        ScaleCodecReader rdr = new ScaleCodecReader(byteArrays);
+        for (int i = 0; i < COUNT; i++) {
+            bh.consume(rdr.readByteArray());
+        }
+    }
+
+    interface Encoder {
+        void apply(ScaleCodecWriter wrt) throws IOException;
+    }
+
+    static byte[] encode(Encoder encoder) throws IOException {
+        ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        try (ScaleCodecWriter wrt = new ScaleCodecWriter(buf)) {
+            encoder.apply(wrt);
+        }
+        return buf.toByteArray();
+    }
+}
@@ -0,0 +1,103 @@
+package io.emeraldpay.polkaj.benchmarks;
+
+import io.emeraldpay.polkaj.scale.ScaleCodecWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing of the primitive SCALE values. Each invocation writes {@link #COUNT} values of the same type and returns
+ * the encoded bytes, as the library code does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(ScaleCodecWriterBenchmark.COUNT)
+public class ScaleCodecWriterBenchmark {
+
+    static final int COUNT = 1024;
+
+    private int[] ints;
+    private int[] compacts;
+    private BigInteger[] bigints;
+    private byte[] value32;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(1);
+        ints = new int[COUNT];
+        compacts = new int[COUNT];
+        bigints = new BigInteger[COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            ints[i] = random.nextInt(Integer.MAX_VALUE);
+            compacts[i] = random.nextInt(1 << (1 + random.nextInt(29)));
+            bigints[i] = new BigInteger(127, random);
+        }
+        value32 = new byte[32];
+        random.nextBytes(value32);
+    }
+
+    @Benchmark
+    public byte[] writeUint16() throws IOException {
+        ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        ScaleCodecWriter wrt = new ScaleCodecWriter(buf);
+        for (int i = 0; i < COUNT; i++) {
+            wrt.writeUint16(ints[i] & 0xffff);
+        }
+        return buf.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] writeUint32() throws IOException {
+        ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        ScaleCodecWriter wrt = new ScaleCodecWriter(buf);
+        for (int i = 0; i < COUNT; i++) {
+            wrt.writeUint32(ints[i]);
+        }
+        return buf.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] writeUint128() throws IOException {
+        ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        ScaleCodecWriter wrt = new ScaleCodecWriter(buf);
+        for (int i = 0; i < COUNT; i++) {
+            wrt.writeUint128(bigints[i]);
+        }
+        return buf.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] writeCompact() throws IOException {
+        ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        ScaleCodecWriter wrt = new ScaleCodecWriter(buf);
+        for (int i = 0; i < COUNT; i++) {
+            wrt.writeCompact(compacts[i]);
+        }
+        return buf.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] writeCompactBigInt() throws IOException {
+        ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        ScaleCodecWriter wrt = new ScaleCodecWriter(buf);
+        for (int i = 0; i < COUNT; i++) {
+            wrt.write(ScaleCodecWriter.COMPACT_BIGINT, bigints[i]);
+        }
+        return buf.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] writeAsList() throws IOException {
+        ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        ScaleCodecWriter wrt = new ScaleCodecWriter(buf);
+        for (int i = 0; i < COUNT; i++) {
+            wrt.writeAsList(value32);
+        }
+        return buf.toByteArray();
+    }
+}
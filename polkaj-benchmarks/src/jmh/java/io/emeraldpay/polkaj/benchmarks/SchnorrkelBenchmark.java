@@ -0,0 +1,41 @@
+package io.emeraldpay.polkaj.benchmarks;
+
+import io.emeraldpay.polkaj.schnorrkel.Schnorrkel;
+import io.emeraldpay.polkaj.schnorrkel.SchnorrkelException;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SR25519 operations through the native library. Requires the library to be built with Cargo first.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SchnorrkelBenchmark {
+
+    private final Schnorrkel schnorrkel = Schnorrkel.getInstance();
+    private Schnorrkel.KeyPair keyPair;
+    private byte[] message;
+    private byte[] signature;
+
+    @Setup
+    public void setup() throws SchnorrkelException {
+        keyPair = schnorrkel.generateKeyPairFromSeed(new byte[32]);
+        message = new byte[128];
+        for (int i = 0; i < message.length; i++) {
+            message[i] = (byte) i;
+        }
+        signature = schnorrkel.sign(message, keyPair);
+    }
+
+    @Benchmark
+    public byte[] sign() throws SchnorrkelException {
+        return schnorrkel.sign(message, keyPair);
+    }
+
+    @Benchmark
+    public boolean verify() throws SchnorrkelException {
+        return schnorrkel.verify(signature, message, keyPair);
+    }
+}
@@ -13,6 +13,20 @@ public class ByteData {
         this.value = value.clone();
     }
 
+    /**
+     * Create from a part of the array
+     *
+     * @param value source array
+     * @param offset start of the data in the array
+     * @param length length of the data
+     */
+    public ByteData(byte[] value, int offset, int length) {
+        if (value == null) {
+            throw new NullPointerException("Value is null");
+        }
+        this.value = Arrays.copyOfRange(value, offset, offset + length);
+    }
+
     public static ByteData from(String hex) {
         byte[] value = FixedBytes.parseHex(hex);
         return new ByteData(value);
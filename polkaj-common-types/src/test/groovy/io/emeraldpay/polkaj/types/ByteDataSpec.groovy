@@ -80,4 +80,13 @@ class ByteDataSpec extends Specification {
         x != y
     }
 
+    def "Create from part of array"() {
+        setup:
+        def source = [0, 1, 2, 3] as byte[]
+        when:
+        def act = new ByteData(source, 1, 2)
+        source[1] = 5
+        then:
+        act.bytes == [1, 2] as byte[]
+    }
 }
@@ -24,8 +24,7 @@ public class ExtrinsicReader<CALL extends ExtrinsicCall> implements ScaleReader<
 
     @Override
     public Extrinsic<CALL> read(ScaleCodecReader rdr) {
-        byte[] internal = rdr.readByteArray();
-        rdr = new ScaleCodecReader(internal);
+        rdr = rdr.readSlice();
         int type = rdr.readByte();
         boolean signed = (Extrinsic.TYPE_BIT_SIGNED & type) > 0;
         int version = Extrinsic.TYPE_UNMASK_VERSION & type;
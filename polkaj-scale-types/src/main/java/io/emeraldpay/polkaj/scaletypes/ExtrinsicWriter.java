@@ -1,6 +1,5 @@
 package io.emeraldpay.polkaj.scaletypes;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.math.BigInteger;
 
@@ -19,14 +18,14 @@ public class ExtrinsicWriter<CALL extends ExtrinsicCall> implements ScaleWriter<
 
     @Override
     public void write(ScaleCodecWriter wrt, Extrinsic<CALL> value) throws IOException {
-        ByteArrayOutputStream buf = new ByteArrayOutputStream();
-        ScaleCodecWriter internal = new ScaleCodecWriter(buf);
-        int type = Extrinsic.TYPE_BIT_SIGNED + (Extrinsic.TYPE_UNMASK_VERSION & 4);
-        internal.writeByte(type);
-        internal.write(TX_WRITER, value.getTx());
-        internal.write(callScaleWriter, value.getCall());
-        // the extrinsic itself is written as array, so the body of it can be processed individually as bytes
-        wrt.writeAsList(buf.toByteArray());
+        try (ScaleCodecWriter internal = ScaleCodecWriter.pooled()) {
+            int type = Extrinsic.TYPE_BIT_SIGNED + (Extrinsic.TYPE_UNMASK_VERSION & 4);
+            internal.writeByte(type);
+            internal.write(TX_WRITER, value.getTx());
+            internal.write(callScaleWriter, value.getCall());
+            // the extrinsic itself is written as array, so the body of it can be processed individually as bytes
+            wrt.writeAsList(internal.asByteBuffer());
+        }
     }
 
     static class TransactionInfoWriter implements ScaleWriter<Extrinsic.TransactionInfo> {
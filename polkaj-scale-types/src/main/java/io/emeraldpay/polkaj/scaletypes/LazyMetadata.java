@@ -0,0 +1,124 @@
+package io.emeraldpay.polkaj.scaletypes;
+
+import io.emeraldpay.polkaj.scale.ScaleCodecReader;
+import io.emeraldpay.polkaj.scale.ScaleReader;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Runtime Metadata where each module is decoded on first access. Produced by {@link LazyMetadataReader}.
+ * <br>
+ * {@link #findModule(String)} and {@link #findCall(String, String)} decode only the requested module, while
+ * {@link #getModules()} decodes all of them and after that it works as a standard Metadata.
+ */
+public class LazyMetadata extends Metadata {
+
+    private final Object lock = new Object();
+    private final ScaleReader<Module> moduleReader;
+
+    private List<String> names;
+    private Map<String, Integer> positions;
+    private ByteBuffer[] sources;
+    private Module[] decoded;
+
+    LazyMetadata(List<String> names, List<ByteBuffer> sources, ScaleReader<Module> moduleReader) {
+        this.moduleReader = moduleReader;
+        this.names = Collections.unmodifiableList(names);
+        this.positions = new HashMap<>(names.size() * 4 / 3 + 1);
+        for (int i = 0; i < names.size(); i++) {
+            this.positions.putIfAbsent(names.get(i), i);
+        }
+        this.sources = sources.toArray(new ByteBuffer[0]);
+        this.decoded = new Module[sources.size()];
+    }
+
+    /**
+     * @return names of all modules, in the original order. Doesn't decode them.
+     */
+    public List<String> getModuleNames() {
+        synchronized (lock) {
+            if (names != null) {
+                return names;
+            }
+        }
+        List<Module> modules = super.getModules();
+        if (modules == null) {
+            return Collections.emptyList();
+        }
+        List<String> result = new ArrayList<>(modules.size());
+        for (Module module: modules) {
+            result.add(module.getName());
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * @return true if there are modules which are not decoded yet
+     */
+    public boolean isLazy() {
+        synchronized (lock) {
+            return names != null;
+        }
+    }
+
+    @Override
+    public List<Module> getModules() {
+        synchronized (lock) {
+            if (names != null) {
+                List<Module> modules = new ArrayList<>(decoded.length);
+                for (int i = 0; i < decoded.length; i++) {
+                    modules.add(decode(i));
+                }
+                super.setModules(modules);
+                clear();
+            }
+        }
+        return super.getModules();
+    }
+
+    @Override
+    public void setModules(List<Module> modules) {
+        synchronized (lock) {
+            clear();
+            super.setModules(modules);
+        }
+    }
+
+    @Override
+    public Optional<Module> findModule(String name) {
+        synchronized (lock) {
+            if (names != null) {
+                Integer index = positions.get(name);
+                if (index == null) {
+                    return Optional.empty();
+                }
+                return Optional.of(decode(index));
+            }
+        }
+        return super.findModule(name);
+    }
+
+    private Module decode(int index) {
+        Module module = decoded[index];
+        if (module == null) {
+            module = new ScaleCodecReader(sources[index].duplicate()).read(moduleReader);
+            decoded[index] = module;
+            // source is not needed anymore
+            sources[index] = null;
+        }
+        return module;
+    }
+
+    private void clear() {
+        names = null;
+        positions = null;
+        sources = null;
+        decoded = null;
+    }
+}
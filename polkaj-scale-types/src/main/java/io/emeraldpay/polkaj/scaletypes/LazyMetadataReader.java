@@ -0,0 +1,153 @@
+package io.emeraldpay.polkaj.scaletypes;
+
+import io.emeraldpay.polkaj.scale.ScaleCodecReader;
+import io.emeraldpay.polkaj.scale.ScaleCodecStreamReader;
+import io.emeraldpay.polkaj.scale.ScaleReader;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads Runtime Metadata into a {@link LazyMetadata}. Makes one pass over the data to find where each module is
+ * encoded, without decoding it, and a module is decoded only when it's accessed.
+ * <br>
+ * Modules keep a view of the source data, so the source must not be changed after reading. It needs to go back to
+ * the start of each module, so a {@link ScaleCodecStreamReader} is not supported; use {@link MetadataReader} for a stream.
+ *
+ * @see MetadataReader
+ */
+public class LazyMetadataReader implements ScaleReader<LazyMetadata> {
+
+    private final boolean documentation;
+
+    public LazyMetadataReader() {
+        this(false);
+    }
+
+    /**
+     *
+     * @param documentation if true the modules are decoded with documentation, otherwise all documentation fields are null
+     */
+    public LazyMetadataReader(boolean documentation) {
+        this.documentation = documentation;
+    }
+
+    @Override
+    public LazyMetadata read(ScaleCodecReader rdr) {
+        if (rdr instanceof ScaleCodecStreamReader) {
+            throw new IllegalArgumentException("Lazy Metadata cannot be read from a stream");
+        }
+        int magic = rdr.readInt(ScaleCodecReader.INT32);
+        int version = rdr.readUByte();
+        if (version != 12) {
+            throw new IllegalStateException("Unsupported metadata version: " + version);
+        }
+        int count = rdr.readCompactInt();
+        List<String> names = new ArrayList<>(count);
+        List<ByteBuffer> modules = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int start = rdr.position();
+            names.add(rdr.readString());
+            skipModule(rdr);
+            int end = rdr.position();
+            rdr.seek(start);
+            modules.add(rdr.readByteBuffer(end - start));
+        }
+        LazyMetadata result = new LazyMetadata(names, modules, new MetadataReader.ModulesReader(documentation));
+        result.setMagic(magic);
+        result.setVersion(version);
+        return result;
+    }
+
+    /**
+     * Skip the module content after its name, in the same order as it's read by {@link MetadataReader.ModulesReader}
+     */
+    private static void skipModule(ScaleCodecReader rdr) {
+        // storage
+        if (rdr.readBoolean()) {
+            skipString(rdr);
+            int entries = rdr.readCompactInt();
+            for (int i = 0; i < entries; i++) {
+                skipString(rdr);
+                rdr.skip(1); // modifier
+                skipType(rdr);
+                skipString(rdr); // defaults
+                skipStrings(rdr);
+            }
+        }
+        // calls
+        if (rdr.readBoolean()) {
+            int calls = rdr.readCompactInt();
+            for (int i = 0; i < calls; i++) {
+                skipString(rdr);
+                int args = rdr.readCompactInt();
+                for (int j = 0; j < args; j++) {
+                    skipString(rdr);
+                    skipString(rdr);
+                }
+                skipStrings(rdr);
+            }
+        }
+        // events
+        if (rdr.readBoolean()) {
+            int events = rdr.readCompactInt();
+            for (int i = 0; i < events; i++) {
+                skipString(rdr);
+                skipStrings(rdr);
+                skipStrings(rdr);
+            }
+        }
+        // constants
+        int constants = rdr.readCompactInt();
+        for (int i = 0; i < constants; i++) {
+            skipString(rdr);
+            skipString(rdr);
+            skipString(rdr);
+            skipStrings(rdr);
+        }
+        // errors
+        int errors = rdr.readCompactInt();
+        for (int i = 0; i < errors; i++) {
+            skipString(rdr);
+            skipStrings(rdr);
+        }
+        // index
+        rdr.skip(1);
+    }
+
+    private static void skipType(ScaleCodecReader rdr) {
+        int type = rdr.readUByte();
+        switch (type) {
+            case 0:
+                skipString(rdr);
+                break;
+            case 1:
+                rdr.skip(1); // hasher
+                skipString(rdr);
+                skipString(rdr);
+                rdr.skip(1); // iterable
+                break;
+            case 2:
+                rdr.skip(1);
+                skipString(rdr);
+                skipString(rdr);
+                skipString(rdr);
+                rdr.skip(1);
+                break;
+            default:
+                throw new IllegalStateException("Unsupported storage type: " + type);
+        }
+    }
+
+    private static void skipString(ScaleCodecReader rdr) {
+        rdr.skip(rdr.readCompactInt());
+    }
+
+    private static void skipStrings(ScaleCodecReader rdr) {
+        int size = rdr.readCompactInt();
+        for (int i = 0; i < size; i++) {
+            skipString(rdr);
+        }
+    }
+}
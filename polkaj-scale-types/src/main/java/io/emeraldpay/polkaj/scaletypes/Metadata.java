@@ -1,9 +1,13 @@
 package io.emeraldpay.polkaj.scaletypes;
 
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 
 /**
  * Runtime Metadata, which defines all available actions and types for the blockchain.
@@ -16,6 +20,7 @@ public class Metadata {
     private Integer magic;
     private Integer version;
     private List<Module> modules;
+    private NameIndex<Module> moduleIndex;
 
     public Integer getMagic() {
         return magic;
@@ -45,9 +50,9 @@ public class Metadata {
         if (modules == null) {
             return Optional.empty();
         }
-        return getModules().stream()
-                .filter(it -> it.getName().equals(name))
-                .findAny();
+        NameIndex<Module> index = NameIndex.of(moduleIndex, modules, Module::getName);
+        moduleIndex = index;
+        return index.find(name);
     }
 
     public Optional<Call> findCall(String moduleName, String callName) {
@@ -62,12 +67,45 @@ public class Metadata {
         Metadata metadata = (Metadata) o;
         return Objects.equals(magic, metadata.magic) &&
                 Objects.equals(version, metadata.version) &&
-                Objects.equals(modules, metadata.modules);
+                Objects.equals(getModules(), metadata.getModules());
     }
 
     @Override
     public final int hashCode() {
-        return Objects.hash(magic, version, modules);
+        return Objects.hash(magic, version, getModules());
+    }
+
+    /**
+     * Lookup by name for a list of modules or calls. Built on first search, and rebuilt if the list is replaced or its
+     * size is changed. If there are multiple elements with the same name the first one is used.
+     *
+     * @param <T> type of elements
+     */
+    static final class NameIndex<T> {
+        private final List<T> source;
+        private final int size;
+        private final Map<String, T> byName;
+
+        private NameIndex(List<T> source, Function<T, String> name) {
+            this.source = source;
+            this.size = source.size();
+            Map<String, T> byName = new HashMap<>(size * 4 / 3 + 1);
+            for (T item: source) {
+                byName.putIfAbsent(name.apply(item), item);
+            }
+            this.byName = Collections.unmodifiableMap(byName);
+        }
+
+        static <T> NameIndex<T> of(NameIndex<T> current, List<T> source, Function<T, String> name) {
+            if (current != null && current.source == source && current.size == source.size()) {
+                return current;
+            }
+            return new NameIndex<>(source, name);
+        }
+
+        Optional<T> find(String name) {
+            return Optional.ofNullable(byName.get(name));
+        }
     }
 
     public static class Module {
@@ -78,6 +116,7 @@ public class Metadata {
         private List<Constant> constants;
         private List<Error> errors;
         private Integer index;
+        private NameIndex<Call> callIndex;
 
         public String getName() {
             return name;
@@ -139,9 +178,9 @@ public class Metadata {
             if (calls == null) {
                 return Optional.empty();
             }
-            return calls.stream()
-                    .filter(it -> it.getName().equals(name))
-                    .findAny();
+            NameIndex<Call> index = NameIndex.of(callIndex, calls, Call::getName);
+            callIndex = index;
+            return index.find(name);
         }
 
         @Override
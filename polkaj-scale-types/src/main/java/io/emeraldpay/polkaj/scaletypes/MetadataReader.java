@@ -10,63 +10,97 @@ import java.util.List;
 
 public class MetadataReader implements ScaleReader<Metadata> {
 
-    public static final ListReader<Metadata.Module> MODULE_LIST_READER = new ListReader<>(new ModulesReader());
     public static final ListReader<String> STRING_LIST_READER = new ListReader<>(ScaleCodecReader.STRING);
     public static final EnumReader<Metadata.Storage.Hasher> HASHER_ENUM_READER = new EnumReader<>(Metadata.Storage.Hasher.values());
 
+    /**
+     * Skips list of strings without decoding it, and returns null. Used in place of documentation when it's not needed.
+     */
+    static final ScaleReader<List<String>> SKIP_STRING_LIST_READER = new SkipStringListReader();
+
+    public static final ListReader<Metadata.Module> MODULE_LIST_READER = new ListReader<>(new ModulesReader());
+
+    private final ListReader<Metadata.Module> modulesReader;
+
+    public MetadataReader() {
+        this(true);
+    }
+
+    /**
+     *
+     * @param documentation if false the documentation is skipped, and all documentation fields are null
+     */
+    public MetadataReader(boolean documentation) {
+        this.modulesReader = documentation ? MODULE_LIST_READER : new ListReader<>(new ModulesReader(false));
+    }
+
     @Override
     public Metadata read(ScaleCodecReader rdr) {
         Metadata result = new Metadata();
-        result.setMagic(ScaleCodecReader.INT32.read(rdr));
+        result.setMagic(rdr.readInt(ScaleCodecReader.INT32));
         result.setVersion(rdr.readUByte());
         if (result.getVersion() != 12) {
             throw new IllegalStateException("Unsupported metadata version: " + result.getVersion());
         }
-        result.setModules(MODULE_LIST_READER.read(rdr));
-        List<Metadata.Module> modules = result.getModules();
-
-        for (Metadata.Module m: modules) {
-            List<Metadata.Call> calls = m.getCalls();
-            if (calls != null) {
-                for (int j = 0; j < calls.size(); j++) {
-                    calls.get(j).setIndex((m.getIndex() << 8) + j);
-                }
-            }
-        }
+        result.setModules(modulesReader.read(rdr));
         return result;
     }
 
     static class ModulesReader implements ScaleReader<Metadata.Module> {
 
-        public static final StorageReader STORAGE_READER = new StorageReader();
-        public static final ListReader<Metadata.Call> CALL_LIST_READER = new ListReader<>(new CallReader());
-        public static final ListReader<Metadata.Event> EVENT_LIST_READER = new ListReader<>(new EventReader());
-        public static final ListReader<Metadata.Constant> CONSTANT_LIST_READER = new ListReader<>(new ConstantReader());
-        public static final ListReader<Metadata.Error> ERROR_LIST_READER = new ListReader<>(new ErrorReader());
+        private final StorageReader storageReader;
+        private final ListReader<Metadata.Call> callListReader;
+        private final ListReader<Metadata.Event> eventListReader;
+        private final ListReader<Metadata.Constant> constantListReader;
+        private final ListReader<Metadata.Error> errorListReader;
+
+        public ModulesReader() {
+            this(true);
+        }
+
+        public ModulesReader(boolean documentation) {
+            ScaleReader<List<String>> docsReader = documentation ? STRING_LIST_READER : SKIP_STRING_LIST_READER;
+            storageReader = new StorageReader(docsReader);
+            callListReader = new ListReader<>(new CallReader(docsReader));
+            eventListReader = new ListReader<>(new EventReader(docsReader));
+            constantListReader = new ListReader<>(new ConstantReader(docsReader));
+            errorListReader = new ListReader<>(new ErrorReader(docsReader));
+        }
 
         @Override
         public Metadata.Module read(ScaleCodecReader rdr) {
             Metadata.Module result = new Metadata.Module();
             result.setName(rdr.readString());
-            rdr.readOptional(STORAGE_READER).ifPresent(result::setStorage);
-            rdr.readOptional(CALL_LIST_READER).ifPresent(result::setCalls);
-            rdr.readOptional(EVENT_LIST_READER).ifPresent(result::setEvents);
-            result.setConstants(CONSTANT_LIST_READER.read(rdr));
-            result.setErrors(ERROR_LIST_READER.read(rdr));
+            rdr.readOptional(storageReader).ifPresent(result::setStorage);
+            rdr.readOptional(callListReader).ifPresent(result::setCalls);
+            rdr.readOptional(eventListReader).ifPresent(result::setEvents);
+            result.setConstants(constantListReader.read(rdr));
+            result.setErrors(errorListReader.read(rdr));
             result.setIndex(rdr.readUByte());
+
+            List<Metadata.Call> calls = result.getCalls();
+            if (calls != null) {
+                for (int j = 0; j < calls.size(); j++) {
+                    calls.get(j).setIndex((result.getIndex() << 8) + j);
+                }
+            }
             return result;
         }
     }
 
     static class StorageReader implements ScaleReader<Metadata.Storage> {
 
-        public static final ListReader<Metadata.Storage.Entry> ENTRY_LIST_READER = new ListReader<>(new StorageEntryReader());
+        private final ListReader<Metadata.Storage.Entry> entryListReader;
+
+        public StorageReader(ScaleReader<List<String>> docsReader) {
+            this.entryListReader = new ListReader<>(new StorageEntryReader(docsReader));
+        }
 
         @Override
         public Metadata.Storage read(ScaleCodecReader rdr) {
             Metadata.Storage result = new Metadata.Storage();
             result.setPrefix(rdr.readString());
-            result.setEntries(ENTRY_LIST_READER.read(rdr));
+            result.setEntries(entryListReader.read(rdr));
             return result;
         }
     }
@@ -76,6 +110,12 @@ public class MetadataReader implements ScaleReader<Metadata> {
         public static final EnumReader<Metadata.Storage.Modifier> MODIFIER_ENUM_READER = new EnumReader<>(Metadata.Storage.Modifier.values());
         public static final TypeReader TYPE_READER = new TypeReader();
 
+        private final ScaleReader<List<String>> docsReader;
+
+        public StorageEntryReader(ScaleReader<List<String>> docsReader) {
+            this.docsReader = docsReader;
+        }
+
         @Override
         public Metadata.Storage.Entry read(ScaleCodecReader rdr) {
             Metadata.Storage.Entry result = new Metadata.Storage.Entry();
@@ -83,7 +123,7 @@ public class MetadataReader implements ScaleReader<Metadata> {
             result.setModifier(MODIFIER_ENUM_READER.read(rdr));
             result.setType(rdr.read(TYPE_READER));
             result.setDefaults(rdr.readByteArray());
-            result.setDocumentation(STRING_LIST_READER.read(rdr));
+            result.setDocumentation(docsReader.read(rdr));
             return result;
         }
     }
@@ -141,12 +181,18 @@ public class MetadataReader implements ScaleReader<Metadata> {
 
         public static final ListReader<Metadata.Call.Arg> ARG_LIST_READER = new ListReader<>(new ArgReader());
 
+        private final ScaleReader<List<String>> docsReader;
+
+        public CallReader(ScaleReader<List<String>> docsReader) {
+            this.docsReader = docsReader;
+        }
+
         @Override
         public Metadata.Call read(ScaleCodecReader rdr) {
             Metadata.Call result = new Metadata.Call();
             result.setName(rdr.readString());
             result.setArguments(ARG_LIST_READER.read(rdr));
-            result.setDocumentation(STRING_LIST_READER.read(rdr));
+            result.setDocumentation(docsReader.read(rdr));
             return result;
         }
     }
@@ -164,37 +210,67 @@ public class MetadataReader implements ScaleReader<Metadata> {
 
     static class EventReader implements ScaleReader<Metadata.Event> {
 
+        private final ScaleReader<List<String>> docsReader;
+
+        public EventReader(ScaleReader<List<String>> docsReader) {
+            this.docsReader = docsReader;
+        }
+
         @Override
         public Metadata.Event read(ScaleCodecReader rdr) {
             Metadata.Event result = new Metadata.Event();
             result.setName(rdr.readString());
             result.setArguments(STRING_LIST_READER.read(rdr));
-            result.setDocumentation(STRING_LIST_READER.read(rdr));
+            result.setDocumentation(docsReader.read(rdr));
             return result;
         }
     }
 
     static class ConstantReader implements ScaleReader<Metadata.Constant> {
 
+        private final ScaleReader<List<String>> docsReader;
+
+        public ConstantReader(ScaleReader<List<String>> docsReader) {
+            this.docsReader = docsReader;
+        }
+
         @Override
         public Metadata.Constant read(ScaleCodecReader rdr) {
             Metadata.Constant result = new Metadata.Constant();
             result.setName(rdr.readString());
             result.setType(rdr.readString());
             result.setValue(rdr.readByteArray());
-            result.setDocumentation(STRING_LIST_READER.read(rdr));
+            result.setDocumentation(docsReader.read(rdr));
             return result;
         }
     }
 
     static class ErrorReader implements ScaleReader<Metadata.Error> {
 
+        private final ScaleReader<List<String>> docsReader;
+
+        public ErrorReader(ScaleReader<List<String>> docsReader) {
+            this.docsReader = docsReader;
+        }
+
         @Override
         public Metadata.Error read(ScaleCodecReader rdr) {
             Metadata.Error result = new Metadata.Error();
             result.setName(rdr.readString());
-            result.setDocumentation(STRING_LIST_READER.read(rdr));
+            result.setDocumentation(docsReader.read(rdr));
             return result;
         }
     }
+
+    static class SkipStringListReader implements ScaleReader<List<String>> {
+
+        @Override
+        public List<String> read(ScaleCodecReader rdr) {
+            int size = rdr.readCompactInt();
+            for (int i = 0; i < size; i++) {
+                rdr.skip(rdr.readCompactInt());
+            }
+            return null;
+        }
+    }
 }
@@ -0,0 +1,102 @@
+package io.emeraldpay.polkaj.scaletypes
+
+import io.emeraldpay.polkaj.scale.ScaleCodecReader
+import io.emeraldpay.polkaj.scale.ScaleCodecStreamReader
+import org.apache.commons.codec.binary.Hex
+import spock.lang.Specification
+
+class LazyMetadataReaderSpec extends Specification {
+
+    byte[] data
+
+    def setup() {
+        String hex = this.getClass().getClassLoader().getResourceAsStream("metadata-kusama.txt").text
+        data = Hex.decodeHex(hex.substring(2))
+    }
+
+    def "Read Kusama module names"() {
+        when:
+        def act = new ScaleCodecReader(data).read(new LazyMetadataReader())
+        then:
+        act.version == 12
+        act.magic == 0x6174656d
+        act.isLazy()
+        act.moduleNames.size() == 30
+        act.moduleNames[0] == "System"
+        act.moduleNames.contains("Balances")
+    }
+
+    def "Decode only requested module"() {
+        setup:
+        def full = new ScaleCodecReader(data).read(new MetadataReader(false))
+        when:
+        def act = new ScaleCodecReader(data).read(new LazyMetadataReader())
+        def module = act.findModule("Balances")
+        then:
+        module.get() == full.findModule("Balances").get()
+        act.isLazy()
+        act.findCall("Balances", "transfer").get().index == 0x0400
+        act.findCall("Democracy", "enact_proposal").get().index == 0x0d16
+        act.findCall("Vesting", "vested_transfer").get().index == 0x1c02
+        !act.findModule("Unknown").isPresent()
+        !act.findCall("Balances", "unknown").isPresent()
+    }
+
+    def "Same module instance on next access"() {
+        when:
+        def act = new ScaleCodecReader(data).read(new LazyMetadataReader())
+        then:
+        act.findModule("Staking").get().is(act.findModule("Staking").get())
+    }
+
+    def "Equal to fully decoded without documentation"() {
+        setup:
+        def full = new ScaleCodecReader(data).read(new MetadataReader(false))
+        when:
+        def act = new ScaleCodecReader(data).read(new LazyMetadataReader())
+        then:
+        act == full
+        !act.isLazy()
+        act.modules == full.modules
+        act.moduleNames == full.modules.collect { it.name }
+    }
+
+    def "Equal to fully decoded with documentation"() {
+        setup:
+        def full = new ScaleCodecReader(data).read(new MetadataReader())
+        when:
+        def act = new ScaleCodecReader(data).read(new LazyMetadataReader(true))
+        then:
+        act.findCall("System", "fill_block").get().documentation == [" A dispatch that will fill the block weight up to the given ratio."]
+        act == full
+    }
+
+    def "Cannot read from stream"() {
+        when:
+        def rdr = new ScaleCodecStreamReader(new ByteArrayInputStream(data))
+        rdr.read(new LazyMetadataReader())
+        then:
+        thrown(IllegalArgumentException)
+    }
+
+    def "Replace modules"() {
+        setup:
+        def module = new Metadata.Module(name: "Test", index: 0)
+        when:
+        def act = new ScaleCodecReader(data).read(new LazyMetadataReader())
+        act.setModules([module])
+        then:
+        !act.isLazy()
+        act.modules == [module]
+        act.moduleNames == ["Test"]
+        act.findModule("Test").get() == module
+        !act.findModule("System").isPresent()
+    }
+
+    def "Fails on unsupported version"() {
+        when:
+        new ScaleCodecReader(Hex.decodeHex("6d6574610b00")).read(new LazyMetadataReader())
+        then:
+        thrown(IllegalStateException)
+    }
+}
@@ -1,6 +1,7 @@
 package io.emeraldpay.polkaj.scaletypes
 
 import io.emeraldpay.polkaj.scale.ScaleCodecReader
+import io.emeraldpay.polkaj.scale.ScaleCodecStreamReader
 import org.apache.commons.codec.binary.Hex
 import spock.lang.Specification
 
@@ -8,6 +9,18 @@ import java.nio.ByteBuffer
 
 class MetadataReaderSpec extends Specification {
 
+    def "Read Kusama from stream"() {
+        setup:
+        String hex = this.getClass().getClassLoader().getResourceAsStream("metadata-kusama.txt").text
+        byte[] data = Hex.decodeHex(hex.substring(2))
+        def expected = new ScaleCodecReader(data).read(new MetadataReader())
+        when:
+        def rdr = new ScaleCodecStreamReader(new ByteArrayInputStream(data), 1024)
+        def act = rdr.read(new MetadataReader())
+        then:
+        act == expected
+    }
+
     def "Read Kusama"() {
         setup:
         String hex = this.getClass().getClassLoader().getResourceAsStream("metadata-kusama.txt").text
@@ -107,4 +120,40 @@ class MetadataReaderSpec extends Specification {
         act.findCall("Vesting", "vested_transfer").get().index == 0x1c02
     }
 
+    def "Read Kusama without documentation"() {
+        setup:
+        String hex = this.getClass().getClassLoader().getResourceAsStream("metadata-kusama.txt").text
+        byte[] data = Hex.decodeHex(hex.substring(2))
+        def full = new ScaleCodecReader(data).read(new MetadataReader())
+        when:
+        def act = new ScaleCodecReader(data).read(new MetadataReader(false))
+        then:
+        act.modules.size() == 30
+        act.modules.collect { it.name } == full.modules.collect { it.name }
+        with(act.findCall("Balances", "transfer").get()) {
+            index == 0x0400
+            arguments == full.findCall("Balances", "transfer").get().arguments
+            documentation == null
+        }
+        act.modules.every { m ->
+            (m.calls == null || m.calls.every { it.documentation == null }) &&
+                    (m.events == null || m.events.every { it.documentation == null }) &&
+                    m.constants.every { it.documentation == null } &&
+                    m.errors.every { it.documentation == null } &&
+                    (m.storage == null || m.storage.entries.every { it.documentation == null })
+        }
+    }
+
+    def "Find missing module and call"() {
+        setup:
+        String hex = this.getClass().getClassLoader().getResourceAsStream("metadata-kusama.txt").text
+        byte[] data = Hex.decodeHex(hex.substring(2))
+        when:
+        def act = new ScaleCodecReader(data).read(new MetadataReader())
+        then:
+        !act.findModule("Unknown").isPresent()
+        !act.findCall("Balances", "unknown").isPresent()
+        !act.findCall("Unknown", "transfer").isPresent()
+    }
+
 }
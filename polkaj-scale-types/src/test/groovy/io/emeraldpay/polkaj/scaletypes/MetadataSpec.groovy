@@ -10,6 +10,7 @@ class MetadataSpec extends Specification {
         when:
         def v = EqualsVerifier.forClass(Metadata)
             .suppress(Warning.NONFINAL_FIELDS)
+            .withIgnoredFields("moduleIndex")
         then:
         v.verify()
     }
@@ -18,6 +19,7 @@ class MetadataSpec extends Specification {
         when:
         def v = EqualsVerifier.forClass(Metadata.Module)
                 .suppress(Warning.NONFINAL_FIELDS)
+                .withIgnoredFields("callIndex")
         then:
         v.verify()
     }
@@ -155,4 +157,39 @@ class MetadataSpec extends Specification {
         then:
         thrown(ClassCastException)
     }
+
+    def "Find module after list is changed"() {
+        setup:
+        def metadata = new Metadata()
+        def first = new Metadata.Module(name: "First", index: 0)
+        def second = new Metadata.Module(name: "Second", index: 1)
+        def modules = [first]
+        metadata.setModules(modules)
+        when:
+        def act = metadata.findModule("Second")
+        then:
+        !act.isPresent()
+        when:
+        modules.add(second)
+        act = metadata.findModule("Second")
+        then:
+        act.get() == second
+        when:
+        metadata.setModules([second])
+        act = metadata.findModule("First")
+        then:
+        !act.isPresent()
+    }
+
+    def "Find call by name"() {
+        setup:
+        def module = new Metadata.Module(name: "Balances", index: 4, calls: [
+                new Metadata.Call(name: "transfer", index: 0x0400),
+                new Metadata.Call(name: "set_balance", index: 0x0401),
+        ])
+        expect:
+        module.findCall("set_balance").get().index == 0x0401
+        module.findCall("transfer").get().index == 0x0400
+        !module.findCall("other").isPresent()
+    }
 }
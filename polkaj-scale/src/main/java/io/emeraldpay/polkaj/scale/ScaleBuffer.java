@@ -0,0 +1,159 @@
+package io.emeraldpay.polkaj.scale;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * Growable in-memory output for SCALE encoding. Similar to ByteArrayOutputStream, but not synchronized, gives access
+ * to the written bytes without copying them and can be reused after {@link #reset()}.
+ * <br>
+ * Instances can be borrowed from a per-thread pool with {@link #acquire()}, and must be given back with
+ * {@link #release()} when the written data is not used anymore. It's the way {@link ScaleCodecWriter#pooled()} works.
+ */
+public class ScaleBuffer extends OutputStream {
+
+    private static final int DEFAULT_CAPACITY = 256;
+
+    /**
+     * Max buffers kept per thread. More than one is needed because encoding of a value may encode a nested value
+     * into a separate buffer (ex. Extrinsic)
+     */
+    private static final int POOL_SIZE = 4;
+
+    /**
+     * Don't keep in the pool buffers which grew too large, so one huge value doesn't keep memory forever
+     */
+    private static final int POOL_MAX_CAPACITY = 64 * 1024;
+
+    private static final ThreadLocal<ArrayDeque<ScaleBuffer>> POOL = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private byte[] buf;
+    private int count;
+    private boolean pooled;
+
+    public ScaleBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ScaleBuffer(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Negative capacity: " + capacity);
+        }
+        this.buf = new byte[capacity];
+    }
+
+    /**
+     * Get an empty buffer from the pool of the current thread, or create a new one if the pool is empty.
+     *
+     * @return empty buffer
+     * @see #release()
+     */
+    public static ScaleBuffer acquire() {
+        ScaleBuffer buffer = POOL.get().pollFirst();
+        if (buffer == null) {
+            buffer = new ScaleBuffer();
+        }
+        buffer.pooled = false;
+        return buffer;
+    }
+
+    /**
+     * Give the buffer back to the pool of the current thread. The buffer and any ByteBuffer returned by
+     * {@link #asByteBuffer()} must not be used after that.
+     */
+    public void release() {
+        if (pooled) {
+            throw new IllegalStateException("Buffer is already released");
+        }
+        reset();
+        ArrayDeque<ScaleBuffer> pool = POOL.get();
+        if (pool.size() < POOL_SIZE && buf.length <= POOL_MAX_CAPACITY) {
+            pooled = true;
+            pool.addFirst(this);
+        }
+    }
+
+    private void ensureCapacity(int required) {
+        if (required < 0) {
+            throw new OutOfMemoryError("Buffer is too large");
+        }
+        if (required > buf.length) {
+            int capacity = Math.max(buf.length << 1, required);
+            if (capacity < 0) {
+                capacity = Integer.MAX_VALUE - 8;
+            }
+            buf = Arrays.copyOf(buf, capacity);
+        }
+    }
+
+    @Override
+    public void write(int b) {
+        ensureCapacity(count + 1);
+        buf[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        if (off < 0 || len < 0 || off > b.length - len) {
+            throw new IndexOutOfBoundsException();
+        }
+        ensureCapacity(count + len);
+        System.arraycopy(b, off, buf, count, len);
+        count += len;
+    }
+
+    /**
+     * Write remaining bytes of the buffer. Position of the buffer is not changed.
+     *
+     * @param b bytes to write
+     */
+    public void write(ByteBuffer b) {
+        int len = b.remaining();
+        ensureCapacity(count + len);
+        b.duplicate().get(buf, count, len);
+        count += len;
+    }
+
+    /**
+     * @return number of written bytes
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Discard all written bytes, keeping the allocated memory for next writes
+     */
+    public void reset() {
+        count = 0;
+    }
+
+    /**
+     * @return copy of written bytes
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buf, count);
+    }
+
+    /**
+     * View of the written bytes, without copying them. The view is valid only until next write or reset of the buffer.
+     *
+     * @return buffer with position at zero and limit at the number of written bytes
+     */
+    public ByteBuffer asByteBuffer() {
+        return ByteBuffer.wrap(buf, 0, count).slice();
+    }
+
+    /**
+     * Access to the internal array, which contains written bytes from zero to {@link #size()}. The array may change
+     * after next write.
+     *
+     * @return internal array
+     */
+    public byte[] array() {
+        return buf;
+    }
+
+}
@@ -3,10 +3,18 @@ package io.emeraldpay.polkaj.scale;
 import io.emeraldpay.polkaj.scale.reader.*;
 
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
 import java.util.Optional;
 
 /**
- * SCALE codec reader
+ * SCALE codec reader.
+ * <br>
+ * Reader works over a window of a byte array or a ByteBuffer (heap or direct) and never copies the source. A nested
+ * value can be read as a slice (see {@link #readSlice()}), which is a reader over a sub-window of the same source.
+ * Because of that the source must not be modified while it's being read.
+ * <br>
+ * To read from an InputStream or a Channel without loading all data into memory use {@link ScaleCodecStreamReader}.
  */
 public class ScaleCodecReader {
 
@@ -21,11 +29,86 @@ public class ScaleCodecReader {
     public static final BoolOptionalReader BOOL_OPTIONAL = new BoolOptionalReader();
     public static final StringReader STRING = new StringReader();
 
-    private byte[] source;
-    private int pos = 0;
+    private ByteBuffer source;
+    /**
+     * Backing array of the source, if it's accessible. Null for direct and read-only buffers
+     */
+    private byte[] array;
+    private int arrayOffset;
+    /**
+     * Window of the source available to the reader, as absolute indexes in the source
+     */
+    private int start;
+    private int limit;
+    /**
+     * Current absolute index in the source
+     */
+    private int pos;
 
     public ScaleCodecReader(byte[] source) {
+        this(ByteBuffer.wrap(source));
+    }
+
+    /**
+     * Create reader over remaining bytes of the buffer, i.e. between its current position and limit. Position of the
+     * buffer is not changed by the reader.
+     *
+     * @param source source buffer, heap or direct
+     */
+    public ScaleCodecReader(ByteBuffer source) {
+        this(source, source.position(), source.limit());
+    }
+
+    private ScaleCodecReader(ByteBuffer source, int start, int limit) {
+        window(source, start, limit, start);
+    }
+
+    /**
+     * Replace the source of the reader. Used by subclasses which load data on demand.
+     *
+     * @param source new source
+     * @param start start of the window, as absolute index in the source
+     * @param limit end of the window (exclusive), as absolute index in the source
+     * @param pos current position, as absolute index in the source
+     */
+    protected void window(ByteBuffer source, int start, int limit, int pos) {
         this.source = source;
+        if (source.hasArray()) {
+            this.array = source.array();
+            this.arrayOffset = source.arrayOffset();
+        } else {
+            this.array = null;
+            this.arrayOffset = 0;
+        }
+        this.start = start;
+        this.limit = limit;
+        this.pos = pos;
+    }
+
+    /**
+     * @return current position as absolute index in the source
+     */
+    protected int windowPosition() {
+        return pos;
+    }
+
+    /**
+     * @return end of the window as absolute index in the source
+     */
+    protected int windowLimit() {
+        return limit;
+    }
+
+    /**
+     * Called when the reader needs more bytes than left in the current window. A reader over a fixed source has
+     * nothing more to load, but a streaming implementation loads next data and updates the window with
+     * {@link #window(ByteBuffer, int, int, int)}.
+     *
+     * @param required number of bytes required after the current position
+     * @return true if at least the required number of bytes is available after the call
+     */
+    protected boolean fill(int required) {
+        return false;
     }
 
     /**
@@ -33,7 +116,22 @@ public class ScaleCodecReader {
      * @return true if has more elements
      */
     public boolean hasNext() {
-        return pos < source.length;
+        return pos < limit || fill(1);
+    }
+
+    /**
+     * @return current position, i.e. number of bytes read since the beginning of the source
+     * @see #seek(int)
+     */
+    public int position() {
+        return pos - start;
+    }
+
+    /**
+     * @return number of bytes left to read
+     */
+    public int remaining() {
+        return limit - pos;
     }
 
     /**
@@ -41,8 +139,8 @@ public class ScaleCodecReader {
      * @param len amount to bytes to skip
      */
     public void skip(int len) {
-        if (len < 0 && Math.abs(len) > pos) {
-            throw new IllegalArgumentException("Position cannot be negative: " + pos + " " + len);
+        if (len < 0 && Math.abs(len) > pos - start) {
+            throw new IllegalArgumentException("Position cannot be negative: " + (pos - start) + " " + len);
         }
         pos += len;
     }
@@ -54,21 +152,24 @@ public class ScaleCodecReader {
     public void seek(int pos) {
         if (pos < 0) {
             throw new IllegalArgumentException("Position cannot be negative: " + pos);
-        } else if (pos >= source.length) {
-            throw new IllegalArgumentException("Position " + pos + " must be strictly smaller than source length: " + source.length);
+        } else if (pos >= limit - start) {
+            throw new IllegalArgumentException("Position " + pos + " must be strictly smaller than source length: " + (limit - start));
         }
 
-        this.pos = pos;
+        this.pos = start + pos;
     }
 
     /**
      * @return a next single byte from reader
      */
     public byte readByte() {
-        if (!hasNext()) {
-            throw new IndexOutOfBoundsException("Cannot read " + pos + " of " + source.length);
+        if (pos >= limit && !fill(1)) {
+            throw new IndexOutOfBoundsException("Cannot read " + (pos - start) + " of " + (limit - start));
+        }
+        if (array != null) {
+            return array[arrayOffset + pos++];
         }
-        return source[pos++];
+        return source.get(pos++);
     }
 
     /**
@@ -84,16 +185,40 @@ public class ScaleCodecReader {
         return scaleReader.read(this);
     }
 
+    /**
+     * Read value that fits into Java int, without boxing it
+     * @param scaleReader reader implementation
+     * @return read value
+     */
+    public int readInt(ScaleIntReader scaleReader) {
+        if (scaleReader == null) {
+            throw new NullPointerException("ItemReader cannot be null");
+        }
+        return scaleReader.readInt(this);
+    }
+
+    /**
+     * Read value that fits into Java long, without boxing it
+     * @param scaleReader reader implementation
+     * @return read value
+     */
+    public long readLong(ScaleLongReader scaleReader) {
+        if (scaleReader == null) {
+            throw new NullPointerException("ItemReader cannot be null");
+        }
+        return scaleReader.readLong(this);
+    }
+
     public int readUByte() {
-        return UBYTE.read(this);
+        return readByte() & 0xff;
     }
 
     public int readUint16() {
-        return UINT16.read(this);
+        return UINT16.readInt(this);
     }
 
     public long readUint32() {
-        return UINT32.read(this);
+        return UINT32.readLong(this);
     }
 
     public BigInteger readUint128() {
@@ -101,7 +226,7 @@ public class ScaleCodecReader {
     }
 
     public int readCompactInt() {
-        return COMPACT_UINT.read(this);
+        return COMPACT_UINT.readInt(this);
     }
 
     public boolean readBoolean() {
@@ -137,17 +262,81 @@ public class ScaleCodecReader {
     }
 
     public byte[] readByteArray(int len) {
+        checkAvailable(len);
         byte[] result = new byte[len];
-        System.arraycopy(source, pos, result, 0, result.length);
+        if (array != null) {
+            System.arraycopy(array, arrayOffset + pos, result, 0, len);
+        } else {
+            ByteBuffer view = source.duplicate();
+            view.position(pos);
+            view.get(result);
+        }
         pos += len;
         return result;
     }
 
+    /**
+     * Read a length-prefixed value as a slice, i.e. as a reader over the same source limited to the value bytes.
+     * Nothing is copied, and the current reader is moved to the end of the value.
+     *
+     * @return reader over the value
+     * @see #readSlice(int)
+     */
+    public ScaleCodecReader readSlice() {
+        int len = readCompactInt();
+        return readSlice(len);
+    }
+
+    /**
+     * Read next bytes as a slice, i.e. as a reader over the same source limited to these bytes. Nothing is copied,
+     * and the current reader is moved to the end of the slice.
+     *
+     * @param len length of the slice
+     * @return reader over the next len bytes
+     */
+    public ScaleCodecReader readSlice(int len) {
+        checkAvailable(len);
+        ScaleCodecReader slice = new ScaleCodecReader(source, pos, pos + len);
+        pos += len;
+        return slice;
+    }
+
+    /**
+     * Read next bytes as a read-only view of the source. Nothing is copied, and the current reader is moved to the
+     * end of the view.
+     *
+     * @param len length of the value
+     * @return buffer with position at the beginning of the value and limit at its end
+     */
+    public ByteBuffer readByteBuffer(int len) {
+        checkAvailable(len);
+        ByteBuffer view = source.asReadOnlyBuffer();
+        view.limit(pos + len);
+        view.position(pos);
+        pos += len;
+        return view.slice();
+    }
+
     /**
      * Read string, encoded as UTF-8 bytes
      * @return string value
      */
     public String readString() {
-        return new String(readByteArray());
+        int len = readCompactInt();
+        if (array != null && (len <= limit - pos || fill(len))) {
+            String result = new String(array, arrayOffset + pos, len, Charset.defaultCharset());
+            pos += len;
+            return result;
+        }
+        return new String(readByteArray(len));
+    }
+
+    private void checkAvailable(int len) {
+        if (len < 0) {
+            throw new IllegalArgumentException("Length cannot be negative: " + len);
+        }
+        if (len > limit - pos && !fill(len)) {
+            throw new IndexOutOfBoundsException("Cannot read " + len + " bytes at " + (pos - start) + " of " + (limit - start));
+        }
     }
 }
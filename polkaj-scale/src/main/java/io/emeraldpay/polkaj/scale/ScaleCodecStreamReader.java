@@ -0,0 +1,234 @@
+package io.emeraldpay.polkaj.scale;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SelectableChannel;
+
+/**
+ * SCALE codec reader which loads data from an InputStream or a ReadableByteChannel on demand, into a bounded internal
+ * buffer. Supposed to be used for large data, such as Runtime Metadata or exported storage, which can be decoded
+ * incrementally without keeping all of it in memory.
+ * <br>
+ * Differences from the reader over an array or a buffer:
+ * <ul>
+ *     <li>{@link #readSlice(int)} and {@link #readByteBuffer(int)} copy the value, because data is not kept after it's read</li>
+ *     <li>{@link #skip(int)} and {@link #seek(int)} can go back only to data which is still in the buffer</li>
+ *     <li>{@link #remaining()} gives the number of buffered bytes, not the total left in the stream</li>
+ *     <li>IO errors are thrown as {@link UncheckedIOException}</li>
+ * </ul>
+ * The channel must be in blocking mode, a non-blocking {@link SelectableChannel} is rejected.
+ * Reader is not thread-safe, and it closes the source on {@link #close()}.
+ */
+public class ScaleCodecStreamReader extends ScaleCodecReader implements Closeable {
+
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Minimal buffer size, must be enough to fit any primitive value
+     */
+    private static final int MIN_BUFFER_SIZE = 64;
+
+    private final InputStream input;
+    private final ReadableByteChannel channel;
+    private final byte[] buffer;
+    private final ByteBuffer wrapped;
+    /**
+     * Position in the stream of the first byte in the buffer
+     */
+    private long offset = 0;
+    private boolean eof = false;
+
+    public ScaleCodecStreamReader(InputStream input) {
+        this(input, DEFAULT_BUFFER_SIZE);
+    }
+
+    public ScaleCodecStreamReader(InputStream input, int bufferSize) {
+        this(input, null, bufferSize);
+        if (input == null) {
+            throw new NullPointerException("InputStream is null");
+        }
+    }
+
+    public ScaleCodecStreamReader(ReadableByteChannel channel) {
+        this(channel, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     *
+     * @param channel source channel, in blocking mode
+     * @param bufferSize size of the internal buffer
+     * @throws IllegalArgumentException if the channel is in non-blocking mode
+     */
+    public ScaleCodecStreamReader(ReadableByteChannel channel, int bufferSize) {
+        this(null, channel, bufferSize);
+        if (channel == null) {
+            throw new NullPointerException("Channel is null");
+        }
+        if (channel instanceof SelectableChannel && !((SelectableChannel) channel).isBlocking()) {
+            throw new IllegalArgumentException("Channel must be in blocking mode");
+        }
+    }
+
+    private ScaleCodecStreamReader(InputStream input, ReadableByteChannel channel, int bufferSize) {
+        super(new byte[0]);
+        if (bufferSize < MIN_BUFFER_SIZE) {
+            throw new IllegalArgumentException("Buffer size must be at least " + MIN_BUFFER_SIZE + " bytes: " + bufferSize);
+        }
+        this.input = input;
+        this.channel = channel;
+        this.buffer = new byte[bufferSize];
+        this.wrapped = ByteBuffer.wrap(buffer);
+        window(wrapped, 0, 0, 0);
+    }
+
+    /**
+     * Moves unread bytes to the beginning of the buffer and loads from the source until there are required bytes
+     * in the buffer, or the source is finished.
+     */
+    @Override
+    protected boolean fill(int required) {
+        int pos = windowPosition();
+        int limit = windowLimit();
+        if (limit - pos >= required) {
+            return true;
+        }
+        if (eof || required > buffer.length) {
+            return false;
+        }
+        int unread = limit - pos;
+        if (pos > 0) {
+            System.arraycopy(buffer, pos, buffer, 0, unread);
+            offset += pos;
+        }
+        int filled = unread;
+        try {
+            while (filled < required) {
+                int count = load(filled);
+                if (count < 0) {
+                    eof = true;
+                    break;
+                }
+                filled += count;
+            }
+        } finally {
+            window(wrapped, 0, filled, 0);
+        }
+        return filled >= required;
+    }
+
+    private int load(int from) {
+        try {
+            if (input != null) {
+                return input.read(buffer, from, buffer.length - from);
+            }
+            return channel.read(ByteBuffer.wrap(buffer, from, buffer.length - from));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read source", e);
+        }
+    }
+
+    /**
+     * @return position of the reader since the beginning of the stream
+     */
+    public long getPosition() {
+        return offset + windowPosition();
+    }
+
+    /**
+     * @return position of the reader since the beginning of the stream
+     * @throws IllegalStateException if the position doesn't fit into int
+     * @see #getPosition()
+     */
+    @Override
+    public int position() {
+        long position = getPosition();
+        if (position > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Position is too large: " + position);
+        }
+        return (int) position;
+    }
+
+    @Override
+    public void skip(int len) {
+        if (len <= windowLimit() - windowPosition()) {
+            // backward skips and forward within the buffer
+            super.skip(len);
+            return;
+        }
+        // the buffer is fully consumed, drop it and continue with the source
+        len -= windowLimit() - windowPosition();
+        offset += windowLimit();
+        window(wrapped, 0, 0, 0);
+        while (len > 0) {
+            if (!fill(Math.min(len, buffer.length))) {
+                throw new IndexOutOfBoundsException("Cannot skip after the end of the stream");
+            }
+            int step = Math.min(len, windowLimit() - windowPosition());
+            super.skip(step);
+            len -= step;
+        }
+    }
+
+    /**
+     * Specify a new position, relative to the beginning of the stream. It's possible to seek back only to data which
+     * is still in the buffer.
+     *
+     * @param pos position
+     */
+    @Override
+    public void seek(int pos) {
+        if (pos < 0) {
+            throw new IllegalArgumentException("Position cannot be negative: " + pos);
+        }
+        if (pos < offset) {
+            throw new IllegalArgumentException("Position " + pos + " is already discarded from buffer, which starts at " + offset);
+        }
+        skip((int) (pos - getPosition()));
+    }
+
+    @Override
+    public byte[] readByteArray(int len) {
+        if (len < 0) {
+            throw new IllegalArgumentException("Length cannot be negative: " + len);
+        }
+        if (len <= buffer.length) {
+            return super.readByteArray(len);
+        }
+        // too large to fit into the buffer, so copy by parts
+        byte[] result = new byte[len];
+        int copied = 0;
+        while (copied < len) {
+            int step = Math.min(len - copied, buffer.length);
+            if (!fill(step)) {
+                throw new IndexOutOfBoundsException("Cannot read " + len + " bytes, stream finished after " + copied);
+            }
+            System.arraycopy(buffer, windowPosition(), result, copied, step);
+            super.skip(step);
+            copied += step;
+        }
+        return result;
+    }
+
+    @Override
+    public ScaleCodecReader readSlice(int len) {
+        return new ScaleCodecReader(readByteArray(len));
+    }
+
+    @Override
+    public ByteBuffer readByteBuffer(int len) {
+        return ByteBuffer.wrap(readByteArray(len)).asReadOnlyBuffer();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (input != null) {
+            input.close();
+        } else {
+            channel.close();
+        }
+    }
+}
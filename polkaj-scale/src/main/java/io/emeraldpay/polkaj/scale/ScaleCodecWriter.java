@@ -6,8 +6,22 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.util.Optional;
 
+/**
+ * SCALE codec writer.
+ * <br>
+ * Writes into any OutputStream, but when it's a {@link ScaleBuffer} the written bytes are accessible directly from the
+ * writer, with {@link #toByteArray()} or without copying with {@link #asByteBuffer()}. For short-lived encoding use
+ * {@link #pooled()}, which reuses buffers of the current thread:
+ * <pre><code>
+ * try (ScaleCodecWriter wrt = ScaleCodecWriter.pooled()) {
+ *     wrt.write(writer, value);
+ *     return wrt.toByteArray();
+ * }
+ * </code></pre>
+ */
 public class ScaleCodecWriter implements Closeable {
 
     public static final CompactUIntWriter COMPACT_UINT = new CompactUIntWriter();
@@ -20,9 +34,70 @@ public class ScaleCodecWriter implements Closeable {
     public static final BoolOptionalWriter BOOL_OPT = new BoolOptionalWriter();
 
     private final OutputStream out;
+    private final ScaleBuffer buffer;
+    private final boolean pooled;
+    private boolean closed = false;
 
     public ScaleCodecWriter(OutputStream out) {
+        this(out, false);
+    }
+
+    private ScaleCodecWriter(OutputStream out, boolean pooled) {
         this.out = out;
+        this.buffer = out instanceof ScaleBuffer ? (ScaleBuffer) out : null;
+        this.pooled = pooled;
+    }
+
+    /**
+     * Create writer into a buffer borrowed from the pool of the current thread. The buffer is given back to the pool
+     * on {@link #close()}, so the written data must be copied or consumed before closing the writer, and the writer
+     * must be closed in the same thread.
+     *
+     * @return writer into an empty buffer
+     */
+    public static ScaleCodecWriter pooled() {
+        return new ScaleCodecWriter(ScaleBuffer.acquire(), true);
+    }
+
+    /**
+     * @return buffer the writer writes into
+     * @throws IllegalStateException if writer is not backed by a ScaleBuffer
+     */
+    public ScaleBuffer getBuffer() {
+        if (buffer == null) {
+            throw new IllegalStateException("Writer is not backed by ScaleBuffer");
+        }
+        if (closed && pooled) {
+            throw new IllegalStateException("Writer is closed");
+        }
+        return buffer;
+    }
+
+    /**
+     * @return copy of the written bytes
+     * @throws IllegalStateException if writer is not backed by a ScaleBuffer
+     */
+    public byte[] toByteArray() {
+        return getBuffer().toByteArray();
+    }
+
+    /**
+     * View of the written bytes, valid until next write, reset or close of the writer
+     *
+     * @return buffer with position at zero and limit at the number of written bytes
+     * @throws IllegalStateException if writer is not backed by a ScaleBuffer
+     */
+    public ByteBuffer asByteBuffer() {
+        return getBuffer().asByteBuffer();
+    }
+
+    /**
+     * Discard written bytes, so the writer can be reused for another value
+     *
+     * @throws IllegalStateException if writer is not backed by a ScaleBuffer
+     */
+    public void reset() {
+        getBuffer().reset();
     }
 
     public void writeUint256(byte[] value) throws IOException {
@@ -41,6 +116,18 @@ public class ScaleCodecWriter implements Closeable {
         out.write(value, 0, value.length);
     }
 
+    /**
+     * Write remaining bytes of the buffer as a list, i.e. prefixed with its length. Position of the buffer is not
+     * changed.
+     *
+     * @param value bytes to write
+     * @throws IOException if failed to write
+     */
+    public void writeAsList(ByteBuffer value) throws IOException {
+        writeCompact(value.remaining());
+        directWrite(value);
+    }
+
     /**
      * Write the byte into output stream as-is directly, the input is supposed to be already encoded
      *
@@ -63,12 +150,38 @@ public class ScaleCodecWriter implements Closeable {
         out.write(b, off, len);
     }
 
+    /**
+     * Write remaining bytes of the buffer into output stream as-is directly, the input is supposed to be already
+     * encoded. Position of the buffer is not changed.
+     *
+     * @param b bytes to write
+     * @throws IOException if failed to write
+     */
+    public void directWrite(ByteBuffer b) throws IOException {
+        if (buffer != null) {
+            buffer.write(b);
+        } else if (b.hasArray()) {
+            out.write(b.array(), b.arrayOffset() + b.position(), b.remaining());
+        } else {
+            byte[] copy = new byte[b.remaining()];
+            b.duplicate().get(copy);
+            out.write(copy, 0, copy.length);
+        }
+    }
+
     public void flush() throws IOException {
         out.flush();
     }
 
     @Override
     public void close() throws IOException {
+        if (pooled) {
+            if (!closed) {
+                closed = true;
+                buffer.release();
+            }
+            return;
+        }
         out.close();
     }
 
@@ -0,0 +1,19 @@
+package io.emeraldpay.polkaj.scale;
+
+/**
+ * SCALE codec reader for a value that fits into Java int. Same as {@link ScaleReader} but without boxing the result,
+ * which is preferable for tight decode loops.
+ *
+ * @see ScaleCodecReader#readInt(ScaleIntReader)
+ */
+public interface ScaleIntReader {
+
+    /**
+     * Reads value from specified reader. The reader must be positioned on the beginning of the value
+     *
+     * @param rdr reader with the encoded data
+     * @return read value
+     */
+    int readInt(ScaleCodecReader rdr);
+
+}
@@ -13,10 +13,9 @@ public class CompactBigIntReader implements ScaleReader<BigInteger> {
     @Override
     public BigInteger read(ScaleCodecReader rdr) {
         int type = rdr.readUByte();
-        CompactMode mode = CompactMode.byValue((byte)(type & 0b11));
-        if (mode != CompactMode.BIGINT) {
+        if ((type & 0b11) != CompactMode.BIGINT.getValue()) {
             rdr.skip(-1);
-            int value = intReader.read(rdr);
+            int value = intReader.readInt(rdr);
             return BigInteger.valueOf(value);
         }
         int len = (type >> 2) + 4;
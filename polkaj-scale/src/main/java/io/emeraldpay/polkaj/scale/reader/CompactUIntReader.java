@@ -1,10 +1,11 @@
 package io.emeraldpay.polkaj.scale.reader;
 
 import io.emeraldpay.polkaj.scale.CompactMode;
+import io.emeraldpay.polkaj.scale.ScaleIntReader;
 import io.emeraldpay.polkaj.scale.ScaleReader;
 import io.emeraldpay.polkaj.scale.ScaleCodecReader;
 
-public class CompactUIntReader implements ScaleReader<Integer> {
+public class CompactUIntReader implements ScaleReader<Integer>, ScaleIntReader {
 
     /**
      *
@@ -14,21 +15,32 @@ public class CompactUIntReader implements ScaleReader<Integer> {
      */
     @Override
     public Integer read(ScaleCodecReader rdr) {
+        return readInt(rdr);
+    }
+
+    /**
+     *
+     * @param rdr reader with the encoded data
+     * @return integer value
+     * @throws UnsupportedOperationException if the value is encoded with more than four bytes (use {@link CompactBigIntReader})
+     */
+    @Override
+    public int readInt(ScaleCodecReader rdr) {
         int i = rdr.readUByte();
-        CompactMode mode = CompactMode.byValue((byte)(i & 0b11));
-        if (mode == CompactMode.SINGLE) {
-            return i >> 2;
-        }
-        if (mode == CompactMode.TWO) {
-            return (i >> 2)
-                    + (rdr.readUByte() << 6);
-        }
-        if (mode == CompactMode.FOUR) {
-            return (i >> 2) +
-                    (rdr.readUByte() << 6) +
-                    (rdr.readUByte() << (6 + 8)) +
-                    (rdr.readUByte() << (6 + 2 * 8));
+        // lowest two bits are the CompactMode value
+        switch (i & 0b11) {
+            case 0b00:
+                return i >> 2;
+            case 0b01:
+                return (i >> 2)
+                        + (rdr.readUByte() << 6);
+            case 0b10:
+                return (i >> 2) +
+                        (rdr.readUByte() << 6) +
+                        (rdr.readUByte() << (6 + 8)) +
+                        (rdr.readUByte() << (6 + 2 * 8));
+            default:
+                throw new UnsupportedOperationException("Mode " + CompactMode.BIGINT + " is not implemented");
         }
-        throw new UnsupportedOperationException("Mode " + mode  + " is not implemented");
     }
 }
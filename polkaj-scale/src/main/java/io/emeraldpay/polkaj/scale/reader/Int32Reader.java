@@ -1,11 +1,9 @@
 package io.emeraldpay.polkaj.scale.reader;
 
 import io.emeraldpay.polkaj.scale.ScaleCodecReader;
+import io.emeraldpay.polkaj.scale.ScaleIntReader;
 import io.emeraldpay.polkaj.scale.ScaleReader;
 
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
-
 /**
  * Read Java Integer encoded as 4 byte SCALE value. Please note that since Java Integer is signed type, it may
  * read negative values for some of the byte representations (i.e. when highest bit is set to 1). If you expect
@@ -13,14 +11,17 @@ import java.nio.ByteOrder;
  *
  * @see UInt32Reader
  */
-public class Int32Reader implements ScaleReader<Integer> {
+public class Int32Reader implements ScaleReader<Integer>, ScaleIntReader {
     @Override
     public Integer read(ScaleCodecReader rdr) {
-        ByteBuffer buf = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
-        buf.put(rdr.readByte());
-        buf.put(rdr.readByte());
-        buf.put(rdr.readByte());
-        buf.put(rdr.readByte());
-        return buf.flip().getInt();
+        return readInt(rdr);
+    }
+
+    @Override
+    public int readInt(ScaleCodecReader rdr) {
+        return (rdr.readByte() & 0xff)
+                | (rdr.readByte() & 0xff) << 8
+                | (rdr.readByte() & 0xff) << 16
+                | (rdr.readByte() & 0xff) << 24;
     }
 }
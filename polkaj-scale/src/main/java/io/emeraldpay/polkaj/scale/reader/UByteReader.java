@@ -1,15 +1,17 @@
 package io.emeraldpay.polkaj.scale.reader;
 
+import io.emeraldpay.polkaj.scale.ScaleIntReader;
 import io.emeraldpay.polkaj.scale.ScaleReader;
 import io.emeraldpay.polkaj.scale.ScaleCodecReader;
 
-public class UByteReader implements ScaleReader<Integer> {
+public class UByteReader implements ScaleReader<Integer>, ScaleIntReader {
     @Override
     public Integer read(ScaleCodecReader rdr) {
-        byte x = rdr.readByte();
-        if (x < 0) {
-            return 256 + (int)x;
-        }
-        return (int)x;
+        return readInt(rdr);
+    }
+
+    @Override
+    public int readInt(ScaleCodecReader rdr) {
+        return rdr.readByte() & 0xff;
     }
 }
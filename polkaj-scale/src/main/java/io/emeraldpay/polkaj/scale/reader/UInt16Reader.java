@@ -1,12 +1,18 @@
 package io.emeraldpay.polkaj.scale.reader;
 
+import io.emeraldpay.polkaj.scale.ScaleIntReader;
 import io.emeraldpay.polkaj.scale.ScaleReader;
 import io.emeraldpay.polkaj.scale.ScaleCodecReader;
 
-public class UInt16Reader implements ScaleReader<Integer> {
+public class UInt16Reader implements ScaleReader<Integer>, ScaleIntReader {
 
     @Override
     public Integer read(ScaleCodecReader rdr) {
+        return readInt(rdr);
+    }
+
+    @Override
+    public int readInt(ScaleCodecReader rdr) {
         int result = 0;
         result += rdr.readUByte();
         result += rdr.readUByte() << 8;
@@ -1,11 +1,17 @@
 package io.emeraldpay.polkaj.scale.reader;
 
+import io.emeraldpay.polkaj.scale.ScaleLongReader;
 import io.emeraldpay.polkaj.scale.ScaleReader;
 import io.emeraldpay.polkaj.scale.ScaleCodecReader;
 
-public class UInt32Reader implements ScaleReader<Long> {
+public class UInt32Reader implements ScaleReader<Long>, ScaleLongReader {
     @Override
     public Long read(ScaleCodecReader rdr) {
+        return readLong(rdr);
+    }
+
+    @Override
+    public long readLong(ScaleCodecReader rdr) {
         long result = 0;
         result += (long)rdr.readUByte();
         result += ((long)rdr.readUByte()) << 8;
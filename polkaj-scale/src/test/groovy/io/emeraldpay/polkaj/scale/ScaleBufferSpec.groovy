@@ -0,0 +1,85 @@
+package io.emeraldpay.polkaj.scale
+
+import org.apache.commons.codec.binary.Hex
+import spock.lang.Specification
+
+import java.nio.ByteBuffer
+
+class ScaleBufferSpec extends Specification {
+
+    def "Grows when written over capacity"() {
+        setup:
+        def buf = new ScaleBuffer(2)
+        when:
+        buf.write(1)
+        buf.write([2, 3, 4] as byte[], 0, 3)
+        buf.write(ByteBuffer.wrap([5, 6] as byte[]))
+        then:
+        buf.size() == 6
+        buf.toByteArray() == [1, 2, 3, 4, 5, 6] as byte[]
+    }
+
+    def "Byte buffer is a view of written bytes"() {
+        setup:
+        def buf = new ScaleBuffer()
+        buf.write(Hex.decodeHex("010203"))
+        when:
+        def act = buf.asByteBuffer()
+        then:
+        act.position() == 0
+        act.remaining() == 3
+        act.array().is(buf.array())
+    }
+
+    def "Reset keeps memory"() {
+        setup:
+        def buf = new ScaleBuffer()
+        buf.write(Hex.decodeHex("010203"))
+        def array = buf.array()
+        when:
+        buf.reset()
+        buf.write(4)
+        then:
+        buf.size() == 1
+        buf.toByteArray() == [4] as byte[]
+        buf.array().is(array)
+    }
+
+    def "Acquire gives empty buffer"() {
+        setup:
+        def first = ScaleBuffer.acquire()
+        first.write(1)
+        first.release()
+        when:
+        def act = ScaleBuffer.acquire()
+        then:
+        act.size() == 0
+        cleanup:
+        act.release()
+    }
+
+    def "Cannot release twice"() {
+        setup:
+        def buf = ScaleBuffer.acquire()
+        buf.release()
+        when:
+        buf.release()
+        then:
+        thrown(IllegalStateException)
+        cleanup:
+        ScaleBuffer.acquire()
+    }
+
+    def "Large buffers are not kept in pool"() {
+        setup:
+        def buf = ScaleBuffer.acquire()
+        buf.write(new byte[128 * 1024])
+        when:
+        buf.release()
+        def act = ScaleBuffer.acquire()
+        then:
+        !act.is(buf)
+        cleanup:
+        act.release()
+    }
+}
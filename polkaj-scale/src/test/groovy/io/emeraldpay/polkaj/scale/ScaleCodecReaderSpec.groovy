@@ -3,6 +3,8 @@ package io.emeraldpay.polkaj.scale
 import org.apache.commons.codec.binary.Hex
 import spock.lang.Specification
 
+import java.nio.ByteBuffer
+
 class ScaleCodecReaderSpec extends Specification {
 
     def "Reads unsigned 8-bit integer"() {
@@ -145,4 +147,112 @@ class ScaleCodecReaderSpec extends Specification {
         where:
         hex << ["bb931fd17f85fb26e8209eb7af5747258163df29a7dd8f87fa7617963fcfa1aa"]
     }
+
+    def "Cannot read byte array over the end"() {
+        setup:
+        def codec = new ScaleCodecReader(Hex.decodeHex("0c0102"))
+        when:
+        codec.readByteArray()
+        then:
+        thrown(IndexOutOfBoundsException)
+    }
+
+    def "Reads from heap buffer window"() {
+        setup:
+        def buf = ByteBuffer.wrap(Hex.decodeHex("ff2a000100ff"))
+        buf.position(1).limit(5)
+        def codec = new ScaleCodecReader(buf.slice())
+        when:
+        def act = [codec.readUByte(), codec.readUByte(), codec.readUint16()]
+        then:
+        act == [42, 0, 1]
+        !codec.hasNext()
+        buf.position() == 1
+    }
+
+    def "Reads from direct buffer"() {
+        setup:
+        def buf = ByteBuffer.allocateDirect(6)
+        buf.put(Hex.decodeHex("ff0c010203ff")).flip()
+        buf.position(1)
+        def codec = new ScaleCodecReader(buf)
+        when:
+        def act = codec.readByteArray()
+        then:
+        Hex.encodeHexString(act) == "010203"
+        codec.readUByte() == 255
+        !codec.hasNext()
+    }
+
+    def "Seek is relative to the window"() {
+        setup:
+        def buf = ByteBuffer.wrap(Hex.decodeHex("ff2a0b"))
+        buf.position(1)
+        def codec = new ScaleCodecReader(buf)
+        when:
+        codec.seek(1)
+        then:
+        codec.readUByte() == 11
+
+        when:
+        codec.seek(2)
+        then:
+        thrown(IllegalArgumentException)
+
+        when:
+        codec.seek(0)
+        codec.skip(-1)
+        then:
+        thrown(IllegalArgumentException)
+    }
+
+    def "Read slice"() {
+        setup:
+        def codec = new ScaleCodecReader(Hex.decodeHex("0c2a01001f"))
+        when:
+        def slice = codec.readSlice()
+        then:
+        slice.remaining() == 3
+        codec.remaining() == 1
+        slice.readUByte() == 42
+        slice.readUint16() == 1
+        !slice.hasNext()
+        codec.readUByte() == 31
+
+        when:
+        slice.readByte()
+        then:
+        thrown(IndexOutOfBoundsException)
+    }
+
+    def "Nested slice is limited by parent"() {
+        setup:
+        def codec = new ScaleCodecReader(Hex.decodeHex("0c2a0100"))
+        def slice = codec.readSlice()
+        when:
+        slice.readSlice(4)
+        then:
+        thrown(IndexOutOfBoundsException)
+
+        when:
+        def nested = slice.readSlice(1)
+        then:
+        nested.readUByte() == 42
+        !nested.hasNext()
+        slice.readUint16() == 1
+    }
+
+    def "Read byte buffer view"() {
+        setup:
+        def codec = new ScaleCodecReader(Hex.decodeHex("2a0102031f"))
+        codec.readByte()
+        when:
+        def act = codec.readByteBuffer(3)
+        then:
+        act.remaining() == 3
+        act.readOnly
+        act.get(0) == (byte) 1
+        act.get(2) == (byte) 3
+        codec.readUByte() == 31
+    }
 }
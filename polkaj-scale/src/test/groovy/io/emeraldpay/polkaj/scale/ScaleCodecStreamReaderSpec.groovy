@@ -0,0 +1,156 @@
+package io.emeraldpay.polkaj.scale
+
+import io.emeraldpay.polkaj.scale.reader.ListReader
+import io.emeraldpay.polkaj.scale.writer.ListWriter
+import org.apache.commons.codec.binary.Hex
+import spock.lang.Specification
+
+import java.nio.channels.Channels
+import java.nio.channels.Pipe
+
+class ScaleCodecStreamReaderSpec extends Specification {
+
+    def "Reads values split between buffer loads"() {
+        setup:
+        def buf = new ByteArrayOutputStream()
+        def wrt = new ScaleCodecWriter(buf)
+        200.times { wrt.writeUint32(it * 1000) }
+        def codec = new ScaleCodecStreamReader(new ByteArrayInputStream(buf.toByteArray()), 65)
+        when:
+        def act = (0..<200).collect { codec.readUint32() }
+        then:
+        act == (0..<200).collect { it * 1000L }
+        !codec.hasNext()
+        codec.getPosition() == 800
+    }
+
+    def "Reads from channel"() {
+        setup:
+        def input = new ByteArrayInputStream(Hex.decodeHex("0c2a0100ff"))
+        def codec = new ScaleCodecStreamReader(Channels.newChannel(input))
+        when:
+        def slice = codec.readSlice()
+        then:
+        slice.readUByte() == 42
+        slice.readUint16() == 1
+        codec.readUByte() == 255
+        !codec.hasNext()
+    }
+
+    def "Reads byte array larger than buffer"() {
+        setup:
+        def value = new byte[1000]
+        new Random(1).nextBytes(value)
+        def buf = new ByteArrayOutputStream()
+        def wrt = new ScaleCodecWriter(buf)
+        wrt.writeByte(7)
+        wrt.writeAsList(value)
+        wrt.writeByte(8)
+        def codec = new ScaleCodecStreamReader(new ByteArrayInputStream(buf.toByteArray()), 64)
+        when:
+        def act = [codec.readUByte(), codec.readByteArray(), codec.readUByte()]
+        then:
+        act[0] == 7
+        act[1] == value
+        act[2] == 8
+        !codec.hasNext()
+    }
+
+    def "Reads list with compact bigint"() {
+        setup:
+        def buf = new ByteArrayOutputStream()
+        def wrt = new ScaleCodecWriter(buf)
+        wrt.write(new ListWriter<>(ScaleCodecWriter.COMPACT_BIGINT),
+                (0..<100).collect { BigInteger.valueOf(it).shiftLeft(it) })
+        def codec = new ScaleCodecStreamReader(new ByteArrayInputStream(buf.toByteArray()), 64)
+        when:
+        def act = codec.read(new ListReader<>(ScaleCodecReader.COMPACT_BIGINT))
+        then:
+        act == (0..<100).collect { BigInteger.valueOf(it).shiftLeft(it) }
+        !codec.hasNext()
+    }
+
+    def "Skip and seek forward over buffer"() {
+        setup:
+        def data = (0..<300).collect { it as byte } as byte[]
+        def codec = new ScaleCodecStreamReader(new ByteArrayInputStream(data), 64)
+        when:
+        codec.skip(100)
+        then:
+        codec.readUByte() == 100
+
+        when:
+        codec.seek(250)
+        then:
+        codec.readUByte() == 250
+        codec.getPosition() == 251
+
+        when:
+        codec.skip(-2)
+        then:
+        codec.readUByte() == 249
+    }
+
+    def "Cannot seek back to discarded data"() {
+        setup:
+        def data = new byte[300]
+        def codec = new ScaleCodecStreamReader(new ByteArrayInputStream(data), 64)
+        codec.skip(200)
+        when:
+        codec.seek(10)
+        then:
+        thrown(IllegalArgumentException)
+    }
+
+    def "Error on read after end"() {
+        setup:
+        def codec = new ScaleCodecStreamReader(new ByteArrayInputStream(Hex.decodeHex("0102")))
+        when:
+        codec.readUint32()
+        then:
+        thrown(IndexOutOfBoundsException)
+    }
+
+    def "IO error is unchecked"() {
+        setup:
+        InputStream input = Mock {
+            read(_, _, _) >> { throw new IOException("test") }
+        }
+        def codec = new ScaleCodecStreamReader(input)
+        when:
+        codec.readUByte()
+        then:
+        def t = thrown(UncheckedIOException)
+        t.cause.message == "test"
+    }
+
+    def "Closes source"() {
+        setup:
+        InputStream input = Mock()
+        def codec = new ScaleCodecStreamReader(input)
+        when:
+        codec.close()
+        then:
+        1 * input.close()
+    }
+
+    def "Buffer cannot be too small"() {
+        when:
+        new ScaleCodecStreamReader(new ByteArrayInputStream(new byte[0]), 8)
+        then:
+        thrown(IllegalArgumentException)
+    }
+
+    def "Channel must be blocking"() {
+        setup:
+        def pipe = Pipe.open()
+        pipe.source().configureBlocking(false)
+        when:
+        new ScaleCodecStreamReader(pipe.source())
+        then:
+        thrown(IllegalArgumentException)
+        cleanup:
+        pipe.source().close()
+        pipe.sink().close()
+    }
+}
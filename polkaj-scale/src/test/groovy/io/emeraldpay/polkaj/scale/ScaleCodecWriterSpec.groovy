@@ -3,6 +3,8 @@ package io.emeraldpay.polkaj.scale
 import org.apache.commons.codec.binary.Hex
 import spock.lang.Specification
 
+import java.nio.ByteBuffer
+
 class ScaleCodecWriterSpec extends Specification {
 
     ByteArrayOutputStream buf = new ByteArrayOutputStream()
@@ -108,4 +110,86 @@ class ScaleCodecWriterSpec extends Specification {
         then:
         Hex.encodeHexString(act) == "000600000003000000017d010000bb931fd17f85fb26e8209eb7af5747258163df29a7dd8f87fa7617963fcfa1aab0a8d493285c2df73290dfb7e61f870f17b41801197a149ca93654499ea3dafe0400"
     }
+
+    def "Write byte buffer as list"() {
+        setup:
+        def value = ByteBuffer.wrap(Hex.decodeHex("ff010203ff"))
+        value.position(1).limit(4)
+        when:
+        codec.writeAsList(value)
+        then:
+        Hex.encodeHexString(buf.toByteArray()) == "0c010203"
+        value.position() == 1
+    }
+
+    def "Write direct byte buffer"() {
+        setup:
+        def value = ByteBuffer.allocateDirect(2)
+        value.put(Hex.decodeHex("0102")).flip()
+        when:
+        codec.directWrite(value)
+        then:
+        Hex.encodeHexString(buf.toByteArray()) == "0102"
+    }
+
+    def "Provides written bytes when backed by ScaleBuffer"() {
+        setup:
+        def codec = new ScaleCodecWriter(new ScaleBuffer())
+        when:
+        codec.writeUint16(0x0102)
+        then:
+        Hex.encodeHexString(codec.toByteArray()) == "0201"
+        codec.asByteBuffer().remaining() == 2
+
+        when:
+        codec.reset()
+        codec.writeByte(5)
+        then:
+        Hex.encodeHexString(codec.toByteArray()) == "05"
+    }
+
+    def "Error to get buffer when backed by stream"() {
+        when:
+        codec.toByteArray()
+        then:
+        thrown(IllegalStateException)
+    }
+
+    def "Pooled writer reuses buffer after close"() {
+        setup:
+        def first = ScaleCodecWriter.pooled()
+        def buffer = first.getBuffer()
+        first.writeUint32(1)
+        when:
+        first.close()
+        first.close()
+        def second = ScaleCodecWriter.pooled()
+        then:
+        second.getBuffer().is(buffer)
+        second.getBuffer().size() == 0
+
+        when:
+        first.toByteArray()
+        then:
+        thrown(IllegalStateException)
+
+        cleanup:
+        second.close()
+    }
+
+    def "Nested pooled writers use different buffers"() {
+        setup:
+        def outer = ScaleCodecWriter.pooled()
+        def inner = ScaleCodecWriter.pooled()
+        when:
+        def innerBuffer = inner.getBuffer()
+        inner.writeByte(1)
+        outer.writeAsList(inner.asByteBuffer())
+        inner.close()
+        then:
+        !outer.getBuffer().is(innerBuffer)
+        Hex.encodeHexString(outer.toByteArray()) == "0401"
+        cleanup:
+        outer.close()
+    }
 }
@@ -57,4 +57,25 @@ class CompactUIntReaderSpec extends Specification {
         then:
         thrown(UnsupportedOperationException)
     }
+
+    def "Reads as primitive int"() {
+        expect:
+        def codec = new ScaleCodecReader(Hex.decodeHex(encoded))
+        codec.readInt(reader) == value
+        !codec.hasNext()
+
+        where:
+        encoded         | value
+        "a8"            | 42
+        "1501"          | 69
+        "feffffff"      | 1073741823
+    }
+
+    def "Error for bigint as primitive int"() {
+        when:
+        def codec = new ScaleCodecReader(Hex.decodeHex("0300000040"))
+        codec.readInt(reader)
+        then:
+        thrown(UnsupportedOperationException)
+    }
 }
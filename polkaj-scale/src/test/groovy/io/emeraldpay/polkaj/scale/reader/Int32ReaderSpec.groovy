@@ -39,4 +39,15 @@ class Int32ReaderSpec extends Specification {
         "00000080"  | Integer.MIN_VALUE
     }
 
+    def "Reads as primitive int"() {
+        expect:
+        def codec = new ScaleCodecReader(Hex.decodeHex(hex))
+        codec.readInt(reader) == value
+        !codec.hasNext()
+        where:
+        hex         | value
+        "ffffff7f"  | Integer.MAX_VALUE
+        "9cffffff"  | -100
+        "00000080"  | Integer.MIN_VALUE
+    }
 }
@@ -61,4 +61,12 @@ class UInt32ReaderSpec extends Specification {
         "00030000"  | 0x00_00_03_00
         "7d010000"  | 0x00_00_01_7d
     }
+
+    def "Reads as primitive long"() {
+        when:
+        def codec = new ScaleCodecReader(Hex.decodeHex("ffffffff"))
+        then:
+        codec.readLong(reader) == 4294967295L
+        !codec.hasNext()
+    }
 }
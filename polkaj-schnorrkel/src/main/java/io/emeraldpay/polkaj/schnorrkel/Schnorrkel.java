@@ -7,11 +7,14 @@ import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodType;
 import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
 import java.util.logging.MemoryHandler;
 
 /**
@@ -56,6 +59,11 @@ public abstract class Schnorrkel {
      */
     public static final int KEYPAIR_LENGTH = SECRET_KEY_LENGTH + PUBLIC_KEY_LENGTH;
 
+    /**
+     * The length of a signature, in bytes.
+     */
+    public static final int SIGNATURE_LENGTH = 64;
+
     /**
      * Length in bytes of chain codes
      */
@@ -74,6 +82,21 @@ public abstract class Schnorrkel {
      */
     public abstract byte[] sign(byte[] message, Schnorrkel.KeyPair keypair) throws SchnorrkelException;
 
+    /**
+     * Sign message from a buffer, without copying it. It reads the bytes between the current position and the limit,
+     * and doesn't change the position.
+     * <br>
+     * A direct buffer is passed to the native code as is, and a heap buffer (ex. from
+     * <code>ScaleCodecWriter.asByteBuffer()</code>) is read from its backing array in place.
+     *
+     * @param message source message
+     * @param keypair secret key pair of the signer, preferably a {@link DirectKeyPair}
+     * @return public signature
+     *
+     * @throws SchnorrkelException when secret key is invalid
+     */
+    public abstract byte[] sign(ByteBuffer message, Schnorrkel.KeyPair keypair) throws SchnorrkelException;
+
     /**
      * Verify signature
      *
@@ -85,6 +108,34 @@ public abstract class Schnorrkel {
      */
     public abstract boolean verify(byte[] signature, byte[] message, Schnorrkel.PublicKey publicKey) throws SchnorrkelException;
 
+    /**
+     * Verify signature of a message in a buffer, without copying it. It reads the bytes between the current position
+     * and the limit, and doesn't change the position.
+     *
+     * @param signature signature
+     * @param message signed message
+     * @param publicKey public key of the signer
+     * @return true if signature is correct
+     * @throws SchnorrkelException when signature or public key are invalid
+     * @see #sign(ByteBuffer, KeyPair)
+     */
+    public abstract boolean verify(byte[] signature, ByteBuffer message, Schnorrkel.PublicKey publicKey) throws SchnorrkelException;
+
+    /**
+     * Verify multiple signatures at once. It checks all signatures together, which is several times faster than
+     * verifying each of them separately, and if the batch is invalid it finds which items are invalid.
+     * <br>
+     * A signature or a public key which cannot be decoded is considered as invalid, instead of throwing an exception.
+     *
+     * @param signatures signatures
+     * @param messages signed messages, in the same order as signatures
+     * @param publicKeys public keys of the signers, in the same order as signatures
+     * @return set of indexes of valid signatures, i.e. when all are valid it contains all indexes from 0 to size - 1
+     * @throws SchnorrkelException when a signature or a public key has invalid length
+     * @throws IllegalArgumentException when the lists have different sizes
+     */
+    public abstract BitSet verifyBatch(List<byte[]> signatures, List<byte[]> messages, List<Schnorrkel.PublicKey> publicKeys) throws SchnorrkelException;
+
     /**
      * Generate a new Key Pair using default Secure Random source
      *
@@ -111,6 +162,15 @@ public abstract class Schnorrkel {
      */
     public abstract Schnorrkel.KeyPair generateKeyPairFromSeed(byte[] seed) throws SchnorrkelException;
 
+    /**
+     * Generate a new Key Pair from provided seed, keeping the secret key outside of the Java heap
+     *
+     * @param seed seed value
+     * @return new Key Pair, which must be closed after use
+     * @throws SchnorrkelException if seed is invalid
+     */
+    public abstract Schnorrkel.DirectKeyPair generateDirectKeyPairFromSeed(byte[] seed) throws SchnorrkelException;
+
     /**
      * Derive a new Key Pair from existing.
      *
@@ -209,6 +269,106 @@ public abstract class Schnorrkel {
         }
     }
 
+    /**
+     * Pair of Public and Secret Keys, with the Secret Key stored outside of the Java heap in a direct buffer, so it
+     * doesn't appear in heap dumps and isn't moved around by GC. The memory is zeroed on {@link #close()}.
+     * <br>
+     * Signing with a DirectKeyPair passes the buffer to the native code as is. Methods which need the secret key as an
+     * array (ex. key derivation) make a temporary copy with {@link #getSecretKey()}.
+     */
+    public static class DirectKeyPair extends KeyPair implements AutoCloseable {
+
+        /**
+         * Secret Key followed by Public Key
+         */
+        private final ByteBuffer keypair;
+        private volatile boolean closed = false;
+
+        DirectKeyPair(ByteBuffer keypair) {
+            super(publicKeyOf(keypair), (byte[]) null);
+            this.keypair = keypair;
+        }
+
+        private static byte[] publicKeyOf(ByteBuffer keypair) {
+            byte[] publicKey = new byte[PUBLIC_KEY_LENGTH];
+            for (int i = 0; i < PUBLIC_KEY_LENGTH; i++) {
+                publicKey[i] = keypair.get(SECRET_KEY_LENGTH + i);
+            }
+            return publicKey;
+        }
+
+        /**
+         * Copy an existing Key Pair. Note that the source still keeps the secret key on the heap.
+         *
+         * @param source existing Key Pair
+         * @return new Key Pair, which must be closed after use
+         */
+        public static DirectKeyPair copyOf(KeyPair source) {
+            if (source.getSecretKey().length != SECRET_KEY_LENGTH) {
+                throw new IllegalArgumentException("SecretKey must be " + SECRET_KEY_LENGTH + " bytes in length");
+            }
+            if (source.getPublicKey().length != PUBLIC_KEY_LENGTH) {
+                throw new IllegalArgumentException("PublicKey must be " + PUBLIC_KEY_LENGTH + " bytes in length");
+            }
+            ByteBuffer keypair = ByteBuffer.allocateDirect(KEYPAIR_LENGTH);
+            keypair.put(source.getSecretKey());
+            keypair.put(source.getPublicKey());
+            return new DirectKeyPair(keypair);
+        }
+
+        /**
+         * @return buffer with the Secret Key followed by the Public Key
+         * @throws IllegalStateException if closed
+         */
+        ByteBuffer getBuffer() {
+            if (closed) {
+                throw new IllegalStateException("Key Pair is closed");
+            }
+            return keypair;
+        }
+
+        /**
+         * Makes a copy of the Secret Key on the heap. Use only if there is no way to use the key pair directly.
+         *
+         * @return copy of the Secret Key
+         * @throws IllegalStateException if closed
+         */
+        @Override
+        public byte[] getSecretKey() {
+            ByteBuffer keypair = getBuffer();
+            byte[] secretKey = new byte[SECRET_KEY_LENGTH];
+            for (int i = 0; i < SECRET_KEY_LENGTH; i++) {
+                secretKey[i] = keypair.get(i);
+            }
+            return secretKey;
+        }
+
+        public boolean isClosed() {
+            return closed;
+        }
+
+        /**
+         * Zero the Secret Key. The Key Pair cannot be used after that.
+         */
+        @Override
+        public void close() {
+            closed = true;
+            for (int i = 0; i < keypair.capacity(); i++) {
+                keypair.put(i, (byte) 0);
+            }
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o;
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(getPublicKey());
+        }
+    }
+
     public static class ChainCode {
         private final byte[] value;
 
@@ -2,10 +2,13 @@ package io.emeraldpay.polkaj.schnorrkel;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
+import java.util.BitSet;
+import java.util.List;
 
 /**
  * Wrapper around Rust implementation of the algorithms.
@@ -20,14 +23,108 @@ public class SchnorrkelNative extends Schnorrkel {
 
     @Override
     public byte[] sign(byte[] message, KeyPair keypair) throws SchnorrkelException {
+        if (keypair instanceof DirectKeyPair) {
+            return signArray(((DirectKeyPair) keypair).getBuffer(), message, 0, message.length);
+        }
         return SchnorrkelNative.sign(keypair.getPublicKey(), keypair.getSecretKey(), message);
     }
 
+    @Override
+    public byte[] sign(ByteBuffer message, KeyPair keypair) throws SchnorrkelException {
+        if (keypair instanceof DirectKeyPair) {
+            return signWith(((DirectKeyPair) keypair).getBuffer(), message);
+        }
+        if (keypair.getSecretKey().length != SECRET_KEY_LENGTH) {
+            throw new SchnorrkelException("SecretKey must be " + SECRET_KEY_LENGTH + " bytes in length");
+        }
+        if (keypair.getPublicKey().length != PUBLIC_KEY_LENGTH) {
+            throw new SchnorrkelException("PublicKey must be " + PUBLIC_KEY_LENGTH + " bytes in length");
+        }
+        ByteBuffer buffer = KEYPAIR_BUFFER.get();
+        try {
+            buffer.clear();
+            buffer.put(keypair.getSecretKey());
+            buffer.put(keypair.getPublicKey());
+            return signWith(buffer, message);
+        } finally {
+            for (int i = 0; i < buffer.capacity(); i++) {
+                buffer.put(i, (byte) 0);
+            }
+        }
+    }
+
+    private static byte[] signWith(ByteBuffer keypair, ByteBuffer message) {
+        if (message.isDirect()) {
+            return signDirect(keypair, message, message.position(), message.remaining());
+        }
+        if (message.hasArray()) {
+            return signArray(keypair, message.array(), message.arrayOffset() + message.position(), message.remaining());
+        }
+        // read-only heap buffer, which doesn't give access to its array
+        byte[] copy = new byte[message.remaining()];
+        message.duplicate().get(copy);
+        return signArray(keypair, copy, 0, copy.length);
+    }
+
     @Override
     public boolean verify(byte[] signature, byte[] message, PublicKey publicKey) throws SchnorrkelException {
         return SchnorrkelNative.verify(signature, message, publicKey.getPublicKey());
     }
 
+    @Override
+    public boolean verify(byte[] signature, ByteBuffer message, PublicKey publicKey) throws SchnorrkelException {
+        if (message.isDirect()) {
+            return verifyDirect(signature, message, message.position(), message.remaining(), publicKey.getPublicKey());
+        }
+        if (message.hasArray()) {
+            return verifyArray(signature, message.array(), message.arrayOffset() + message.position(), message.remaining(), publicKey.getPublicKey());
+        }
+        byte[] copy = new byte[message.remaining()];
+        message.duplicate().get(copy);
+        return SchnorrkelNative.verify(signature, copy, publicKey.getPublicKey());
+    }
+
+    @Override
+    public BitSet verifyBatch(List<byte[]> signatures, List<byte[]> messages, List<PublicKey> publicKeys) throws SchnorrkelException {
+        int count = signatures.size();
+        if (messages.size() != count || publicKeys.size() != count) {
+            throw new IllegalArgumentException("Different number of signatures (" + count + "), messages (" + messages.size() + ") and public keys (" + publicKeys.size() + ")");
+        }
+        BitSet valid = new BitSet(count);
+        if (count == 0) {
+            return valid;
+        }
+        int messagesLength = 0;
+        for (byte[] message: messages) {
+            messagesLength += 4 + message.length;
+        }
+        BatchBuffers buffers = BATCH_BUFFERS.get();
+        buffers.prepare(count, messagesLength);
+        for (int i = 0; i < count; i++) {
+            byte[] signature = signatures.get(i);
+            if (signature.length != SIGNATURE_LENGTH) {
+                throw new SchnorrkelException("Signature must be " + SIGNATURE_LENGTH + " bytes in length (item " + i + ")");
+            }
+            byte[] publicKey = publicKeys.get(i).getPublicKey();
+            if (publicKey.length != PUBLIC_KEY_LENGTH) {
+                throw new SchnorrkelException("PublicKey must be " + PUBLIC_KEY_LENGTH + " bytes in length (item " + i + ")");
+            }
+            byte[] message = messages.get(i);
+            buffers.signatures.put(signature);
+            buffers.publicKeys.put(publicKey);
+            buffers.messages.putInt(message.length);
+            buffers.messages.put(message);
+        }
+        if (SchnorrkelNative.verifyBatch(count, buffers.signatures, buffers.messages, buffers.publicKeys, buffers.result)) {
+            valid.set(0, count);
+            return valid;
+        }
+        byte[] bitmap = new byte[(count + 7) / 8];
+        buffers.result.clear();
+        buffers.result.get(bitmap);
+        return BitSet.valueOf(bitmap);
+    }
+
     @Override
     public KeyPair generateKeyPair() throws SchnorrkelException {
         try {
@@ -51,6 +148,13 @@ public class SchnorrkelNative extends Schnorrkel {
         return decodeKeyPair(key);
     }
 
+    @Override
+    public DirectKeyPair generateDirectKeyPairFromSeed(byte[] seed) throws SchnorrkelException {
+        ByteBuffer keypair = ByteBuffer.allocateDirect(KEYPAIR_LENGTH);
+        keypairFromSeedDirect(seed, keypair);
+        return new DirectKeyPair(keypair);
+    }
+
     @Override
     public KeyPair deriveKeyPair(KeyPair base, ChainCode chainCode) throws SchnorrkelException {
         byte[] key = deriveHard(encodeKeyPair(base), chainCode.getValue());
@@ -88,11 +192,66 @@ public class SchnorrkelNative extends Schnorrkel {
         return result;
     }
 
+    /**
+     * Temporary direct buffer to sign with a heap Key Pair, zeroed after each use
+     */
+    private static final ThreadLocal<ByteBuffer> KEYPAIR_BUFFER = ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(KEYPAIR_LENGTH));
+
+    /**
+     * Direct buffers to pass a batch to the native code in a single call, reused by the same thread
+     */
+    private static final ThreadLocal<BatchBuffers> BATCH_BUFFERS = ThreadLocal.withInitial(BatchBuffers::new);
+
+    private static class BatchBuffers {
+        private ByteBuffer signatures = ByteBuffer.allocateDirect(0);
+        private ByteBuffer publicKeys = ByteBuffer.allocateDirect(0);
+        private ByteBuffer messages = ByteBuffer.allocateDirect(0);
+        private ByteBuffer result = ByteBuffer.allocateDirect(0);
+
+        void prepare(int count, int messagesLength) {
+            signatures = ensure(signatures, count * SIGNATURE_LENGTH);
+            publicKeys = ensure(publicKeys, count * PUBLIC_KEY_LENGTH);
+            messages = ensure(messages, messagesLength);
+            result = ensure(result, (count + 7) / 8);
+        }
+
+        private static ByteBuffer ensure(ByteBuffer current, int size) {
+            if (current.capacity() >= size) {
+                current.clear();
+                return current;
+            }
+            return ByteBuffer.allocateDirect(Math.max(size, current.capacity() * 2));
+        }
+    }
+
     // ====================== Mapping to the Native Library ======================
 
     private static native byte[] sign(byte[] publicKey, byte[] secretKey, byte[] message);
     private static native byte[] keypairFromSeed(byte[] seed);
+    /**
+     * Generate Key Pair into the direct buffer, as the Secret Key followed by the Public Key
+     */
+    private static native void keypairFromSeedDirect(byte[] seed, ByteBuffer keypair);
+    /**
+     * Sign part of a direct buffer with the Key Pair from a direct buffer
+     */
+    private static native byte[] signDirect(ByteBuffer keypair, ByteBuffer message, int offset, int length);
+    /**
+     * Sign part of an array, accessed in place, with the Key Pair from a direct buffer
+     */
+    private static native byte[] signArray(ByteBuffer keypair, byte[] message, int offset, int length);
+    private static native boolean verifyDirect(byte[] signature, ByteBuffer message, int offset, int length, byte[] publicKey);
+    private static native boolean verifyArray(byte[] signature, byte[] message, int offset, int length, byte[] publicKey);
     private static native boolean verify(byte[] signature, byte[] message, byte[] publicKey);
+    /**
+     * @param count number of items
+     * @param signatures signatures, each is 64 bytes
+     * @param messages messages, each is prefixed with its length as a 4 byte big-endian integer
+     * @param publicKeys public keys, each is 32 bytes
+     * @param result bitmap of valid items, set only if some of them are invalid
+     * @return true if all items are valid
+     */
+    private static native boolean verifyBatch(int count, ByteBuffer signatures, ByteBuffer messages, ByteBuffer publicKeys, ByteBuffer result);
     private static native byte[] deriveHard(byte[] secret, byte[] cc);
     private static native byte[] deriveSoft(byte[] secret, byte[] cc);
     private static native byte[] derivePublicKeySoft(byte[] publicKey, byte[] cc);
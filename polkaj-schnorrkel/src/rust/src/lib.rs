@@ -8,9 +8,10 @@ extern crate hex;
 extern crate rand;
 
 use jni::JNIEnv;
-use jni::objects::{JClass};
-use jni::sys::{jbyteArray, jboolean};
-use schnorrkel::{SecretKey, PublicKey, Signature, SignatureError, MiniSecretKey, ExpansionMode, Keypair};
+use jni::objects::{JClass, JByteBuffer, ReleaseMode};
+use jni::sys::{jbyteArray, jboolean, jint};
+use schnorrkel::{SecretKey, PublicKey, Signature, SignatureError, MiniSecretKey, ExpansionMode, Keypair, signing_context, verify_batch};
+use schnorrkel::{SIGNATURE_LENGTH, PUBLIC_KEY_LENGTH, KEYPAIR_LENGTH};
 use schnorrkel::derive::{ChainCode, CHAIN_CODE_LENGTH, Derivation};
 use std::string::String;
 
@@ -39,6 +40,68 @@ fn sign(message: Vec<u8>, sk: Vec<u8>, pubkey: Vec<u8>) -> Result<Vec<u8>, Strin
     Ok(signature)
 }
 
+/// Sign with a keypair encoded as secret key followed by public key, i.e. in the same format as `to_half_ed25519_bytes`
+fn sign_with_keypair(message: &[u8], keypair: &[u8]) -> Result<Vec<u8>, String> {
+    if keypair.len() < KEYPAIR_LENGTH {
+        return Err("Keypair must be 96 bytes in length".to_string());
+    }
+    let signature = Keypair::from_half_ed25519_bytes(&keypair[..KEYPAIR_LENGTH])
+        .map_err(|e| e.to_string())?
+        .sign_simple(SIGNING_CTX, message)
+        .to_bytes()
+        .to_vec();
+    Ok(signature)
+}
+
+/// Part of the data, as specified by offset and length from Java
+fn slice_at(data: &[u8], offset: jint, length: jint) -> Result<&[u8], String> {
+    if offset < 0 || length < 0 || (offset as usize) + (length as usize) > data.len() {
+        return Err("Invalid message offset or length".to_string());
+    }
+    Ok(&data[offset as usize..(offset as usize) + (length as usize)])
+}
+
+/// Access a Java byte array in place, without copying it. No JNI calls are allowed inside the closure.
+fn with_critical<R, F: FnOnce(&[u8]) -> R>(env: &JNIEnv, array: jbyteArray, f: F) -> Result<R, String> {
+    // get the length first, because it's a JNI call
+    let length = env.get_array_length(array)
+        .map_err(|e| e.to_string())? as usize;
+    let critical = env.get_primitive_array_critical(array, ReleaseMode::NoCopyBack)
+        .map_err(|e| e.to_string())?;
+    let data = unsafe { std::slice::from_raw_parts(critical.as_ptr() as *const u8, length) };
+    Ok(f(data))
+}
+
+/// Return a signature to Java, or throw SchnorrkelException
+fn signature_result(env: &JNIEnv, result: Result<Vec<u8>, String>) -> jbyteArray {
+    match result {
+        Ok(signature) => {
+            env.byte_array_from_slice(signature.as_slice())
+                .expect("Couldn't create result")
+        },
+        Err(msg) => {
+            let none = env.new_byte_array(0)
+                .expect("Couldn't create empty result");
+            env.throw_new("io/emeraldpay/polkaj/schnorrkel/SchnorrkelException", msg).unwrap();
+            none
+        }
+    }
+}
+
+/// Return a verification result to Java, or throw SchnorrkelException
+fn verify_result(env: &JNIEnv, result: Result<bool, String>) -> jboolean {
+    match result {
+        Ok(valid) => {
+            valid as jboolean
+        },
+        Err(msg) => {
+            let none = false as jboolean;
+            env.throw_new("io/emeraldpay/polkaj/schnorrkel/SchnorrkelException", msg).unwrap();
+            none
+        }
+    }
+}
+
 fn verify(signature: &[u8], message: &[u8], public: &[u8]) -> Result<bool, String> {
     let signature = Signature::from_bytes(signature)
         .map_err(|e| e.to_string())?;
@@ -55,6 +118,58 @@ fn verify(signature: &[u8], message: &[u8], public: &[u8]) -> Result<bool, Strin
     }
 }
 
+/// Verify multiple signatures packed into buffers. Messages are prefixed with their length as 4 byte big-endian integer.
+/// Returns true if all signatures are valid, otherwise sets a bit for each valid signature in the result bitmap
+fn verify_batch_packed(count: usize, signatures: &[u8], messages: &[u8], publics: &[u8], result: &mut [u8]) -> Result<bool, String> {
+    if signatures.len() < count * SIGNATURE_LENGTH || publics.len() < count * PUBLIC_KEY_LENGTH || result.len() < (count + 7) / 8 {
+        return Err("Buffers are too small for the batch".to_string());
+    }
+    let mut msgs: Vec<&[u8]> = Vec::with_capacity(count);
+    let mut pos = 0usize;
+    for _ in 0..count {
+        if pos + 4 > messages.len() {
+            return Err("Invalid messages buffer".to_string());
+        }
+        let len = u32::from_be_bytes([messages[pos], messages[pos + 1], messages[pos + 2], messages[pos + 3]]) as usize;
+        pos += 4;
+        if pos + len > messages.len() {
+            return Err("Invalid messages buffer".to_string());
+        }
+        msgs.push(&messages[pos..pos + len]);
+        pos += len;
+    }
+    // malformed signatures and keys are considered as invalid items
+    let sigs: Vec<Option<Signature>> = signatures.chunks(SIGNATURE_LENGTH).take(count)
+        .map(|b| Signature::from_bytes(b).ok())
+        .collect();
+    let keys: Vec<Option<PublicKey>> = publics.chunks(PUBLIC_KEY_LENGTH).take(count)
+        .map(|b| PublicKey::from_bytes(b).ok())
+        .collect();
+    for b in result.iter_mut() {
+        *b = 0;
+    }
+    if sigs.iter().all(|s| s.is_some()) && keys.iter().all(|k| k.is_some()) {
+        let all_sigs: Vec<Signature> = sigs.iter().filter_map(|s| s.clone()).collect();
+        let all_keys: Vec<PublicKey> = keys.iter().filter_map(|k| k.clone()).collect();
+        let ctx = signing_context(SIGNING_CTX);
+        let transcripts = msgs.iter().map(|m| ctx.bytes(m));
+        if verify_batch(transcripts, &all_sigs, &all_keys, false).is_ok() {
+            return Ok(true);
+        }
+    }
+    // batch check tells only that some of them are invalid, so need to check each to find which ones
+    for i in 0..count {
+        let valid = match (&sigs[i], &keys[i]) {
+            (Some(sig), Some(key)) => key.verify_simple(SIGNING_CTX, msgs[i], sig).is_ok(),
+            _ => false
+        };
+        if valid {
+            result[i / 8] |= 1 << (i % 8);
+        }
+    }
+    Ok(false)
+}
+
 fn keypair_from_seed(seed: &[u8]) -> Result<Vec<u8>, String> {
     let result = MiniSecretKey::from_bytes(seed)
         .map_err(|e| e.to_string())?
@@ -143,6 +258,118 @@ pub extern "system" fn Java_io_emeraldpay_polkaj_schnorrkel_SchnorrkelNative_ver
     output
 }
 
+#[no_mangle]
+pub extern "system" fn Java_io_emeraldpay_polkaj_schnorrkel_SchnorrkelNative_signDirect
+(env: JNIEnv, _class: JClass, keypair: JByteBuffer, message: JByteBuffer, offset: jint, length: jint) -> jbyteArray {
+
+    let keypair = env.get_direct_buffer_address(keypair)
+        .expect("Keypair is not provided");
+    let message = env.get_direct_buffer_address(message)
+        .expect("Message is not provided");
+
+    let result = slice_at(message, offset, length)
+        .and_then(|message| sign_with_keypair(message, keypair));
+    signature_result(&env, result)
+}
+
+#[no_mangle]
+pub extern "system" fn Java_io_emeraldpay_polkaj_schnorrkel_SchnorrkelNative_signArray
+(env: JNIEnv, _class: JClass, keypair: JByteBuffer, message: jbyteArray, offset: jint, length: jint) -> jbyteArray {
+
+    let keypair = env.get_direct_buffer_address(keypair)
+        .expect("Keypair is not provided");
+
+    let result = with_critical(&env, message, |message| {
+        slice_at(message, offset, length)
+            .and_then(|message| sign_with_keypair(message, keypair))
+    }).and_then(|r| r);
+    signature_result(&env, result)
+}
+
+#[no_mangle]
+pub extern "system" fn Java_io_emeraldpay_polkaj_schnorrkel_SchnorrkelNative_verifyDirect
+(env: JNIEnv, _class: JClass, signature: jbyteArray, message: JByteBuffer, offset: jint, length: jint, pubkey: jbyteArray) -> jboolean {
+
+    let signature = env.convert_byte_array(signature)
+        .expect("Signature is not provided");
+    let pubkey = env.convert_byte_array(pubkey)
+        .expect("Public Key is not provided");
+    let message = env.get_direct_buffer_address(message)
+        .expect("Message is not provided");
+
+    let result = slice_at(message, offset, length)
+        .and_then(|message| verify(signature.as_slice(), message, pubkey.as_slice()));
+    verify_result(&env, result)
+}
+
+#[no_mangle]
+pub extern "system" fn Java_io_emeraldpay_polkaj_schnorrkel_SchnorrkelNative_verifyArray
+(env: JNIEnv, _class: JClass, signature: jbyteArray, message: jbyteArray, offset: jint, length: jint, pubkey: jbyteArray) -> jboolean {
+
+    let signature = env.convert_byte_array(signature)
+        .expect("Signature is not provided");
+    let pubkey = env.convert_byte_array(pubkey)
+        .expect("Public Key is not provided");
+
+    let result = with_critical(&env, message, |message| {
+        slice_at(message, offset, length)
+            .and_then(|message| verify(signature.as_slice(), message, pubkey.as_slice()))
+    }).and_then(|r| r);
+    verify_result(&env, result)
+}
+
+#[no_mangle]
+pub extern "system" fn Java_io_emeraldpay_polkaj_schnorrkel_SchnorrkelNative_keypairFromSeedDirect
+(env: JNIEnv, _class: JClass, seed: jbyteArray, keypair: JByteBuffer) {
+
+    let seed = env.convert_byte_array(seed)
+        .expect("Seed is not provided");
+    let keypair = env.get_direct_buffer_address(keypair)
+        .expect("Keypair is not provided");
+
+    let result = keypair_from_seed(seed.as_slice())
+        .and_then(|mut value| {
+            if keypair.len() < value.len() {
+                return Err("Keypair buffer is too small".to_string());
+            }
+            keypair[..value.len()].copy_from_slice(value.as_slice());
+            // don't leave a copy of the secret key in the memory
+            for b in value.iter_mut() {
+                *b = 0;
+            }
+            Ok(())
+        });
+    if let Err(msg) = result {
+        env.throw_new("io/emeraldpay/polkaj/schnorrkel/SchnorrkelException", msg).unwrap();
+    }
+}
+
+#[no_mangle]
+pub extern "system" fn Java_io_emeraldpay_polkaj_schnorrkel_SchnorrkelNative_verifyBatch
+(env: JNIEnv, _class: JClass, count: jint, signatures: JByteBuffer, messages: JByteBuffer, pubkeys: JByteBuffer, result: JByteBuffer) -> jboolean {
+
+    let signatures = env.get_direct_buffer_address(signatures)
+        .expect("Signatures are not provided");
+    let messages = env.get_direct_buffer_address(messages)
+        .expect("Messages are not provided");
+    let pubkeys = env.get_direct_buffer_address(pubkeys)
+        .expect("Public Keys are not provided");
+    let result = env.get_direct_buffer_address(result)
+        .expect("Result is not provided");
+
+    let output = match verify_batch_packed(count as usize, signatures, messages, pubkeys, result) {
+        Ok(valid) => {
+            valid as jboolean
+        },
+        Err(msg) => {
+            let none = false as jboolean;
+            env.throw_new("io/emeraldpay/polkaj/schnorrkel/SchnorrkelException", msg).unwrap();
+            none
+        }
+    };
+    output
+}
+
 #[no_mangle]
 pub extern "system" fn Java_io_emeraldpay_polkaj_schnorrkel_SchnorrkelNative_keypairFromSeed
 (env: JNIEnv, _class: JClass, seed: jbyteArray) -> jbyteArray {
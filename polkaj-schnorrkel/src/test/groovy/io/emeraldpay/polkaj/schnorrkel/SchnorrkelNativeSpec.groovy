@@ -3,6 +3,7 @@ package io.emeraldpay.polkaj.schnorrkel
 import org.apache.commons.codec.binary.Hex
 import spock.lang.Specification
 
+import java.nio.ByteBuffer
 import java.security.SecureRandom
 
 class SchnorrkelNativeSpec extends Specification {
@@ -170,4 +171,128 @@ class SchnorrkelNativeSpec extends Specification {
         then:
         Hex.encodeHexString(act.getPublicKey()) == "40b9675df90efa6069ff623b0fdfcf706cd47ca7452a5056c7ad58194d23440a"
     }
+
+    def "Batch of valid signatures"() {
+        setup:
+        def key2 = schnorrkel.generateKeyPairFromSeed(Hex.decodeHex("fac7959dbfe72f052e5a0c3c8d6530f202b02fd8f9f5ca3580ec8deb7797479e"))
+        List<byte[]> messages = (0..<10).collect { "hello $it".toString().bytes }
+        List<Schnorrkel.KeyPair> keys = (0..<10).collect { it % 2 == 0 ? key1 : key2 }
+        List<byte[]> signatures = (0..<10).collect { schnorrkel.sign(messages[it], keys[it]) }
+        when:
+        def act = schnorrkel.verifyBatch(signatures, messages, keys)
+        then:
+        act.cardinality() == 10
+        act.nextClearBit(0) == 10
+    }
+
+    def "Batch finds invalid signatures"() {
+        setup:
+        List<byte[]> messages = (0..<10).collect { "hello $it".toString().bytes }
+        List<byte[]> signatures = messages.collect { schnorrkel.sign(it, key1) }
+        signatures[3] = schnorrkel.sign("other".bytes, key1)
+        signatures[8][0] = (byte)(signatures[8][0] + 1)
+        when:
+        def act = schnorrkel.verifyBatch(signatures, messages, (0..<10).collect { key1 })
+        then:
+        act.cardinality() == 8
+        !act.get(3)
+        !act.get(8)
+        act.get(0)
+        act.get(9)
+    }
+
+    def "Batch considers malformed public key as invalid"() {
+        setup:
+        List<byte[]> messages = ["hello".bytes, "world".bytes]
+        List<byte[]> signatures = messages.collect { schnorrkel.sign(it, key1) }
+        def invalid = new Schnorrkel.PublicKey(new byte[32].tap { Arrays.fill(it, (byte) 0xff) })
+        when:
+        def act = schnorrkel.verifyBatch(signatures, messages, [key1, invalid])
+        then:
+        act.get(0)
+        !act.get(1)
+    }
+
+    def "Batch throws error on invalid signature length"() {
+        when:
+        schnorrkel.verifyBatch([Hex.decodeHex("00112233")], ["hello".bytes], [key1])
+        then:
+        thrown(SchnorrkelException)
+    }
+
+    def "Batch requires lists of same size"() {
+        when:
+        schnorrkel.verifyBatch([new byte[64]], ["hello".bytes, "world".bytes], [key1])
+        then:
+        thrown(IllegalArgumentException)
+    }
+
+    def "Empty batch"() {
+        when:
+        def act = schnorrkel.verifyBatch([], [], [])
+        then:
+        act.isEmpty()
+    }
+
+    def "Sign direct buffer"() {
+        setup:
+        byte[] msg = "hello".bytes
+        def buffer = ByteBuffer.allocateDirect(16)
+        buffer.put("xx".bytes).put(msg).flip().position(2)
+        when:
+        byte[] signature = schnorrkel.sign(buffer, key1)
+        then:
+        signature.length == 64
+        schnorrkel.verify(signature, msg, key1)
+        buffer.position() == 2
+    }
+
+    def "Sign part of heap buffer"() {
+        setup:
+        byte[] msg = "hello".bytes
+        def buffer = ByteBuffer.wrap("__hello__".bytes, 2, 5).slice()
+        when:
+        byte[] signature = schnorrkel.sign(buffer, key1)
+        then:
+        schnorrkel.verify(signature, msg, key1)
+    }
+
+    def "Verify buffers"() {
+        setup:
+        byte[] msg = "hello".bytes
+        byte[] signature = schnorrkel.sign(msg, key1)
+        def direct = ByteBuffer.allocateDirect(msg.length).put(msg).flip()
+        def heap = ByteBuffer.wrap("__hello".bytes).position(2)
+        expect:
+        schnorrkel.verify(signature, direct, key1)
+        schnorrkel.verify(signature, heap, key1)
+        schnorrkel.verify(signature, heap.asReadOnlyBuffer(), key1)
+        !schnorrkel.verify(signature, ByteBuffer.wrap("hello2".bytes), key1)
+    }
+
+    def "Sign with direct key pair"() {
+        setup:
+        byte[] msg = "hello".bytes
+        def keypair = Schnorrkel.DirectKeyPair.copyOf(key1)
+        when:
+        byte[] signature1 = schnorrkel.sign(msg, keypair)
+        byte[] signature2 = schnorrkel.sign(ByteBuffer.wrap(msg), keypair)
+        then:
+        schnorrkel.verify(signature1, msg, key1)
+        schnorrkel.verify(signature2, msg, key1)
+        cleanup:
+        keypair.close()
+    }
+
+    def "Generates direct key pair from seed"() {
+        setup:
+        def seed = Hex.decodeHex("fac7959dbfe72f052e5a0c3c8d6530f202b02fd8f9f5ca3580ec8deb7797479e")
+        when:
+        def keypair = schnorrkel.generateDirectKeyPairFromSeed(seed)
+        then:
+        Hex.encodeHexString(keypair.getPublicKey()) == "46ebddef8cd9bb167dc30878d7113b7e168e6f0646beffd77d69d39bad76b47a"
+        keypair.getSecretKey() == schnorrkel.generateKeyPairFromSeed(seed).getSecretKey()
+        cleanup:
+        keypair.close()
+    }
 }
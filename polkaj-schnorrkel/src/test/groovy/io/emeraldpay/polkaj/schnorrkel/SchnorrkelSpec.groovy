@@ -42,4 +42,44 @@ class SchnorrkelSpec extends Specification {
         then:
         v.verify()
     }
+
+    def "Direct key pair keeps keys"() {
+        setup:
+        def source = new Schnorrkel.KeyPair(
+                Hex.decodeHex("46ebddef8cd9bb167dc30878d7113b7e168e6f0646beffd77d69d39bad76b47a"),
+                Hex.decodeHex(
+                        "28b0ae221c6bb06856b287f60d7ea0d98552ea5a16db16956849aa371db3eb51" +
+                                "fd190cce74df356432b410bd64682309d6dedb27c76845daf388557cbac3ca34"
+                )
+        )
+        when:
+        def act = Schnorrkel.DirectKeyPair.copyOf(source)
+        then:
+        act.getPublicKey() == source.getPublicKey()
+        act.getSecretKey() == source.getSecretKey()
+        act.getBuffer().isDirect()
+        !act.isClosed()
+    }
+
+    def "Direct key pair is zeroed on close"() {
+        setup:
+        def act = Schnorrkel.DirectKeyPair.copyOf(new Schnorrkel.KeyPair(new byte[32], new byte[64].tap { Arrays.fill(it, (byte) 1) }))
+        def buffer = act.getBuffer()
+        when:
+        act.close()
+        then:
+        act.isClosed()
+        (0..<Schnorrkel.KEYPAIR_LENGTH).every { buffer.get(it) == (byte) 0 }
+        when:
+        act.getSecretKey()
+        then:
+        thrown(IllegalStateException)
+    }
+
+    def "Direct key pair requires valid key"() {
+        when:
+        Schnorrkel.DirectKeyPair.copyOf(new Schnorrkel.KeyPair(new byte[32], new byte[10]))
+        then:
+        thrown(IllegalArgumentException)
+    }
 }
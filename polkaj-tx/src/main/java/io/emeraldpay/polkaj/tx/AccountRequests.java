@@ -1,11 +1,10 @@
 package io.emeraldpay.polkaj.tx;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.math.BigInteger;
-import java.nio.ByteBuffer;
 import java.util.Arrays;
 
+import io.emeraldpay.polkaj.scale.ScaleBuffer;
 import io.emeraldpay.polkaj.scale.ScaleCodecReader;
 import io.emeraldpay.polkaj.scale.ScaleCodecWriter;
 import io.emeraldpay.polkaj.scaletypes.AccountInfo;
@@ -65,15 +64,11 @@ public class AccountRequests {
 
     public static class TotalIssuance extends StorageRequest<DotAmount> {
 
+        private static final StorageKey KEY = StorageKey.plain("Balances", "TotalIssuance");
+
         @Override
         public ByteData encodeRequest() {
-            String key1 = "Balances";
-            String key2 = "TotalIssuance";
-            int len = 16 + 16;
-            ByteBuffer buffer = ByteBuffer.allocate(len);
-            Hashing.xxhash128(buffer, key1);
-            Hashing.xxhash128(buffer, key2);
-            return new ByteData(buffer.flip().array());
+            return KEY.encode();
         }
 
         @Override
@@ -84,6 +79,8 @@ public class AccountRequests {
 
     public static class AddressBalance extends StorageRequest<AccountInfo> {
 
+        private static final StorageKey KEY = StorageKey.map("System", "Account", Metadata.Storage.Hasher.BLAKE2_256_CONCAT);
+
         private final Address address;
 
         public AddressBalance(Address address) {
@@ -92,15 +89,7 @@ public class AccountRequests {
 
         @Override
         public ByteData encodeRequest() {
-            String key1 = "System";
-            String key2 = "Account";
-            int len = 16 + 16 + 16 + 32;
-            ByteBuffer buffer = ByteBuffer.allocate(len);
-            Hashing.xxhash128(buffer, key1);
-            Hashing.xxhash128(buffer, key2);
-            Hashing.blake2128(buffer, address);
-            buffer.put(address.getPubkey());
-            return new ByteData(buffer.flip().array());
+            return KEY.encode(address.getPubkey());
         }
 
         @Override
@@ -129,10 +118,11 @@ public class AccountRequests {
 
         @Override
         public ByteData encodeRequest() throws IOException {
-            ByteArrayOutputStream buf = new ByteArrayOutputStream();
-            ScaleCodecWriter writer = new ScaleCodecWriter(buf);
-            writer.write(CODEC, extrinsic);
-            return new ByteData(buf.toByteArray());
+            try (ScaleCodecWriter writer = ScaleCodecWriter.pooled()) {
+                writer.write(CODEC, extrinsic);
+                ScaleBuffer buf = writer.getBuffer();
+                return new ByteData(buf.array(), 0, buf.size());
+            }
         }
 
         @Override
@@ -145,6 +135,11 @@ public class AccountRequests {
 
 
     public static class TransferBuilder {
+        /**
+         * Signer is stateless, so a single instance is shared by all transfers
+         */
+        private static final ExtrinsicSigner<BalanceTransfer> SIGNER = new ExtrinsicSigner<>(new BalanceTransferWriter());
+
         private Address from;
         private Extrinsic.Signature signature;
         private Long nonce;
@@ -269,9 +264,8 @@ public class AccountRequests {
             } else {
                 this.from = new Address(SS58Type.Network.LIVE, key.getPublicKey());
             }
-            ExtrinsicSigner<BalanceTransfer> signer = new ExtrinsicSigner<>(new BalanceTransferWriter());
             return this.nonce(context)
-                    .signed(new Extrinsic.SR25519Signature(signer.sign(context, this.call, key)));
+                    .signed(new Extrinsic.SR25519Signature(SIGNER.sign(context, this.call, key)));
         }
 
         /**
@@ -0,0 +1,209 @@
+package io.emeraldpay.polkaj.tx;
+
+import io.emeraldpay.polkaj.scale.UnionValue;
+import io.emeraldpay.polkaj.scaletypes.Extrinsic;
+import io.emeraldpay.polkaj.scaletypes.ExtrinsicCall;
+import io.emeraldpay.polkaj.scaletypes.MultiAddress;
+import io.emeraldpay.polkaj.schnorrkel.Schnorrkel;
+import io.emeraldpay.polkaj.schnorrkel.SchnorrkelException;
+import io.emeraldpay.polkaj.types.Address;
+
+import java.io.IOException;
+import java.security.InvalidKeyException;
+import java.security.SignatureException;
+import java.security.spec.InvalidKeySpecException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Verifies signatures of all extrinsics in a block. The extrinsics are split into chunks verified in parallel on a
+ * ForkJoinPool, and within a chunk all SR25519 signatures are verified as a single batch.
+ * <br>
+ * Example:
+ * <pre><code>
+ * BlockVerifier&lt;BalanceTransfer&gt; verifier = new BlockVerifier&lt;&gt;(new ExtrinsicSigner&lt;&gt;(new BalanceTransferWriter()));
+ * boolean[] valid = verifier.verify(extrinsics, contexts);
+ * </code></pre>
+ *
+ * @param <CALL> supported type of the Extrinsic Call
+ * @see ExtrinsicSigner#isValid(ExtrinsicContext, ExtrinsicCall, Extrinsic.Signature, Address)
+ * @see Schnorrkel#verifyBatch(List, List, List)
+ */
+public class BlockVerifier<CALL extends ExtrinsicCall> {
+
+    /**
+     * Min number of extrinsics verified by a single task. Smaller chunks make the batch verification less effective.
+     */
+    private static final int MIN_CHUNK = 64;
+
+    private final ExtrinsicSigner<CALL> signer;
+    private final ForkJoinPool pool;
+
+    /**
+     * Create verifier which uses the common ForkJoinPool
+     *
+     * @param signer signer for the call type
+     */
+    public BlockVerifier(ExtrinsicSigner<CALL> signer) {
+        this(signer, ForkJoinPool.commonPool());
+    }
+
+    /**
+     *
+     * @param signer signer for the call type
+     * @param pool pool to run verification
+     */
+    public BlockVerifier(ExtrinsicSigner<CALL> signer, ForkJoinPool pool) {
+        this.signer = Objects.requireNonNull(signer);
+        this.pool = Objects.requireNonNull(pool);
+    }
+
+    /**
+     * Verify signatures of the extrinsics.
+     * <br>
+     * An unsigned extrinsic is considered as valid, since there is no signature to check. A signed extrinsic is invalid
+     * if the signature doesn't match, if the sender is not an AccountID, or if it has ECDSA signature (which is not
+     * supported).
+     *
+     * @param extrinsics extrinsics of the block
+     * @param contexts contexts used to sign the extrinsics, in the same order as the extrinsics. The context of an
+     *                 unsigned extrinsic may be null
+     * @return validity of each extrinsic, in the same order as the extrinsics
+     * @throws SignException if failed to encode a payload or to verify
+     */
+    public boolean[] verify(List<Extrinsic<CALL>> extrinsics, List<ExtrinsicContext> contexts) throws SignException {
+        if (extrinsics.size() != contexts.size()) {
+            throw new IllegalArgumentException("Different number of extrinsics (" + extrinsics.size() + ") and contexts (" + contexts.size() + ")");
+        }
+        boolean[] result = new boolean[extrinsics.size()];
+        if (extrinsics.isEmpty()) {
+            return result;
+        }
+        int chunk = Math.max(MIN_CHUNK, (extrinsics.size() + pool.getParallelism() - 1) / pool.getParallelism());
+        try {
+            pool.invoke(new VerifyTask(extrinsics, contexts, result, 0, extrinsics.size(), chunk));
+        } catch (VerifyFailure e) {
+            throw e.getCause();
+        }
+        return result;
+    }
+
+    /**
+     * Verify a chunk of extrinsics
+     *
+     * @param extrinsics all extrinsics
+     * @param contexts all contexts
+     * @param result output for all extrinsics
+     * @param from first index of the chunk
+     * @param to index after the last one of the chunk
+     */
+    protected void verifyChunk(List<Extrinsic<CALL>> extrinsics, List<ExtrinsicContext> contexts, boolean[] result,
+                               int from, int to) throws SignException {
+        List<Integer> batchIndexes = new ArrayList<>();
+        List<byte[]> batchSignatures = new ArrayList<>();
+        List<byte[]> batchPayloads = new ArrayList<>();
+        List<Schnorrkel.PublicKey> batchKeys = new ArrayList<>();
+
+        for (int i = from; i < to; i++) {
+            Extrinsic.TransactionInfo tx = extrinsics.get(i).getTx();
+            if (tx == null || tx.getSignature() == null) {
+                result[i] = true;
+                continue;
+            }
+            Address sender = getSender(tx);
+            Extrinsic.SignatureType type = tx.getSignature().getType();
+            if (sender == null || type == Extrinsic.SignatureType.ECDSA) {
+                result[i] = false;
+                continue;
+            }
+            byte[] payload = signer.getPayload(contexts.get(i), extrinsics.get(i).getCall(), false);
+            byte[] signature = tx.getSignature().getValue().getBytes();
+            if (type == Extrinsic.SignatureType.ED25519) {
+                try {
+                    result[i] = ExtrinsicSigner.verifyEd25519(payload, signature, sender.getPubkey());
+                } catch (SignatureException | InvalidKeySpecException | IOException | InvalidKeyException e) {
+                    throw new SignException("Failed to verify", e);
+                }
+            } else {
+                batchIndexes.add(i);
+                batchSignatures.add(signature);
+                batchPayloads.add(payload);
+                batchKeys.add(new Schnorrkel.PublicKey(sender.getPubkey()));
+            }
+        }
+
+        if (batchIndexes.isEmpty()) {
+            return;
+        }
+        BitSet valid;
+        try {
+            valid = Schnorrkel.getInstance().verifyBatch(batchSignatures, batchPayloads, batchKeys);
+        } catch (SchnorrkelException e) {
+            throw new SignException("Failed to verify", e);
+        }
+        for (int j = 0; j < batchIndexes.size(); j++) {
+            result[batchIndexes.get(j)] = valid.get(j);
+        }
+    }
+
+    private static Address getSender(Extrinsic.TransactionInfo tx) {
+        UnionValue<MultiAddress> sender = tx.getSender();
+        if (sender == null || !(sender.getValue() instanceof MultiAddress.AccountID)) {
+            return null;
+        }
+        return ((MultiAddress.AccountID) sender.getValue()).getAddress();
+    }
+
+    private class VerifyTask extends RecursiveAction {
+        private final List<Extrinsic<CALL>> extrinsics;
+        private final List<ExtrinsicContext> contexts;
+        private final boolean[] result;
+        private final int from;
+        private final int to;
+        private final int chunk;
+
+        VerifyTask(List<Extrinsic<CALL>> extrinsics, List<ExtrinsicContext> contexts, boolean[] result, int from, int to, int chunk) {
+            this.extrinsics = extrinsics;
+            this.contexts = contexts;
+            this.result = result;
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= chunk) {
+                try {
+                    verifyChunk(extrinsics, contexts, result, from, to);
+                } catch (SignException e) {
+                    throw new VerifyFailure(e);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(
+                    new VerifyTask(extrinsics, contexts, result, from, middle, chunk),
+                    new VerifyTask(extrinsics, contexts, result, middle, to, chunk)
+            );
+        }
+    }
+
+    /**
+     * Passes SignException through the ForkJoinPool
+     */
+    private static class VerifyFailure extends RuntimeException {
+        VerifyFailure(SignException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized SignException getCause() {
+            return (SignException) super.getCause();
+        }
+    }
+}
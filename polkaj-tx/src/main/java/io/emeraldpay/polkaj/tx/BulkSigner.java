@@ -0,0 +1,268 @@
+package io.emeraldpay.polkaj.tx;
+
+import io.emeraldpay.polkaj.scale.ScaleBuffer;
+import io.emeraldpay.polkaj.scale.ScaleCodecWriter;
+import io.emeraldpay.polkaj.scale.ScaleWriter;
+import io.emeraldpay.polkaj.scaletypes.EraWriter;
+import io.emeraldpay.polkaj.scaletypes.ExtrinsicCall;
+import io.emeraldpay.polkaj.schnorrkel.Schnorrkel;
+import io.emeraldpay.polkaj.schnorrkel.SchnorrkelException;
+import io.emeraldpay.polkaj.types.DotAmount;
+import io.emeraldpay.polkaj.types.Hash512;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Signs many extrinsics with the same context, ex. for a bulk payout. Unlike {@link ExtrinsicSigner}, the parts of the
+ * signature payload which are the same for all extrinsics (era, runtime and transaction versions, genesis and era block
+ * hash) are encoded only once, and for each extrinsic only the call, nonce and tip are encoded. A list of calls is
+ * signed in parallel on a ForkJoinPool.
+ * <br>
+ * The signer is immutable and can be used from multiple threads. When the runtime is upgraded create a new signer with
+ * the new context.
+ * <br>
+ * Example:
+ * <pre><code>
+ * BulkSigner&lt;BalanceTransfer&gt; signer = new BulkSigner&lt;&gt;(new BalanceTransferWriter(), context);
+ * // signatures for nonces starting from the current nonce of the sender
+ * List&lt;Hash512&gt; signatures = signer.signAll(transfers, context.getNonce(), key);
+ * </code></pre>
+ *
+ * @param <CALL> supported type of the Extrinsic Call
+ * @see ExtrinsicSigner
+ */
+public class BulkSigner<CALL extends ExtrinsicCall> {
+
+    /**
+     * Min number of extrinsics signed by a single task
+     */
+    private static final int MIN_CHUNK = 64;
+
+    private static final EraWriter ERA_WRITER = new EraWriter();
+
+    private final ScaleWriter<CALL> callScaleWriter;
+    private final ForkJoinPool pool;
+
+    /**
+     * Encoded era, which goes right after the call
+     */
+    private final byte[] era;
+    /**
+     * Encoded tip of the context
+     */
+    private final byte[] tip;
+    /**
+     * Encoded versions and hashes, which go after the nonce and tip
+     */
+    private final byte[] tail;
+
+    /**
+     * Create signer which uses the common ForkJoinPool
+     *
+     * @param callScaleWriter SCALE writer for the CALL type
+     * @param context context for all extrinsics. The nonce of the context is ignored
+     * @throws SignException if failed to encode the context
+     */
+    public BulkSigner(ScaleWriter<CALL> callScaleWriter, ExtrinsicContext context) throws SignException {
+        this(callScaleWriter, context, ForkJoinPool.commonPool());
+    }
+
+    /**
+     *
+     * @param callScaleWriter SCALE writer for the CALL type
+     * @param context context for all extrinsics. The nonce of the context is ignored
+     * @param pool pool to run signing
+     * @throws SignException if failed to encode the context
+     */
+    public BulkSigner(ScaleWriter<CALL> callScaleWriter, ExtrinsicContext context, ForkJoinPool pool) throws SignException {
+        this.callScaleWriter = Objects.requireNonNull(callScaleWriter);
+        this.pool = Objects.requireNonNull(pool);
+        try (ScaleCodecWriter wrt = ScaleCodecWriter.pooled()) {
+            wrt.write(ERA_WRITER, context.getEra().toInteger());
+            this.era = wrt.toByteArray();
+            wrt.reset();
+
+            wrt.write(ScaleCodecWriter.COMPACT_BIGINT, context.getTip().getValue());
+            this.tip = wrt.toByteArray();
+            wrt.reset();
+
+            wrt.writeUint32(context.getRuntimeVersion());
+            wrt.writeUint32(context.getTxVersion());
+            wrt.writeUint256(context.getGenesis().getBytes());
+            if (context.getEra().isImmortal()) {
+                wrt.writeUint256(context.getGenesis().getBytes());
+            } else {
+                wrt.writeUint256(context.getEraBlockHash().getBytes());
+            }
+            this.tail = wrt.toByteArray();
+        } catch (IOException e) {
+            throw new SignException("Failed to encode context", e);
+        }
+    }
+
+    /**
+     * Generate a payload for the call, same as {@link ExtrinsicSigner#getPayload(ExtrinsicContext, ExtrinsicCall)}
+     * for the context with the specified nonce and tip.
+     *
+     * @param call call details
+     * @param nonce sender nonce
+     * @param tip tip, or null to use the tip of the context
+     * @return signature payload
+     * @throws SignException if failed to encode call
+     */
+    public byte[] getPayload(CALL call, long nonce, DotAmount tip) throws SignException {
+        try (ScaleCodecWriter wrt = ScaleCodecWriter.pooled()) {
+            writePayload(wrt, call, nonce, tip);
+            ScaleBuffer result = wrt.getBuffer();
+            if (result.size() > 256) {
+                return Hashing.blake2(result.array(), 0, result.size());
+            } else {
+                return result.toByteArray();
+            }
+        } catch (IOException e) {
+            throw new SignException("Failed to encode signature payload", e);
+        }
+    }
+
+    /**
+     * Create signature for the call, with the tip of the context
+     *
+     * @param call call details
+     * @param nonce sender nonce
+     * @param key key pair
+     * @return signature
+     * @throws SignException if invalid key or failed to encode
+     */
+    public Hash512 sign(CALL call, long nonce, Schnorrkel.KeyPair key) throws SignException {
+        return sign(call, nonce, null, key);
+    }
+
+    /**
+     * Create signature for the call
+     *
+     * @param call call details
+     * @param nonce sender nonce
+     * @param tip tip, or null to use the tip of the context
+     * @param key key pair
+     * @return signature
+     * @throws SignException if invalid key or failed to encode
+     */
+    public Hash512 sign(CALL call, long nonce, DotAmount tip, Schnorrkel.KeyPair key) throws SignException {
+        try (ScaleCodecWriter wrt = ScaleCodecWriter.pooled()) {
+            writePayload(wrt, call, nonce, tip);
+            ScaleBuffer result = wrt.getBuffer();
+            byte[] signature;
+            if (result.size() > 256) {
+                signature = Schnorrkel.getInstance().sign(Hashing.blake2(result.array(), 0, result.size()), key);
+            } else {
+                // signed directly from the buffer, without a copy
+                signature = Schnorrkel.getInstance().sign(wrt.asByteBuffer(), key);
+            }
+            return new Hash512(signature);
+        } catch (IOException e) {
+            throw new SignException("Failed to encode signature payload", e);
+        } catch (SchnorrkelException e) {
+            throw new SignException("Failed to sign", e);
+        }
+    }
+
+    /**
+     * Sign calls of a single sender, in parallel. The calls get sequential nonces, i.e. the first call is signed with
+     * <code>firstNonce</code>, the second with <code>firstNonce + 1</code>, etc.
+     *
+     * @param calls calls to sign
+     * @param firstNonce nonce of the first call
+     * @param key key pair of the sender
+     * @return signatures, in the same order as the calls
+     * @throws SignException if invalid key or failed to encode
+     */
+    public List<Hash512> signAll(List<CALL> calls, long firstNonce, Schnorrkel.KeyPair key) throws SignException {
+        Hash512[] result = new Hash512[calls.size()];
+        if (calls.isEmpty()) {
+            return Arrays.asList(result);
+        }
+        int chunk = Math.max(MIN_CHUNK, (calls.size() + pool.getParallelism() - 1) / pool.getParallelism());
+        try {
+            pool.invoke(new SignTask(calls, firstNonce, key, result, 0, calls.size(), chunk));
+        } catch (SignFailure e) {
+            throw e.getCause();
+        }
+        return Arrays.asList(result);
+    }
+
+    private void writePayload(ScaleCodecWriter wrt, CALL call, long nonce, DotAmount tip) throws IOException {
+        wrt.write(callScaleWriter, call);
+        wrt.writeByteArray(era);
+        if (nonce >= 0 && nonce < (1L << 30)) {
+            // same bytes as the BigInteger writer for the small value, but without allocation
+            wrt.writeCompact((int) nonce);
+        } else {
+            wrt.write(ScaleCodecWriter.COMPACT_BIGINT, BigInteger.valueOf(nonce));
+        }
+        if (tip == null) {
+            wrt.writeByteArray(this.tip);
+        } else {
+            wrt.write(ScaleCodecWriter.COMPACT_BIGINT, tip.getValue());
+        }
+        wrt.writeByteArray(tail);
+    }
+
+    private class SignTask extends RecursiveAction {
+        private final List<CALL> calls;
+        private final long firstNonce;
+        private final Schnorrkel.KeyPair key;
+        private final Hash512[] result;
+        private final int from;
+        private final int to;
+        private final int chunk;
+
+        SignTask(List<CALL> calls, long firstNonce, Schnorrkel.KeyPair key, Hash512[] result, int from, int to, int chunk) {
+            this.calls = calls;
+            this.firstNonce = firstNonce;
+            this.key = key;
+            this.result = result;
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= chunk) {
+                try {
+                    for (int i = from; i < to; i++) {
+                        result[i] = sign(calls.get(i), firstNonce + i, key);
+                    }
+                } catch (SignException e) {
+                    throw new SignFailure(e);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(
+                    new SignTask(calls, firstNonce, key, result, from, middle, chunk),
+                    new SignTask(calls, firstNonce, key, result, middle, to, chunk)
+            );
+        }
+    }
+
+    /**
+     * Passes SignException through the ForkJoinPool
+     */
+    private static class SignFailure extends RuntimeException {
+        SignFailure(SignException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized SignException getCause() {
+            return (SignException) super.getCause();
+        }
+    }
+}
@@ -1,18 +1,17 @@
 package io.emeraldpay.polkaj.tx;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.math.BigInteger;
 import java.security.InvalidKeyException;
 import java.security.KeyFactory;
 import java.security.NoSuchAlgorithmException;
 import java.security.PublicKey;
-import java.security.Security;
 import java.security.Signature;
 import java.security.SignatureException;
 import java.security.spec.InvalidKeySpecException;
 import java.security.spec.X509EncodedKeySpec;
 
+import io.emeraldpay.polkaj.scale.ScaleBuffer;
 import io.emeraldpay.polkaj.scale.ScaleCodecWriter;
 import io.emeraldpay.polkaj.scale.ScaleWriter;
 import io.emeraldpay.polkaj.scaletypes.EraWriter;
@@ -35,6 +34,28 @@ import org.bouncycastle.jce.provider.BouncyCastleProvider;
  */
 public class ExtrinsicSigner<CALL extends ExtrinsicCall> {
 
+    /**
+     * Provider for ED25519. It's used directly, without registering in Security, and created only once since a new
+     * provider instance is expensive to create.
+     */
+    private static final BouncyCastleProvider BOUNCY_CASTLE_PROVIDER = new BouncyCastleProvider();
+
+    private static final ThreadLocal<KeyFactory> ED25519_KEY_FACTORY = ThreadLocal.withInitial(() -> {
+        try {
+            return KeyFactory.getInstance("Ed25519", BOUNCY_CASTLE_PROVIDER);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Ed25519 is not supported", e);
+        }
+    });
+
+    private static final ThreadLocal<Signature> ED25519_SIGNATURE = ThreadLocal.withInitial(() -> {
+        try {
+            return Signature.getInstance("ed25519", BOUNCY_CASTLE_PROVIDER);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Ed25519 is not supported", e);
+        }
+    });
+
     private final SignaturePayloadWriter<CALL> codec;
     private final SignaturePayloadWriter<CALL> codecAsList;
 
@@ -60,18 +81,17 @@ public class ExtrinsicSigner<CALL extends ExtrinsicCall> {
     }
 
     protected byte[] getPayload(ExtrinsicContext ctx, CALL call, boolean asList) throws SignException {
-        ByteArrayOutputStream result = new ByteArrayOutputStream();
-        try (ScaleCodecWriter writer = new ScaleCodecWriter(result)) {
+        try (ScaleCodecWriter writer = ScaleCodecWriter.pooled()) {
             writer.write(asList ? codecAsList : codec, new SignaturePayload<>(ctx, call));
+            ScaleBuffer result = writer.getBuffer();
+            if (result.size() > 256) {
+                return Hashing.blake2(result.array(), 0, result.size());
+            } else {
+                return result.toByteArray();
+            }
         } catch (IOException e) {
             throw new SignException("Failed to encode signature payload", e);
         }
-        byte[] bytes = result.toByteArray();
-        if (bytes.length > 256) {
-            return Hashing.blake2(bytes);
-        } else {
-            return bytes;
-        }
     }
 
     /**
@@ -116,30 +136,37 @@ public class ExtrinsicSigner<CALL extends ExtrinsicCall> {
                         .verify(signature.getValue().getBytes(), payload, new Schnorrkel.PublicKey(address.getPubkey()));
             }
         }
-        catch (SchnorrkelException | SignatureException | NoSuchAlgorithmException | InvalidKeySpecException | IOException | InvalidKeyException e) {
+        catch (SchnorrkelException | SignatureException | InvalidKeySpecException | IOException | InvalidKeyException e) {
             throw new SignException("Failed to verify", e);
         }
     }
 
     private boolean isValidEd25519Signature(byte[] payload, Extrinsic.Signature signature, Address address)
-            throws SignatureException, NoSuchAlgorithmException, InvalidKeySpecException, IOException, InvalidKeyException {
-
-    	// register security provider for verification
-        final BouncyCastleProvider bouncyCastleProvider = new BouncyCastleProvider();
-        Security.addProvider(bouncyCastleProvider);
+            throws SignatureException, InvalidKeySpecException, IOException, InvalidKeyException {
+        return verifyEd25519(payload, signature.getValue().getBytes(), address.getPubkey());
+    }
 
+    /**
+     * Verify ED25519 signature, with KeyFactory and Signature instances cached for the current thread
+     *
+     * @param payload signed data
+     * @param signature signature
+     * @param pubkey public key of the signer
+     * @return true if signature is valid
+     */
+    static boolean verifyEd25519(byte[] payload, byte[] signature, byte[] pubkey)
+            throws SignatureException, InvalidKeySpecException, IOException, InvalidKeyException {
         // create public key object from address
         SubjectPublicKeyInfo pubKeyInfo = new SubjectPublicKeyInfo(
-                new AlgorithmIdentifier(EdECObjectIdentifiers.id_Ed25519), address.getPubkey());
+                new AlgorithmIdentifier(EdECObjectIdentifiers.id_Ed25519), pubkey);
         X509EncodedKeySpec keySpec = new X509EncodedKeySpec(pubKeyInfo.getEncoded());
-        KeyFactory keyFactory = KeyFactory.getInstance("Ed25519", bouncyCastleProvider);
-        PublicKey publicKey = keyFactory.generatePublic(keySpec);
+        PublicKey publicKey = ED25519_KEY_FACTORY.get().generatePublic(keySpec);
 
         // verify signature
-        final Signature signedData = Signature.getInstance("ed25519", bouncyCastleProvider);
+        final Signature signedData = ED25519_SIGNATURE.get();
         signedData.initVerify(publicKey);
         signedData.update(payload);
-        return signedData.verify(signature.getValue().getBytes());
+        return signedData.verify(signature);
     }
 
     public static class SignaturePayload<CALL extends ExtrinsicCall> {
@@ -173,11 +200,10 @@ public class ExtrinsicSigner<CALL extends ExtrinsicCall> {
         }
 
         protected byte[] encodeCall(CALL call) throws IOException {
-            ByteArrayOutputStream callBuffer = new ByteArrayOutputStream();
-            ScaleCodecWriter callWriter = new ScaleCodecWriter(callBuffer);
-            callWriter.write(callScaleWriter, call);
-            callWriter.close();
-            return callBuffer.toByteArray();
+            try (ScaleCodecWriter callWriter = ScaleCodecWriter.pooled()) {
+                callWriter.write(callScaleWriter, call);
+                return callWriter.toByteArray();
+            }
         }
 
         @Override
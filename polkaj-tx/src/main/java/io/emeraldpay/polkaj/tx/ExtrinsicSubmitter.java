@@ -0,0 +1,361 @@
+package io.emeraldpay.polkaj.tx;
+
+import io.emeraldpay.polkaj.api.PolkadotApi;
+import io.emeraldpay.polkaj.api.StandardCommands;
+import io.emeraldpay.polkaj.api.StandardSubscriptions;
+import io.emeraldpay.polkaj.api.Subscription;
+import io.emeraldpay.polkaj.json.RuntimeVersionJson;
+import io.emeraldpay.polkaj.types.Address;
+import io.emeraldpay.polkaj.types.ByteData;
+import io.emeraldpay.polkaj.types.Hash256;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Submits many extrinsics from a few senders, without fetching the context for each of them. The genesis and the
+ * runtime version are fetched once and then the runtime version is updated with <code>state_subscribeRuntimeVersion</code>
+ * (when the api supports subscriptions). Nonces are allocated locally for each sender, starting from the value of
+ * <code>account_nextIndex</code>, in the same order as the extrinsics are submitted.
+ * <br>
+ * Signing and encoding are made on the provided executor, so a few extrinsics are signed in parallel while others are
+ * being sent with <code>author_submitExtrinsic</code>. When a submission fails (ex. the node rejected the nonce) the
+ * local nonce of the sender is dropped, and the next extrinsic of the sender starts again from <code>account_nextIndex</code>.
+ *
+ * <pre><code>
+ * ExtrinsicSubmitter submitter = ExtrinsicSubmitter.newBuilder()
+ *     .api(api)
+ *     .build();
+ * CompletableFuture&lt;Hash256&gt; txid = submitter.submit(alice, (context) -&gt;
+ *     AccountRequests.transfer()
+ *         .runtime(metadata)
+ *         .from(alice)
+ *         .to(bob)
+ *         .amount(amount)
+ *         .sign(aliceKey, context)
+ *         .build()
+ * );
+ * </code></pre>
+ */
+public class ExtrinsicSubmitter implements AutoCloseable {
+
+    private final PolkadotApi api;
+    private final Executor executor;
+    private final boolean watchRuntime;
+
+    private final ConcurrentHashMap<Address, Sender> senders = new ConcurrentHashMap<>();
+    private CompletableFuture<Chain> chain;
+    private CompletableFuture<?> runtimeWatch;
+    private Subscription<RuntimeVersionJson> runtimeSubscription;
+    private boolean closed = false;
+
+    private ExtrinsicSubmitter(PolkadotApi api, Executor executor, boolean watchRuntime) {
+        this.api = api;
+        this.executor = executor;
+        this.watchRuntime = watchRuntime;
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * Sign and submit an extrinsic
+     *
+     * @param sender sender of the extrinsic
+     * @param prepare function to build the signed extrinsic for the provided context. Called on the executor of the
+     *                submitter, so it may be called from multiple threads at the same time
+     * @return future for the hash of the submitted extrinsic. Fails with RpcException if the node rejected it, or with
+     * SignException if it's failed to sign
+     */
+    public CompletableFuture<Hash256> submit(Address sender, Prepare prepare) {
+        Objects.requireNonNull(sender);
+        Objects.requireNonNull(prepare);
+        CompletableFuture<Chain> chain;
+        try {
+            chain = getChain();
+        } catch (IllegalStateException e) {
+            CompletableFuture<Hash256> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+        Sender account = senders.computeIfAbsent(sender, Sender::new);
+        Nonce nonce = account.allocate();
+        return chain.thenCombine(nonce.generation.start, (c, start) -> c.context(start + nonce.offset))
+                .thenApplyAsync((context) -> encode(prepare, context), executor)
+                .thenCompose((extrinsic) -> api.execute(StandardCommands.getInstance().authorSubmitExtrinsic(extrinsic)))
+                .whenComplete((hash, t) -> {
+                    if (t != null) {
+                        onFailure(account, nonce, chain);
+                    }
+                });
+    }
+
+    /**
+     * Drop the local nonce of the sender, so it's fetched again from the node for the next extrinsic
+     *
+     * @param sender sender
+     */
+    public void reset(Address sender) {
+        senders.remove(sender);
+    }
+
+    /**
+     * @return future for the context values shared by all senders, i.e. with the current genesis and runtime version.
+     * The nonce of the context is 0
+     * @throws IllegalStateException if the submitter is closed
+     */
+    public CompletableFuture<ExtrinsicContext> getContext() {
+        return getChain().thenApply((c) -> c.context(0));
+    }
+
+    /**
+     * Stop watching the runtime version. Doesn't close the api.
+     */
+    @Override
+    public void close() {
+        Subscription<RuntimeVersionJson> subscription;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            subscription = runtimeSubscription;
+            runtimeSubscription = null;
+        }
+        senders.clear();
+        if (subscription != null) {
+            close(subscription);
+        }
+    }
+
+    private synchronized CompletableFuture<Chain> getChain() {
+        if (closed) {
+            throw new IllegalStateException("Submitter is closed");
+        }
+        if (chain == null || chain.isCompletedExceptionally()) {
+            StandardCommands commands = StandardCommands.getInstance();
+            chain = api.execute(commands.getBlockHash(0))
+                    .thenCombine(api.execute(commands.getRuntimeVersion()), Chain::new);
+            if (watchRuntime && runtimeWatch == null) {
+                runtimeWatch = watchRuntime();
+            }
+        }
+        return chain;
+    }
+
+    private CompletableFuture<?> watchRuntime() {
+        return api.subscribe(StandardSubscriptions.getInstance().runtimeVersion())
+                .whenComplete((subscription, t) -> {
+                    if (t != null) {
+                        // subscriptions are not supported by the api; the runtime is fetched again after a failure
+                        return;
+                    }
+                    subscription.handler(this::onRuntimeVersion);
+                    boolean current;
+                    synchronized (this) {
+                        current = !closed;
+                        if (current) {
+                            runtimeSubscription = subscription;
+                        }
+                    }
+                    if (!current) {
+                        close(subscription);
+                    }
+                });
+    }
+
+    private void onRuntimeVersion(Subscription.Event<? extends RuntimeVersionJson> event) {
+        RuntimeVersionJson version = event.getResult();
+        if (version == null) {
+            return;
+        }
+        synchronized (this) {
+            if (chain != null) {
+                chain = chain.thenApply((c) -> c.withRuntime(version));
+            }
+        }
+    }
+
+    private void onFailure(Sender account, Nonce nonce, CompletableFuture<Chain> failed) {
+        // the nonce is lost even if it's failed before the submission, so others would wait for it in the node queue
+        account.resync(nonce.generation);
+        synchronized (this) {
+            if (runtimeSubscription == null && chain == failed) {
+                // without a subscription it may be because of a runtime upgrade
+                chain = null;
+            }
+        }
+    }
+
+    private ByteData encode(Prepare prepare, ExtrinsicContext context) {
+        try {
+            return prepare.apply(context).encodeRequest();
+        } catch (SignException | IOException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private void close(Subscription<RuntimeVersionJson> subscription) {
+        try {
+            subscription.close();
+        } catch (Exception e) {
+            System.err.println("Failed to close runtime version subscription: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Builds a signed extrinsic for the provided context
+     */
+    @FunctionalInterface
+    public interface Prepare {
+        /**
+         *
+         * @param context context with the allocated nonce
+         * @return signed extrinsic
+         * @throws SignException if failed to sign
+         * @throws IOException if failed to encode
+         */
+        ExtrinsicRequest apply(ExtrinsicContext context) throws SignException, IOException;
+    }
+
+    /**
+     * Current genesis and runtime version
+     */
+    private static class Chain {
+        private final Hash256 genesis;
+        private final RuntimeVersionJson runtime;
+
+        Chain(Hash256 genesis, RuntimeVersionJson runtime) {
+            this.genesis = genesis;
+            this.runtime = runtime;
+        }
+
+        Chain withRuntime(RuntimeVersionJson runtime) {
+            return new Chain(genesis, runtime);
+        }
+
+        ExtrinsicContext context(long nonce) {
+            return ExtrinsicContext.newBuilder()
+                    .genesis(genesis)
+                    .runtime(runtime)
+                    .nonce(nonce)
+                    .build();
+        }
+    }
+
+    /**
+     * Nonces of a sender starting from a single <code>account_nextIndex</code> value
+     */
+    private static class Generation {
+        private final CompletableFuture<Long> start;
+        private long allocated = 0;
+
+        Generation(CompletableFuture<Long> start) {
+            this.start = start;
+        }
+    }
+
+    /**
+     * Allocated nonce, as an offset from the start of its generation
+     */
+    private static class Nonce {
+        private final Generation generation;
+        private final long offset;
+
+        Nonce(Generation generation, long offset) {
+            this.generation = generation;
+            this.offset = offset;
+        }
+    }
+
+    /**
+     * Local nonce of a sender
+     */
+    private class Sender {
+        private final Address address;
+        private Generation current;
+
+        Sender(Address address) {
+            this.address = address;
+        }
+
+        /**
+         * Allocate the next nonce. Offsets are allocated immediately, so the nonces are in the same order as the calls
+         * even before the start value is fetched.
+         *
+         * @return allocated nonce
+         */
+        synchronized Nonce allocate() {
+            if (current == null || current.start.isCompletedExceptionally()) {
+                current = new Generation(
+                        api.execute(StandardCommands.getInstance().accountNextIndex(address)).thenApply(Integer::longValue)
+                );
+            }
+            return new Nonce(current, current.allocated++);
+        }
+
+        /**
+         * Start a new generation, unless it's already started after the failed one
+         *
+         * @param failed generation of the failed extrinsic
+         */
+        synchronized void resync(Generation failed) {
+            if (current == failed) {
+                current = null;
+            }
+        }
+    }
+
+    public static class Builder {
+        private PolkadotApi api;
+        private Executor executor = ForkJoinPool.commonPool();
+        private boolean watchRuntime = true;
+
+        /**
+         * API to submit with. Required
+         *
+         * @param api api
+         * @return builder
+         */
+        public Builder api(PolkadotApi api) {
+            this.api = api;
+            return this;
+        }
+
+        /**
+         * Executor to sign and encode extrinsics. Default is the common ForkJoinPool
+         *
+         * @param executor executor
+         * @return builder
+         */
+        public Builder executor(Executor executor) {
+            this.executor = Objects.requireNonNull(executor);
+            return this;
+        }
+
+        /**
+         * Subscribe to the runtime version changes. Default is true. If disabled, or if the api doesn't support
+         * subscriptions, the runtime version is fetched again after a failed submission.
+         *
+         * @param watchRuntime true to subscribe
+         * @return builder
+         */
+        public Builder watchRuntime(boolean watchRuntime) {
+            this.watchRuntime = watchRuntime;
+            return this;
+        }
+
+        public ExtrinsicSubmitter build() {
+            if (api == null) {
+                throw new IllegalStateException("Api is not set");
+            }
+            return new ExtrinsicSubmitter(api, executor, watchRuntime);
+        }
+    }
+}
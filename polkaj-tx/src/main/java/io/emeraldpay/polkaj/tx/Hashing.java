@@ -1,11 +1,13 @@
 package io.emeraldpay.polkaj.tx;
 
+import io.emeraldpay.polkaj.scaletypes.Metadata;
 import io.emeraldpay.polkaj.types.Address;
 import net.openhft.hashing.LongHashFunction;
 import org.bouncycastle.crypto.digests.Blake2bDigest;
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
 
 /**
  * <ul>
@@ -16,6 +18,19 @@ import java.nio.ByteOrder;
  */
 public class Hashing {
 
+    /**
+     * xxhash with seeds 0..3, the functions are thread-safe and can be shared
+     */
+    private static final LongHashFunction[] XX = {
+            LongHashFunction.xx(0), LongHashFunction.xx(1), LongHashFunction.xx(2), LongHashFunction.xx(3)
+    };
+
+    /**
+     * Blake2 digests are reset after producing a hash, so they are reused per thread
+     */
+    private static final ThreadLocal<Blake2bDigest> BLAKE2_128 = ThreadLocal.withInitial(() -> new Blake2bDigest(128));
+    private static final ThreadLocal<Blake2bDigest> BLAKE2_256 = ThreadLocal.withInitial(() -> new Blake2bDigest(256));
+
     /**
      * Hash with xxhash algorithm. Produces 128 bits output. The xxhash by default gives only 64 bytes, so
      * the xxhash128 applies it twice with seed 0 and seed 1
@@ -24,14 +39,110 @@ public class Hashing {
      * @param value string to hash
      */
     public static void xxhash128(ByteBuffer buf, String value) {
-        byte[] valueBytes = value.getBytes();
-        ByteOrder oder = buf.order();
+        xxhash128(buf, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Hash with xxhash algorithm. Produces 128 bits output.
+     *
+     * @param buf buffer to put the result
+     * @param value value to hash
+     * @see #xxhash128(ByteBuffer, String)
+     */
+    public static void xxhash128(ByteBuffer buf, byte[] value) {
+        xxhash(buf, value, 2);
+    }
+
+    /**
+     * Hash with xxhash algorithm with 64 bits output, i.e. single xxhash with seed 0
+     *
+     * @param buf buffer to put the result
+     * @param value value to hash
+     */
+    public static void xxhash64(ByteBuffer buf, byte[] value) {
+        xxhash(buf, value, 1);
+    }
+
+    /**
+     * Hash with xxhash algorithm with 256 bits output, i.e. xxhash with seeds 0, 1, 2 and 3
+     *
+     * @param buf buffer to put the result
+     * @param value value to hash
+     */
+    public static void xxhash256(ByteBuffer buf, byte[] value) {
+        xxhash(buf, value, 4);
+    }
+
+    private static void xxhash(ByteBuffer buf, byte[] value, int rounds) {
+        ByteOrder order = buf.order();
         buf.order(ByteOrder.LITTLE_ENDIAN);
-        buf.asLongBuffer()
-                .put(LongHashFunction.xx(0).hashBytes(valueBytes))
-                .put(LongHashFunction.xx(1).hashBytes(valueBytes));
-        buf.position(buf.position() + 16);
-        buf.order(oder);
+        for (int i = 0; i < rounds; i++) {
+            buf.putLong(XX[i].hashBytes(value));
+        }
+        buf.order(order);
+    }
+
+    /**
+     * Hash the value as a part of a storage key, i.e. put the hash and, for a <i>concat</i> hasher, the value itself
+     *
+     * @param hasher hasher defined for the storage entry
+     * @param buf buffer to put the result
+     * @param value value to hash
+     * @see #hashLength(Metadata.Storage.Hasher, int)
+     */
+    public static void hash(Metadata.Storage.Hasher hasher, ByteBuffer buf, byte[] value) {
+        switch (hasher) {
+            case BLAKE2_128:
+                blake2128(buf, value);
+                break;
+            case BLAKE2_256:
+                blake2(buf, value);
+                break;
+            case BLAKE2_256_CONCAT:
+                // it's Blake2_128Concat in Substrate
+                blake2128(buf, value);
+                buf.put(value);
+                break;
+            case TWOX_128:
+                xxhash128(buf, value);
+                break;
+            case TWOX_256:
+                xxhash256(buf, value);
+                break;
+            case TWOX_64_CONCAT:
+                xxhash64(buf, value);
+                buf.put(value);
+                break;
+            case IDENTITY:
+                buf.put(value);
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported hasher: " + hasher);
+        }
+    }
+
+    /**
+     * @param hasher hasher defined for the storage entry
+     * @param valueLength length of the value to hash
+     * @return number of bytes written by {@link #hash(Metadata.Storage.Hasher, ByteBuffer, byte[])}
+     */
+    public static int hashLength(Metadata.Storage.Hasher hasher, int valueLength) {
+        switch (hasher) {
+            case BLAKE2_128:
+            case TWOX_128:
+                return 16;
+            case BLAKE2_256:
+            case TWOX_256:
+                return 32;
+            case BLAKE2_256_CONCAT:
+                return 16 + valueLength;
+            case TWOX_64_CONCAT:
+                return 8 + valueLength;
+            case IDENTITY:
+                return valueLength;
+            default:
+                throw new IllegalArgumentException("Unsupported hasher: " + hasher);
+        }
     }
 
     /**
@@ -41,7 +152,23 @@ public class Hashing {
      * @param value value to hash
      */
     public static void blake2(ByteBuffer buf, byte[] value) {
-        buf.put(blake2(value));
+        blake2(buf, value, 256);
+    }
+
+    private static void blake2(ByteBuffer buf, byte[] value, int bits) {
+        Blake2bDigest digest = bits == 128 ? BLAKE2_128.get() : BLAKE2_256.get();
+        // in case a previous call failed in the middle
+        digest.reset();
+        digest.update(value, 0, value.length);
+        int len = bits / 8;
+        if (buf.hasArray() && buf.remaining() >= len) {
+            digest.doFinal(buf.array(), buf.arrayOffset() + buf.position());
+            buf.position(buf.position() + len);
+        } else {
+            byte[] result = new byte[len];
+            digest.doFinal(result, 0);
+            buf.put(result);
+        }
     }
 
     /**
@@ -51,8 +178,21 @@ public class Hashing {
      * @return hash of the value
      */
     public static byte[] blake2(byte[] value) {
-        Blake2bDigest digest = new Blake2bDigest(256);
-        digest.update(value, 0, value.length);
+        return blake2(value, 0, value.length);
+    }
+
+    /**
+     * Hash part of the array with Blake2 256 bit
+     *
+     * @param value array with the value to hash
+     * @param offset start of the value in the array
+     * @param len length of the value
+     * @return hash of the value
+     */
+    public static byte[] blake2(byte[] value, int offset, int len) {
+        Blake2bDigest digest = BLAKE2_256.get();
+        digest.reset();
+        digest.update(value, offset, len);
 
         byte[] result = new byte[32];
         digest.doFinal(result, 0);
@@ -77,13 +217,7 @@ public class Hashing {
      * @param value value to hash
      */
     public static void blake2128(ByteBuffer buf, byte[] value) {
-        Blake2bDigest digest = new Blake2bDigest(128);
-        digest.update(value, 0, value.length);
-
-        byte[] result = new byte[16];
-        digest.doFinal(result, 0);
-
-        buf.put(result);
+        blake2(buf, value, 128);
     }
 
     /**
@@ -0,0 +1,324 @@
+package io.emeraldpay.polkaj.tx;
+
+import io.emeraldpay.polkaj.api.PolkadotApi;
+import io.emeraldpay.polkaj.api.StandardCommands;
+import io.emeraldpay.polkaj.api.StandardSubscriptions;
+import io.emeraldpay.polkaj.api.Subscription;
+import io.emeraldpay.polkaj.json.RuntimeVersionJson;
+import io.emeraldpay.polkaj.scale.ScaleCodecReader;
+import io.emeraldpay.polkaj.scale.ScaleReader;
+import io.emeraldpay.polkaj.scaletypes.LazyMetadataReader;
+import io.emeraldpay.polkaj.scaletypes.Metadata;
+import io.emeraldpay.polkaj.types.ByteData;
+import io.emeraldpay.polkaj.types.Hash256;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Cache of Runtime Metadata, which keeps the raw metadata on local disk so it doesn't need to be fetched again after a
+ * restart if the runtime is not changed. Metadata is stored per genesis hash and runtime spec version, and a stored file
+ * is memory-mapped when loaded.
+ * <br>
+ * Use {@link #get(PolkadotApi)} to get the Metadata for the current runtime, which requires only the genesis hash and
+ * the runtime version from the API if the metadata is already on disk. Call {@link #watch(PolkadotApi)} with a
+ * subscription API to drop the current metadata when the runtime is upgraded.
+ *
+ * <pre><code>
+ * MetadataCache cache = MetadataCache.newBuilder()
+ *     .directory(Paths.get("/var/cache/polkaj"))
+ *     .build();
+ * Metadata metadata = cache.get(api).get();
+ * </code></pre>
+ */
+public class MetadataCache {
+
+    private static final String FILE_SUFFIX = ".scale";
+
+    private final Path directory;
+    private final ScaleReader<? extends Metadata> reader;
+    private final Consumer<Metadata> onUpdate;
+
+    private final AtomicReference<Entry> current = new AtomicReference<>();
+
+    private MetadataCache(Path directory, ScaleReader<? extends Metadata> reader, Consumer<Metadata> onUpdate) {
+        this.directory = directory;
+        this.reader = reader;
+        this.onUpdate = onUpdate;
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * Get Metadata for the current runtime. Uses the metadata in memory or on disk if there is one for the current
+     * genesis and runtime version, otherwise fetches it with <code>state_getMetadata</code> and stores on disk.
+     *
+     * @param api api to request the current state
+     * @return Metadata of the current runtime
+     */
+    public CompletableFuture<Metadata> get(PolkadotApi api) {
+        CompletableFuture<Hash256> genesis = api.execute(
+                StandardCommands.getInstance().getBlockHash(0)
+        );
+        CompletableFuture<RuntimeVersionJson> runtimeVersion = api.execute(
+                StandardCommands.getInstance().getRuntimeVersion()
+        );
+        return genesis.thenCombine(runtimeVersion, (g, v) -> new Key(g, v.getSpecVersion()))
+                .thenCompose((key) -> get(api, key));
+    }
+
+    /**
+     * Get Metadata for the specified genesis and runtime version. Note that if there is nothing in the cache it fetches
+     * the current metadata from the API, which is supposed to be of the specified version.
+     *
+     * @param api api to fetch the metadata if it's not cached
+     * @param genesis genesis block hash
+     * @param specVersion runtime spec version
+     * @return Metadata of the runtime
+     */
+    public CompletableFuture<Metadata> get(PolkadotApi api, Hash256 genesis, int specVersion) {
+        return get(api, new Key(genesis, specVersion));
+    }
+
+    private CompletableFuture<Metadata> get(PolkadotApi api, Key key) {
+        Entry entry = current.get();
+        if (entry != null && entry.key.equals(key)) {
+            return CompletableFuture.completedFuture(entry.metadata);
+        }
+        Optional<Metadata> stored = load(key.genesis, key.specVersion);
+        if (stored.isPresent()) {
+            return CompletableFuture.completedFuture(update(key, stored.get()));
+        }
+        return api.execute(StandardCommands.getInstance().stateMetadata())
+                .thenApply((data) -> {
+                    byte[] bytes = data.getBytes();
+                    Metadata metadata = decode(ByteBuffer.wrap(bytes));
+                    try {
+                        store(key.genesis, key.specVersion, bytes);
+                    } catch (UncheckedIOException e) {
+                        // the disk is only a cache, the fetched metadata is still valid
+                        System.err.println(e.getMessage() + ": " + e.getCause().getMessage());
+                    }
+                    return update(key, metadata);
+                });
+    }
+
+    private Metadata update(Key key, Metadata metadata) {
+        Entry previous = current.getAndSet(new Entry(key, metadata));
+        if (onUpdate != null && (previous == null || !previous.key.equals(key))) {
+            onUpdate.accept(metadata);
+        }
+        return metadata;
+    }
+
+    /**
+     * Subscribe to the runtime version, and drop the current metadata when the runtime is changed. The actual
+     * metadata is loaded on next {@link #get(PolkadotApi)}
+     *
+     * @param api api with a subscription adapter
+     * @return subscription, which should be closed when the cache is not used anymore
+     */
+    public CompletableFuture<Subscription<RuntimeVersionJson>> watch(PolkadotApi api) {
+        return api.subscribe(StandardSubscriptions.getInstance().runtimeVersion())
+                .thenApply((subscription) -> {
+                    subscription.handler((Subscription.Event<RuntimeVersionJson> event) -> {
+                        RuntimeVersionJson version = event.getResult();
+                        if (version != null && version.getSpecVersion() != null) {
+                            invalidate(version.getSpecVersion());
+                        }
+                    });
+                    return subscription;
+                });
+    }
+
+    /**
+     * Drop the current metadata from memory, if it's not for the specified runtime version
+     *
+     * @param specVersion actual runtime version
+     * @return true if the metadata was dropped
+     */
+    public boolean invalidate(int specVersion) {
+        Entry entry = current.get();
+        if (entry != null && entry.key.specVersion != specVersion) {
+            return current.compareAndSet(entry, null);
+        }
+        return false;
+    }
+
+    /**
+     * Load metadata from disk
+     *
+     * @param genesis genesis block hash
+     * @param specVersion runtime spec version
+     * @return metadata, or empty if it's not stored, or the stored file is broken
+     */
+    public Optional<Metadata> load(Hash256 genesis, int specVersion) {
+        Path file = fileFor(genesis, specVersion);
+        if (!Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        ByteBuffer data;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(decode(data));
+        } catch (RuntimeException e) {
+            // broken or from an incompatible version, will be fetched again
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ignored) { }
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Store raw metadata on disk, replacing the metadata of other runtime versions for the same genesis. The file is
+     * written into a temporary file first, and then moved to the target, so a concurrent reader never sees a partially
+     * written file.
+     *
+     * @param genesis genesis block hash
+     * @param specVersion runtime spec version
+     * @param data raw metadata
+     * @throws UncheckedIOException if failed to write the file
+     */
+    public void store(Hash256 genesis, int specVersion, byte[] data) {
+        Path file = fileFor(genesis, specVersion);
+        try {
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            try {
+                Files.write(temp, data);
+                try {
+                    Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            String prefix = genesisName(genesis) + "-";
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, prefix + "*" + FILE_SUFFIX)) {
+                for (Path old: files) {
+                    if (!old.getFileName().equals(file.getFileName())) {
+                        Files.deleteIfExists(old);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store metadata to " + file, e);
+        }
+    }
+
+    private Metadata decode(ByteBuffer data) {
+        return new ScaleCodecReader(data).read(reader);
+    }
+
+    private Path fileFor(Hash256 genesis, int specVersion) {
+        return directory.resolve(genesisName(genesis) + "-" + specVersion + FILE_SUFFIX);
+    }
+
+    private static String genesisName(Hash256 genesis) {
+        return genesis.toString().substring(2);
+    }
+
+    private static class Key {
+        private final Hash256 genesis;
+        private final int specVersion;
+
+        Key(Hash256 genesis, int specVersion) {
+            this.genesis = Objects.requireNonNull(genesis);
+            this.specVersion = specVersion;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return specVersion == key.specVersion &&
+                    genesis.equals(key.genesis);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(genesis, specVersion);
+        }
+    }
+
+    private static class Entry {
+        private final Key key;
+        private final Metadata metadata;
+
+        Entry(Key key, Metadata metadata) {
+            this.key = key;
+            this.metadata = metadata;
+        }
+    }
+
+    public static class Builder {
+        private Path directory;
+        private ScaleReader<? extends Metadata> reader = new LazyMetadataReader();
+        private Consumer<Metadata> onUpdate;
+
+        /**
+         * Directory to keep metadata files. Required.
+         *
+         * @param directory path to a directory, which is created if doesn't exist
+         * @return builder
+         */
+        public Builder directory(Path directory) {
+            this.directory = directory;
+            return this;
+        }
+
+        /**
+         * Reader to decode metadata. By default it's {@link LazyMetadataReader} without documentation.
+         *
+         * @param reader metadata reader
+         * @return builder
+         */
+        public Builder reader(ScaleReader<? extends Metadata> reader) {
+            this.reader = reader;
+            return this;
+        }
+
+        /**
+         * Handler called when metadata for a new runtime is loaded
+         *
+         * @param onUpdate handler
+         * @return builder
+         */
+        public Builder onUpdate(Consumer<Metadata> onUpdate) {
+            this.onUpdate = onUpdate;
+            return this;
+        }
+
+        public MetadataCache build() {
+            if (directory == null) {
+                throw new IllegalStateException("Directory is not set");
+            }
+            if (reader == null) {
+                throw new IllegalStateException("Reader is not set");
+            }
+            return new MetadataCache(directory, reader, onUpdate);
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package io.emeraldpay.polkaj.tx;
+
+import io.emeraldpay.polkaj.api.PolkadotApi;
+import io.emeraldpay.polkaj.api.PolkadotMethod;
+import io.emeraldpay.polkaj.api.RpcCall;
+import io.emeraldpay.polkaj.api.StandardCommands;
+import io.emeraldpay.polkaj.json.StorageChangeSetJson;
+import io.emeraldpay.polkaj.types.ByteData;
+import io.emeraldpay.polkaj.types.Hash256;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executes multiple Storage Requests with <code>state_queryStorageAt</code>, i.e. with a single RPC call per chunk of
+ * requests instead of a call per request.
+ * <br>
+ * All chunks are read at the same block. If the block is not specified, and there is more than one chunk, the executor
+ * requests the current best block first and uses it for all chunks.
+ *
+ * <pre><code>
+ * StorageBatch batch = StorageBatch.newBuilder()
+ *     .chunkSize(500)
+ *     .parallelism(4)
+ *     .build();
+ * List&lt;AccountInfo&gt; balances = batch.execute(api, addresses.stream()
+ *     .map(AccountRequests::balanceOf)
+ *     .collect(Collectors.toList())
+ * ).get();
+ * </code></pre>
+ */
+public class StorageBatch {
+
+    private final int chunkSize;
+    private final int parallelism;
+
+    private StorageBatch(int chunkSize, int parallelism) {
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * Execute requests at the current block
+     *
+     * @param api api to execute with
+     * @param requests requests to execute
+     * @param <T> type of the result
+     * @return results in the same order as requests. A value is the result of {@link StorageRequest#apply} with null
+     * data if there is nothing in the storage for the request key
+     */
+    public <T> CompletableFuture<List<T>> execute(PolkadotApi api, Collection<? extends StorageRequest<? extends T>> requests) {
+        return execute(api, requests, null);
+    }
+
+    /**
+     * Execute requests at the specified block
+     *
+     * @param api api to execute with
+     * @param requests requests to execute
+     * @param at block hash to read the state at, or null to read at the current block
+     * @param <T> type of the result
+     * @return results in the same order as requests
+     */
+    public <T> CompletableFuture<List<T>> execute(PolkadotApi api, Collection<? extends StorageRequest<? extends T>> requests, Hash256 at) {
+        List<StorageRequest<? extends T>> all = new ArrayList<>(requests);
+        Keys keys = new Keys(all);
+        return query(api, keys, at).thenApply((values) -> {
+            List<T> result = new ArrayList<>(all.size());
+            for (int i = 0; i < all.size(); i++) {
+                result.add(all.get(i).apply(values[keys.positions[i]]));
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Execute requests and return results by the storage key
+     *
+     * @param api api to execute with
+     * @param requests requests to execute
+     * @param at block hash to read the state at, or null to read at the current block
+     * @param <T> type of the result
+     * @return results by the storage key, in the same order as requests
+     */
+    public <T> CompletableFuture<Map<ByteData, T>> executeByKey(PolkadotApi api, Collection<? extends StorageRequest<? extends T>> requests, Hash256 at) {
+        List<StorageRequest<? extends T>> all = new ArrayList<>(requests);
+        Keys keys = new Keys(all);
+        return query(api, keys, at).thenApply((values) -> {
+            Map<ByteData, T> result = new LinkedHashMap<>(keys.unique.size() * 4 / 3 + 1);
+            for (int i = 0; i < all.size(); i++) {
+                int position = keys.positions[i];
+                result.putIfAbsent(keys.unique.get(position), all.get(i).apply(values[position]));
+            }
+            return result;
+        });
+    }
+
+    private CompletableFuture<ByteData[]> query(PolkadotApi api, Keys keys, Hash256 at) {
+        int chunks = (keys.unique.size() + chunkSize - 1) / chunkSize;
+        if (chunks == 0) {
+            return CompletableFuture.completedFuture(new ByteData[0]);
+        }
+        CompletableFuture<Hash256> block;
+        if (at != null || chunks == 1) {
+            block = CompletableFuture.completedFuture(at);
+        } else {
+            block = api.execute(StandardCommands.getInstance().getBlockHash());
+        }
+        return block.thenCompose((hash) -> {
+            Execution execution = new Execution(api, keys, hash, chunks);
+            CompletableFuture<?>[] workers = new CompletableFuture<?>[Math.min(parallelism, chunks)];
+            for (int i = 0; i < workers.length; i++) {
+                workers[i] = execution.next();
+            }
+            return CompletableFuture.allOf(workers).thenApply((ignore) -> execution.values);
+        });
+    }
+
+    /**
+     * Unique storage keys of the requests
+     */
+    private static class Keys {
+        private final List<ByteData> unique;
+        private final Map<ByteData, Integer> index;
+        /**
+         * Position of each request key in the unique list
+         */
+        private final int[] positions;
+
+        Keys(List<? extends StorageRequest<?>> requests) {
+            this.unique = new ArrayList<>(requests.size());
+            this.index = new HashMap<>(requests.size() * 4 / 3 + 1);
+            this.positions = new int[requests.size()];
+            for (int i = 0; i < requests.size(); i++) {
+                ByteData key = requests.get(i).encodeRequest();
+                Integer position = index.putIfAbsent(key, unique.size());
+                if (position == null) {
+                    position = unique.size();
+                    unique.add(key);
+                }
+                positions[i] = position;
+            }
+        }
+    }
+
+    private class Execution {
+        private final PolkadotApi api;
+        private final Keys keys;
+        private final Hash256 at;
+        private final int chunks;
+        private final ByteData[] values;
+        private final AtomicInteger nextChunk = new AtomicInteger(0);
+        private final AtomicBoolean failed = new AtomicBoolean(false);
+
+        Execution(PolkadotApi api, Keys keys, Hash256 at, int chunks) {
+            this.api = api;
+            this.keys = keys;
+            this.at = at;
+            this.chunks = chunks;
+            this.values = new ByteData[keys.unique.size()];
+        }
+
+        /**
+         * Execute next available chunk, and continue with the following after it's finished
+         */
+        CompletableFuture<Void> next() {
+            int chunk = nextChunk.getAndIncrement();
+            if (chunk >= chunks || failed.get()) {
+                return CompletableFuture.completedFuture(null);
+            }
+            int from = chunk * chunkSize;
+            List<ByteData> chunkKeys = keys.unique.subList(from, Math.min(from + chunkSize, keys.unique.size()));
+            return api.execute(queryStorageAt(chunkKeys, at))
+                    .thenCompose((changeSets) -> {
+                        apply(changeSets);
+                        return next();
+                    })
+                    .whenComplete((ignore, t) -> {
+                        if (t != null) {
+                            failed.set(true);
+                        }
+                    });
+        }
+
+        private void apply(List<StorageChangeSetJson> changeSets) {
+            if (changeSets == null) {
+                return;
+            }
+            for (StorageChangeSetJson changeSet: changeSets) {
+                if (changeSet.getChanges() == null) {
+                    continue;
+                }
+                for (StorageChangeSetJson.KeyValueOption change: changeSet.getChanges()) {
+                    Integer position = keys.index.get(change.getKey());
+                    if (position != null) {
+                        // each chunk writes into own positions, and all of them are read after all chunks are completed
+                        values[position] = change.getData();
+                    }
+                }
+            }
+        }
+    }
+
+    private static RpcCall<List<StorageChangeSetJson>> queryStorageAt(List<ByteData> keys, Hash256 at) {
+        List<Object> params = at == null
+                ? Collections.singletonList(keys)
+                : Arrays.asList(keys, at);
+        return RpcCall.create(StorageChangeSetJson.class, PolkadotMethod.STATE_QUERY_STORAGE_AT, params).expectList();
+    }
+
+    public static class Builder {
+        private int chunkSize = 1000;
+        private int parallelism = 4;
+
+        /**
+         * Max number of keys per RPC call. Default is 1000
+         *
+         * @param chunkSize number of keys
+         * @return builder
+         */
+        public Builder chunkSize(int chunkSize) {
+            if (chunkSize <= 0) {
+                throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+            }
+            this.chunkSize = chunkSize;
+            return this;
+        }
+
+        /**
+         * Max number of RPC calls executed at the same time. Default is 4
+         *
+         * @param parallelism number of calls
+         * @return builder
+         */
+        public Builder parallelism(int parallelism) {
+            if (parallelism <= 0) {
+                throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+            }
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        public StorageBatch build() {
+            return new StorageBatch(chunkSize, parallelism);
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package io.emeraldpay.polkaj.tx;
+
+import io.emeraldpay.polkaj.scaletypes.Metadata;
+import io.emeraldpay.polkaj.types.ByteData;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Key of a storage entry, i.e. <code>xxhash128(module) + xxhash128(entry)</code> followed by the hashed map keys.
+ * The prefix is calculated once per module and entry and shared between instances, so building a key for a map requires
+ * only hashing of the map key itself.
+ * <br>
+ * Instances are immutable and thread-safe.
+ *
+ * <pre><code>
+ * StorageKey systemAccount = StorageKey.map("System", "Account", Metadata.Storage.Hasher.BLAKE2_256_CONCAT);
+ * ByteData key = systemAccount.encode(address.getPubkey());
+ * </code></pre>
+ */
+public class StorageKey {
+
+    /**
+     * Length of the prefix, two xxhash128 values
+     */
+    public static final int PREFIX_LENGTH = 16 + 16;
+
+    private static final ConcurrentHashMap<String, byte[]> NAME_HASHES = new ConcurrentHashMap<>();
+
+    private final byte[] prefix;
+    private final Metadata.Storage.Hasher firstHasher;
+    private final Metadata.Storage.Hasher secondHasher;
+
+    private StorageKey(byte[] prefix, Metadata.Storage.Hasher firstHasher, Metadata.Storage.Hasher secondHasher) {
+        this.prefix = prefix;
+        this.firstHasher = firstHasher;
+        this.secondHasher = secondHasher;
+    }
+
+    /**
+     * Key for a Plain storage entry (i.e. a single value)
+     *
+     * @param module module storage prefix, which is usually the module name
+     * @param entry entry name
+     * @return storage key
+     */
+    public static StorageKey plain(String module, String entry) {
+        return new StorageKey(prefix(module, entry), null, null);
+    }
+
+    /**
+     * Key for a Map storage entry
+     *
+     * @param module module storage prefix, which is usually the module name
+     * @param entry entry name
+     * @param hasher hasher for the map key
+     * @return storage key
+     */
+    public static StorageKey map(String module, String entry, Metadata.Storage.Hasher hasher) {
+        return new StorageKey(prefix(module, entry), Objects.requireNonNull(hasher), null);
+    }
+
+    /**
+     * Key for a Double Map storage entry
+     *
+     * @param module module storage prefix, which is usually the module name
+     * @param entry entry name
+     * @param firstHasher hasher for the first key
+     * @param secondHasher hasher for the second key
+     * @return storage key
+     */
+    public static StorageKey doubleMap(String module, String entry, Metadata.Storage.Hasher firstHasher, Metadata.Storage.Hasher secondHasher) {
+        return new StorageKey(prefix(module, entry), Objects.requireNonNull(firstHasher), Objects.requireNonNull(secondHasher));
+    }
+
+    /**
+     * Key for a storage entry defined by Runtime Metadata
+     *
+     * @param storage module storage
+     * @param entry entry of the module storage
+     * @return storage key
+     */
+    public static StorageKey of(Metadata.Storage storage, Metadata.Storage.Entry entry) {
+        Metadata.Storage.Type<?> type = entry.getType();
+        switch (type.getId()) {
+            case PLAIN:
+                return plain(storage.getPrefix(), entry.getName());
+            case MAP:
+                return map(storage.getPrefix(), entry.getName(), type.cast(Metadata.Storage.MapDefinition.class).get().getHasher());
+            case DOUBLEMAP:
+                Metadata.Storage.DoubleMapDefinition definition = type.cast(Metadata.Storage.DoubleMapDefinition.class).get();
+                return doubleMap(storage.getPrefix(), entry.getName(), definition.getFirstHasher(), definition.getSecondHasher());
+            default:
+                throw new IllegalArgumentException("Unsupported storage type: " + type.getId());
+        }
+    }
+
+    /**
+     * Find a storage entry in the Runtime Metadata and make a key for it
+     *
+     * @param metadata runtime metadata
+     * @param module module name
+     * @param entry entry name
+     * @return storage key, or empty if there is no such entry
+     */
+    public static Optional<StorageKey> find(Metadata metadata, String module, String entry) {
+        return metadata.findModule(module)
+                .map(Metadata.Module::getStorage)
+                .flatMap((storage) ->
+                        storage.getEntries().stream()
+                                .filter((it) -> it.getName().equals(entry))
+                                .findFirst()
+                                .map((it) -> of(storage, it))
+                );
+    }
+
+    private static byte[] prefix(String module, String entry) {
+        byte[] result = new byte[PREFIX_LENGTH];
+        System.arraycopy(nameHash(module), 0, result, 0, 16);
+        System.arraycopy(nameHash(entry), 0, result, 16, 16);
+        return result;
+    }
+
+    private static byte[] nameHash(String name) {
+        return NAME_HASHES.computeIfAbsent(name, (value) -> {
+            ByteBuffer buf = ByteBuffer.allocate(16);
+            Hashing.xxhash128(buf, value);
+            return buf.array();
+        });
+    }
+
+    /**
+     * @return number of keys for the entry, 0 for plain, 1 for map and 2 for double map
+     */
+    public int getKeysCount() {
+        if (firstHasher == null) {
+            return 0;
+        }
+        return secondHasher == null ? 1 : 2;
+    }
+
+    /**
+     * Write the prefix, i.e. the full key for a Plain entry, or the common prefix of all keys for a Map entry.
+     *
+     * @param buf buffer to write
+     */
+    public void write(ByteBuffer buf) {
+        buf.put(prefix);
+    }
+
+    /**
+     * Write key of a Map entry, or the common prefix of the first key for a Double Map entry.
+     *
+     * @param buf buffer to write
+     * @param key map key, as SCALE encoded value
+     */
+    public void write(ByteBuffer buf, byte[] key) {
+        requireKeys(1);
+        buf.put(prefix);
+        Hashing.hash(firstHasher, buf, key);
+    }
+
+    /**
+     * Write key of a Double Map entry
+     *
+     * @param buf buffer to write
+     * @param key1 first key, as SCALE encoded value
+     * @param key2 second key, as SCALE encoded value
+     */
+    public void write(ByteBuffer buf, byte[] key1, byte[] key2) {
+        requireKeys(2);
+        buf.put(prefix);
+        Hashing.hash(firstHasher, buf, key1);
+        Hashing.hash(secondHasher, buf, key2);
+    }
+
+    /**
+     * @param key map key, as SCALE encoded value
+     * @return length of the key written by {@link #write(ByteBuffer, byte[])}
+     */
+    public int length(byte[] key) {
+        requireKeys(1);
+        return PREFIX_LENGTH + Hashing.hashLength(firstHasher, key.length);
+    }
+
+    /**
+     * @param key1 first key, as SCALE encoded value
+     * @param key2 second key, as SCALE encoded value
+     * @return length of the key written by {@link #write(ByteBuffer, byte[], byte[])}
+     */
+    public int length(byte[] key1, byte[] key2) {
+        requireKeys(2);
+        return PREFIX_LENGTH + Hashing.hashLength(firstHasher, key1.length) + Hashing.hashLength(secondHasher, key2.length);
+    }
+
+    /**
+     * @return the prefix, which is the full key for a Plain entry
+     */
+    public ByteData encode() {
+        return new ByteData(prefix);
+    }
+
+    /**
+     * @param key map key, as SCALE encoded value
+     * @return key of a Map entry
+     */
+    public ByteData encode(byte[] key) {
+        ByteBuffer buf = ByteBuffer.allocate(length(key));
+        write(buf, key);
+        return new ByteData(buf.array());
+    }
+
+    /**
+     * @param key1 first key, as SCALE encoded value
+     * @param key2 second key, as SCALE encoded value
+     * @return key of a Double Map entry
+     */
+    public ByteData encode(byte[] key1, byte[] key2) {
+        ByteBuffer buf = ByteBuffer.allocate(length(key1, key2));
+        write(buf, key1, key2);
+        return new ByteData(buf.array());
+    }
+
+    private void requireKeys(int count) {
+        if (getKeysCount() < count) {
+            throw new IllegalStateException("Storage entry has " + getKeysCount() + " keys, but " + count + " are used");
+        }
+    }
+
+    @Override
+    public final boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof StorageKey)) return false;
+        StorageKey that = (StorageKey) o;
+        return Arrays.equals(prefix, that.prefix) &&
+                firstHasher == that.firstHasher &&
+                secondHasher == that.secondHasher;
+    }
+
+    @Override
+    public final int hashCode() {
+        int result = Objects.hash(firstHasher, secondHasher);
+        result = 31 * result + Arrays.hashCode(prefix);
+        return result;
+    }
+}
@@ -0,0 +1,460 @@
+package io.emeraldpay.polkaj.tx;
+
+import io.emeraldpay.polkaj.api.PolkadotApi;
+import io.emeraldpay.polkaj.api.StandardSubscriptions;
+import io.emeraldpay.polkaj.api.Subscription;
+import io.emeraldpay.polkaj.json.StorageChangeSetJson;
+import io.emeraldpay.polkaj.types.ByteData;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Watches a dynamic set of storage keys with <code>state_subscribeStorage</code>. Keys are split into shards, each
+ * shard is a single subscription with up to the configured number of keys, so the node handles a few subscriptions
+ * instead of a subscription per key.
+ * <br>
+ * When keys are added or removed only the changed shards are subscribed again, with a new key set. The changes are
+ * applied in the background shortly after the last change, or immediately with {@link #flush()}. A new subscription is
+ * made before the previous subscription for the shard is closed, so the keys of the shard are not left unwatched.
+ * <br>
+ * A listener receives the current value when it starts watching a key, and then each new value of the key.
+ *
+ * <pre><code>
+ * StorageWatcher watcher = StorageWatcher.newBuilder()
+ *     .api(api)
+ *     .maxKeys(1000)
+ *     .build();
+ * StorageWatcher.Watch watch = watcher.watch(AccountRequests.balanceOf(address), (AccountInfo info) -&gt; {
+ *     System.out.println("Balance: " + info.getData().getFree());
+ * });
+ * ...
+ * watch.close();
+ * </code></pre>
+ */
+public class StorageWatcher implements AutoCloseable {
+
+    private final PolkadotApi api;
+    private final int maxKeys;
+    private final int maxShards;
+    private final Duration flushDelay;
+
+    private final ConcurrentHashMap<ByteData, Entry> index = new ConcurrentHashMap<>();
+    private final List<Shard> shards = new ArrayList<>();
+    private final ScheduledThreadPoolExecutor scheduler;
+    private ScheduledFuture<?> scheduledFlush;
+    private boolean closed = false;
+
+    private StorageWatcher(PolkadotApi api, int maxKeys, int maxShards, Duration flushDelay) {
+        this.api = api;
+        this.maxKeys = maxKeys;
+        this.maxShards = maxShards;
+        this.flushDelay = flushDelay;
+        this.scheduler = new ScheduledThreadPoolExecutor(1, (r) -> {
+            Thread thread = new Thread(r, "polkaj-storage-watcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * Start watching a storage key
+     *
+     * @param key storage key
+     * @param listener listener for the values of the key. A value may have null data if there is nothing in the storage
+     * @return watch, which should be closed when the key is not needed anymore
+     * @throws IllegalStateException if all shards are full, or the watcher is closed
+     */
+    public Watch watch(ByteData key, Consumer<StorageChangeSetJson.KeyValueOption> listener) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(listener);
+        Watch watch = new Watch(key, listener);
+        Entry entry;
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("Watcher is closed");
+            }
+            entry = index.get(key);
+            if (entry == null) {
+                Shard shard = findShard();
+                entry = new Entry(shard);
+                shard.keys.add(key);
+                shard.dirty = true;
+                index.put(key, entry);
+                scheduleFlush();
+            }
+            entry.listeners.add(watch);
+        }
+        // a new listener of an already watched key doesn't get the value from the node, because it's not changed
+        StorageChangeSetJson.KeyValueOption last = entry.last;
+        if (last != null) {
+            watch.accept(last);
+        }
+        return watch;
+    }
+
+    /**
+     * Start watching a storage request
+     *
+     * @param request storage request
+     * @param listener listener for the decoded values of the request. A value is the result of {@link StorageRequest#apply}
+     *                 with null data if there is nothing in the storage for the request key
+     * @param <T> type of the value
+     * @return watch, which should be closed when the key is not needed anymore
+     * @throws IllegalStateException if all shards are full, or the watcher is closed
+     */
+    public <T> Watch watch(StorageRequest<T> request, Consumer<T> listener) {
+        Objects.requireNonNull(listener);
+        return watch(request.encodeRequest(), (change) -> listener.accept(request.apply(change.getData())));
+    }
+
+    /**
+     * Apply the current changes of the key set immediately
+     *
+     * @return future completed when all changed shards are subscribed with the new keys
+     */
+    public CompletableFuture<Void> flush() {
+        List<CompletableFuture<?>> all = new ArrayList<>();
+        synchronized (this) {
+            if (scheduledFlush != null) {
+                scheduledFlush.cancel(false);
+                scheduledFlush = null;
+            }
+            if (closed) {
+                return CompletableFuture.completedFuture(null);
+            }
+            List<Shard> empty = new ArrayList<>();
+            for (Shard shard: shards) {
+                if (!shard.dirty) {
+                    continue;
+                }
+                shard.dirty = false;
+                if (shard.keys.isEmpty()) {
+                    // never subscribe with an empty list, because it means all keys
+                    empty.add(shard);
+                    shard.replace(null);
+                } else {
+                    all.add(shard.subscribe(new ArrayList<>(shard.keys)));
+                }
+            }
+            shards.removeAll(empty);
+        }
+        return CompletableFuture.allOf(all.toArray(new CompletableFuture<?>[0]));
+    }
+
+    /**
+     * @return number of watched keys
+     */
+    public int getKeysCount() {
+        return index.size();
+    }
+
+    /**
+     * @return current number of shards, i.e. subscriptions
+     */
+    public synchronized int getShardsCount() {
+        return shards.size();
+    }
+
+    /**
+     * Stop watching all keys and close all subscriptions
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            for (Shard shard: shards) {
+                shard.replace(null);
+            }
+            shards.clear();
+            index.clear();
+        }
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Find a shard for a new key. Prefers a shard which is already changed, then a shard with fewer keys, because it's
+     * cheaper to subscribe again.
+     *
+     * @return shard with space for a new key
+     */
+    private Shard findShard() {
+        Shard best = null;
+        for (Shard shard: shards) {
+            if (shard.keys.size() >= maxKeys) {
+                continue;
+            }
+            if (shard.dirty) {
+                return shard;
+            }
+            if (best == null || shard.keys.size() < best.keys.size()) {
+                best = shard;
+            }
+        }
+        if (best != null) {
+            return best;
+        }
+        if (shards.size() >= maxShards) {
+            throw new IllegalStateException("All " + maxShards + " shards are full with " + maxKeys + " keys");
+        }
+        Shard shard = new Shard();
+        shards.add(shard);
+        return shard;
+    }
+
+    private synchronized void remove(Watch watch) {
+        Entry entry = index.get(watch.key);
+        if (entry == null || !entry.listeners.remove(watch) || !entry.listeners.isEmpty()) {
+            return;
+        }
+        index.remove(watch.key);
+        entry.shard.keys.remove(watch.key);
+        entry.shard.dirty = true;
+        scheduleFlush();
+    }
+
+    private void scheduleFlush() {
+        if (scheduledFlush != null || closed) {
+            return;
+        }
+        try {
+            scheduledFlush = scheduler.schedule(this::flush, flushDelay.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // closed
+        }
+    }
+
+    private synchronized void retry(Shard shard) {
+        if (closed || !shards.contains(shard)) {
+            return;
+        }
+        shard.dirty = true;
+        scheduleFlush();
+    }
+
+    private void onChanges(Subscription.Event<? extends StorageChangeSetJson> event) {
+        StorageChangeSetJson changeSet = event.getResult();
+        if (changeSet == null || changeSet.getChanges() == null) {
+            return;
+        }
+        for (StorageChangeSetJson.KeyValueOption change: changeSet.getChanges()) {
+            Entry entry = index.get(change.getKey());
+            if (entry != null) {
+                entry.accept(change);
+            }
+        }
+    }
+
+    /**
+     * State of a watched key
+     */
+    private static class Entry {
+        private final Shard shard;
+        private final CopyOnWriteArrayList<Watch> listeners = new CopyOnWriteArrayList<>();
+        private volatile StorageChangeSetJson.KeyValueOption last;
+
+        Entry(Shard shard) {
+            this.shard = shard;
+        }
+
+        void accept(StorageChangeSetJson.KeyValueOption change) {
+            synchronized (this) {
+                // a key gets the same value again when its shard is subscribed with a new key set
+                StorageChangeSetJson.KeyValueOption last = this.last;
+                if (last != null && Objects.equals(last.getData(), change.getData())) {
+                    return;
+                }
+                this.last = change;
+            }
+            for (Watch watch: listeners) {
+                watch.accept(change);
+            }
+        }
+    }
+
+    /**
+     * A group of keys watched with a single subscription
+     */
+    private class Shard {
+        private final LinkedHashSet<ByteData> keys = new LinkedHashSet<>();
+        private boolean dirty = false;
+        /**
+         * Incremented with each new subscription, to find out if a subscription is still current when it's confirmed
+         */
+        private int version = 0;
+        private Subscription<StorageChangeSetJson> subscription;
+
+        /**
+         * Subscribe with a new key set, and close the previous subscription when the new one is confirmed.
+         * Must be called under the watcher lock.
+         *
+         * @param keys keys of the shard
+         * @return future for the subscription
+         */
+        CompletableFuture<?> subscribe(List<ByteData> keys) {
+            final int version = ++this.version;
+            return api.subscribe(StandardSubscriptions.getInstance().storage(keys))
+                    .whenComplete((subscription, t) -> {
+                        if (t != null) {
+                            retry(this);
+                            return;
+                        }
+                        subscription.handler(StorageWatcher.this::onChanges);
+                        boolean current;
+                        synchronized (StorageWatcher.this) {
+                            current = !closed && this.version == version;
+                            if (current) {
+                                replace(subscription);
+                            }
+                        }
+                        if (!current) {
+                            // the watcher is closed, or there is a newer key set for the shard
+                            close(subscription);
+                        }
+                    });
+        }
+
+        /**
+         * Use a new subscription for the shard, closing the previous one. Must be called under the watcher lock.
+         *
+         * @param subscription new subscription, or null to stop watching the shard
+         */
+        void replace(Subscription<StorageChangeSetJson> subscription) {
+            if (subscription == null) {
+                this.version++;
+            }
+            Subscription<StorageChangeSetJson> previous = this.subscription;
+            this.subscription = subscription;
+            if (previous != null) {
+                close(previous);
+            }
+        }
+
+        private void close(Subscription<StorageChangeSetJson> subscription) {
+            try {
+                subscription.close();
+            } catch (Exception e) {
+                System.err.println("Failed to close storage subscription: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * A listener of a watched key
+     */
+    public class Watch implements AutoCloseable {
+        private final ByteData key;
+        private final Consumer<StorageChangeSetJson.KeyValueOption> listener;
+
+        private Watch(ByteData key, Consumer<StorageChangeSetJson.KeyValueOption> listener) {
+            this.key = key;
+            this.listener = listener;
+        }
+
+        public ByteData getKey() {
+            return key;
+        }
+
+        private void accept(StorageChangeSetJson.KeyValueOption change) {
+            try {
+                listener.accept(change);
+            } catch (Throwable t) {
+                t.printStackTrace();
+            }
+        }
+
+        /**
+         * Stop watching the key. The key is removed from its subscription if it was the last listener.
+         */
+        @Override
+        public void close() {
+            remove(this);
+        }
+    }
+
+    public static class Builder {
+        private PolkadotApi api;
+        private int maxKeys = 1000;
+        private int maxShards = 100;
+        private Duration flushDelay = Duration.ofMillis(100);
+
+        /**
+         * API to subscribe with. Required
+         *
+         * @param api api with subscriptions support
+         * @return builder
+         */
+        public Builder api(PolkadotApi api) {
+            this.api = api;
+            return this;
+        }
+
+        /**
+         * Max number of keys per subscription. Default is 1000
+         *
+         * @param maxKeys number of keys
+         * @return builder
+         */
+        public Builder maxKeys(int maxKeys) {
+            if (maxKeys <= 0) {
+                throw new IllegalArgumentException("Max keys must be positive: " + maxKeys);
+            }
+            this.maxKeys = maxKeys;
+            return this;
+        }
+
+        /**
+         * Max number of subscriptions. When all of them are full the watcher doesn't accept new keys. Default is 100
+         *
+         * @param maxShards number of subscriptions
+         * @return builder
+         */
+        public Builder maxShards(int maxShards) {
+            if (maxShards <= 0) {
+                throw new IllegalArgumentException("Max shards must be positive: " + maxShards);
+            }
+            this.maxShards = maxShards;
+            return this;
+        }
+
+        /**
+         * Delay before applying changes of the key set, so multiple changes are applied together. Default is 100ms
+         *
+         * @param flushDelay delay
+         * @return builder
+         */
+        public Builder flushDelay(Duration flushDelay) {
+            if (flushDelay == null || flushDelay.isNegative()) {
+                throw new IllegalArgumentException("Invalid flush delay: " + flushDelay);
+            }
+            this.flushDelay = flushDelay;
+            return this;
+        }
+
+        public StorageWatcher build() {
+            if (api == null) {
+                throw new IllegalStateException("Api is not set");
+            }
+            return new StorageWatcher(api, maxKeys, maxShards, flushDelay);
+        }
+    }
+}
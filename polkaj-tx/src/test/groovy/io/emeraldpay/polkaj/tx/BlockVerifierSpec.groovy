@@ -0,0 +1,118 @@
+package io.emeraldpay.polkaj.tx
+
+import io.emeraldpay.polkaj.scaletypes.BalanceTransfer
+import io.emeraldpay.polkaj.scaletypes.BalanceTransferWriter
+import io.emeraldpay.polkaj.scaletypes.Extrinsic
+import io.emeraldpay.polkaj.types.Address
+import io.emeraldpay.polkaj.types.DotAmount
+import io.emeraldpay.polkaj.types.Hash256
+import io.emeraldpay.polkaj.types.Hash512
+import spock.lang.Specification
+
+import java.util.concurrent.ForkJoinPool
+
+class BlockVerifierSpec extends Specification {
+
+    ExtrinsicSigner<BalanceTransfer> signer = new ExtrinsicSigner<>(new BalanceTransferWriter())
+
+    // same as in ExtrinsicSignerSpec
+    ExtrinsicContext edContext = ExtrinsicContext.newBuilder()
+            .runtime(5, 9090)
+            .genesis(Hash256.from("0xe143f23803ac50e8f6f8e62695d1ce9e4e1d68aa36c1cd2cfd15340213f3423e"))
+            .nonce(1)
+            .tip(DotAmount.fromPlancks(7750000718, DotAmount.Westies))
+            .build()
+    BalanceTransfer edCall = new BalanceTransfer(4, 3).tap {
+        destination = Address.from("5GAiqfv7kwGxnLpCue9pFt7zwt4u1aoYM7p9tHJPGMjNHpEz")
+        balance = DotAmount.from(0.5, DotAmount.Westies)
+    }
+    Hash512 edSignature = Hash512.from("0x634c879c40daf331254bafdbfb24ac3f5286f60d38ed4d056caffd6c5efbd8451fbb0e277f2be832e8e8aad428492c25e8f354f9976500a41e8943284a4e540b")
+    Address edSource = Address.from("5FqBfbPzAD8v8M3XQQEixXJW7HmXZ8JLqLfibxj8zjuPkipz")
+
+    Extrinsic<BalanceTransfer> extrinsic(Extrinsic.Signature signature, Address sender, BalanceTransfer call) {
+        return new Extrinsic<BalanceTransfer>().tap {
+            tx = new Extrinsic.TransactionInfo().tap {
+                it.signature = signature
+                if (sender != null) {
+                    it.sender = sender
+                }
+            }
+            it.call = call
+        }
+    }
+
+    def "Verify ED25519 signature"() {
+        setup:
+        def verifier = new BlockVerifier<>(signer)
+        def valid = extrinsic(new Extrinsic.ED25519Signature(edSignature), edSource, edCall)
+        def invalidBytes = edSignature.bytes
+        invalidBytes[0] = (byte)(invalidBytes[0] + 1)
+        def invalid = extrinsic(new Extrinsic.ED25519Signature(new Hash512(invalidBytes)), edSource, edCall)
+        when:
+        def act = verifier.verify([valid, invalid, valid], [edContext, edContext, edContext])
+        then:
+        act == [true, false, true] as boolean[]
+    }
+
+    def "Verify many ED25519 signatures in parallel"() {
+        setup:
+        def verifier = new BlockVerifier<>(signer, new ForkJoinPool(4))
+        def valid = extrinsic(new Extrinsic.ED25519Signature(edSignature), edSource, edCall)
+        def wrongSender = extrinsic(new Extrinsic.ED25519Signature(edSignature), Address.from("5GrwvaEF5zXb26Fz9rcQpDWS57CtERHpNehXCPcNoHGKutQY"), edCall)
+        List<Extrinsic<BalanceTransfer>> extrinsics = (0..<300).collect { it % 7 == 0 ? wrongSender : valid }
+        when:
+        def act = verifier.verify(extrinsics, extrinsics.collect { edContext })
+        then:
+        act.length == 300
+        (0..<300).every { act[it] == (it % 7 != 0) }
+    }
+
+    def "Unsigned extrinsic is valid"() {
+        setup:
+        def verifier = new BlockVerifier<>(signer)
+        def unsigned = new Extrinsic<BalanceTransfer>().tap { call = edCall }
+        when:
+        def act = verifier.verify([unsigned], [null])
+        then:
+        act == [true] as boolean[]
+    }
+
+    def "Extrinsic without sender is invalid"() {
+        setup:
+        def verifier = new BlockVerifier<>(signer)
+        when:
+        def act = verifier.verify([extrinsic(new Extrinsic.ED25519Signature(edSignature), null, edCall)], [edContext])
+        then:
+        act == [false] as boolean[]
+    }
+
+    def "Verify SR25519 signatures as batch"() {
+        setup:
+        def verifier = new BlockVerifier<>(signer)
+        ExtrinsicContext context = ExtrinsicContext.newBuilder()
+                .runtime(3, 0x12)
+                .genesis(Hash256.from("0x4c0bdd177c17ca145ad9a3e76d092d4d4baa8add4fa8c78cc2fbbf8e3cbd5122"))
+                .nonce(7)
+                .build()
+        BalanceTransfer call = new BalanceTransfer(5, 0).tap {
+            destination = TestKeys.bob
+            balance = DotAmount.fromDots(300)
+        }
+        def signature = new Extrinsic.SR25519Signature(Hash512.from("0x46176d89b00e11521fba7962ea18e6c4279bc32deda3140b3718f75c2cecba15915c2124cc13767bb6a8fea536788ba23fc40d54d90f8e82ffcb2c59f838808c"))
+        def valid = extrinsic(signature, TestKeys.alice, call)
+        def invalid = extrinsic(signature, TestKeys.bob, call)
+        when:
+        def act = verifier.verify([valid, invalid, valid], [context, context, context])
+        then:
+        act == [true, false, true] as boolean[]
+    }
+
+    def "Requires context for each extrinsic"() {
+        setup:
+        def verifier = new BlockVerifier<>(signer)
+        when:
+        verifier.verify([extrinsic(new Extrinsic.ED25519Signature(edSignature), edSource, edCall)], [])
+        then:
+        thrown(IllegalArgumentException)
+    }
+}
@@ -0,0 +1,128 @@
+package io.emeraldpay.polkaj.tx
+
+import io.emeraldpay.polkaj.scale.ScaleCodecWriter
+import io.emeraldpay.polkaj.scale.ScaleWriter
+import io.emeraldpay.polkaj.scaletypes.BalanceTransfer
+import io.emeraldpay.polkaj.scaletypes.BalanceTransferWriter
+import io.emeraldpay.polkaj.scaletypes.Extrinsic
+import io.emeraldpay.polkaj.schnorrkel.Schnorrkel
+import io.emeraldpay.polkaj.types.Address
+import io.emeraldpay.polkaj.types.DotAmount
+import io.emeraldpay.polkaj.types.Hash256
+import org.apache.commons.codec.binary.Hex
+import spock.lang.Specification
+
+class BulkSignerSpec extends Specification {
+
+    static final Hash256 GENESIS = Hash256.from("0x4c0bdd177c17ca145ad9a3e76d092d4d4baa8add4fa8c78cc2fbbf8e3cbd5122")
+    static final Address BOB = Address.from("5FHneW46xGXgs5mUiveU4sbTyGBzmstUspZC92UhjJM694ty")
+
+    ExtrinsicSigner<BalanceTransfer> signer = new ExtrinsicSigner<>(new BalanceTransferWriter())
+
+    static BalanceTransfer transfer(long amount) {
+        transfer(DotAmount.fromPlancks(amount))
+    }
+
+    static BalanceTransfer transfer(DotAmount amount) {
+        new BalanceTransfer(5, 0).tap {
+            destination = BOB
+            balance = amount
+        }
+    }
+
+    def "Encodes same payload as standard signer"() {
+        setup:
+        ExtrinsicContext context = ExtrinsicContext.newBuilder()
+                .runtime(3, 0x12)
+                .genesis(GENESIS)
+                .nonce(7)
+                .build()
+        def bulk = new BulkSigner<>(new BalanceTransferWriter(), context)
+        when:
+        def act = bulk.getPayload(transfer(DotAmount.fromDots(300)), 7, null)
+        then:
+        Hex.encodeHexString(act) == "0500008eaf04151687736326c9fea17e25fc5287613693c912909cb226aa4794f26a480b0030ef7dba02001c0012000000030000004c0bdd177c17ca145ad9a3e76d092d4d4baa8add4fa8c78cc2fbbf8e3cbd51224c0bdd177c17ca145ad9a3e76d092d4d4baa8add4fa8c78cc2fbbf8e3cbd5122"
+        act == signer.getPayload(context, transfer(DotAmount.fromDots(300)), false)
+    }
+
+    def "Encodes payload for nonce and tip"() {
+        setup:
+        ExtrinsicContext template = ExtrinsicContext.newBuilder()
+                .runtime(4, 25)
+                .genesis(GENESIS)
+                .era(era)
+                .eraBlockHash(Hash256.from("0xc4c5f0b6fa8c0a6e4d3b0e2b1f7a2c56d4e6a9a8b7c6d5e4f3a2b1c0d9e8f7a6"))
+                .tip(DotAmount.fromPlancks(5))
+                .build()
+        def bulk = new BulkSigner<>(new BalanceTransferWriter(), template)
+        ExtrinsicContext expected = ExtrinsicContext.newBuilder()
+                .runtime(4, 25)
+                .genesis(GENESIS)
+                .era(era)
+                .eraBlockHash(Hash256.from("0xc4c5f0b6fa8c0a6e4d3b0e2b1f7a2c56d4e6a9a8b7c6d5e4f3a2b1c0d9e8f7a6"))
+                .tip(tip == null ? DotAmount.fromPlancks(5) : tip)
+                .nonce(nonce)
+                .build()
+        when:
+        def act = bulk.getPayload(transfer(1234), nonce, tip)
+        then:
+        act == signer.getPayload(expected, transfer(1234), false)
+        where:
+        nonce                  | tip                         | era
+        0                      | null                        | Era.IMMORTAL
+        63                     | null                        | Era.IMMORTAL
+        64                     | DotAmount.fromPlancks(0)    | Era.IMMORTAL
+        16383                  | DotAmount.fromPlancks(1000) | new Era.Mortal(64, 12)
+        16384                  | null                        | new Era.Mortal(32768, 20000)
+        (1L << 30) - 1         | null                        | Era.IMMORTAL
+        1L << 30               | DotAmount.fromDots(1)       | Era.IMMORTAL
+        Integer.MAX_VALUE + 1L | null                        | new Era.Mortal(64, 12)
+    }
+
+    def "Hashes long payload"() {
+        setup:
+        ScaleWriter<BalanceTransfer> longCall = { ScaleCodecWriter wrt, BalanceTransfer call ->
+            wrt.writeByteArray(new byte[300])
+        } as ScaleWriter<BalanceTransfer>
+        ExtrinsicContext context = ExtrinsicContext.newBuilder()
+                .runtime(3, 0x12)
+                .genesis(GENESIS)
+                .nonce(10)
+                .build()
+        def bulk = new BulkSigner<>(longCall, context)
+        when:
+        def act = bulk.getPayload(transfer(1), 10, null)
+        then:
+        act.length == 32
+        act == new ExtrinsicSigner<>(longCall).getPayload(context, transfer(1), false)
+    }
+
+    def "Sign nothing"() {
+        setup:
+        def bulk = new BulkSigner<>(new BalanceTransferWriter(), ExtrinsicContext.newBuilder().genesis(GENESIS).build())
+        when:
+        def act = bulk.signAll([], 0, null)
+        then:
+        act.isEmpty()
+    }
+
+    def "Sign all with sequential nonces"() {
+        setup:
+        def key = Schnorrkel.getInstance().generateKeyPair()
+        def sender = new Address(BOB.network, key.publicKey)
+        ExtrinsicContext template = ExtrinsicContext.newBuilder()
+                .runtime(3, 0x12)
+                .genesis(GENESIS)
+                .build()
+        def bulk = new BulkSigner<>(new BalanceTransferWriter(), template)
+        def calls = (1..300).collect { transfer(it) }
+        when:
+        def act = bulk.signAll(calls, 100, key)
+        then:
+        act.size() == 300
+        calls.indexed().every { i, call ->
+            def context = ExtrinsicContext.newBuilder().runtime(3, 0x12).genesis(GENESIS).nonce(100 + i).build()
+            signer.isValid(context, call, new Extrinsic.SR25519Signature(act[i]), sender)
+        }
+    }
+}
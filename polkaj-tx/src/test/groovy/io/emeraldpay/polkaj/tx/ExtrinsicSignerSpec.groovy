@@ -1,5 +1,6 @@
 package io.emeraldpay.polkaj.tx
 
+import io.emeraldpay.polkaj.scale.ScaleCodecWriter
 import io.emeraldpay.polkaj.scaletypes.BalanceTransfer
 import io.emeraldpay.polkaj.scaletypes.BalanceTransferWriter
 import io.emeraldpay.polkaj.scaletypes.Extrinsic
@@ -175,4 +176,26 @@ class ExtrinsicSignerSpec extends Specification {
         then:
         valid
     }
+
+    def "Payload writer encodes call as list with encodeCall"() {
+        setup:
+        def writer = new ExtrinsicSigner.SignaturePayloadWriter<BalanceTransfer>(new BalanceTransferWriter(), true) {
+            @Override
+            protected byte[] encodeCall(BalanceTransfer call) throws IOException {
+                return [1, 2, 3] as byte[]
+            }
+        }
+        ExtrinsicContext context = ExtrinsicContext.newBuilder()
+                .runtime(3, 0x12)
+                .genesis(Hash256.from("0x4c0bdd177c17ca145ad9a3e76d092d4d4baa8add4fa8c78cc2fbbf8e3cbd5122"))
+                .nonce(7)
+                .build()
+        when:
+        def buf = new ByteArrayOutputStream()
+        new ScaleCodecWriter(buf).withCloseable {
+            it.write(writer, new ExtrinsicSigner.SignaturePayload<>(context, new BalanceTransfer(5, 0)))
+        }
+        then:
+        Hex.encodeHexString(buf.toByteArray()) == "0c010203001c0012000000030000004c0bdd177c17ca145ad9a3e76d092d4d4baa8add4fa8c78cc2fbbf8e3cbd51224c0bdd177c17ca145ad9a3e76d092d4d4baa8add4fa8c78cc2fbbf8e3cbd5122"
+    }
 }
@@ -0,0 +1,243 @@
+package io.emeraldpay.polkaj.tx
+
+import io.emeraldpay.polkaj.api.PolkadotApi
+import io.emeraldpay.polkaj.api.PolkadotMethod
+import io.emeraldpay.polkaj.api.RpcCall
+import io.emeraldpay.polkaj.api.RpcException
+import io.emeraldpay.polkaj.api.Subscription
+import io.emeraldpay.polkaj.json.RuntimeVersionJson
+import io.emeraldpay.polkaj.types.Address
+import io.emeraldpay.polkaj.types.ByteData
+import io.emeraldpay.polkaj.types.Hash256
+import spock.lang.Specification
+
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.Executors
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.function.Consumer
+
+class ExtrinsicSubmitterSpec extends Specification {
+
+    static final Hash256 GENESIS = Hash256.from("0x4c0bdd177c17ca145ad9a3e76d092d4d4baa8add4fa8c78cc2fbbf8e3cbd5122")
+    static final Hash256 TX = Hash256.from("0x9b2e4ac6e5a8efee3ac6c5f5de60f4f1c7d30ceba60d4e7cf3cd54b3a1f7c104")
+    static final Address ALICE = Address.from("5GrwvaEF5zXb26Fz9rcQpDWS57CtERHpNehXCPcNoHGKutQY")
+    static final Address BOB = Address.from("5FHneW46xGXgs5mUiveU4sbTyGBzmstUspZC92UhjJM694ty")
+
+    static class TestSubscription implements Subscription<RuntimeVersionJson> {
+        Consumer handler
+        boolean closed = false
+
+        @Override
+        void handler(Consumer<? extends Event<? extends RuntimeVersionJson>> handler) {
+            this.handler = handler
+        }
+
+        @Override
+        void close() {
+            closed = true
+        }
+
+        void send(int specVersion) {
+            handler.accept(new Subscription.Event("state_runtimeVersion", runtime(specVersion)))
+        }
+    }
+
+    static RuntimeVersionJson runtime(int specVersion) {
+        new RuntimeVersionJson().tap {
+            setTransactionVersion(4)
+            setSpecVersion(specVersion)
+        }
+    }
+
+    static ExtrinsicRequest request(long nonce) {
+        return { -> new ByteData([(byte) nonce] as byte[]) } as ExtrinsicRequest
+    }
+
+    Map<String, AtomicInteger> calls = [:].withDefault { new AtomicInteger() }
+    Map<Address, Integer> nextIndex = [(ALICE): 5, (BOB): 100]
+    ConcurrentLinkedQueue<ByteData> submitted = new ConcurrentLinkedQueue<>()
+    Closure<CompletableFuture> onSubmit = { ByteData data -> CompletableFuture.completedFuture(TX) }
+    TestSubscription subscription = new TestSubscription()
+
+    PolkadotApi api = Stub(PolkadotApi) {
+        execute(_) >> { args ->
+            RpcCall call = args[0]
+            calls[call.method].incrementAndGet()
+            switch (call.method) {
+                case PolkadotMethod.CHAIN_GET_BLOCK_HASH:
+                    return CompletableFuture.completedFuture(GENESIS)
+                case PolkadotMethod.STATE_GET_RUNTIME_VERSION:
+                    return CompletableFuture.completedFuture(runtime(100))
+                case PolkadotMethod.ACCOUNT_NEXT_INDEX:
+                    return CompletableFuture.completedFuture(nextIndex[call.params[0] as Address])
+                case PolkadotMethod.AUTHOR_SUBMIT_EXTRINSIC:
+                    ByteData data = call.params[0] as ByteData
+                    submitted << data
+                    return onSubmit(data)
+            }
+            throw new IllegalArgumentException(call.method)
+        }
+        subscribe(_) >> CompletableFuture.completedFuture(subscription)
+    }
+
+    ExtrinsicSubmitter submitter = ExtrinsicSubmitter.newBuilder()
+            .api(api)
+            .build()
+
+    def cleanup() {
+        submitter.close()
+    }
+
+    def "Allocates nonces locally"() {
+        setup:
+        List<ExtrinsicContext> contexts = []
+        when:
+        def hashes = (1..3).collect {
+            submitter.submit(ALICE, { ctx -> contexts << ctx; request(ctx.nonce) }).get()
+        }
+        then:
+        hashes == [TX, TX, TX]
+        contexts*.nonce == [5L, 6L, 7L]
+        contexts.every { it.genesis == GENESIS && it.eraBlockHash == GENESIS && it.runtimeVersion == 100 && it.txVersion == 4 }
+        submitted as List == [new ByteData([5] as byte[]), new ByteData([6] as byte[]), new ByteData([7] as byte[])]
+        calls[PolkadotMethod.CHAIN_GET_BLOCK_HASH].get() == 1
+        calls[PolkadotMethod.STATE_GET_RUNTIME_VERSION].get() == 1
+        calls[PolkadotMethod.ACCOUNT_NEXT_INDEX].get() == 1
+    }
+
+    def "Keeps nonce per sender"() {
+        setup:
+        List<Long> alice = []
+        List<Long> bob = []
+        when:
+        submitter.submit(ALICE, { ctx -> alice << ctx.nonce; request(ctx.nonce) }).get()
+        submitter.submit(BOB, { ctx -> bob << ctx.nonce; request(ctx.nonce) }).get()
+        submitter.submit(ALICE, { ctx -> alice << ctx.nonce; request(ctx.nonce) }).get()
+        submitter.submit(BOB, { ctx -> bob << ctx.nonce; request(ctx.nonce) }).get()
+        then:
+        alice == [5L, 6L]
+        bob == [100L, 101L]
+        calls[PolkadotMethod.ACCOUNT_NEXT_INDEX].get() == 2
+    }
+
+    def "Allocates unique nonces in parallel"() {
+        setup:
+        def executor = Executors.newFixedThreadPool(4)
+        def parallel = ExtrinsicSubmitter.newBuilder()
+                .api(api)
+                .executor(executor)
+                .build()
+        def nonces = new ConcurrentLinkedQueue<Long>()
+        when:
+        def all = (1..200).collect {
+            parallel.submit(ALICE, { ctx -> nonces << ctx.nonce; request(ctx.nonce) })
+        }
+        CompletableFuture.allOf(all as CompletableFuture[]).get()
+        then:
+        nonces.sort() == (5L..204L).toList()
+        submitted.size() == 200
+        cleanup:
+        parallel.close()
+        executor.shutdownNow()
+    }
+
+    def "Updates runtime version from subscription"() {
+        setup:
+        List<ExtrinsicContext> contexts = []
+        when:
+        submitter.submit(ALICE, { ctx -> contexts << ctx; request(ctx.nonce) }).get()
+        subscription.send(101)
+        submitter.submit(ALICE, { ctx -> contexts << ctx; request(ctx.nonce) }).get()
+        then:
+        contexts*.runtimeVersion == [100, 101]
+        contexts*.nonce == [5L, 6L]
+        calls[PolkadotMethod.STATE_GET_RUNTIME_VERSION].get() == 1
+    }
+
+    def "Resyncs nonce after rejected extrinsic"() {
+        setup:
+        List<Long> nonces = []
+        when:
+        submitter.submit(ALICE, { ctx -> nonces << ctx.nonce; request(ctx.nonce) }).get()
+        onSubmit = { ByteData data ->
+            CompletableFuture.failedFuture(new RpcException(1010, "Invalid Transaction", "Transaction is outdated"))
+        }
+        submitter.submit(ALICE, { ctx -> nonces << ctx.nonce; request(ctx.nonce) }).get()
+        then:
+        def e = thrown(ExecutionException)
+        e.cause instanceof RpcException
+        when:
+        onSubmit = { ByteData data -> CompletableFuture.completedFuture(TX) }
+        nextIndex[ALICE] = 9
+        def act = submitter.submit(ALICE, { ctx -> nonces << ctx.nonce; request(ctx.nonce) }).get()
+        then:
+        act == TX
+        nonces == [5L, 6L, 9L]
+        calls[PolkadotMethod.ACCOUNT_NEXT_INDEX].get() == 2
+        // the runtime version is still watched, so it's not fetched again
+        calls[PolkadotMethod.STATE_GET_RUNTIME_VERSION].get() == 1
+    }
+
+    def "Fetches runtime again after failure when not watched"() {
+        setup:
+        def unwatched = ExtrinsicSubmitter.newBuilder()
+                .api(api)
+                .watchRuntime(false)
+                .build()
+        when:
+        onSubmit = { ByteData data ->
+            CompletableFuture.failedFuture(new RpcException(1010, "Invalid Transaction"))
+        }
+        unwatched.submit(ALICE, { ctx -> request(ctx.nonce) }).get()
+        then:
+        thrown(ExecutionException)
+        when:
+        onSubmit = { ByteData data -> CompletableFuture.completedFuture(TX) }
+        unwatched.submit(ALICE, { ctx -> request(ctx.nonce) }).get()
+        then:
+        calls[PolkadotMethod.STATE_GET_RUNTIME_VERSION].get() == 2
+        subscription.handler == null
+        cleanup:
+        unwatched.close()
+    }
+
+    def "Fails with sign error"() {
+        when:
+        submitter.submit(ALICE, { ctx -> throw new SignException("Test") }).get()
+        then:
+        def e = thrown(ExecutionException)
+        e.cause instanceof SignException
+        submitted.isEmpty()
+    }
+
+    def "Provides shared context"() {
+        when:
+        def act = submitter.getContext().get()
+        then:
+        act.genesis == GENESIS
+        act.runtimeVersion == 100
+        act.nonce == 0
+    }
+
+    def "Closes subscription"() {
+        when:
+        submitter.getContext().get()
+        submitter.close()
+        then:
+        subscription.closed
+        when:
+        submitter.submit(ALICE, { ctx -> request(ctx.nonce) }).get()
+        then:
+        def e = thrown(ExecutionException)
+        e.cause instanceof IllegalStateException
+    }
+
+    def "Requires api"() {
+        when:
+        ExtrinsicSubmitter.newBuilder().build()
+        then:
+        thrown(IllegalStateException)
+    }
+}
@@ -1,6 +1,8 @@
 package io.emeraldpay.polkaj.tx
 
+import io.emeraldpay.polkaj.scaletypes.Metadata
 import io.emeraldpay.polkaj.types.Address
+import net.openhft.hashing.LongHashFunction
 import org.apache.commons.codec.binary.Hex
 import spock.lang.Specification
 
@@ -29,6 +31,14 @@ class HashingSpec extends Specification {
         "2e3fb4c297a84c5cebc0e78257d213d0927ccc7596044c6ba013dd05522aacba"  | "d43593c715fdd31c61141abd04a99fd6822c8558854ccde39a5684e7a56da27d"
     }
 
+    def "hash part of array with blake2"() {
+        when:
+        def value = Hex.decodeHex("ff" + "d43593c715fdd31c61141abd04a99fd6822c8558854ccde39a5684e7a56da27d" + "ff")
+        def act = Hashing.blake2(value, 1, 32)
+        then:
+        Hex.encodeHexString(act) == "2e3fb4c297a84c5cebc0e78257d213d0927ccc7596044c6ba013dd05522aacba"
+    }
+
     def "hash address with blake2"() {
         expect:
         ByteBuffer buf = ByteBuffer.allocate(32)
@@ -59,4 +69,71 @@ class HashingSpec extends Specification {
         then:
         act == "5c0d1176a568c1f92944340dbfed9e9c" + "2e3fb4c297a84c5cebc0e78257d213d0927ccc7596044c6ba013dd05522aacba" + "762b7694480fb50358c23ab18950158b"
     }
+
+    def "hash bytes with xxhash"() {
+        when:
+        ByteBuffer buf = ByteBuffer.allocate(16)
+        Hashing.xxhash128(buf, "Sudo".bytes)
+        then:
+        Hex.encodeHexString(buf.flip().array()) == "5c0d1176a568c1f92944340dbfed9e9c"
+    }
+
+    def "hash with xxhash 64 and 256"() {
+        setup:
+        def value = Hex.decodeHex("d43593c715fdd31c61141abd04a99fd6822c8558854ccde39a5684e7a56da27d")
+        def expected = (0..3).collect {
+            ByteBuffer.allocate(8).order(java.nio.ByteOrder.LITTLE_ENDIAN).putLong(LongHashFunction.xx(it).hashBytes(value)).array()
+        }
+        when:
+        ByteBuffer buf64 = ByteBuffer.allocate(8)
+        Hashing.xxhash64(buf64, value)
+        ByteBuffer buf256 = ByteBuffer.allocate(32)
+        Hashing.xxhash256(buf256, value)
+        then:
+        buf64.array() == expected[0]
+        buf256.array() == expected.collectMany { it as List } as byte[]
+    }
+
+    def "hash with blake2 into direct buffer"() {
+        when:
+        ByteBuffer buf = ByteBuffer.allocateDirect(48)
+        buf.position(16)
+        Hashing.blake2(buf, Hex.decodeHex("d43593c715fdd31c61141abd04a99fd6822c8558854ccde39a5684e7a56da27d"))
+        byte[] act = new byte[32]
+        buf.position(16)
+        buf.get(act)
+        then:
+        Hex.encodeHexString(act) == "2e3fb4c297a84c5cebc0e78257d213d0927ccc7596044c6ba013dd05522aacba"
+    }
+
+    def "hash with blake2 128 into slice"() {
+        when:
+        ByteBuffer buf = ByteBuffer.allocate(24)
+        buf.position(4)
+        ByteBuffer slice = buf.slice()
+        Hashing.blake2128(slice, Address.from("1WG3jyNqniQMRZGQUc7QD2kVLT8hkRPGMSqAb5XYQM1UDxN"))
+        then:
+        slice.position() == 16
+        Hex.encodeHexString(Arrays.copyOfRange(buf.array(), 4, 20)) == "762b7694480fb50358c23ab18950158b"
+    }
+
+    def "hash with storage hasher"() {
+        setup:
+        def value = Address.from("1WG3jyNqniQMRZGQUc7QD2kVLT8hkRPGMSqAb5XYQM1UDxN").pubkey
+        when:
+        ByteBuffer buf = ByteBuffer.allocate(Hashing.hashLength(hasher, value.length))
+        Hashing.hash(hasher, buf, value)
+        then:
+        !buf.hasRemaining()
+        Hex.encodeHexString(buf.array()).startsWith(prefix)
+        where:
+        hasher                                  | prefix
+        Metadata.Storage.Hasher.BLAKE2_128      | "762b7694480fb50358c23ab18950158b"
+        Metadata.Storage.Hasher.BLAKE2_256_CONCAT | "762b7694480fb50358c23ab18950158b1650c532ed1a8641e8922aa24ade0ff411d03edd9ed1c6b7fe42f1a801cee37c"
+        Metadata.Storage.Hasher.IDENTITY        | "1650c532ed1a8641e8922aa24ade0ff411d03edd9ed1c6b7fe42f1a801cee37c"
+        Metadata.Storage.Hasher.BLAKE2_256      | ""
+        Metadata.Storage.Hasher.TWOX_128        | ""
+        Metadata.Storage.Hasher.TWOX_256        | ""
+        Metadata.Storage.Hasher.TWOX_64_CONCAT  | ""
+    }
 }
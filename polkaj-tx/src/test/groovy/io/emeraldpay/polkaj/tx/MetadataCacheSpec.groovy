@@ -0,0 +1,200 @@
+package io.emeraldpay.polkaj.tx
+
+import io.emeraldpay.polkaj.api.PolkadotApi
+import io.emeraldpay.polkaj.api.StandardCommands
+import io.emeraldpay.polkaj.api.StandardSubscriptions
+import io.emeraldpay.polkaj.api.Subscription
+import io.emeraldpay.polkaj.json.RuntimeVersionJson
+import io.emeraldpay.polkaj.scaletypes.Metadata
+import io.emeraldpay.polkaj.scaletypes.MetadataReader
+import io.emeraldpay.polkaj.types.ByteData
+import io.emeraldpay.polkaj.types.Hash256
+import org.apache.commons.codec.binary.Hex
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.nio.file.Path
+import java.util.concurrent.CompletableFuture
+import java.util.function.Consumer
+
+class MetadataCacheSpec extends Specification {
+
+    // single module "Test" with index 5 and one call "go"
+    static final String METADATA = "0x6d6574610c04105465737400010408676f000000000005"
+    static final Hash256 GENESIS = Hash256.from("0x4c0bdd177c17ca145ad9a3e76d092d4d4baa8add4fa8c78cc2fbbf8e3cbd5122")
+
+    Path dir
+
+    def setup() {
+        dir = Files.createTempDirectory("polkaj-metadata")
+    }
+
+    def cleanup() {
+        dir.toFile().deleteDir()
+    }
+
+    def "Fetch and store when not cached"() {
+        setup:
+        def api = Mock(PolkadotApi) {
+            1 * execute(StandardCommands.getInstance().getBlockHash(0)) >> CompletableFuture.completedFuture(GENESIS)
+            1 * execute(StandardCommands.getInstance().getRuntimeVersion()) >> CompletableFuture.completedFuture(
+                    new RuntimeVersionJson().tap { setSpecVersion(2025) }
+            )
+            1 * execute(StandardCommands.getInstance().stateMetadata()) >> CompletableFuture.completedFuture(ByteData.from(METADATA))
+        }
+        def cache = MetadataCache.newBuilder().directory(dir).build()
+        when:
+        def act = cache.get(api).get()
+        then:
+        act.findCall("Test", "go").get().index == 0x0500
+        Files.readAllBytes(dir.resolve(GENESIS.toString().substring(2) + "-2025.scale")) == ByteData.from(METADATA).bytes
+    }
+
+    def "Fetch when failed to store to #name"() {
+        setup:
+        def api = Mock(PolkadotApi) {
+            2 * execute(StandardCommands.getInstance().getBlockHash(0)) >> CompletableFuture.completedFuture(GENESIS)
+            2 * execute(StandardCommands.getInstance().getRuntimeVersion()) >> CompletableFuture.completedFuture(
+                    new RuntimeVersionJson().tap { setSpecVersion(2025) }
+            )
+            1 * execute(StandardCommands.getInstance().stateMetadata()) >> CompletableFuture.completedFuture(ByteData.from(METADATA))
+        }
+        Path target = directory(dir)
+        def cache = MetadataCache.newBuilder().directory(target).build()
+        when:
+        def act = cache.get(api).get()
+        then:
+        act.findCall("Test", "go").get().index == 0x0500
+        when: "kept in memory"
+        def second = cache.get(api).get()
+        then:
+        second.is(act)
+        cleanup:
+        dir.toFile().setWritable(true)
+        where:
+        name                  | directory
+        // ignored when run as root
+        "read-only directory" | { Path dir -> dir.toFile().setWritable(false); dir }
+        // a file at the place of the directory, so it cannot be created
+        "blocked directory"   | { Path dir -> Files.write(dir.resolve("file"), [1] as byte[]); dir.resolve("file").resolve("cache") }
+    }
+
+    def "Load from disk without fetching metadata"() {
+        setup:
+        MetadataCache.newBuilder().directory(dir).build()
+                .store(GENESIS, 2025, ByteData.from(METADATA).bytes)
+        def api = Mock(PolkadotApi) {
+            1 * execute(StandardCommands.getInstance().getBlockHash(0)) >> CompletableFuture.completedFuture(GENESIS)
+            1 * execute(StandardCommands.getInstance().getRuntimeVersion()) >> CompletableFuture.completedFuture(
+                    new RuntimeVersionJson().tap { setSpecVersion(2025) }
+            )
+            0 * execute(StandardCommands.getInstance().stateMetadata())
+        }
+        def cache = MetadataCache.newBuilder().directory(dir).build()
+        when:
+        def act = cache.get(api).get()
+        then:
+        act.findCall("Test", "go").get().index == 0x0500
+    }
+
+    def "Keep in memory for same version"() {
+        setup:
+        def api = Mock(PolkadotApi) {
+            1 * execute(StandardCommands.getInstance().stateMetadata()) >> CompletableFuture.completedFuture(ByteData.from(METADATA))
+        }
+        def cache = MetadataCache.newBuilder().directory(dir).build()
+        when:
+        def first = cache.get(api, GENESIS, 2025).get()
+        Files.delete(dir.resolve(GENESIS.toString().substring(2) + "-2025.scale"))
+        def second = cache.get(api, GENESIS, 2025).get()
+        then:
+        first.is(second)
+    }
+
+    def "Use provided reader"() {
+        setup:
+        def cache = MetadataCache.newBuilder()
+                .directory(dir)
+                .reader(new MetadataReader())
+                .build()
+        cache.store(GENESIS, 2025, ByteData.from(METADATA).bytes)
+        when:
+        def act = cache.load(GENESIS, 2025)
+        then:
+        act.isPresent()
+        act.get().class == Metadata
+        act.get().modules.size() == 1
+    }
+
+    def "Empty when not stored"() {
+        setup:
+        def cache = MetadataCache.newBuilder().directory(dir).build()
+        when:
+        def act = cache.load(GENESIS, 2025)
+        then:
+        !act.isPresent()
+    }
+
+    def "Delete broken file"() {
+        setup:
+        def cache = MetadataCache.newBuilder().directory(dir).build()
+        cache.store(GENESIS, 2025, Hex.decodeHex("6d657461"))
+        def file = dir.resolve(GENESIS.toString().substring(2) + "-2025.scale")
+        when:
+        def act = cache.load(GENESIS, 2025)
+        then:
+        !act.isPresent()
+        !Files.exists(file)
+    }
+
+    def "Replace previous version on store"() {
+        setup:
+        def cache = MetadataCache.newBuilder().directory(dir).build()
+        def other = Hash256.from("0x91b171bb158e2d3848fa23a9f1c25182fb8e20313b2c1eb49219da7a70ce90c3")
+        when:
+        cache.store(GENESIS, 2024, ByteData.from(METADATA).bytes)
+        cache.store(other, 30, ByteData.from(METADATA).bytes)
+        cache.store(GENESIS, 2025, ByteData.from(METADATA).bytes)
+        then:
+        !cache.load(GENESIS, 2024).isPresent()
+        cache.load(GENESIS, 2025).isPresent()
+        cache.load(other, 30).isPresent()
+        Files.list(dir).count() == 2
+    }
+
+    def "Invalidate on runtime upgrade"() {
+        setup:
+        Consumer<Subscription.Event<RuntimeVersionJson>> listener = null
+        def subscription = Mock(Subscription) {
+            1 * handler(_) >> { args -> listener = args[0] }
+        }
+        def updates = []
+        def api = Mock(PolkadotApi) {
+            2 * execute(StandardCommands.getInstance().stateMetadata()) >> CompletableFuture.completedFuture(ByteData.from(METADATA))
+            1 * subscribe(StandardSubscriptions.getInstance().runtimeVersion()) >> CompletableFuture.completedFuture(subscription)
+        }
+        def cache = MetadataCache.newBuilder()
+                .directory(dir)
+                .onUpdate({ updates << it })
+                .build()
+        cache.watch(api).get()
+        def first = cache.get(api, GENESIS, 2025).get()
+        when:
+        listener.accept(new Subscription.Event("state_runtimeVersion", new RuntimeVersionJson().tap { setSpecVersion(2025) }))
+        then:
+        cache.get(api, GENESIS, 2025).get().is(first)
+        when:
+        listener.accept(new Subscription.Event("state_runtimeVersion", new RuntimeVersionJson().tap { setSpecVersion(2026) }))
+        def act = cache.get(api, GENESIS, 2026).get()
+        then:
+        !act.is(first)
+        updates.size() == 2
+    }
+
+    def "Directory is required"() {
+        when:
+        MetadataCache.newBuilder().build()
+        then:
+        thrown(IllegalStateException)
+    }
+}
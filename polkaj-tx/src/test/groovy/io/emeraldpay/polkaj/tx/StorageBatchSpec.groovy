@@ -0,0 +1,160 @@
+package io.emeraldpay.polkaj.tx
+
+import io.emeraldpay.polkaj.api.PolkadotApi
+import io.emeraldpay.polkaj.api.PolkadotMethod
+import io.emeraldpay.polkaj.api.RpcCall
+import io.emeraldpay.polkaj.api.RpcException
+import io.emeraldpay.polkaj.api.StandardCommands
+import io.emeraldpay.polkaj.json.StorageChangeSetJson
+import io.emeraldpay.polkaj.scaletypes.AccountInfo
+import io.emeraldpay.polkaj.ss58.SS58Type
+import io.emeraldpay.polkaj.types.Address
+import io.emeraldpay.polkaj.types.ByteData
+import io.emeraldpay.polkaj.types.Hash256
+import spock.lang.Specification
+
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ExecutionException
+
+class StorageBatchSpec extends Specification {
+
+    // 1,000,000.00 Dot, nonce = 1
+    static final ByteData ACCOUNT = ByteData.from("0x0100000000000000000000000000000019e4759db3b6e00d0000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000")
+    static final Hash256 BLOCK = Hash256.from("0x4c0bdd177c17ca145ad9a3e76d092d4d4baa8add4fa8c78cc2fbbf8e3cbd5122")
+
+    List<Address> addresses = (1..10).collect {
+        byte[] pubkey = new byte[32]
+        pubkey[0] = it
+        new Address(SS58Type.Network.LIVE, pubkey)
+    }
+
+    static StorageChangeSetJson changes(Hash256 block, Map<ByteData, ByteData> values) {
+        new StorageChangeSetJson(
+                block: block,
+                changes: values.collect { k, v -> new StorageChangeSetJson.KeyValueOption(key: k, data: v) }
+        )
+    }
+
+    def "Execute in chunks at the same block"() {
+        setup:
+        def requests = addresses.collect { AccountRequests.balanceOf(it) }
+        def calls = []
+        def api = Mock(PolkadotApi) {
+            1 * execute(StandardCommands.getInstance().getBlockHash()) >> CompletableFuture.completedFuture(BLOCK)
+            4 * execute({ it.method == PolkadotMethod.STATE_QUERY_STORAGE_AT }) >> { args ->
+                RpcCall call = args[0]
+                calls << call
+                List<ByteData> keys = call.params[0]
+                // only even accounts exist
+                def values = keys.collectEntries { key ->
+                    int i = requests.findIndexOf { it.isKeyEqualTo(key) }
+                    [key, i % 2 == 0 ? ACCOUNT : null]
+                }
+                CompletableFuture.completedFuture([changes(BLOCK, values)])
+            }
+        }
+        def batch = StorageBatch.newBuilder().chunkSize(3).parallelism(2).build()
+        when:
+        List<AccountInfo> act = batch.execute(api, requests).get()
+        then:
+        act.size() == 10
+        act.eachWithIndex { AccountInfo entry, int i ->
+            if (i % 2 == 0) {
+                assert entry.nonce == 1
+            } else {
+                assert entry == null
+            }
+        }
+        calls.every { it.params[1] == BLOCK }
+        calls.collect { it.params[0].size() }.sort() == [1, 3, 3, 3]
+    }
+
+    def "Single chunk without block"() {
+        setup:
+        def requests = addresses.take(2).collect { AccountRequests.balanceOf(it) }
+        def api = Mock(PolkadotApi) {
+            0 * execute(StandardCommands.getInstance().getBlockHash())
+            1 * execute({ it.method == PolkadotMethod.STATE_QUERY_STORAGE_AT && it.params.length == 1 }) >>
+                    CompletableFuture.completedFuture([changes(BLOCK, [(requests[1].encodeRequest()): ACCOUNT])])
+        }
+        def batch = StorageBatch.newBuilder().build()
+        when:
+        def act = batch.execute(api, requests).get()
+        then:
+        act[0] == null
+        act[1].nonce == 1
+    }
+
+    def "Query duplicate keys once"() {
+        setup:
+        def requests = [addresses[0], addresses[1], addresses[0]].collect { AccountRequests.balanceOf(it) }
+        List<ByteData> queried = null
+        def api = Mock(PolkadotApi) {
+            1 * execute({ it.method == PolkadotMethod.STATE_QUERY_STORAGE_AT }) >> { args ->
+                queried = args[0].params[0]
+                CompletableFuture.completedFuture([changes(BLOCK, [(requests[0].encodeRequest()): ACCOUNT])])
+            }
+        }
+        def batch = StorageBatch.newBuilder().build()
+        when:
+        def act = batch.execute(api, requests, BLOCK).get()
+        then:
+        queried.size() == 2
+        act[0].nonce == 1
+        act[1] == null
+        act[2].nonce == 1
+    }
+
+    def "Results by key"() {
+        setup:
+        def requests = addresses.take(3).collect { AccountRequests.balanceOf(it) }
+        def api = Mock(PolkadotApi) {
+            1 * execute({ it.method == PolkadotMethod.STATE_QUERY_STORAGE_AT }) >>
+                    CompletableFuture.completedFuture([changes(BLOCK, [(requests[2].encodeRequest()): ACCOUNT])])
+        }
+        def batch = StorageBatch.newBuilder().build()
+        when:
+        def act = batch.executeByKey(api, requests, BLOCK).get()
+        then:
+        act.keySet().toList() == requests.collect { it.encodeRequest() }
+        act[requests[0].encodeRequest()] == null
+        act[requests[2].encodeRequest()].nonce == 1
+    }
+
+    def "Empty requests"() {
+        setup:
+        def api = Mock(PolkadotApi)
+        def batch = StorageBatch.newBuilder().build()
+        when:
+        def act = batch.execute(api, []).get()
+        then:
+        act.isEmpty()
+        0 * api._
+    }
+
+    def "Stop on error"() {
+        setup:
+        def requests = addresses.collect { AccountRequests.balanceOf(it) }
+        def api = Mock(PolkadotApi) {
+            1 * execute({ it.method == PolkadotMethod.STATE_QUERY_STORAGE_AT }) >>
+                    CompletableFuture.failedFuture(new RpcException(-32000, "Test"))
+        }
+        def batch = StorageBatch.newBuilder().chunkSize(2).parallelism(1).build()
+        when:
+        batch.execute(api, requests, BLOCK).get()
+        then:
+        def e = thrown(ExecutionException)
+        e.cause instanceof RpcException
+    }
+
+    def "Invalid config"() {
+        when:
+        StorageBatch.newBuilder().chunkSize(0)
+        then:
+        thrown(IllegalArgumentException)
+        when:
+        StorageBatch.newBuilder().parallelism(0)
+        then:
+        thrown(IllegalArgumentException)
+    }
+}
@@ -0,0 +1,105 @@
+package io.emeraldpay.polkaj.tx
+
+import io.emeraldpay.polkaj.scaletypes.Metadata
+import io.emeraldpay.polkaj.types.Address
+import io.emeraldpay.polkaj.types.ByteData
+import nl.jqno.equalsverifier.EqualsVerifier
+import org.apache.commons.codec.binary.Hex
+import spock.lang.Specification
+
+import java.nio.ByteBuffer
+
+class StorageKeySpec extends Specification {
+
+    def "Encode plain key"() {
+        when:
+        def act = StorageKey.plain("Balances", "TotalIssuance").encode()
+        then:
+        act == ByteData.from("0xc2261276cc9d1f8598ea4b6a74b15c2f57c875e4cff74148e4628f264b974c80")
+    }
+
+    def "Encode map key"() {
+        setup:
+        def key = StorageKey.map("System", "Account", Metadata.Storage.Hasher.BLAKE2_256_CONCAT)
+        def address = Address.from("1WG3jyNqniQMRZGQUc7QD2kVLT8hkRPGMSqAb5XYQM1UDxN")
+        when:
+        def act = key.encode(address.pubkey)
+        then:
+        Hex.encodeHexString(act.bytes) == "26aa394eea5630e07c48ae0c9558cef7b99d880ec681799c0cf30e8886371da9762b7694480fb50358c23ab18950158b1650c532ed1a8641e8922aa24ade0ff411d03edd9ed1c6b7fe42f1a801cee37c"
+    }
+
+    def "Encode double map key"() {
+        setup:
+        def key = StorageKey.doubleMap("Staking", "ErasStakers", Metadata.Storage.Hasher.TWOX_64_CONCAT, Metadata.Storage.Hasher.TWOX_64_CONCAT)
+        def era = Hex.decodeHex("2a000000")
+        def account = Address.from("1WG3jyNqniQMRZGQUc7QD2kVLT8hkRPGMSqAb5XYQM1UDxN").pubkey
+        def expected = ByteBuffer.allocate(32 + 8 + 4 + 8 + 32)
+        Hashing.xxhash128(expected, "Staking")
+        Hashing.xxhash128(expected, "ErasStakers")
+        Hashing.xxhash64(expected, era)
+        expected.put(era)
+        Hashing.xxhash64(expected, account)
+        expected.put(account)
+        when:
+        def act = key.encode(era, account)
+        then:
+        key.length(era, account) == 84
+        act.bytes == expected.array()
+    }
+
+    def "Write multiple keys into same buffer"() {
+        setup:
+        def key = StorageKey.map("System", "Account", Metadata.Storage.Hasher.BLAKE2_256_CONCAT)
+        def addresses = [
+                Address.from("1WG3jyNqniQMRZGQUc7QD2kVLT8hkRPGMSqAb5XYQM1UDxN"),
+                Address.from("5GrwvaEF5zXb26Fz9rcQpDWS57CtERHpNehXCPcNoHGKutQY")
+        ]
+        def buf = ByteBuffer.allocate(256)
+        when:
+        def act = addresses.collect {
+            buf.clear()
+            key.write(buf, it.pubkey)
+            buf.flip()
+            byte[] value = new byte[buf.remaining()]
+            buf.get(value)
+            new ByteData(value)
+        }
+        then:
+        act == addresses.collect { key.encode(it.pubkey) }
+        act[0] == AccountRequests.balanceOf(addresses[0]).encodeRequest()
+    }
+
+    def "Create from metadata"() {
+        setup:
+        def entry = new Metadata.Storage.Entry(
+                name: "Account",
+                type: new Metadata.Storage.MapType(new Metadata.Storage.MapDefinition(
+                        hasher: Metadata.Storage.Hasher.BLAKE2_256_CONCAT, key: "T::AccountId", type: "AccountInfo"
+                ))
+        )
+        def metadata = new Metadata(modules: [
+                new Metadata.Module(name: "System", index: 0, storage: new Metadata.Storage(prefix: "System", entries: [entry]))
+        ])
+        when:
+        def act = StorageKey.find(metadata, "System", "Account")
+        then:
+        act.get() == StorageKey.map("System", "Account", Metadata.Storage.Hasher.BLAKE2_256_CONCAT)
+        act.get().keysCount == 1
+        !StorageKey.find(metadata, "System", "Other").isPresent()
+        !StorageKey.find(metadata, "Balances", "Account").isPresent()
+    }
+
+    def "Fails to write map key for plain entry"() {
+        when:
+        StorageKey.plain("Balances", "TotalIssuance").encode(new byte[4])
+        then:
+        thrown(IllegalStateException)
+    }
+
+    def "Equals"() {
+        when:
+        def v = EqualsVerifier.forClass(StorageKey)
+        then:
+        v.verify()
+    }
+}
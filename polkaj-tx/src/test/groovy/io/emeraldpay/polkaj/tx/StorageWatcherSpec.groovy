@@ -0,0 +1,275 @@
+package io.emeraldpay.polkaj.tx
+
+import io.emeraldpay.polkaj.api.PolkadotApi
+import io.emeraldpay.polkaj.api.SubscribeCall
+import io.emeraldpay.polkaj.api.Subscription
+import io.emeraldpay.polkaj.json.StorageChangeSetJson
+import io.emeraldpay.polkaj.scaletypes.AccountInfo
+import io.emeraldpay.polkaj.ss58.SS58Type
+import io.emeraldpay.polkaj.types.Address
+import io.emeraldpay.polkaj.types.ByteData
+import io.emeraldpay.polkaj.types.Hash256
+import spock.lang.Specification
+
+import java.time.Duration
+import java.util.concurrent.CompletableFuture
+import java.util.function.Consumer
+
+class StorageWatcherSpec extends Specification {
+
+    static final Hash256 BLOCK = Hash256.from("0x4c0bdd177c17ca145ad9a3e76d092d4d4baa8add4fa8c78cc2fbbf8e3cbd5122")
+
+    static class TestSubscription implements Subscription<StorageChangeSetJson> {
+        List<ByteData> keys
+        Consumer handler
+        boolean closed = false
+
+        @Override
+        void handler(Consumer<? extends Event<? extends StorageChangeSetJson>> handler) {
+            this.handler = handler
+        }
+
+        @Override
+        void close() {
+            closed = true
+        }
+
+        void send(Map<ByteData, ByteData> values) {
+            def changes = new StorageChangeSetJson(
+                    block: BLOCK,
+                    changes: values.collect { k, v -> new StorageChangeSetJson.KeyValueOption(key: k, data: v) }
+            )
+            handler.accept(new Subscription.Event("state_storage", changes))
+        }
+    }
+
+    List<TestSubscription> subscriptions = []
+    PolkadotApi api = Stub(PolkadotApi) {
+        subscribe(_) >> { args ->
+            SubscribeCall call = args[0]
+            def subscription = new TestSubscription(keys: call.params[0] as List<ByteData>)
+            subscriptions << subscription
+            CompletableFuture.completedFuture(subscription)
+        }
+    }
+
+    static ByteData key(int i) {
+        return new ByteData([(byte) i] as byte[])
+    }
+
+    StorageWatcher watcher(int maxKeys) {
+        StorageWatcher.newBuilder()
+                .api(api)
+                .maxKeys(maxKeys)
+                .flushDelay(Duration.ofMinutes(1))
+                .build()
+    }
+
+    def "Subscribe keys in shards"() {
+        setup:
+        def watcher = watcher(2)
+        when:
+        (1..5).each { watcher.watch(key(it), {}) }
+        watcher.flush().get()
+        then:
+        subscriptions*.keys == [[key(1), key(2)], [key(3), key(4)], [key(5)]]
+        watcher.keysCount == 5
+        watcher.shardsCount == 3
+        cleanup:
+        watcher.close()
+    }
+
+    def "Route changes to listeners of the key"() {
+        setup:
+        def watcher = watcher(10)
+        List<String> received = []
+        watcher.watch(key(1), { received << "a:" + it.data?.toString() })
+        watcher.watch(key(1), { received << "b:" + it.data?.toString() })
+        watcher.watch(key(2), { received << "c:" + it.data?.toString() })
+        watcher.flush().get()
+        when:
+        subscriptions[0].send([(key(1)): ByteData.from("0x01"), (key(2)): null])
+        then:
+        received == ["a:0x01", "b:0x01", "c:null"]
+        when:
+        received.clear()
+        subscriptions[0].send([(key(1)): ByteData.from("0x01"), (key(2)): ByteData.from("0x02")])
+        then:
+        // the value of the first key is not changed
+        received == ["c:0x02"]
+        cleanup:
+        watcher.close()
+    }
+
+    def "Decode values of storage request"() {
+        setup:
+        def address = new Address(SS58Type.Network.LIVE, new byte[32])
+        def request = AccountRequests.balanceOf(address)
+        def watcher = watcher(10)
+        AccountInfo received = null
+        watcher.watch(request, { received = it })
+        watcher.flush().get()
+        when:
+        subscriptions[0].send([(request.encodeRequest()): StorageBatchSpec.ACCOUNT])
+        then:
+        received.nonce == 1
+        cleanup:
+        watcher.close()
+    }
+
+    def "New listener receives the last value"() {
+        setup:
+        def watcher = watcher(10)
+        watcher.watch(key(1), {})
+        watcher.flush().get()
+        subscriptions[0].send([(key(1)): ByteData.from("0x01")])
+        ByteData received = null
+        when:
+        watcher.watch(key(1), { received = it.data })
+        watcher.flush().get()
+        then:
+        received == ByteData.from("0x01")
+        subscriptions.size() == 1
+        cleanup:
+        watcher.close()
+    }
+
+    def "Subscribe again only the changed shard"() {
+        setup:
+        def watcher = watcher(2)
+        (1..3).each { watcher.watch(key(it), {}) }
+        watcher.flush().get()
+        when:
+        watcher.watch(key(4), {})
+        watcher.flush().get()
+        then:
+        subscriptions.size() == 3
+        subscriptions[2].keys == [key(3), key(4)]
+        !subscriptions[0].closed
+        subscriptions[1].closed
+        !subscriptions[2].closed
+        cleanup:
+        watcher.close()
+    }
+
+    def "Remove key when last listener is closed"() {
+        setup:
+        def watcher = watcher(10)
+        def watch1 = watcher.watch(key(1), {})
+        def watch2 = watcher.watch(key(1), {})
+        watcher.watch(key(2), {})
+        watcher.flush().get()
+        when:
+        watch1.close()
+        watcher.flush().get()
+        then:
+        subscriptions.size() == 1
+        when:
+        watch2.close()
+        watcher.flush().get()
+        then:
+        subscriptions.size() == 2
+        subscriptions[1].keys == [key(2)]
+        subscriptions[0].closed
+        watcher.keysCount == 1
+    }
+
+    def "Close shard without keys"() {
+        setup:
+        def watcher = watcher(10)
+        def watch = watcher.watch(key(1), {})
+        watcher.flush().get()
+        when:
+        watch.close()
+        watcher.flush().get()
+        then:
+        // never subscribes with empty list, which means all keys
+        subscriptions.size() == 1
+        subscriptions[0].closed
+        watcher.shardsCount == 0
+    }
+
+    def "Fail when all shards are full"() {
+        setup:
+        def watcher = StorageWatcher.newBuilder()
+                .api(api)
+                .maxKeys(2)
+                .maxShards(2)
+                .build()
+        (1..4).each { watcher.watch(key(it), {}) }
+        when:
+        watcher.watch(key(5), {})
+        then:
+        thrown(IllegalStateException)
+        cleanup:
+        watcher.close()
+    }
+
+    def "Apply changes after delay"() {
+        setup:
+        def watcher = StorageWatcher.newBuilder()
+                .api(api)
+                .flushDelay(Duration.ofMillis(20))
+                .build()
+        when:
+        (1..3).each { watcher.watch(key(it), {}) }
+        Thread.sleep(500)
+        then:
+        subscriptions.size() == 1
+        subscriptions[0].keys == [key(1), key(2), key(3)]
+        cleanup:
+        watcher.close()
+    }
+
+    def "Retry failed subscription"() {
+        setup:
+        int calls = 0
+        def subscription = new TestSubscription()
+        def api = Stub(PolkadotApi) {
+            subscribe(_) >> {
+                calls++
+                if (calls == 1) {
+                    def f = new CompletableFuture()
+                    f.completeExceptionally(new IOException("Connection refused"))
+                    return f
+                }
+                return CompletableFuture.completedFuture(subscription)
+            }
+        }
+        def watcher = StorageWatcher.newBuilder()
+                .api(api)
+                .flushDelay(Duration.ofMillis(20))
+                .build()
+        when:
+        watcher.watch(key(1), {})
+        Thread.sleep(500)
+        then:
+        calls == 2
+        subscription.handler != null
+        cleanup:
+        watcher.close()
+    }
+
+    def "Close all subscriptions"() {
+        setup:
+        def watcher = watcher(1)
+        (1..3).each { watcher.watch(key(it), {}) }
+        watcher.flush().get()
+        when:
+        watcher.close()
+        then:
+        subscriptions.every { it.closed }
+        watcher.keysCount == 0
+        when:
+        watcher.watch(key(1), {})
+        then:
+        thrown(IllegalStateException)
+    }
+
+    def "Fail to build without api"() {
+        when:
+        StorageWatcher.newBuilder().build()
+        then:
+        thrown(IllegalStateException)
+    }
+}